@@ -0,0 +1,57 @@
+package dev.cryptorec.api.auth;
+
+import dev.cryptorec.model.exception.UnauthorizedException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Lets through only the requests carrying a configured token in their Authorization header, as "Bearer {token}" or
+ * "Token {token}". Without a configured token every request is rejected, so the protected endpoints stay closed
+ * until an operator opts in.
+ */
+public class TokenAuthInterceptor implements HandlerInterceptor {
+
+    private static final String[] SCHEMES = {"Bearer ", "Token "};
+
+    private final String realm;
+    private final byte[] token;
+
+    /**
+     * @param realm name of the protected endpoints, used in error messages
+     * @param token expected token, blank to reject every request
+     */
+    public TokenAuthInterceptor(String realm, String token) {
+        this.realm = realm;
+        this.token = token == null || token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (token == null) {
+            throw new UnauthorizedException(realm + " endpoints are disabled, no token is configured");
+        }
+        String presented = credentials(request.getHeader(HttpHeaders.AUTHORIZATION));
+        // constant-time comparison, the response time does not tell how much of the token matched
+        if (presented == null || !MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            throw new UnauthorizedException("Missing or invalid token for " + realm + " endpoints");
+        }
+        return true;
+    }
+
+    private static String credentials(String authorization) {
+        if (authorization == null) {
+            return null;
+        }
+        for (String scheme : SCHEMES) {
+            if (authorization.regionMatches(true, 0, scheme, 0, scheme.length())) {
+                return authorization.substring(scheme.length()).trim();
+            }
+        }
+        return null;
+    }
+}
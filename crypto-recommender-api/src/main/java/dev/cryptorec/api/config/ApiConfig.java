@@ -1,8 +1,24 @@
 package dev.cryptorec.api.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import dev.cryptorec.api.auth.TokenAuthInterceptor;
+import dev.cryptorec.api.latency.LatencyInterceptor;
+import dev.cryptorec.api.latency.LatencyTracker;
+import dev.cryptorec.api.latency.SlowRequestLog;
 import dev.cryptorec.api.mapper.RecommendationMapper;
+import dev.cryptorec.api.stream.LeaderboardBroadcaster;
+import dev.cryptorec.service.Leaderboard;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Clock;
+import java.time.Duration;
 
 /**
  * Configuration class for API module.
@@ -20,5 +36,102 @@ public class ApiConfig {
     public RecommendationMapper recommendationMapper() {
         return new RecommendationMapper();
     }
-}
 
+    /**
+     * Creates the CBOR message converter used when clients send Accept: application/cbor.
+     * It shares the Boot-configured Jackson settings of the JSON converter, so both encodings carry the same
+     * properties; registered as a bean it is added to the MVC converters next to JSON.
+     *
+     * @param builder Boot-configured Jackson builder
+     * @return CBOR message converter
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false)
+                .factory(new CBORFactory())
+                .build());
+    }
+
+    /**
+     * Creates the broadcaster of leaderboard updates to the event stream subscribers.
+     *
+     * @param leaderboard   source of the published leaderboards
+     * @param mapper        mapper to the API model
+     * @param objectMapper  Boot-configured JSON encoder
+     * @param streamTimeout time after which a subscription is completed and the client reconnects
+     * @return broadcaster, completing all subscriptions when the context closes
+     */
+    @Bean(destroyMethod = "close")
+    public LeaderboardBroadcaster leaderboardBroadcaster(
+            Leaderboard leaderboard, RecommendationMapper mapper, ObjectMapper objectMapper,
+            @Value("${crypto.leaderboard.stream-timeout:30m}") Duration streamTimeout) {
+        return new LeaderboardBroadcaster(leaderboard, mapper, objectMapper, streamTimeout);
+    }
+
+    /**
+     * Creates the per-endpoint latency histograms.
+     *
+     * @param interval  length of a histogram interval
+     * @param intervals number of completed intervals kept
+     * @return latency tracker
+     */
+    @Bean
+    public LatencyTracker latencyTracker(@Value("${crypto.latency.interval:1m}") Duration interval,
+                                         @Value("${crypto.latency.intervals:5}") int intervals) {
+        return new LatencyTracker(interval, intervals, Clock.systemUTC());
+    }
+
+    /**
+     * Creates the buffer of captured slow requests.
+     *
+     * @param capacity maximum number of retained slow requests
+     * @return slow request log
+     */
+    @Bean
+    public SlowRequestLog slowRequestLog(@Value("${crypto.latency.slow-capacity:100}") int capacity) {
+        return new SlowRequestLog(capacity);
+    }
+
+    /**
+     * Registers the interceptor measuring controller requests.
+     *
+     * @param tracker       latency histograms per endpoint
+     * @param slowRequests  buffer of captured slow requests
+     * @param slowThreshold latency from which a request is captured
+     * @return MVC configurer adding the interceptor
+     */
+    @Bean
+    public WebMvcConfigurer latencyInterceptorConfigurer(
+            LatencyTracker tracker, SlowRequestLog slowRequests,
+            @Value("${crypto.latency.slow-threshold:1s}") Duration slowThreshold) {
+        LatencyInterceptor interceptor = new LatencyInterceptor(tracker, slowRequests, slowThreshold);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(interceptor);
+            }
+        };
+    }
+
+    /**
+     * Registers the token checks of the endpoints that are not public: the internal shard endpoints only answer the
+     * peers of the cluster, the admin endpoints only the operators.
+     *
+     * @param shardToken token shared by the shards of the cluster
+     * @param adminToken token of the operators
+     * @return MVC configurer adding the interceptors
+     */
+    @Bean
+    public WebMvcConfigurer tokenAuthConfigurer(@Value("${crypto.sharded.token:}") String shardToken,
+                                                @Value("${crypto.admin.token:}") String adminToken) {
+        TokenAuthInterceptor shardAuth = new TokenAuthInterceptor("Internal shard", shardToken);
+        TokenAuthInterceptor adminAuth = new TokenAuthInterceptor("Admin", adminToken);
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(shardAuth).addPathPatterns("/internal/**");
+                registry.addInterceptor(adminAuth).addPathPatterns("/admin/**");
+            }
+        };
+    }
+}
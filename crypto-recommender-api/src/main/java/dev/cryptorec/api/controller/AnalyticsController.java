@@ -0,0 +1,60 @@
+package dev.cryptorec.api.controller;
+
+import com.cryptorec.api.generated.AnalyticsApi;
+import com.cryptorec.api.generated.model.CorrelationResponse;
+import dev.cryptorec.api.mapper.RecommendationMapper;
+import dev.cryptorec.service.AnalyticsService;
+import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * REST controller implementing the Analytics API endpoints.
+ * Implements the OpenAPI-generated AnalyticsApi interface for API-first approach.
+ */
+@RestController
+@Validated
+public class AnalyticsController implements AnalyticsApi {
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsController.class);
+
+    private final AnalyticsService service;
+    private final RecommendationMapper mapper;
+
+    public AnalyticsController(final AnalyticsService service,
+                               final RecommendationMapper mapper) {
+        this.service = service;
+        this.mapper = mapper;
+    }
+
+    /**
+     * GET /analytics/correlation - Pairwise correlation of the returns of several cryptos
+     *
+     * @param authorization Bearer or Token authorization header
+     * @param symbols       comma-separated symbols, all cryptos if absent
+     * @param fromDate      start date
+     * @param toDate        end date
+     * @param periodMonths  months to look back
+     * @param interval      grid interval (1h, 4h or 1d)
+     * @return correlation matrix
+     */
+    @Override
+    @RateLimiter(name = "recominderConntroller")
+    public CompletableFuture<ResponseEntity<CorrelationResponse>> getCorrelation(String authorization,
+                                                                                 String symbols,
+                                                                                 LocalDate fromDate,
+                                                                                 LocalDate toDate,
+                                                                                 Integer periodMonths,
+                                                                                 String interval) {
+        log.info("GET /analytics/correlation - symbols={}, fromDate={}, toDate={}, periodMonths={}, interval={}",
+                symbols, fromDate, toDate, periodMonths, interval);
+
+        return service.getCorrelation(symbols, fromDate, toDate, periodMonths, interval)
+                .thenApply(matrix -> ResponseEntity.ok(mapper.mapToCorrelationDto(matrix)));
+    }
+}
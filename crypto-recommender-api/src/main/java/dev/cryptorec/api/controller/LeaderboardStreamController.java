@@ -0,0 +1,42 @@
+package dev.cryptorec.api.controller;
+
+import dev.cryptorec.api.stream.LeaderboardBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent events stream of the top cryptos of a periodMonths window.
+ * An event stream has no counterpart in the generated API interfaces, so the endpoint is mapped here; its event
+ * data is the generated LeaderboardEvent model, described in the OpenAPI document.
+ */
+@RestController
+public class LeaderboardStreamController {
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardStreamController.class);
+
+    private final LeaderboardBroadcaster broadcaster;
+
+    public LeaderboardStreamController(final LeaderboardBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * GET /recommendations/stream - Subscribe to the leaderboard of a window
+     *
+     * @param authorization Bearer or Token authorization header
+     * @param periodMonths  months to look back (1, 3, 6 or 12)
+     * @return event stream sending the leaderboard on subscription and whenever it changes
+     */
+    @GetMapping(path = "/recommendations/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamRecommendations(@RequestHeader("Authorization") String authorization,
+                                            @RequestParam(name = "periodMonths", defaultValue = "1")
+                                            int periodMonths) {
+        log.info("GET /recommendations/stream - periodMonths={}", periodMonths);
+        return broadcaster.subscribe(periodMonths);
+    }
+}
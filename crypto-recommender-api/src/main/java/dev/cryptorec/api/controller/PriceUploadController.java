@@ -0,0 +1,94 @@
+package dev.cryptorec.api.controller;
+
+import com.cryptorec.api.generated.model.PriceUploadResponse;
+import dev.cryptorec.api.mapper.RecommendationMapper;
+import dev.cryptorec.service.PriceUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Admin endpoint loading CSV price files.
+ * The body is read as a stream while it is parsed, which the generated API interfaces cannot express (they bind
+ * the whole body), so the endpoint is mapped here; its response is the generated PriceUploadResponse model.
+ * <p>
+ * A raw body (text/csv, also with chunked transfer encoding) is parsed as it arrives from the client. A multipart
+ * file part is parsed from the container's temporary file, the container having received it first.
+ * <p>
+ * The admin token is checked by an interceptor before the body is read (see ApiConfig#tokenAuthConfigurer).
+ */
+@RestController
+public class PriceUploadController {
+    private static final Logger log = LoggerFactory.getLogger(PriceUploadController.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final PriceUploadService service;
+    private final RecommendationMapper mapper;
+
+    public PriceUploadController(final PriceUploadService service,
+                                 final RecommendationMapper mapper) {
+        this.service = service;
+        this.mapper = mapper;
+    }
+
+    /**
+     * PUT /admin/prices/{symbol} - Upload a CSV price file as the request body
+     *
+     * @param symbol  cryptocurrency symbol
+     * @param persist whether the CSV file of the symbol is rewritten
+     * @param request request whose body is the CSV file
+     * @return upload report
+     */
+    @PutMapping(path = "/admin/prices/{symbol}",
+            consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<PriceUploadResponse> uploadPrices(@PathVariable("symbol") String symbol,
+                                                            @RequestParam(name = "persist", defaultValue = "false")
+                                                            boolean persist,
+                                                            HttpServletRequest request) throws IOException {
+        log.info("PUT /admin/prices/{} - persist={}, contentLength={}", symbol, persist,
+                request.getContentLengthLong());
+        return upload(symbol, request.getInputStream(), persist);
+    }
+
+    /**
+     * PUT /admin/prices/{symbol} - Upload a CSV price file as the file part of a multipart request
+     *
+     * @param symbol  cryptocurrency symbol
+     * @param persist whether the CSV file of the symbol is rewritten
+     * @param file    CSV file part
+     * @return upload report
+     */
+    @PutMapping(path = "/admin/prices/{symbol}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<PriceUploadResponse> uploadPricesFile(@PathVariable("symbol") String symbol,
+                                                                @RequestParam(name = "persist", defaultValue = "false")
+                                                                boolean persist,
+                                                                @RequestPart("file") MultipartFile file)
+            throws IOException {
+        log.info("PUT /admin/prices/{} - persist={}, file={}, size={}", symbol, persist, file.getOriginalFilename(),
+                file.getSize());
+        return upload(symbol, file.getInputStream(), persist);
+    }
+
+    private ResponseEntity<PriceUploadResponse> upload(String symbol, InputStream body, boolean persist)
+            throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8),
+                BUFFER_SIZE)) {
+            return ResponseEntity.ok(mapper.mapToPriceUploadDto(service.upload(symbol, reader, persist)));
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.cryptorec.api.generated.RecommendationsApi;
 import com.cryptorec.api.generated.model.CryptoStats;
 import com.cryptorec.api.generated.model.RecommendationsResponse;
 import dev.cryptorec.api.mapper.RecommendationMapper;
+import dev.cryptorec.model.util.RequestTrace;
 import dev.cryptorec.service.RecommendationService;
 import io.github.resilience4j.ratelimiter.annotation.RateLimiter;
 import org.slf4j.Logger;
@@ -13,11 +14,14 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * REST controller implementing the Recommendations API endpoints.
  * Implements the OpenAPI-generated RecommendationsApi interface for API-first approach.
  * Handles HTTP requests for crypto recommendations and statistics.
+ * Responses are asynchronous: the request thread is released while the service futures complete.
+ * Mapping runs in future callbacks, so it is timed on the {@link RequestTrace} captured on the request thread.
  */
 @RestController
 @Validated
@@ -39,7 +43,9 @@ public class RecommendationController implements RecommendationsApi {
      * @param authorization Bearer or Token authorization header
      * @param page          zero-based page index
      * @param size          page size
-     * @param sortBy        sort field and direction (e.g., normalizedRange_desc)
+     * @param sortBy        comma-separated sort keys (e.g., normalizedRange_desc,symbol_asc)
+     * @param filter        filter expression (e.g., normalizedRange > 0.5 AND max < 100)
+     * @param cursor        cursor of the previous page (nullable)
      * @param fromDate      start date
      * @param toDate        end date
      * @param periodMonths  months to look back
@@ -47,19 +53,32 @@ public class RecommendationController implements RecommendationsApi {
      */
     @Override
     @RateLimiter(name = "recominderConntroller")
-    public ResponseEntity<RecommendationsResponse> getRecommendations(String authorization, Integer page, Integer size,
-                                                                      String sortBy, LocalDate fromDate, LocalDate toDate,
-                                                                      Integer periodMonths) {
-        log.info("GET /recommendations - page={}, size={}, sortBy={}", page, size, sortBy);
+    public CompletableFuture<ResponseEntity<RecommendationsResponse>> getRecommendations(String authorization,
+                                                                                         Integer page, Integer size,
+                                                                                         String sortBy,
+                                                                                         String filter,
+                                                                                         String cursor,
+                                                                                         LocalDate fromDate,
+                                                                                         LocalDate toDate,
+                                                                                         Integer periodMonths) {
+        log.info("GET /recommendations - page={}, size={}, sortBy={}, filter={}, cursor={}", page, size, sortBy, filter,
+                cursor);
 
-        var result = service.getRecommendations(page, size, sortBy, fromDate, toDate, periodMonths);
-        return ResponseEntity.ok(new RecommendationsResponse()
-                .recommendations(mapper.mapToCryptoStatsDtoList(result.items()))
-                .page(page)
+        RequestTrace trace = RequestTrace.current();
+        // the first page and cursor pages are served from a retained snapshot, other pages by offset
+        var result = cursor != null || page == 0
+                ? service.getRecommendationsPage(cursor, size, sortBy, filter, fromDate, toDate, periodMonths)
+                : service.getRecommendations(page, size, sortBy, filter, fromDate, toDate, periodMonths);
+        return result.thenApply(paginated -> ResponseEntity.ok(new RecommendationsResponse()
+                .recommendations(trace.timed(RequestTrace.Stage.MAP,
+                        () -> mapper.mapToCryptoStatsDtoList(paginated.items())))
+                .page(paginated.page())
                 .size(size)
-                .totalElements(result.totalElements())
-                .totalPages(result.totalPages())
-        );
+                .totalElements(paginated.totalElements())
+                .totalPages(paginated.totalPages())
+                .warnings(paginated.warnings())
+                .nextCursor(paginated.nextCursor())
+        ));
     }
 
     /**
@@ -74,14 +93,18 @@ public class RecommendationController implements RecommendationsApi {
      */
     @Override
     @RateLimiter(name = "recominderConntroller")
-    public ResponseEntity<CryptoStats> getRecommendationsByCrypto(String cryptoName, String authorization,
-                                                                  LocalDate fromDate, LocalDate toDate,
-                                                                  Integer periodMonths) {
+    public CompletableFuture<ResponseEntity<CryptoStats>> getRecommendationsByCrypto(String cryptoName,
+                                                                                     String authorization,
+                                                                                     LocalDate fromDate,
+                                                                                     LocalDate toDate,
+                                                                                     Integer periodMonths) {
         log.info("GET /recommendations/{} - fromDate={}, toDate={}, periodMonths={}", cryptoName, fromDate, toDate,
                 periodMonths);
 
-        dev.cryptorec.model.CryptoStats stats = service.getStats(cryptoName, fromDate, toDate, periodMonths);
-        return ResponseEntity.ok(mapper.mapToCryptoStatsDto(stats));
+        RequestTrace trace = RequestTrace.current();
+        return service.getStats(cryptoName, fromDate, toDate, periodMonths)
+                .thenApply(stats -> ResponseEntity.ok(trace.timed(RequestTrace.Stage.MAP,
+                        () -> mapper.mapToCryptoStatsDto(stats))));
     }
 
     /**
@@ -95,12 +118,16 @@ public class RecommendationController implements RecommendationsApi {
      */
     @Override
     @RateLimiter(name = "recominderConntroller")
-    public ResponseEntity<CryptoStats> getRecommendationsTopCrypto(String authorization, LocalDate fromDate,
-                                                                   LocalDate toDate, Integer periodMonths) {
+    public CompletableFuture<ResponseEntity<CryptoStats>> getRecommendationsTopCrypto(String authorization,
+                                                                                      LocalDate fromDate,
+                                                                                      LocalDate toDate,
+                                                                                      Integer periodMonths) {
         log.info("GET /recommendations/top - fromDate={}, toDate={}, periodMonths={}", fromDate, toDate, periodMonths);
 
-        dev.cryptorec.model.CryptoStats topCrypto = service.getTopCrypto(fromDate, toDate, periodMonths);
-        return ResponseEntity.ok(mapper.mapToCryptoStatsDto(topCrypto));
+        RequestTrace trace = RequestTrace.current();
+        return service.getTopCrypto(fromDate, toDate, periodMonths)
+                .thenApply(topCrypto -> ResponseEntity.ok(trace.timed(RequestTrace.Stage.MAP,
+                        () -> mapper.mapToCryptoStatsDto(topCrypto))));
     }
 
 }
\ No newline at end of file
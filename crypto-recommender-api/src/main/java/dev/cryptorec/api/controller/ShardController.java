@@ -0,0 +1,67 @@
+package dev.cryptorec.api.controller;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.provider.query.StatsQuery;
+import dev.cryptorec.provider.sharded.HttpShardClient;
+import dev.cryptorec.provider.sharded.LocalShardClient;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Internal endpoints exposing the local shard to its peers, called by {@link HttpShardClient}.
+ * Not part of the public API: they serve only the symbols owned by this instance, return domain models and require
+ * the token of the cluster (crypto.sharded.token). Registered only when the sharded provider is active.
+ */
+@RestController
+@ConditionalOnProperty(name = "crypto.provider.type", havingValue = "sharded")
+@RequestMapping(HttpShardClient.BASE_PATH)
+public class ShardController {
+
+    private final LocalShardClient localShard;
+
+    public ShardController(LocalShardClient localShard) {
+        this.localShard = localShard;
+    }
+
+    @GetMapping("/symbols")
+    public List<String> symbols() {
+        return localShard.symbols();
+    }
+
+    @GetMapping("/prices/{symbol}")
+    public CryptoPrice prices(
+            @PathVariable("symbol") String symbol,
+            @RequestParam(name = "fromDate", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate fromDate,
+            @RequestParam(name = "toDate", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate toDate) {
+        return localShard.prices(symbol, fromDate, toDate);
+    }
+
+    @GetMapping("/stats/{symbol}")
+    public CryptoStats stats(
+            @PathVariable("symbol") String symbol,
+            @RequestParam("fromDate") @DateTimeFormat(iso = ISO.DATE) LocalDate fromDate,
+            @RequestParam("toDate") @DateTimeFormat(iso = ISO.DATE) LocalDate toDate) {
+        return localShard.stats(symbol, fromDate, toDate);
+    }
+
+    @GetMapping("/top")
+    public PaginatedResult<CryptoStats> top(
+            @RequestParam("limit") int limit,
+            @RequestParam(name = "sortBy", required = false) String sortBy,
+            @RequestParam(name = "filter", required = false) String filter,
+            @RequestParam("fromDate") @DateTimeFormat(iso = ISO.DATE) LocalDate fromDate,
+            @RequestParam("toDate") @DateTimeFormat(iso = ISO.DATE) LocalDate toDate) {
+        return localShard.top(limit, StatsQuery.of(filter, sortBy), fromDate, toDate);
+    }
+}
@@ -1,7 +1,12 @@
 package dev.cryptorec.api.error;
 
 import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.CursorExpiredException;
 import dev.cryptorec.model.exception.InvalidTimeframeException;
+import dev.cryptorec.model.exception.ReadOnlyProviderException;
+import dev.cryptorec.model.exception.ShardUnavailableException;
+import dev.cryptorec.model.exception.UnauthorizedException;
+import dev.cryptorec.model.exception.UploadTooLargeException;
 import dev.cryptorec.model.exception.ValidationException;
 import io.github.resilience4j.ratelimiter.RequestNotPermitted;
 import jakarta.validation.ConstraintViolationException;
@@ -13,6 +18,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.bind.MissingRequestValueException;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.List;
 
@@ -37,6 +43,42 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse().code(400).message("Validation failed").details(List.of(ex.getMessage())));
     }
 
+    @ExceptionHandler(CursorExpiredException.class)
+    public ResponseEntity<ErrorResponse> handleCursorExpired(final CursorExpiredException ex) {
+        return ResponseEntity.status(HttpStatus.GONE)
+                .body(new ErrorResponse().code(410).message("Cursor expired").details(List.of(ex.getMessage())));
+    }
+
+    @ExceptionHandler(ShardUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleShardUnavailable(final ShardUnavailableException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new ErrorResponse().code(503).message("Data unavailable").details(List.of(ex.getMessage())));
+    }
+
+    @ExceptionHandler(ReadOnlyProviderException.class)
+    public ResponseEntity<ErrorResponse> handleReadOnlyProvider(final ReadOnlyProviderException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_IMPLEMENTED)
+                .body(new ErrorResponse().code(501).message("Uploads not supported").details(List.of(ex.getMessage())));
+    }
+
+    @ExceptionHandler(UploadTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleUploadTooLarge(final UploadTooLargeException ex) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ErrorResponse().code(413).message("Upload too large").details(List.of(ex.getMessage())));
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ErrorResponse> handleMaxUploadSize(final MaxUploadSizeExceededException ex) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ErrorResponse().code(413).message("Upload too large").details(List.of(ex.getMessage())));
+    }
+
+    @ExceptionHandler(UnauthorizedException.class)
+    public ResponseEntity<ErrorResponse> handleUnauthorized(final UnauthorizedException ex) {
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .body(new ErrorResponse().code(401).message("Unauthorized").details(List.of(ex.getMessage())));
+    }
+
     @ExceptionHandler(RequestNotPermitted.class)
     public ResponseEntity<ErrorResponse> handleRequestNotPermitted(final RequestNotPermitted ex) {
         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
@@ -0,0 +1,102 @@
+package dev.cryptorec.api.latency;
+
+import dev.cryptorec.model.util.RequestTrace;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Measures the latency of controller requests and captures the slow ones.
+ * <p>
+ * A {@link RequestTrace} is bound to the request thread when the handler is invoked and unbound when the thread is
+ * released (asynchronous handling) or the request completes. On completion, which for asynchronous responses is the
+ * async dispatch, the latency is recorded per endpoint pattern; requests reaching the threshold are logged with
+ * their stage timings to the {@link SlowRequestLog}.
+ * <p>
+ * Streaming responses are not measured: they stay open for the lifetime of the subscription, which is no latency.
+ */
+public class LatencyInterceptor implements AsyncHandlerInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(LatencyInterceptor.class);
+
+    private static final String TRACE_ATTRIBUTE = LatencyInterceptor.class.getName() + ".trace";
+    private static final String START_ATTRIBUTE = LatencyInterceptor.class.getName() + ".start";
+
+    private final LatencyTracker tracker;
+    private final SlowRequestLog slowRequests;
+    private final long slowThresholdNanos;
+
+    /**
+     * @param tracker       latency histograms per endpoint
+     * @param slowRequests  buffer of captured slow requests
+     * @param slowThreshold latency from which a request is captured
+     */
+    public LatencyInterceptor(LatencyTracker tracker, SlowRequestLog slowRequests, Duration slowThreshold) {
+        this.tracker = tracker;
+        this.slowRequests = slowRequests;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method) || request.getDispatcherType() == DispatcherType.ERROR
+                || ResponseBodyEmitter.class.isAssignableFrom(method.getReturnType().getParameterType())) {
+            return true;
+        }
+        // the async dispatch of the same request passes here again and keeps the trace of the first dispatch
+        if (request.getAttribute(TRACE_ATTRIBUTE) == null) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            request.setAttribute(TRACE_ATTRIBUTE, new RequestTrace());
+        }
+        RequestTrace.bind((RequestTrace) request.getAttribute(TRACE_ATTRIBUTE));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        RequestTrace.unbind();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        RequestTrace.unbind();
+        if (!(request.getAttribute(TRACE_ATTRIBUTE) instanceof RequestTrace trace)
+                || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start)) {
+            return;
+        }
+        request.removeAttribute(TRACE_ATTRIBUTE);
+        request.removeAttribute(START_ATTRIBUTE);
+        long latencyNanos = System.nanoTime() - start;
+        String endpoint = request.getMethod() + " "
+                + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        tracker.record(endpoint, latencyNanos);
+
+        if (latencyNanos >= slowThresholdNanos) {
+            Map<String, Double> stages = new LinkedHashMap<>();
+            trace.stageNanos().forEach((stage, nanos) ->
+                    stages.put(stage.name().toLowerCase(Locale.ROOT), nanos / 1_000_000.0));
+            String query = request.getQueryString();
+            SlowRequest slow = new SlowRequest(
+                    Instant.now().minusNanos(latencyNanos), endpoint,
+                    request.getMethod() + " " + request.getRequestURI() + (query != null ? "?" + query : ""),
+                    response.getStatus(), latencyNanos / 1_000_000.0, stages);
+            slowRequests.add(slow);
+            log.warn("Slow request {} took {} ms (status {}), stages in ms: {}", slow.request(), slow.totalMillis(),
+                    slow.status(), stages);
+        }
+    }
+}
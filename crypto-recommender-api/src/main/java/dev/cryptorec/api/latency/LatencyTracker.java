@@ -0,0 +1,184 @@
+package dev.cryptorec.api.latency;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency histograms per endpoint over rolling intervals.
+ * <p>
+ * Each endpoint records into an HdrHistogram {@link Recorder} (wait-free, microsecond resolution with 3 significant
+ * digits); every {@code interval} the recorded values are closed into an interval histogram, the last
+ * {@code intervals} of them are kept. Percentiles are reported per interval and for the whole window, so a tail
+ * that only shows up for a few minutes is not diluted by hours of fast requests.
+ */
+public class LatencyTracker {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Duration interval;
+    private final int intervals;
+    private final Clock clock;
+    private final ConcurrentMap<String, EndpointLatency> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * @param interval  length of an interval
+     * @param intervals number of completed intervals kept
+     * @param clock     clock closing the intervals
+     */
+    public LatencyTracker(Duration interval, int intervals, Clock clock) {
+        if (interval.isNegative() || interval.isZero() || intervals < 1) {
+            throw new IllegalArgumentException("interval must be positive and intervals >= 1");
+        }
+        this.interval = interval;
+        this.intervals = intervals;
+        this.clock = clock;
+    }
+
+    /**
+     * Records the latency of a request.
+     *
+     * @param endpoint     endpoint name, e.g. "GET /recommendations"
+     * @param latencyNanos latency in nanoseconds
+     */
+    public void record(String endpoint, long latencyNanos) {
+        long now = clock.millis();
+        EndpointLatency latency = endpoints.computeIfAbsent(endpoint, ignored -> new EndpointLatency(now));
+        latency.rotateIfDue(now);
+        latency.recorder.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(latencyNanos)));
+    }
+
+    /**
+     * @return latency summaries of all endpoints that received requests, by endpoint name
+     */
+    public Map<String, EndpointSummary> snapshot() {
+        long now = clock.millis();
+        Map<String, EndpointSummary> result = new TreeMap<>();
+        endpoints.forEach((endpoint, latency) -> result.put(endpoint, latency.summary(now)));
+        return result;
+    }
+
+    /**
+     * @return length of an interval
+     */
+    public Duration interval() {
+        return interval;
+    }
+
+    /**
+     * @return number of completed intervals kept
+     */
+    public int intervals() {
+        return intervals;
+    }
+
+    private final class EndpointLatency {
+
+        private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS);
+        private final Deque<IntervalHistogram> completed = new ArrayDeque<>();
+        private Histogram current;
+        private long currentStart;
+        private volatile long nextRotation;
+
+        EndpointLatency(long now) {
+            this.currentStart = now;
+            this.nextRotation = now + interval.toMillis();
+            this.current = recorder.getIntervalHistogram();
+        }
+
+        void rotateIfDue(long now) {
+            if (now >= nextRotation) {
+                rotate(now);
+            }
+        }
+
+        /**
+         * Moves the values recorded since the last call into the current interval and closes it if it is over.
+         * Intervals without requests are not kept.
+         */
+        private synchronized void rotate(long now) {
+            current.add(recorder.getIntervalHistogram());
+            long length = interval.toMillis();
+            if (now < currentStart + length) {
+                return;
+            }
+            if (current.getTotalCount() > 0) {
+                completed.addFirst(new IntervalHistogram(currentStart, current));
+                if (completed.size() > intervals) {
+                    completed.removeLast();
+                }
+            }
+            currentStart += (now - currentStart) / length * length;
+            current = new Histogram(SIGNIFICANT_DIGITS);
+            nextRotation = currentStart + length;
+        }
+
+        synchronized EndpointSummary summary(long now) {
+            rotate(now);
+            long windowStart = now - intervals * interval.toMillis();
+            while (!completed.isEmpty() && completed.peekLast().start() < windowStart) {
+                completed.removeLast();
+            }
+
+            Histogram window = current.copy();
+            List<LatencySummary> byInterval = new ArrayList<>();
+            byInterval.add(LatencySummary.of(Instant.ofEpochMilli(currentStart), current));
+            for (IntervalHistogram closed : completed) {
+                window.add(closed.histogram());
+                byInterval.add(LatencySummary.of(Instant.ofEpochMilli(closed.start()), closed.histogram()));
+            }
+            return new EndpointSummary(LatencySummary.of(Instant.ofEpochMilli(completed.isEmpty()
+                    ? currentStart : completed.peekLast().start()), window), byInterval);
+        }
+    }
+
+    private record IntervalHistogram(long start, Histogram histogram) {
+    }
+
+    /**
+     * Latency of an endpoint.
+     *
+     * @param window    all kept intervals including the current one
+     * @param intervals the current interval first, then the completed ones from newest to oldest
+     */
+    public record EndpointSummary(LatencySummary window, List<LatencySummary> intervals) {
+    }
+
+    /**
+     * Latency percentiles of an interval, in milliseconds.
+     *
+     * @param start start of the interval
+     * @param count number of requests
+     * @param p50   median
+     * @param p90   90th percentile
+     * @param p99   99th percentile
+     * @param p999  99.9th percentile
+     * @param max   maximum
+     */
+    public record LatencySummary(Instant start, long count, double p50, double p90, double p99, double p999,
+                                 double max) {
+
+        static LatencySummary of(Instant start, Histogram histogram) {
+            return new LatencySummary(start, histogram.getTotalCount(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dev.cryptorec.api.latency;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A request slower than the configured threshold.
+ *
+ * @param start       time the request was received
+ * @param endpoint    endpoint name, e.g. "GET /recommendations/{cryptoName}"
+ * @param request     method, path and query string, enough to replay the request
+ * @param status      HTTP status of the response
+ * @param totalMillis time from receiving the request to completing the response
+ * @param stageMillis time per processing stage (resolve, fetch, calculate, sort, map) that ran
+ */
+public record SlowRequest(Instant start, String endpoint, String request, int status, double totalMillis,
+                          Map<String, Double> stageMillis) {
+}
@@ -0,0 +1,60 @@
+package dev.cryptorec.api.latency;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bounded ring buffer of the most recent slow requests; once full, each new entry overwrites the oldest.
+ * Slow requests are rare by definition, so adding takes a lock.
+ */
+public class SlowRequestLog {
+
+    private final SlowRequest[] entries;
+    private long added;
+
+    /**
+     * @param capacity maximum number of retained requests
+     */
+    public SlowRequestLog(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be >= 1");
+        }
+        this.entries = new SlowRequest[capacity];
+    }
+
+    /**
+     * Adds a request, overwriting the oldest one if the buffer is full.
+     *
+     * @param request slow request
+     */
+    public synchronized void add(SlowRequest request) {
+        entries[(int) (added % entries.length)] = request;
+        added++;
+    }
+
+    /**
+     * @return retained requests, newest first
+     */
+    public synchronized List<SlowRequest> recent() {
+        int size = (int) Math.min(added, entries.length);
+        List<SlowRequest> result = new ArrayList<>(size);
+        for (long i = added - 1; i >= added - size; i--) {
+            result.add(entries[(int) (i % entries.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * @return number of slow requests since startup, including overwritten ones
+     */
+    public synchronized long total() {
+        return added;
+    }
+
+    /**
+     * @return maximum number of retained requests
+     */
+    public int capacity() {
+        return entries.length;
+    }
+}
@@ -1,7 +1,11 @@
 package dev.cryptorec.api.mapper;
 
+import dev.cryptorec.model.CorrelationMatrix;
 import dev.cryptorec.model.PriceData;
+import dev.cryptorec.service.Leaderboard;
+import dev.cryptorec.service.PriceUploadService;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,6 +33,10 @@ public class RecommendationMapper {
         dto.setMax(mapToPricePointDto(stats.max()));
         dto.setOldest(mapToPricePointDto(stats.oldest()));
         dto.setNewest(mapToPricePointDto(stats.newest()));
+        dto.setTickCount(stats.tickCount());
+        dto.setReturnStdDev(stats.returnStdDev());
+        dto.setMeanReturn(stats.meanReturn());
+        dto.setMaxDrawdown(stats.maxDrawdown());
 
         return dto;
     }
@@ -68,4 +76,84 @@ public class RecommendationMapper {
                 .map(this::mapToCryptoStatsDto)
                 .toList();
     }
+
+    /**
+     * Converts a domain CorrelationMatrix to API model, undefined correlations (NaN) become null.
+     *
+     * @param matrix domain model
+     * @return API model with one row per symbol
+     */
+    public com.cryptorec.api.generated.model.CorrelationResponse mapToCorrelationDto(CorrelationMatrix matrix) {
+        if (matrix == null) {
+            return null;
+        }
+
+        List<List<Double>> rows = new ArrayList<>(matrix.size());
+        for (int i = 0; i < matrix.size(); i++) {
+            List<Double> row = new ArrayList<>(matrix.size());
+            for (int j = 0; j < matrix.size(); j++) {
+                double value = matrix.get(i, j);
+                row.add(Double.isNaN(value) ? null : value);
+            }
+            rows.add(row);
+        }
+
+        com.cryptorec.api.generated.model.CorrelationResponse dto = new com.cryptorec.api.generated.model.CorrelationResponse();
+        dto.setSymbols(matrix.symbols());
+        dto.setFromDate(matrix.timeframeFrom());
+        dto.setToDate(matrix.timeframeTo());
+        dto.setInterval(intervalName(matrix.interval()));
+        dto.setSteps(matrix.steps());
+        dto.setMatrix(rows);
+
+        return dto;
+    }
+
+    /**
+     * Converts a published leaderboard to the data of a stream event.
+     *
+     * @param update published leaderboard
+     * @return API model
+     */
+    public com.cryptorec.api.generated.model.LeaderboardEvent mapToLeaderboardDto(Leaderboard.Update update) {
+        if (update == null) {
+            return null;
+        }
+
+        com.cryptorec.api.generated.model.LeaderboardEvent dto = new com.cryptorec.api.generated.model.LeaderboardEvent();
+        dto.setPeriodMonths(update.periodMonths());
+        dto.setFromDate(update.from());
+        dto.setToDate(update.to());
+        dto.setLeaders(mapToCryptoStatsDtoList(update.top()));
+
+        return dto;
+    }
+
+    /**
+     * Converts the report of a price upload to API model.
+     *
+     * @param report upload report
+     * @return API model
+     */
+    public com.cryptorec.api.generated.model.PriceUploadResponse mapToPriceUploadDto(PriceUploadService.UploadReport report) {
+        if (report == null) {
+            return null;
+        }
+
+        com.cryptorec.api.generated.model.PriceUploadResponse dto = new com.cryptorec.api.generated.model.PriceUploadResponse();
+        dto.setSymbol(report.result().symbol());
+        dto.setRows(report.rows());
+        dto.setAdded(report.result().added());
+        dto.setReplaced(report.result().replaced());
+        dto.setTotalPoints(report.result().totalPoints());
+        dto.setPersisted(report.result().persisted());
+        dto.setElapsedMillis(report.elapsed().toMillis());
+        dto.setRowsPerSecond(report.rowsPerSecond());
+
+        return dto;
+    }
+
+    private static String intervalName(Duration interval) {
+        return interval.toHours() % 24 == 0 ? interval.toDays() + "d" : interval.toHours() + "h";
+    }
 }
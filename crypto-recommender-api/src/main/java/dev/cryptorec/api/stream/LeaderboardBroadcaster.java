@@ -0,0 +1,220 @@
+package dev.cryptorec.api.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.cryptorec.api.mapper.RecommendationMapper;
+import dev.cryptorec.service.Leaderboard;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Fans the published {@link Leaderboard} updates out to server-sent events subscribers.
+ * <p>
+ * An update is mapped and encoded to JSON once, and the same event is handed to every subscriber of its window. Each
+ * subscriber has a mailbox holding only the latest event, drained on a virtual thread: publishing never waits for a
+ * client, a slow client delays nobody else and skips the leaderboards superseded before it could receive them, and
+ * memory stays bounded by one pending event per subscriber whatever the number of subscribers.
+ */
+public class LeaderboardBroadcaster implements Consumer<Leaderboard.Update>, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardBroadcaster.class);
+
+    /**
+     * Name of the events carrying a leaderboard.
+     */
+    public static final String EVENT_NAME = "leaderboard";
+
+    private final Leaderboard leaderboard;
+    private final RecommendationMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Map<Integer, Event> latest = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the broadcaster and registers it as a listener of the leaderboard.
+     *
+     * @param leaderboard  source of the published leaderboards
+     * @param mapper       mapper to the API model
+     * @param objectMapper JSON encoder of the event data
+     * @param timeout      time after which a subscription is completed and the client reconnects
+     */
+    public LeaderboardBroadcaster(Leaderboard leaderboard, RecommendationMapper mapper, ObjectMapper objectMapper,
+                                  Duration timeout) {
+        this.leaderboard = leaderboard;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeout.toMillis();
+        leaderboard.addListener(this);
+    }
+
+    /**
+     * Subscribes to the leaderboard of a window; the current leaderboard, if already computed, is the first event.
+     *
+     * @param periodMonths periodMonths value of the window
+     * @return emitter of the subscription
+     * @throws dev.cryptorec.model.exception.InvalidTimeframeException if there is no leaderboard for the value
+     */
+    public SseEmitter subscribe(int periodMonths) {
+        leaderboard.checkPeriodMonths(periodMonths);
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        Set<Subscriber> window = subscribers.computeIfAbsent(periodMonths, months -> ConcurrentHashMap.newKeySet());
+        window.add(subscriber);
+        emitter.onCompletion(() -> window.remove(subscriber));
+        emitter.onTimeout(() -> window.remove(subscriber));
+        emitter.onError(e -> window.remove(subscriber));
+
+        // registered first: an update published meanwhile is either this event or a later one
+        leaderboard.current(periodMonths).map(this::event).ifPresent(event -> offer(subscriber, event));
+        return emitter;
+    }
+
+    /**
+     * Sends a published leaderboard to the subscribers of its window.
+     */
+    @Override
+    public void accept(Leaderboard.Update update) {
+        Event event = event(update);
+        for (Subscriber subscriber : subscribers.getOrDefault(update.periodMonths(), Set.of())) {
+            offer(subscriber, event);
+        }
+    }
+
+    /**
+     * @return number of open subscriptions over all windows
+     */
+    public int subscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * Unregisters from the leaderboard and completes all subscriptions.
+     */
+    @Override
+    public void close() {
+        leaderboard.removeListener(this);
+        subscribers.values().forEach(window -> window.forEach(subscriber -> subscriber.emitter().complete()));
+        senders.shutdownNow();
+    }
+
+    /**
+     * Returns the encoded event of an update, encoding it only once.
+     */
+    private Event event(Leaderboard.Update update) {
+        return latest.compute(update.periodMonths(), (months, previous) ->
+                previous != null && previous.sequence() >= update.sequence() ? previous : encode(update));
+    }
+
+    private Event encode(Leaderboard.Update update) {
+        try {
+            String data = objectMapper.writeValueAsString(mapper.mapToLeaderboardDto(update));
+            return new Event(update.sequence(), SseEmitter.event()
+                    .id(Long.toString(update.sequence()))
+                    .name(EVENT_NAME)
+                    .data(data)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Failed to encode leaderboard " + update.sequence(), e);
+        }
+    }
+
+    private void offer(Subscriber subscriber, Event event) {
+        subscriber.pending().accumulateAndGet(event,
+                (pending, next) -> pending != null && pending.sequence() >= next.sequence() ? pending : next);
+        if (subscriber.draining().compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RuntimeException e) {
+                // closed meanwhile
+                subscriber.draining().set(false);
+            }
+        }
+    }
+
+    /**
+     * Sends the pending events of a subscriber until its mailbox is empty; runs at most once at a time per subscriber.
+     */
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            Event event = subscriber.pending().getAndSet(null);
+            if (event == null) {
+                subscriber.draining().set(false);
+                // an event offered after the mailbox was found empty, but before the flag was cleared, is ours
+                if (subscriber.pending().get() == null || !subscriber.draining().compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            if (event.sequence() <= subscriber.sent()) {
+                continue;
+            }
+            try {
+                subscriber.emitter().send(event.data());
+                subscriber.sent(event.sequence());
+            } catch (IOException | IllegalStateException e) {
+                // the client is gone or the emitter completed; the flag stays set so nothing is sent to it anymore
+                log.debug("Leaderboard subscriber dropped: {}", e.getMessage());
+                subscriber.emitter().completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Encoded event of a published leaderboard.
+     */
+    private record Event(long sequence, Set<ResponseBodyEmitter.DataWithMediaType> data) {
+    }
+
+    /**
+     * Open subscription and its single-event mailbox.
+     */
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicReference<Event> pending = new AtomicReference<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // only accessed by the draining thread, the flag orders successive drains
+        private long sent;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        SseEmitter emitter() {
+            return emitter;
+        }
+
+        AtomicReference<Event> pending() {
+            return pending;
+        }
+
+        AtomicBoolean draining() {
+            return draining;
+        }
+
+        long sent() {
+            return sent;
+        }
+
+        void sent(long sequence) {
+            this.sent = sequence;
+        }
+    }
+}
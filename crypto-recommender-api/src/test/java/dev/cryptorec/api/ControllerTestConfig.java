@@ -1,7 +1,11 @@
 package dev.cryptorec.api;
 
 
+import dev.cryptorec.api.config.ApiConfig;
+import dev.cryptorec.api.latency.LatencyTracker;
+import dev.cryptorec.api.latency.SlowRequestLog;
 import dev.cryptorec.api.mapper.RecommendationMapper;
+import dev.cryptorec.service.AnalyticsService;
 import dev.cryptorec.service.RecommendationService;
 import org.mockito.Mockito;
 import org.springframework.boot.SpringBootConfiguration;
@@ -9,6 +13,11 @@ import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
 
 @TestConfiguration
 @SpringBootConfiguration
@@ -20,9 +29,35 @@ public class ControllerTestConfig {
         return Mockito.mock(RecommendationService.class);
     }
 
+    @Bean
+    public AnalyticsService analyticsService() {
+        return Mockito.mock(AnalyticsService.class);
+    }
+
     @Bean
     public RecommendationMapper recommendationResponseMapper() {
         return new RecommendationMapper();
     }
 
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new ApiConfig().cborHttpMessageConverter(builder);
+    }
+
+    @Bean
+    public LatencyTracker latencyTracker() {
+        return new ApiConfig().latencyTracker(Duration.ofMinutes(1), 5);
+    }
+
+    @Bean
+    public SlowRequestLog slowRequestLog() {
+        return new ApiConfig().slowRequestLog(10);
+    }
+
+    // every request is captured as slow
+    @Bean
+    public WebMvcConfigurer latencyInterceptorConfigurer(LatencyTracker tracker, SlowRequestLog slowRequests) {
+        return new ApiConfig().latencyInterceptorConfigurer(tracker, slowRequests, Duration.ZERO);
+    }
+
 }
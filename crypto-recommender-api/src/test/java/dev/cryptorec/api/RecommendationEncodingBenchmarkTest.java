@@ -0,0 +1,92 @@
+package dev.cryptorec.api;
+
+import com.cryptorec.api.generated.model.RecommendationsResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import dev.cryptorec.api.mapper.RecommendationMapper;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PriceData;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares payload size and serialisation time of JSON and CBOR for a full recommendations listing.
+ * <p>
+ * Run with: mvn -pl crypto-recommender-api test -Pbenchmark -Dbench.symbols=10000
+ */
+@Tag("benchmark")
+class RecommendationEncodingBenchmarkTest {
+
+    private static final int ITERATIONS = 200;
+
+    @Test
+    void benchmarkJsonVersusCbor() throws Exception {
+        int symbols = Integer.getInteger("bench.symbols", 10_000);
+        RecommendationsResponse response = response(symbols);
+
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+        ObjectMapper cbor = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+
+        measure("json", json, response, symbols);
+        measure("cbor", cbor, response, symbols);
+    }
+
+    private static void measure(String name, ObjectMapper mapper, RecommendationsResponse response, int symbols)
+            throws Exception {
+        byte[] payload = mapper.writeValueAsBytes(response);
+
+        // warm-up
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(response);
+            mapper.readValue(payload, RecommendationsResponse.class);
+        }
+
+        long started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(response);
+        }
+        double writeMillis = (System.nanoTime() - started) / 1e6 / ITERATIONS;
+
+        started = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readValue(payload, RecommendationsResponse.class);
+        }
+        double readMillis = (System.nanoTime() - started) / 1e6 / ITERATIONS;
+
+        System.out.printf("%s: %d symbols, %,d bytes (%.1f bytes/symbol), write %.2f ms, read %.2f ms%n",
+                name, symbols, payload.length, (double) payload.length / symbols, writeMillis, readMillis);
+    }
+
+    private static RecommendationsResponse response(int symbols) {
+        Random random = new Random(42);
+        LocalDate from = LocalDate.of(2022, 1, 1);
+        LocalDate to = LocalDate.of(2022, 1, 31);
+        long start = 1641009600000L;
+
+        List<CryptoStats> stats = new ArrayList<>();
+        for (int i = 0; i < symbols; i++) {
+            BigDecimal min = BigDecimal.valueOf(1 + random.nextInt(5_000_000), 2);
+            BigDecimal max = min.add(BigDecimal.valueOf(random.nextInt(1_000_000), 2));
+            PriceData minPoint = new PriceData(start + random.nextInt(2_592_000) * 1000L, min);
+            PriceData maxPoint = new PriceData(start + random.nextInt(2_592_000) * 1000L, max);
+            BigDecimal range = max.subtract(min).divide(min, 2, RoundingMode.HALF_UP);
+
+            stats.add(new CryptoStats("SYM" + i, range, minPoint, maxPoint, minPoint, maxPoint, from, to));
+        }
+
+        return new RecommendationsResponse()
+                .recommendations(new RecommendationMapper().mapToCryptoStatsDtoList(stats))
+                .page(0)
+                .size(symbols)
+                .totalElements(symbols)
+                .totalPages(1);
+    }
+}
@@ -0,0 +1,105 @@
+package dev.cryptorec.api.controller;
+
+import dev.cryptorec.api.ControllerTestConfig;
+import dev.cryptorec.api.error.GlobalExceptionHandler;
+import dev.cryptorec.model.CorrelationMatrix;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.service.AnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = AnalyticsController.class)
+@ContextConfiguration(classes = {
+        ControllerTestConfig.class,
+        AnalyticsController.class,
+        GlobalExceptionHandler.class
+})
+class AnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AnalyticsService service;
+
+    private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
+
+    @Test
+    void testGetCorrelation() throws Exception {
+        var matrix = new CorrelationMatrix(List.of("BTC", "ETH"), LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 1, 31), Duration.ofHours(4), 186, new double[]{1.0, 0.75, 0.75, 1.0});
+        when(service.getCorrelation(eq("btc,eth"), any(), any(), any(), eq("4h")))
+                .thenReturn(CompletableFuture.completedFuture(matrix));
+
+        performAsync(get("/analytics/correlation")
+                        .param("symbols", "btc,eth")
+                        .param("interval", "4h")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.symbols", contains("BTC", "ETH")))
+                .andExpect(jsonPath("$.interval", equalTo("4h")))
+                .andExpect(jsonPath("$.steps", equalTo(186)))
+                .andExpect(jsonPath("$.fromDate", equalTo("2022-01-01")))
+                .andExpect(jsonPath("$.matrix[0]", contains(1.0, 0.75)))
+                .andExpect(jsonPath("$.matrix[1][0]", equalTo(0.75)));
+    }
+
+    @Test
+    void testUndefinedCorrelationIsNull() throws Exception {
+        var matrix = new CorrelationMatrix(List.of("BTC", "USDT"), LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 1, 31), Duration.ofDays(1), 31, new double[]{1.0, Double.NaN, Double.NaN, Double.NaN});
+        when(service.getCorrelation(any(), any(), any(), any(), eq("1d")))
+                .thenReturn(CompletableFuture.completedFuture(matrix));
+
+        performAsync(get("/analytics/correlation")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.interval", equalTo("1d")))
+                .andExpect(jsonPath("$.matrix[0][1]", nullValue()))
+                .andExpect(jsonPath("$.matrix[1][1]", nullValue()));
+    }
+
+    @Test
+    void testGetCorrelationErrors() throws Exception {
+        when(service.getCorrelation(eq("BTC,NOPE"), any(), any(), any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new CryptoNotFoundException("Cryptocurrency not found: NOPE")));
+        when(service.getCorrelation(eq("BTC"), any(), any(), any(), eq("2m")))
+                .thenThrow(new ValidationException("Invalid interval: 2m, expected one of 1h, 4h, 1d"));
+
+        performAsync(get("/analytics/correlation")
+                        .param("symbols", "BTC,NOPE")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/analytics/correlation")
+                        .param("symbols", "BTC")
+                        .param("interval", "2m")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isBadRequest());
+    }
+}
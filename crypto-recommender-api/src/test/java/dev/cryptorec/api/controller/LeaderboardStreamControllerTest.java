@@ -0,0 +1,154 @@
+package dev.cryptorec.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.cryptorec.api.ControllerTestConfig;
+import dev.cryptorec.api.error.GlobalExceptionHandler;
+import dev.cryptorec.api.mapper.RecommendationMapper;
+import dev.cryptorec.api.stream.LeaderboardBroadcaster;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.exception.InvalidTimeframeException;
+import dev.cryptorec.service.Leaderboard;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.intThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = LeaderboardStreamController.class)
+@ContextConfiguration(classes = {
+        ControllerTestConfig.class,
+        LeaderboardStreamControllerTest.StreamConfig.class,
+        LeaderboardStreamController.class,
+        GlobalExceptionHandler.class
+})
+class LeaderboardStreamControllerTest {
+
+    private static final LocalDate FROM = LocalDate.of(2022, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2022, 1, 31);
+
+    @TestConfiguration
+    static class StreamConfig {
+        @Bean
+        public Leaderboard leaderboard() {
+            return Mockito.mock(Leaderboard.class);
+        }
+
+        @Bean
+        public LeaderboardBroadcaster leaderboardBroadcaster(Leaderboard leaderboard, RecommendationMapper mapper,
+                                                             ObjectMapper objectMapper) {
+            return new LeaderboardBroadcaster(leaderboard, mapper, objectMapper, Duration.ofMinutes(1));
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private Leaderboard leaderboard;
+
+    @Autowired
+    private LeaderboardBroadcaster broadcaster;
+
+    @BeforeEach
+    void setup() {
+        reset(leaderboard);
+    }
+
+    private static Leaderboard.Update update(long sequence, int periodMonths, String... symbols) {
+        PriceData point = new PriceData(1641009600000L, new BigDecimal("46813.21"));
+        List<CryptoStats> top = Arrays.stream(symbols)
+                .map(symbol -> new CryptoStats(symbol, new BigDecimal("0.25"), point, point, point, point, FROM, TO))
+                .toList();
+        return new Leaderboard.Update(sequence, periodMonths, FROM, TO, top);
+    }
+
+    /**
+     * Waits until the stream response contains the text; events are sent from another thread.
+     */
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        return content;
+    }
+
+    @Test
+    void testSubscriptionReceivesCurrentAndLaterLeaderboards() throws Exception {
+        when(leaderboard.current(3)).thenReturn(Optional.of(update(1, 3, "ETH", "BTC")));
+
+        MvcResult result = mockMvc.perform(get("/recommendations/stream?periodMonths=3")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(request().asyncStarted())
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String content = awaitContent(result, "id:1");
+        assertTrue(result.getResponse().getContentType().startsWith("text/event-stream"));
+        assertTrue(content.contains("event:leaderboard"), content);
+        assertTrue(content.contains("\"periodMonths\":3"), content);
+        assertTrue(content.contains("\"leaders\":[{\"name\":\"ETH\""), content);
+
+        // another window and an outdated leaderboard are not sent
+        broadcaster.accept(update(2, 1, "XRP"));
+        broadcaster.accept(update(3, 3, "BTC", "ETH"));
+        broadcaster.accept(update(1, 3, "ETH", "BTC"));
+        content = awaitContent(result, "id:3");
+        assertTrue(content.contains("\"leaders\":[{\"name\":\"BTC\""), content);
+        assertFalse(content.contains("XRP"), content);
+        assertEquals(1, content.split("id:1\n", -1).length - 1, content);
+    }
+
+    @Test
+    void testSubscribersShareOneEncodedEvent() throws Exception {
+        when(leaderboard.current(6)).thenReturn(Optional.empty());
+
+        MvcResult[] results = new MvcResult[20];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = mockMvc.perform(get("/recommendations/stream?periodMonths=6")
+                            .header("Authorization", "Token user-123"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+        }
+        assertTrue(broadcaster.subscriberCount() >= results.length);
+
+        broadcaster.accept(update(10, 6, "LTC"));
+        String first = awaitContent(results[0], "id:10");
+        for (MvcResult result : results) {
+            assertEquals(first, awaitContent(result, "id:10"));
+        }
+    }
+
+    @Test
+    void testUnknownPeriodMonths() throws Exception {
+        doThrow(new InvalidTimeframeException("periodMonths must be one of [1, 3, 6, 12]"))
+                .when(leaderboard).checkPeriodMonths(intThat(months -> months == 2));
+
+        mockMvc.perform(get("/recommendations/stream?periodMonths=2")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isBadRequest());
+    }
+}
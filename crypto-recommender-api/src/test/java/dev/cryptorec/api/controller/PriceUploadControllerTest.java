@@ -0,0 +1,147 @@
+package dev.cryptorec.api.controller;
+
+import dev.cryptorec.api.ControllerTestConfig;
+import dev.cryptorec.api.config.ApiConfig;
+import dev.cryptorec.api.error.GlobalExceptionHandler;
+import dev.cryptorec.model.exception.ReadOnlyProviderException;
+import dev.cryptorec.model.exception.UploadTooLargeException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.PriceIngestion;
+import dev.cryptorec.service.PriceUploadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.time.Duration;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = PriceUploadController.class)
+@ContextConfiguration(classes = {
+        ControllerTestConfig.class,
+        PriceUploadControllerTest.UploadConfig.class,
+        PriceUploadController.class,
+        GlobalExceptionHandler.class
+})
+class PriceUploadControllerTest {
+
+    private static final String CSV = "timestamp,symbol,price\n1641009600000,BTC,46813.21\n";
+
+    @TestConfiguration
+    static class UploadConfig {
+        @Bean
+        public PriceUploadService priceUploadService() {
+            return Mockito.mock(PriceUploadService.class);
+        }
+
+        @Bean
+        public WebMvcConfigurer tokenAuthConfigurer() {
+            return new ApiConfig().tokenAuthConfigurer("", "admin");
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PriceUploadService service;
+
+    private String body;
+
+    @BeforeEach
+    void setup() {
+        reset(service);
+        when(service.upload(any(), any(), anyBoolean())).thenAnswer(invocation -> {
+            try (BufferedReader reader = new BufferedReader(invocation.<Reader>getArgument(1))) {
+                body = String.join("\n", reader.lines().toList()) + "\n";
+            }
+            return new PriceUploadService.UploadReport(
+                    new PriceIngestion.IngestResult("BTC", 1, 0, 1, invocation.getArgument(2)), 1,
+                    Duration.ofMillis(2));
+        });
+    }
+
+    @Test
+    void testUploadRawBody() throws Exception {
+        mockMvc.perform(put("/admin/prices/BTC?persist=true")
+                        .header("Authorization", "Token admin")
+                        .contentType("text/csv")
+                        .content(CSV))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.symbol", equalTo("BTC")))
+                .andExpect(jsonPath("$.rows", equalTo(1)))
+                .andExpect(jsonPath("$.added", equalTo(1)))
+                .andExpect(jsonPath("$.persisted", equalTo(true)))
+                .andExpect(jsonPath("$.rowsPerSecond", equalTo(500)));
+
+        assertEquals(CSV, body);
+        verify(service).upload(eq("BTC"), any(), eq(true));
+    }
+
+    @Test
+    void testUploadMultipartFile() throws Exception {
+        mockMvc.perform(multipart(HttpMethod.PUT, "/admin/prices/BTC")
+                        .file(new MockMultipartFile("file", "BTC_values.csv", "text/csv", CSV.getBytes()))
+                        .header("Authorization", "Token admin"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.persisted", equalTo(false)));
+
+        assertEquals(CSV, body);
+    }
+
+    @Test
+    void testRejectsUploadsWithoutAdminToken() throws Exception {
+        mockMvc.perform(put("/admin/prices/BTC").contentType("text/csv").content(CSV))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(put("/admin/prices/BTC").header("Authorization", "Bearer secret")
+                        .contentType("text/csv").content(CSV))
+                .andExpect(status().isUnauthorized());
+
+        verify(service, never()).upload(any(), any(), anyBoolean());
+    }
+
+    @Test
+    void testUploadErrors() throws Exception {
+        doThrow(new ValidationException("Line 2: timestamp and price must be numbers"))
+                .when(service).upload(eq("BAD"), any(), anyBoolean());
+        doThrow(new ReadOnlyProviderException("The JdbcDataProvider does not accept uploads"))
+                .when(service).upload(eq("RO"), any(), anyBoolean());
+        doThrow(new UploadTooLargeException("Upload of BIG exceeds 1 rows, split it into several uploads"))
+                .when(service).upload(eq("BIG"), any(), anyBoolean());
+
+        mockMvc.perform(put("/admin/prices/BAD").header("Authorization", "Token admin")
+                        .contentType("text/csv").content(CSV))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.details[0]", equalTo("Line 2: timestamp and price must be numbers")));
+        mockMvc.perform(put("/admin/prices/RO").header("Authorization", "Token admin")
+                        .contentType("text/csv").content(CSV))
+                .andExpect(status().isNotImplemented());
+        mockMvc.perform(put("/admin/prices/BIG").header("Authorization", "Token admin")
+                        .contentType("text/csv").content(CSV))
+                .andExpect(status().isPayloadTooLarge());
+    }
+}
@@ -1,27 +1,43 @@
 package dev.cryptorec.api.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import dev.cryptorec.api.ControllerTestConfig;
 import dev.cryptorec.api.error.GlobalExceptionHandler;
+import dev.cryptorec.api.latency.LatencyTracker;
+import dev.cryptorec.api.latency.SlowRequest;
+import dev.cryptorec.api.latency.SlowRequestLog;
 import dev.cryptorec.api.mapper.RecommendationMapper;
 import dev.cryptorec.model.PaginatedResult;
 import dev.cryptorec.model.PriceData;
 import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.CursorExpiredException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.model.util.RequestTrace;
 import dev.cryptorec.service.RecommendationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 import org.mockito.ArgumentMatchers;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -42,6 +58,22 @@ class RecommendationControllerTest {
     @Autowired
     private RecommendationMapper mapper;
 
+    @Autowired
+    private LatencyTracker latencyTracker;
+
+    @Autowired
+    private SlowRequestLog slowRequests;
+
+    /**
+     * Performs a request handled asynchronously by the controller and dispatches its result.
+     */
+    private ResultActions performAsync(MockHttpServletRequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
+
     private dev.cryptorec.model.CryptoStats createMockStats(String symbol) {
         PriceData pricePoint = new PriceData(1641009600000L, new BigDecimal("46813.21"));
         return new dev.cryptorec.model.CryptoStats(
@@ -63,16 +95,17 @@ class RecommendationControllerTest {
 
         var serviceResult = new PaginatedResult<>(List.of(stats1, stats2), 0, 50, 2, 1);
 
-        when(service.getRecommendations(
-                ArgumentMatchers.anyInt(),
+        when(service.getRecommendationsPage(
+                ArgumentMatchers.isNull(),
                 ArgumentMatchers.anyInt(),
                 ArgumentMatchers.anyString(),
                 ArgumentMatchers.any(),
                 ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
                 ArgumentMatchers.any()))
-                .thenReturn(serviceResult);
+                .thenReturn(CompletableFuture.completedFuture(serviceResult));
 
-        mockMvc.perform(get("/recommendations")
+        performAsync(get("/recommendations")
                         .header("Authorization", "Token user-123"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.page", equalTo(0)))
@@ -96,10 +129,11 @@ class RecommendationControllerTest {
                 ArgumentMatchers.anyString(),
                 ArgumentMatchers.any(),
                 ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
                 ArgumentMatchers.any()))
-                .thenReturn(serviceResult);
+                .thenReturn(CompletableFuture.completedFuture(serviceResult));
 
-        mockMvc.perform(get("/recommendations?page=1&size=10")
+        performAsync(get("/recommendations?page=1&size=10")
                         .header("Authorization", "Token user-123"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.page", equalTo(1)))
@@ -108,6 +142,87 @@ class RecommendationControllerTest {
                 .andExpect(jsonPath("$.recommendations[0].name", equalTo("BTC")));
     }
 
+    @Test
+    void testGetRecommendationsWithFilter() throws Exception {
+        var serviceResult = new PaginatedResult<>(List.of(createMockStats("ETH")), 0, 50, 1, 1);
+
+        when(service.getRecommendationsPage(
+                ArgumentMatchers.isNull(),
+                ArgumentMatchers.anyInt(),
+                ArgumentMatchers.eq("max_desc,symbol_asc"),
+                ArgumentMatchers.eq("normalizedRange > 0.5 AND max < 100"),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()))
+                .thenReturn(CompletableFuture.completedFuture(serviceResult));
+
+        performAsync(get("/recommendations")
+                        .param("sort_by", "max_desc,symbol_asc")
+                        .param("filter", "normalizedRange > 0.5 AND max < 100")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.recommendations", hasSize(1)))
+                .andExpect(jsonPath("$.recommendations[0].name", equalTo("ETH")));
+    }
+
+    @Test
+    void testGetRecommendationsWithInvalidFilter() throws Exception {
+        when(service.getRecommendationsPage(
+                ArgumentMatchers.isNull(),
+                ArgumentMatchers.anyInt(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.eq("max <"),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()))
+                .thenThrow(new ValidationException("Invalid filter at position 5: Expected a number after '<'"));
+
+        mockMvc.perform(get("/recommendations")
+                        .param("filter", "max <")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetRecommendationsWithCursor() throws Exception {
+        var serviceResult = new PaginatedResult<>(List.of(createMockStats("ETH")), 1, 1, 3, 3, List.of(), "next-token");
+
+        when(service.getRecommendationsPage(
+                ArgumentMatchers.eq("token"),
+                ArgumentMatchers.eq(1),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()))
+                .thenReturn(CompletableFuture.completedFuture(serviceResult));
+
+        performAsync(get("/recommendations?size=1&cursor=token")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page", equalTo(1)))
+                .andExpect(jsonPath("$.recommendations[0].name", equalTo("ETH")))
+                .andExpect(jsonPath("$.nextCursor", equalTo("next-token")));
+    }
+
+    @Test
+    void testGetRecommendationsWithExpiredCursor() throws Exception {
+        when(service.getRecommendationsPage(
+                ArgumentMatchers.eq("expired"),
+                ArgumentMatchers.anyInt(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()))
+                .thenThrow(new CursorExpiredException("Cursor expired, request the first page again"));
+
+        mockMvc.perform(get("/recommendations?cursor=expired")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isGone())
+                .andExpect(jsonPath("$.code", equalTo(410)));
+    }
+
     @Test
     void testGetRecommendationsByCrypto() throws Exception {
         dev.cryptorec.model.CryptoStats stats = createMockStats("BTC");
@@ -117,10 +232,10 @@ class RecommendationControllerTest {
                 ArgumentMatchers.any(),
                 ArgumentMatchers.any(),
                 ArgumentMatchers.any()))
-                .thenReturn(stats);
+                .thenReturn(CompletableFuture.completedFuture(stats));
 
 
-        mockMvc.perform(get("/recommendations/BTC")
+        performAsync(get("/recommendations/BTC")
                         .header("Authorization", "Token user-123"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", equalTo("BTC")));
@@ -133,9 +248,9 @@ class RecommendationControllerTest {
                 ArgumentMatchers.any(),
                 ArgumentMatchers.any(),
                 ArgumentMatchers.any()))
-                .thenThrow(new CryptoNotFoundException("Crypto not found"));
+                .thenReturn(CompletableFuture.failedFuture(new CryptoNotFoundException("Crypto not found")));
 
-        mockMvc.perform(get("/recommendations/INVALID")
+        performAsync(get("/recommendations/INVALID")
                         .header("Authorization", "Token user-123"))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.code", equalTo(404)))
@@ -149,10 +264,10 @@ class RecommendationControllerTest {
         when(service.getTopCrypto(
                 ArgumentMatchers.any(),
                 ArgumentMatchers.any(),
-                ArgumentMatchers.any())).thenReturn(stats);
+                ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(stats));
 
 
-        mockMvc.perform(get("/recommendations/top")
+        performAsync(get("/recommendations/top")
                         .header("Authorization", "Token user-123"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.name", equalTo("BTC")));
@@ -164,19 +279,89 @@ class RecommendationControllerTest {
 
         var serviceResult = new PaginatedResult<>(List.of(stats), 0, 50, 1, 1);
 
-        when(service.getRecommendations(
-                ArgumentMatchers.anyInt(),
+        when(service.getRecommendationsPage(
+                ArgumentMatchers.isNull(),
                 ArgumentMatchers.anyInt(),
                 ArgumentMatchers.anyString(),
+                ArgumentMatchers.any(),
                 ArgumentMatchers.eq(LocalDate.of(2022, 1, 1)),
                 ArgumentMatchers.eq(LocalDate.of(2022, 1, 31)),
                 ArgumentMatchers.isNull()))
-                .thenReturn(serviceResult);
+                .thenReturn(CompletableFuture.completedFuture(serviceResult));
 
-        mockMvc.perform(get("/recommendations?fromDate=2022-01-01&toDate=2022-01-31")
+        performAsync(get("/recommendations?fromDate=2022-01-01&toDate=2022-01-31")
                         .header("Authorization", "Token user-123"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.recommendations", hasSize(1)))
                 .andExpect(jsonPath("$.recommendations[0].name", equalTo("BTC")));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetRecommendationsAsCbor() throws Exception {
+        var serviceResult = new PaginatedResult<>(List.of(createMockStats("BTC"), createMockStats("ETH")), 0, 50, 2, 1);
+
+        when(service.getRecommendationsPage(
+                ArgumentMatchers.isNull(),
+                ArgumentMatchers.anyInt(),
+                ArgumentMatchers.anyString(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any()))
+                .thenReturn(CompletableFuture.completedFuture(serviceResult));
+
+        byte[] body = performAsync(get("/recommendations")
+                        .accept("application/cbor")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode response = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals(2, response.get("totalElements").asInt());
+        assertEquals("ETH", response.get("recommendations").get(1).get("name").asText());
+        assertEquals(46813.21, response.get("recommendations").get(0).get("min").get("price").asDouble());
+        assertEquals(1641009600000L, response.get("recommendations").get(0).get("min").get("timestamp").asLong());
+    }
+
+    @Test
+    void testJsonRemainsDefault() throws Exception {
+        when(service.getTopCrypto(
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any(),
+                ArgumentMatchers.any())).thenReturn(CompletableFuture.completedFuture(createMockStats("BTC")));
+
+        performAsync(get("/recommendations/top")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/json"));
+    }
+
+    @Test
+    void testLatencyIsRecordedPerEndpointWithStageTimings() throws Exception {
+        when(service.getStats(ArgumentMatchers.eq("DOGE"), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.eq(3)))
+                .thenAnswer(invocation -> {
+                    // the service resolves the timeframe on the request thread
+                    RequestTrace.current().add(RequestTrace.Stage.RESOLVE, 2_000_000);
+                    return CompletableFuture.completedFuture(createMockStats("DOGE"));
+                });
+
+        performAsync(get("/recommendations/DOGE?periodMonths=3")
+                        .header("Authorization", "Token user-123"))
+                .andExpect(status().isOk());
+
+        String endpoint = "GET /recommendations/{cryptoName}";
+        assertTrue(latencyTracker.snapshot().get(endpoint).window().count() >= 1);
+
+        SlowRequest captured = slowRequests.recent().stream()
+                .filter(request -> request.request().endsWith("/recommendations/DOGE?periodMonths=3"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(endpoint, captured.endpoint());
+        assertEquals(200, captured.status());
+        assertEquals(List.of("resolve", "map"), List.copyOf(captured.stageMillis().keySet()));
+        assertEquals(2.0, captured.stageMillis().get("resolve"));
+        assertTrue(captured.totalMillis() > 0);
+    }
+}
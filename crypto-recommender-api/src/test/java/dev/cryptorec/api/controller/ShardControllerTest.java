@@ -0,0 +1,71 @@
+package dev.cryptorec.api.controller;
+
+import dev.cryptorec.api.ControllerTestConfig;
+import dev.cryptorec.api.config.ApiConfig;
+import dev.cryptorec.api.error.GlobalExceptionHandler;
+import dev.cryptorec.provider.sharded.LocalShardClient;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = ShardController.class)
+@TestPropertySource(properties = "crypto.provider.type=sharded")
+@ContextConfiguration(classes = {
+        ControllerTestConfig.class,
+        ShardControllerTest.ShardConfig.class,
+        ShardController.class,
+        GlobalExceptionHandler.class
+})
+class ShardControllerTest {
+
+    @TestConfiguration
+    static class ShardConfig {
+        @Bean
+        public LocalShardClient localShardClient() {
+            return Mockito.mock(LocalShardClient.class);
+        }
+
+        @Bean
+        public WebMvcConfigurer tokenAuthConfigurer() {
+            return new ApiConfig().tokenAuthConfigurer("secret", "");
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LocalShardClient localShard;
+
+    @Test
+    void testServesPeersWithToken() throws Exception {
+        when(localShard.symbols()).thenReturn(List.of("BTC", "ETH"));
+
+        mockMvc.perform(get("/internal/shard/symbols").header("Authorization", "Bearer secret"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]", equalTo("BTC")));
+    }
+
+    @Test
+    void testRejectsCallsWithoutToken() throws Exception {
+        mockMvc.perform(get("/internal/shard/symbols"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.code", equalTo(401)));
+        mockMvc.perform(get("/internal/shard/symbols").header("Authorization", "Bearer wrong"))
+                .andExpect(status().isUnauthorized());
+    }
+}
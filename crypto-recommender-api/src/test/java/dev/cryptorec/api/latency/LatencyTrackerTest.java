@@ -0,0 +1,110 @@
+package dev.cryptorec.api.latency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyTrackerTest {
+
+    private static final String ENDPOINT = "GET /recommendations";
+
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+
+    private final LatencyTracker tracker = new LatencyTracker(Duration.ofMinutes(1), 3, clock);
+
+    private void record(int count, long millis) {
+        for (int i = 0; i < count; i++) {
+            tracker.record(ENDPOINT, Duration.ofMillis(millis).toNanos());
+        }
+    }
+
+    @Test
+    void testPercentilesShowTheTail() {
+        record(990, 5);
+        record(10, 2000);
+
+        LatencyTracker.LatencySummary window = tracker.snapshot().get(ENDPOINT).window();
+
+        assertEquals(1000, window.count());
+        assertEquals(5.0, window.p50(), 0.01);
+        assertEquals(5.0, window.p99(), 0.01);
+        assertEquals(2000.0, window.p999(), 2.0);
+        assertEquals(2000.0, window.max(), 2.0);
+    }
+
+    @Test
+    void testIntervalsRollOver() {
+        record(100, 10);
+        now = now.plusSeconds(60);
+        record(100, 500);
+        now = now.plusSeconds(30);
+
+        LatencyTracker.EndpointSummary summary = tracker.snapshot().get(ENDPOINT);
+        List<LatencyTracker.LatencySummary> intervals = summary.intervals();
+
+        assertEquals(2, intervals.size());
+        // current interval first
+        assertEquals(Instant.parse("2026-01-01T00:01:00Z"), intervals.get(0).start());
+        assertEquals(500.0, intervals.get(0).p50(), 1.0);
+        assertEquals(10.0, intervals.get(1).p50(), 0.1);
+        assertEquals(200, summary.window().count());
+        assertEquals(Instant.parse("2026-01-01T00:00:00Z"), summary.window().start());
+    }
+
+    @Test
+    void testOnlyTheLastIntervalsAreKept() {
+        record(1, 10);
+        // idle for longer than the window: the old interval drops out
+        now = now.plusSeconds(10 * 60);
+        record(1, 20);
+
+        LatencyTracker.EndpointSummary summary = tracker.snapshot().get(ENDPOINT);
+
+        assertEquals(1, summary.window().count());
+        assertEquals(20.0, summary.window().max(), 0.1);
+        assertEquals(Instant.parse("2026-01-01T00:10:00Z"), summary.intervals().getFirst().start());
+
+        for (int minute = 0; minute < 5; minute++) {
+            now = now.plusSeconds(60);
+            record(1, 30);
+        }
+        assertEquals(4, tracker.snapshot().get(ENDPOINT).intervals().size()); // current + 3 completed
+    }
+
+    @Test
+    void testEndpointsAreTrackedSeparately() {
+        tracker.record("GET /recommendations/top", Duration.ofMillis(1).toNanos());
+        record(2, 3);
+
+        Map<String, LatencyTracker.EndpointSummary> snapshot = tracker.snapshot();
+
+        assertEquals(List.of("GET /recommendations", "GET /recommendations/top"), List.copyOf(snapshot.keySet()));
+        assertEquals(1, snapshot.get("GET /recommendations/top").window().count());
+        assertThrows(IllegalArgumentException.class, () -> new LatencyTracker(Duration.ZERO, 1, clock));
+    }
+}
@@ -0,0 +1,32 @@
+package dev.cryptorec.api.latency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowRequestLogTest {
+
+    private static SlowRequest request(int n) {
+        return new SlowRequest(Instant.EPOCH, "GET /recommendations", "GET /recommendations?page=" + n, 200,
+                1500.0, Map.of());
+    }
+
+    @Test
+    void testKeepsTheMostRecentRequestsNewestFirst() {
+        SlowRequestLog log = new SlowRequestLog(3);
+        assertTrue(log.recent().isEmpty());
+
+        for (int i = 1; i <= 5; i++) {
+            log.add(request(i));
+        }
+
+        assertEquals(List.of(request(5), request(4), request(3)), log.recent());
+        assertEquals(5, log.total());
+        assertEquals(3, log.capacity());
+        assertThrows(IllegalArgumentException.class, () -> new SlowRequestLog(0));
+    }
+}
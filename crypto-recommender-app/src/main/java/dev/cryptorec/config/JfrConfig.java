@@ -0,0 +1,43 @@
+package dev.cryptorec.config;
+
+import dev.cryptorec.jfr.JfrEndpoint;
+import dev.cryptorec.jfr.JfrRecorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of on-demand flight recordings through the {@code jfr} actuator endpoint.
+ */
+@Configuration
+public class JfrConfig {
+
+    /**
+     * Creates the recorder; a running recording is stopped and written on shutdown.
+     *
+     * @param directory   directory of the recording files
+     * @param settings    name of the JFR settings file
+     * @param maxDuration duration after which a recording stops by itself
+     * @return flight recorder
+     */
+    @Bean(destroyMethod = "stop")
+    public JfrRecorder jfrRecorder(@Value("${crypto.jfr.directory:recordings}") Path directory,
+                                   @Value("${crypto.jfr.settings:default}") String settings,
+                                   @Value("${crypto.jfr.max-duration:10m}") Duration maxDuration) {
+        return new JfrRecorder(directory, settings, maxDuration);
+    }
+
+    /**
+     * Creates the {@code jfr} actuator endpoint.
+     *
+     * @param recorder flight recorder
+     * @return jfr endpoint
+     */
+    @Bean
+    public JfrEndpoint jfrEndpoint(JfrRecorder recorder) {
+        return new JfrEndpoint(recorder);
+    }
+}
@@ -0,0 +1,32 @@
+package dev.cryptorec.config;
+
+import dev.cryptorec.api.latency.LatencyTracker;
+import dev.cryptorec.api.latency.SlowRequestLog;
+import dev.cryptorec.latency.LatencyEndpoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the latency actuator endpoint; the histograms and the slow request capture are configured by
+ * the API module.
+ */
+@Configuration
+public class LatencyConfig {
+
+    /**
+     * Creates the {@code latency} actuator endpoint.
+     *
+     * @param tracker       latency histograms per endpoint
+     * @param slowRequests  buffer of captured slow requests
+     * @param slowThreshold latency from which a request is captured
+     * @return latency endpoint
+     */
+    @Bean
+    public LatencyEndpoint latencyEndpoint(LatencyTracker tracker, SlowRequestLog slowRequests,
+                                           @Value("${crypto.latency.slow-threshold:1s}") Duration slowThreshold) {
+        return new LatencyEndpoint(tracker, slowRequests, slowThreshold);
+    }
+}
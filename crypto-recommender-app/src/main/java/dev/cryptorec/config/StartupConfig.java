@@ -0,0 +1,29 @@
+package dev.cryptorec.config;
+
+import dev.cryptorec.provider.AsyncDataProvider;
+import dev.cryptorec.provider.DataProvider;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of application startup.
+ * <p>
+ * With the fast-start profile (spring.main.lazy-initialization=true) beans are created on first use, which skips
+ * the construction of everything a pod does not need to serve its first request (docs, actuator extras, ...).
+ * Data providers are critical: they stay eager so that price data is loaded during startup instead of on the
+ * first request.
+ */
+@Configuration
+public class StartupConfig {
+
+    /**
+     * Keeps data providers eagerly initialized when lazy initialization is enabled.
+     *
+     * @return filter excluding data providers from lazy initialization
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter dataProviderEagerInitialization() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataProvider.class, AsyncDataProvider.class);
+    }
+}
@@ -0,0 +1,106 @@
+package dev.cryptorec.config;
+
+import dev.cryptorec.provider.AsyncDataProvider;
+import dev.cryptorec.service.RecommendationService;
+import dev.cryptorec.warmup.WarmupHealthIndicator;
+import dev.cryptorec.warmup.WarmupRunner;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+
+/**
+ * Configuration of the warm-up phase.
+ * <p>
+ * Once the application is ready, warm-up runs on a virtual thread while the liveness probe already succeeds;
+ * the "warmup" contributor of the readiness group stays OUT_OF_SERVICE until it is done or its budget is spent.
+ */
+@Configuration
+public class WarmupConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupConfig.class);
+    private static final String CONTROLLER_RATE_LIMITER = "recominderConntroller";
+
+    /**
+     * Creates the readiness contributor of the warm-up, UP from the start if warm-up is disabled.
+     *
+     * @param enabled whether warm-up runs after startup
+     * @return warm-up health indicator
+     */
+    @Bean
+    public WarmupHealthIndicator warmupHealthIndicator(@Value("${crypto.warmup.enabled:true}") boolean enabled) {
+        return new WarmupHealthIndicator(!enabled);
+    }
+
+    /**
+     * Starts the warm-up when the application is ready.
+     * <p>
+     * Its requests are paced to use at most half of the permits of the controller rate limiter per refresh period,
+     * so that traffic arriving as soon as the instance is ready is not rejected.
+     *
+     * @param service         recommendation service
+     * @param dataProvider    active data provider
+     * @param healthIndicator readiness contributor completed by the warm-up
+     * @param rateLimiters    rate limiters of the controllers
+     * @param iterations      number of repeated service calls
+     * @param budget          maximum duration of the warm-up
+     * @param requestTimeout  connect and read timeout of a warm-up request
+     * @return listener starting the warm-up
+     */
+    @Bean
+    @ConditionalOnProperty(name = "crypto.warmup.enabled", havingValue = "true", matchIfMissing = true)
+    public ApplicationListener<ApplicationReadyEvent> warmupListener(
+            RecommendationService service, AsyncDataProvider dataProvider, WarmupHealthIndicator healthIndicator,
+            RateLimiterRegistry rateLimiters,
+            @Value("${crypto.warmup.iterations:200}") int iterations,
+            @Value("${crypto.warmup.budget:30s}") Duration budget,
+            @Value("${crypto.warmup.request-timeout:5s}") Duration requestTimeout) {
+        RateLimiterConfig limit = rateLimiters.rateLimiter(CONTROLLER_RATE_LIMITER).getRateLimiterConfig();
+        Duration requestInterval = limit.getLimitRefreshPeriod().multipliedBy(2)
+                .dividedBy(Math.max(1, limit.getLimitForPeriod()));
+        return event -> {
+            RestClient restClient = localRestClient(event.getApplicationContext().getEnvironment(), requestTimeout);
+            WarmupRunner runner = new WarmupRunner(service, dataProvider, restClient, iterations, budget,
+                    requestInterval);
+
+            Thread.ofVirtual().name("warmup").start(() -> {
+                try {
+                    healthIndicator.complete(runner.run());
+                } catch (RuntimeException e) {
+                    log.error("Warm-up failed, accepting traffic without it", e);
+                    healthIndicator.complete(null);
+                }
+            });
+        };
+    }
+
+    /**
+     * @return client calling this instance, null if it does not run an embedded web server
+     */
+    private static RestClient localRestClient(Environment environment, Duration timeout) {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            return null;
+        }
+        String contextPath = environment.getProperty("server.servlet.context-path", "");
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        return RestClient.builder()
+                .baseUrl("http://localhost:" + port + contextPath)
+                .requestFactory(requestFactory)
+                .build();
+    }
+}
@@ -0,0 +1,48 @@
+package dev.cryptorec.jfr;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+/**
+ * Actuator endpoint {@code /actuator/jfr} controlling a flight recording:
+ * GET shows its status, POST starts it and DELETE stops it and writes the file.
+ * Settings, directory and maximum duration come from the {@code crypto.jfr} configuration.
+ */
+@Endpoint(id = "jfr")
+public class JfrEndpoint {
+
+    private final JfrRecorder recorder;
+
+    /**
+     * @param recorder recorder controlled by the endpoint
+     */
+    public JfrEndpoint(JfrRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * @return status of the current or last recording
+     */
+    @ReadOperation
+    public JfrRecorder.RecordingStatus status() {
+        return recorder.status();
+    }
+
+    /**
+     * @return status of the started recording, or of the one already running
+     */
+    @WriteOperation
+    public JfrRecorder.RecordingStatus start() {
+        return recorder.start();
+    }
+
+    /**
+     * @return status with the file of the stopped recording
+     */
+    @DeleteOperation
+    public JfrRecorder.RecordingStatus stop() {
+        return recorder.stop();
+    }
+}
@@ -0,0 +1,135 @@
+package dev.cryptorec.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Starts and stops a Java Flight Recorder recording into a file of a local directory.
+ * <p>
+ * At most one recording runs at a time. It uses a JFR settings file ("default" has ~1% overhead and suits
+ * production, "profile" samples more) and stops by itself after the maximum duration, so a forgotten recording does
+ * not fill the disk. The recording contains the application events of {@code dev.cryptorec.model.jfr} next to the
+ * JVM events (GC, allocation, lock contention, I/O) and can be opened in JDK Mission Control or with
+ * {@code jfr print --events dev.cryptorec.* file.jfr}.
+ */
+public class JfrRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(JfrRecorder.class);
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    private final Path directory;
+    private final String settings;
+    private final Duration maxDuration;
+
+    private Recording recording;
+    private Path file;
+
+    /**
+     * @param directory   directory of the recording files, created if missing
+     * @param settings    name of the JFR settings file, e.g. "default" or "profile"
+     * @param maxDuration duration after which a recording stops by itself
+     */
+    public JfrRecorder(Path directory, String settings, Duration maxDuration) {
+        if (maxDuration.isNegative() || maxDuration.isZero()) {
+            throw new IllegalArgumentException("maxDuration must be positive");
+        }
+        this.directory = directory;
+        this.settings = settings;
+        this.maxDuration = maxDuration;
+    }
+
+    /**
+     * Starts a recording, unless one is already running.
+     *
+     * @return status of the running recording
+     * @throws IllegalStateException if the settings file is unknown
+     */
+    public synchronized RecordingStatus start() {
+        if (isRunning()) {
+            return status();
+        }
+        Configuration configuration = Configuration.getConfigurations().stream()
+                .filter(candidate -> candidate.getName().equals(settings))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown JFR settings: " + settings));
+        try {
+            Files.createDirectories(directory);
+            Recording newRecording = new Recording(configuration);
+            Instant now = Instant.now();
+            Path destination = directory.resolve("crypto-recommender-" + FILE_TIMESTAMP.format(now) + ".jfr");
+            newRecording.setName("crypto-recommender");
+            newRecording.setToDisk(true);
+            newRecording.setDestination(destination);
+            newRecording.setDuration(maxDuration);
+            newRecording.start();
+            closeRecording();
+            recording = newRecording;
+            file = destination.toAbsolutePath();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to start a JFR recording into " + directory, e);
+        }
+        log.info("Started JFR recording into {} (settings {}, at most {})", file, settings, maxDuration);
+        return status();
+    }
+
+    /**
+     * Stops the running recording and writes its file.
+     *
+     * @return status with the file of the stopped recording, if any
+     */
+    public synchronized RecordingStatus stop() {
+        if (isRunning()) {
+            recording.stop();
+            log.info("Stopped JFR recording, written to {}", file);
+        }
+        return status();
+    }
+
+    /**
+     * @return status of the current or last recording
+     */
+    public synchronized RecordingStatus status() {
+        if (recording == null) {
+            return new RecordingStatus(false, settings, maxDuration.toString(), null, null, null);
+        }
+        boolean running = isRunning();
+        return new RecordingStatus(running, settings, maxDuration.toString(), file.toString(),
+                recording.getStartTime(), running ? null : recording.getStopTime());
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    /**
+     * @param running     whether a recording is running
+     * @param settings    JFR settings file of the recordings
+     * @param maxDuration duration after which a recording stops by itself (ISO-8601)
+     * @param file        file of the current or last recording, written when it stops
+     * @param started     start of the current or last recording
+     * @param stopped     end of the last recording, null while it runs
+     */
+    public record RecordingStatus(boolean running, String settings, String maxDuration, String file, Instant started,
+                                  Instant stopped) {
+    }
+}
@@ -0,0 +1,63 @@
+package dev.cryptorec.latency;
+
+import dev.cryptorec.api.latency.LatencyTracker;
+import dev.cryptorec.api.latency.SlowRequest;
+import dev.cryptorec.api.latency.SlowRequestLog;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint {@code /actuator/latency} exposing the latency percentiles per endpoint over the rolling
+ * intervals, and the captured slow requests with their stage timings.
+ */
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    private final LatencyTracker tracker;
+    private final SlowRequestLog slowRequests;
+    private final Duration slowThreshold;
+
+    /**
+     * @param tracker       latency histograms per endpoint
+     * @param slowRequests  buffer of captured slow requests
+     * @param slowThreshold latency from which a request is captured
+     */
+    public LatencyEndpoint(LatencyTracker tracker, SlowRequestLog slowRequests, Duration slowThreshold) {
+        this.tracker = tracker;
+        this.slowRequests = slowRequests;
+        this.slowThreshold = slowThreshold;
+    }
+
+    /**
+     * @return percentiles per endpoint for the whole window and each interval, in milliseconds, and the slow requests
+     */
+    @ReadOperation
+    public LatencyReport latency() {
+        return new LatencyReport(tracker.interval().toString(), tracker.intervals(), tracker.snapshot(),
+                new SlowRequests(slowThreshold.toMillis(), slowRequests.capacity(), slowRequests.total(),
+                        slowRequests.recent()));
+    }
+
+    /**
+     * @param interval     length of an interval (ISO-8601)
+     * @param intervals    number of completed intervals kept
+     * @param endpoints    latency per endpoint
+     * @param slowRequests captured slow requests
+     */
+    public record LatencyReport(String interval, int intervals, Map<String, LatencyTracker.EndpointSummary> endpoints,
+                                SlowRequests slowRequests) {
+    }
+
+    /**
+     * @param thresholdMillis latency from which a request is captured
+     * @param capacity        maximum number of retained requests
+     * @param total           number of slow requests since startup, including those no longer retained
+     * @param requests        retained requests, newest first
+     */
+    public record SlowRequests(long thresholdMillis, int capacity, long total, List<SlowRequest> requests) {
+    }
+}
@@ -0,0 +1,51 @@
+package dev.cryptorec.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Readiness contributor that stays OUT_OF_SERVICE until the warm-up phase is over.
+ * Part of the readiness health group, so Kubernetes only routes traffic to warmed-up pods.
+ */
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private volatile WarmupReport report;
+    private volatile boolean done;
+
+    /**
+     * @param skipped true if warm-up is disabled, the indicator is then UP from the start
+     */
+    public WarmupHealthIndicator(boolean skipped) {
+        this.done = skipped;
+    }
+
+    /**
+     * Marks the warm-up as finished.
+     *
+     * @param report outcome of the warm-up, null if it failed
+     */
+    public void complete(WarmupReport report) {
+        this.report = report;
+        this.done = true;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public Health health() {
+        if (!done) {
+            return Health.outOfService().withDetail("warmup", "in progress").build();
+        }
+        if (report == null) {
+            return Health.up().build();
+        }
+        return Health.up()
+                .withDetail("completed", report.completed())
+                .withDetail("durationMs", report.total().toMillis())
+                .withDetail("calls", report.calls())
+                .withDetail("errors", report.errors())
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package dev.cryptorec.warmup;
+
+import java.time.Duration;
+
+/**
+ * Outcome of the warm-up phase.
+ *
+ * @param precompute   time spent computing stats for the standard windows
+ * @param http         time spent on synthetic requests through the web stack
+ * @param jit          time spent on repeated service calls
+ * @param httpRequests number of synthetic HTTP requests sent
+ * @param calls        number of repeated service calls
+ * @param errors       number of warm-up calls that failed (empty windows, unavailable shards, ...)
+ * @param firstCall    latency of the first repeated service call
+ * @param lastCall     latency of the last repeated service call
+ * @param completed    false if the time budget ran out before all steps were done
+ */
+public record WarmupReport(
+        Duration precompute,
+        Duration http,
+        Duration jit,
+        int httpRequests,
+        int calls,
+        int errors,
+        Duration firstCall,
+        Duration lastCall,
+        boolean completed
+) {
+    /**
+     * @return total warm-up time
+     */
+    public Duration total() {
+        return precompute.plus(http).plus(jit);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s in %d ms: precompute %d ms, http %d ms (%d requests), jit %d ms (%d calls, "
+                        + "first %.2f ms, last %.2f ms), %d errors",
+                completed ? "completed" : "stopped at time budget", total().toMillis(), precompute.toMillis(),
+                http.toMillis(), httpRequests, jit.toMillis(), calls, firstCall.toNanos() / 1e6,
+                lastCall.toNanos() / 1e6, errors);
+    }
+}
@@ -0,0 +1,186 @@
+package dev.cryptorec.warmup;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.provider.AsyncDataProvider;
+import dev.cryptorec.service.RecommendationService;
+import dev.cryptorec.service.StatsPrecomputer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Warms up a freshly started instance before it receives traffic.
+ * <p>
+ * Steps, each stopped when the time budget runs out:
+ * - precompute: stats of all cryptos for the standard periodMonths windows, which loads lazily loaded series and
+ * fills provider caches
+ * - http: one synthetic request per endpoint and window through the web stack (filters, controller, serialization),
+ * paced by the request interval so that it leaves most of the controller's rate limit to real traffic
+ * - jit: repeated service calls over all windows so the hot paths are compiled before the first real request
+ * <p>
+ * Every service call waits at most for the remaining budget, so a stuck call cannot hold readiness back beyond it.
+ */
+public class WarmupRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(WarmupRunner.class);
+
+    /**
+     * periodMonths values offered by the API.
+     */
+    static final List<Integer> STANDARD_PERIOD_MONTHS = StatsPrecomputer.STANDARD_PERIOD_MONTHS;
+
+    private static final String SORT_BY = "normalizedRange_desc";
+    private static final int PAGE_SIZE = 50;
+    private static final String AUTHORIZATION = "Token warmup";
+
+    private final RecommendationService service;
+    private final AsyncDataProvider dataProvider;
+    private final RestClient restClient;
+    private final int iterations;
+    private final Duration budget;
+    private final Duration requestInterval;
+
+    private int errors;
+    private long deadline;
+
+    /**
+     * @param service      recommendation service
+     * @param dataProvider active data provider
+     * @param restClient   client with the base url of this instance, null to skip the http step
+     * @param iterations      number of repeated service calls of the jit step
+     * @param budget          maximum duration of the warm-up
+     * @param requestInterval minimum time between two requests of the http step
+     */
+    public WarmupRunner(RecommendationService service, AsyncDataProvider dataProvider, RestClient restClient,
+                        int iterations, Duration budget, Duration requestInterval) {
+        this.service = service;
+        this.dataProvider = dataProvider;
+        this.restClient = restClient;
+        this.iterations = iterations;
+        this.budget = budget;
+        this.requestInterval = requestInterval;
+    }
+
+    /**
+     * Runs all warm-up steps until done or the time budget runs out.
+     *
+     * @return report of the warm-up
+     */
+    public WarmupReport run() {
+        deadline = System.nanoTime() + budget.toNanos();
+        errors = 0;
+
+        long started = System.nanoTime();
+        List<String> symbols = call(() -> await(dataProvider.getAllCryptos()));
+        if (symbols == null) {
+            symbols = List.of();
+        }
+        for (Integer periodMonths : STANDARD_PERIOD_MONTHS) {
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+            call(() -> await(service.getRecommendations(0, PAGE_SIZE, SORT_BY, null, null, periodMonths)));
+            call(() -> await(service.getTopCrypto(null, null, periodMonths)));
+        }
+        Duration precompute = Duration.ofNanos(System.nanoTime() - started);
+
+        started = System.nanoTime();
+        int httpRequests = 0;
+        if (restClient != null) {
+            String symbol = symbols.isEmpty() ? "BTC" : symbols.getFirst();
+            List<String> uris = new ArrayList<>();
+            for (Integer periodMonths : STANDARD_PERIOD_MONTHS) {
+                uris.add("/recommendations?page=0&size=" + PAGE_SIZE + "&periodMonths=" + periodMonths);
+                uris.add("/recommendations/" + symbol + "?periodMonths=" + periodMonths);
+                uris.add("/recommendations/top?periodMonths=" + periodMonths);
+            }
+            for (String uri : uris) {
+                if (httpRequests > 0 && !pause(requestInterval)) {
+                    break;
+                }
+                get(uri);
+                httpRequests++;
+            }
+        }
+        Duration http = Duration.ofNanos(System.nanoTime() - started);
+
+        started = System.nanoTime();
+        Duration firstCall = Duration.ZERO;
+        Duration lastCall = Duration.ZERO;
+        int calls = 0;
+        while (calls < iterations && System.nanoTime() <= deadline) {
+            Integer periodMonths = STANDARD_PERIOD_MONTHS.get(calls % STANDARD_PERIOD_MONTHS.size());
+            long callStarted = System.nanoTime();
+            if (symbols.isEmpty() || calls % 2 == 0) {
+                call(() -> await(service.getRecommendations(0, PAGE_SIZE, SORT_BY, null, null, periodMonths)));
+            } else {
+                String symbol = symbols.get((calls / 2) % symbols.size());
+                call(() -> await(service.getStats(symbol, null, null, periodMonths)));
+            }
+            lastCall = Duration.ofNanos(System.nanoTime() - callStarted);
+            if (calls == 0) {
+                firstCall = lastCall;
+            }
+            calls++;
+        }
+        Duration jit = Duration.ofNanos(System.nanoTime() - started);
+
+        boolean completed = calls == iterations;
+        WarmupReport report = new WarmupReport(precompute, http, jit, httpRequests, calls, errors, firstCall,
+                lastCall, completed);
+        if (completed) {
+            log.info("Warm-up {}", report);
+        } else {
+            log.warn("Warm-up {} ({})", report, budget);
+        }
+        return report;
+    }
+
+    /**
+     * Waits for a service call, at most until the deadline; a call still running then fails with a timeout.
+     */
+    private <T> T await(CompletableFuture<T> future) {
+        return future.orTimeout(Math.max(1, deadline - System.nanoTime()), TimeUnit.NANOSECONDS).join();
+    }
+
+    /**
+     * @return false if the pause would end after the deadline
+     */
+    private boolean pause(Duration duration) {
+        if (System.nanoTime() + duration.toNanos() > deadline) {
+            return false;
+        }
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private <T> T call(Supplier<T> action) {
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            // windows without data are expected, the code paths are still exercised
+            errors++;
+            log.debug("Warm-up call failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void get(String uri) {
+        call(() -> restClient.get()
+                .uri(uri)
+                .header("Authorization", AUTHORIZATION)
+                .exchange((request, response) -> response.getStatusCode()));
+    }
+}
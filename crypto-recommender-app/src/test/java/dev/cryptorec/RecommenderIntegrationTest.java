@@ -12,6 +12,8 @@ import org.springframework.http.*;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -241,6 +243,29 @@ public class RecommenderIntegrationTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
     }
-}
-
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLatencyEndpointReportsPercentilesAndSlowRequests() {
+        String query = "/top?fromDate=2022-01-01&toDate=2022-01-31";
+        restTemplate.exchange(url() + query, HttpMethod.GET, new HttpEntity<>(headers()), CryptoStats.class);
+        String actuator = "http://localhost:" + port + "/crypto/api/v1/actuator/latency";
+
+        Map<String, Object> latency = restTemplate.getForObject(actuator, Map.class);
+        Map<String, Object> endpoints = (Map<String, Object>) latency.get("endpoints");
+        Map<String, Object> top = (Map<String, Object>) endpoints.get("GET /recommendations/top");
+        Map<String, Object> window = (Map<String, Object>) top.get("window");
+        assertTrue(((Number) window.get("count")).longValue() >= 1);
+        assertTrue(window.containsKey("p999"));
+
+        Map<String, Object> slow = (Map<String, Object>) latency.get("slowRequests");
+        List<Map<String, Object>> requests = (List<Map<String, Object>>) slow.get("requests");
+        Map<String, Object> captured = requests.stream()
+                .filter(request -> ((String) request.get("request")).endsWith(query))
+                .findFirst()
+                .orElseThrow();
+        Map<String, Object> stages = (Map<String, Object>) captured.get("stageMillis");
+        // fetch and calculate run on provider threads, the trace follows them there
+        assertTrue(stages.keySet().containsAll(List.of("resolve", "fetch", "calculate", "map")), stages.toString());
+    }
+}
@@ -0,0 +1,227 @@
+package dev.cryptorec;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures time-to-first-request: from launching a new JVM until the first recommendations request returns 200.
+ * <p>
+ * Run with: mvn -pl crypto-recommender-app test -Pbenchmark -Dtest=StartupTimeTest
+ * <p>
+ * Always measures the default and the fast-start profile from the test classpath. When the app jar was packaged
+ * (mvn package, optionally with -Paot) the jar is measured as well, then extracted and measured with the fast-start
+ * profile, with and without a class data archive created by a training run (JDK 25+: AOT cache, older JDKs: dynamic
+ * AppCDS archive), which is how deployment/Dockerfile runs it.
+ * Each mode is launched bench.startup.runs times (default 3) and the median is reported.
+ * Set bench.startup.max-ms to fail when the fastest mode exceeds that budget.
+ * <p>
+ * The default build runs a single fast-start launch from the test classpath against a generous budget
+ * (startup.smoke.max-ms, default 60 s), which catches gross startup regressions, e.g. eager
+ * loading slipping back into the fast-start profile.
+ */
+class StartupTimeTest {
+
+    private static final String MAIN_CLASS = CryptoRecommenderApplication.class.getName();
+    private static final String CONTEXT_PATH = "/crypto/api/v1";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void testFastStartServesFirstRequestWithinBudget() throws Exception {
+        long budget = Long.getLong("startup.smoke.max-ms", 60_000);
+
+        long elapsed = timeToFirstRequest(List.of("-cp", System.getProperty("java.class.path"), MAIN_CLASS,
+                "--spring.profiles.active=fast-start"));
+
+        assertTrue(elapsed <= budget, "Fast-start time-to-first-request " + elapsed + " ms exceeds " + budget + " ms");
+    }
+
+    @Test
+    @Tag("benchmark")
+    void measureTimeToFirstRequest() throws Exception {
+        int runs = Integer.getInteger("bench.startup.runs", 3);
+        String classpath = System.getProperty("java.class.path");
+        long fastest = Long.MAX_VALUE;
+
+        fastest = Math.min(fastest, measure("classpath", runs, List.of("-cp", classpath, MAIN_CLASS)));
+        fastest = Math.min(fastest, measure("classpath fast-start", runs,
+                List.of("-cp", classpath, MAIN_CLASS, "--spring.profiles.active=fast-start")));
+
+        Path jar = packagedJar();
+        if (jar != null) {
+            fastest = Math.min(fastest, measure("jar", runs, List.of("-jar", jar.toString())));
+
+            String mode = "extracted jar fast-start" + (isAotProcessed(jar) ? " aot" : "");
+            List<String> aot = isAotProcessed(jar) ? List.of("-Dspring.aot.enabled=true") : List.of();
+            List<String> app = concat(aot,
+                    List.of("-jar", extract(jar).toString(), "--spring.profiles.active=fast-start"));
+            fastest = Math.min(fastest, measure(mode, runs, app));
+
+            List<String> archive = train(app);
+            fastest = Math.min(fastest, measure(mode + " + "
+                    + (Runtime.version().feature() >= 25 ? "aot cache" : "appcds"), runs, concat(archive, app)));
+        }
+
+        long budget = Long.getLong("bench.startup.max-ms", Long.MAX_VALUE);
+        assertTrue(fastest <= budget, "Fastest time-to-first-request " + fastest + " ms exceeds " + budget + " ms");
+    }
+
+    /**
+     * Launches the app runs times and prints the median time-to-first-request.
+     *
+     * @return median in milliseconds
+     */
+    private long measure(String mode, int runs, List<String> args) throws Exception {
+        List<Long> samples = new ArrayList<>();
+        for (int run = 0; run < runs; run++) {
+            samples.add(timeToFirstRequest(args));
+        }
+        samples.sort(null);
+        long median = samples.get(samples.size() / 2);
+        System.out.printf("%-40s time-to-first-request median %6d ms, runs %s%n", mode, median, samples);
+        return median;
+    }
+
+    private long timeToFirstRequest(List<String> args) throws Exception {
+        int port = freePort();
+        Process process = launch(args, port);
+        long started = System.nanoTime();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + CONTEXT_PATH + "/recommendations?page=0&size=10"))
+                    .header("Authorization", "Token startup-test")
+                    .build();
+            while (System.nanoTime() - started < STARTUP_TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue()
+                            + ", see " + workDir.resolve("app.log"));
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } catch (ConnectException e) {
+                    // not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException("Application did not serve a request within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Runs the app once until its context is refreshed, recording the loaded classes into an archive.
+     *
+     * @return JVM options that use the archive
+     */
+    private List<String> train(List<String> app) throws Exception {
+        List<String> record;
+        List<String> use;
+        if (Runtime.version().feature() >= 25) {
+            Path cache = workDir.resolve("app.aot");
+            record = List.of("-XX:AOTCacheOutput=" + cache);
+            use = List.of("-XX:AOTCache=" + cache);
+        } else {
+            Path archive = workDir.resolve("app.jsa");
+            record = List.of("-XX:ArchiveClassesAtExit=" + archive);
+            use = List.of("-XX:SharedArchiveFile=" + archive);
+        }
+
+        Process training = launch(concat(concat(record, List.of("-Dspring.context.exit=onRefresh")), app), freePort());
+        if (!training.waitFor(STARTUP_TIMEOUT.toSeconds(), TimeUnit.SECONDS)) {
+            training.destroyForcibly();
+            throw new IllegalStateException("Training run did not finish within " + STARTUP_TIMEOUT);
+        }
+        return use;
+    }
+
+    /**
+     * Extracts the fat jar into a plain jar plus lib directory, class data archives only cover classes loaded from
+     * plain jars.
+     *
+     * @return extracted application jar
+     */
+    private Path extract(Path jar) throws Exception {
+        Path destination = workDir.resolve("application");
+        Process extract = launch(List.of("-Djarmode=tools", "-jar", jar.toString(), "extract",
+                "--destination", destination.toString()), freePort());
+        if (extract.waitFor() != 0) {
+            throw new IllegalStateException("Could not extract " + jar + ", see " + workDir.resolve("app.log"));
+        }
+        return destination.resolve(jar.getFileName());
+    }
+
+    private Process launch(List<String> args, int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(args);
+
+        ProcessBuilder builder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(workDir.resolve("app.log").toFile());
+        builder.environment().put("PORT", String.valueOf(port));
+        builder.environment().put("SERVER_CONTEXT_PATH", CONTEXT_PATH);
+        builder.environment().put("CRYPTO_CSV_DIRECTORY", Path.of("../prices").toAbsolutePath().toString());
+        return builder.start();
+    }
+
+    private static Path packagedJar() throws IOException {
+        Path target = Path.of("target");
+        if (!Files.isDirectory(target)) {
+            return null;
+        }
+        try (Stream<Path> files = Files.list(target)) {
+            return files.filter(f -> f.getFileName().toString().matches("crypto-recommender-app-.*\\.jar"))
+                    .findFirst()
+                    .orElse(null);
+        }
+    }
+
+    /**
+     * @return true if the jar contains the bean definitions generated by the aot profile
+     */
+    private static boolean isAotProcessed(Path jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            return zip.getEntry("BOOT-INF/classes/dev/cryptorec/CryptoRecommenderApplication__BeanDefinitions.class")
+                    != null;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+}
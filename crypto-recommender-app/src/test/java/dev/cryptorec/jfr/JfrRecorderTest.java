@@ -0,0 +1,66 @@
+package dev.cryptorec.jfr;
+
+import dev.cryptorec.provider.AsyncDataProvider;
+import dev.cryptorec.provider.AsyncDataProviderAdapter;
+import dev.cryptorec.provider.CsvDataProvider;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JfrRecorderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testRecordsDataLoadAndListingEvents() throws Exception {
+        JfrRecorder recorder = new JfrRecorder(directory, "default", Duration.ofMinutes(1));
+        assertFalse(recorder.status().running());
+
+        JfrRecorder.RecordingStatus started = recorder.start();
+        assertTrue(started.running());
+        assertEquals(started.file(), recorder.start().file());
+
+        AsyncDataProvider dataProvider = new AsyncDataProviderAdapter(new CsvDataProvider("../prices"), Runnable::run);
+        dataProvider.getPaginatedStats(0, 2, "normalizedRange_desc", LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 1, 31), null).join();
+
+        JfrRecorder.RecordingStatus stopped = recorder.stop();
+        assertFalse(stopped.running());
+        assertNotNull(stopped.stopped());
+        Path file = Path.of(stopped.file());
+        assertTrue(Files.size(file) > 0);
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent load = events.stream()
+                .filter(e -> e.getEventType().getName().equals("dev.cryptorec.DataLoad"))
+                .filter(e -> "BTC".equals(e.getString("symbol")))
+                .findFirst().orElseThrow();
+        assertTrue(load.getLong("rows") > 0);
+        assertEquals(Files.size(Path.of("../prices/BTC_values.csv")), load.getLong("bytes"));
+
+        RecordedEvent listing = events.stream()
+                .filter(e -> e.getEventType().getName().equals("dev.cryptorec.StatsListing"))
+                .findFirst().orElseThrow();
+        assertEquals(5, listing.getLong("universe"));
+        assertEquals("normalizedRange_desc", listing.getString("sortBy"));
+        assertEquals(2, listing.getInt("size"));
+    }
+
+    @Test
+    void testStopWithoutRecordingAndInvalidSettings() {
+        assertFalse(new JfrRecorder(directory, "default", Duration.ofMinutes(1)).stop().running());
+        assertThrows(IllegalStateException.class,
+                () -> new JfrRecorder(directory, "no-such-settings", Duration.ofMinutes(1)).start());
+        assertThrows(IllegalArgumentException.class, () -> new JfrRecorder(directory, "default", Duration.ZERO));
+    }
+}
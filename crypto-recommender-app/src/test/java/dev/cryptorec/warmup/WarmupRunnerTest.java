@@ -0,0 +1,75 @@
+package dev.cryptorec.warmup;
+
+import dev.cryptorec.provider.AsyncDataProvider;
+import dev.cryptorec.provider.AsyncDataProviderAdapter;
+import dev.cryptorec.provider.CsvDataProvider;
+import dev.cryptorec.service.RecommendationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmupRunnerTest {
+
+    private RecommendationService service;
+    private AsyncDataProvider dataProvider;
+
+    @BeforeEach
+    void setup() {
+        dataProvider = new AsyncDataProviderAdapter(new CsvDataProvider("../prices"), Runnable::run);
+        service = new RecommendationService(dataProvider);
+    }
+
+    @Test
+    void testRunsAllIterationsWithinBudget() {
+        WarmupReport report = new WarmupRunner(service, dataProvider, null, 20, Duration.ofMinutes(1), Duration.ZERO).run();
+
+        assertTrue(report.completed());
+        assertEquals(20, report.calls());
+        assertEquals(0, report.httpRequests());
+        assertTrue(report.lastCall().compareTo(Duration.ZERO) > 0);
+    }
+
+    @Test
+    void testStopsAtTimeBudget() {
+        WarmupReport report = new WarmupRunner(service, dataProvider, null, Integer.MAX_VALUE, Duration.ZERO,
+                Duration.ZERO).run();
+
+        assertFalse(report.completed());
+        assertTrue(report.calls() < Integer.MAX_VALUE);
+    }
+
+    @Test
+    void testStuckCallsAreCutOffAtTimeBudget() {
+        // tasks are never run, so no call of the provider completes
+        AsyncDataProvider stuck = new AsyncDataProviderAdapter(new CsvDataProvider("../prices"), task -> {
+        });
+
+        long started = System.nanoTime();
+        WarmupReport report = new WarmupRunner(new RecommendationService(stuck), stuck, null, 20,
+                Duration.ofMillis(200), Duration.ZERO).run();
+
+        assertFalse(report.completed());
+        assertTrue(report.errors() > 0);
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(10)) < 0);
+    }
+
+    @Test
+    void testHealthIndicatorOutOfServiceUntilComplete() {
+        WarmupHealthIndicator indicator = new WarmupHealthIndicator(false);
+        assertEquals(Status.OUT_OF_SERVICE, indicator.health().getStatus());
+
+        indicator.complete(new WarmupRunner(service, dataProvider, null, 1, Duration.ofMinutes(1), Duration.ZERO).run());
+
+        assertEquals(Status.UP, indicator.health().getStatus());
+        assertEquals(true, indicator.health().getDetails().get("completed"));
+    }
+
+    @Test
+    void testHealthIndicatorUpWhenSkipped() {
+        assertEquals(Status.UP, new WarmupHealthIndicator(true).health().getStatus());
+    }
+}
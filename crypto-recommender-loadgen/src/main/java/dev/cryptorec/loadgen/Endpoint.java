@@ -0,0 +1,41 @@
+package dev.cryptorec.loadgen;
+
+import java.util.Arrays;
+
+/**
+ * Endpoints replayed by the load generator; latencies and statuses are reported per endpoint.
+ */
+public enum Endpoint {
+    /**
+     * GET /recommendations
+     */
+    RECOMMENDATIONS("recommendations"),
+    /**
+     * GET /recommendations/{cryptoName}
+     */
+    CRYPTO("crypto"),
+    /**
+     * GET /recommendations/top
+     */
+    TOP("top");
+
+    private final String mixName;
+
+    Endpoint(String mixName) {
+        this.mixName = mixName;
+    }
+
+    /**
+     * @return name of the endpoint in the mix argument
+     */
+    public String mixName() {
+        return mixName;
+    }
+
+    static Endpoint byName(String name) {
+        return Arrays.stream(values())
+                .filter(endpoint -> endpoint.mixName.equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown endpoint in mix: " + name));
+    }
+}
@@ -0,0 +1,153 @@
+package dev.cryptorec.loadgen;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Settings of a load test run, parsed from {@code --key=value} arguments.
+ *
+ * @param baseUrl        base url of the API, including the context path
+ * @param token          value sent as "Authorization: Token ..."
+ * @param rate           open model: requests started per second regardless of responses; 0 for the closed model
+ * @param concurrency    closed model: number of virtual users looping request after request; open model: maximum
+ *                       number of requests in flight, arrivals beyond it are counted as dropped
+ * @param duration       measured duration
+ * @param warmup         duration before the measurement whose requests are not recorded
+ * @param requestTimeout deadline of a single request
+ * @param mix            relative weights of the endpoints
+ * @param symbols        symbols requested by /recommendations/{cryptoName}
+ * @param dataFrom       first day of the data set, explicit timeframes are drawn inside [dataFrom, dataTo]
+ * @param dataTo         last day of the data set
+ * @param seed           seed of the request mix, the same seed replays the same request sequence
+ * @param reportDirectory directory receiving the .hgrm percentile distributions, null to skip them
+ */
+public record LoadConfig(
+        URI baseUrl,
+        String token,
+        double rate,
+        int concurrency,
+        Duration duration,
+        Duration warmup,
+        Duration requestTimeout,
+        Map<Endpoint, Integer> mix,
+        List<String> symbols,
+        LocalDate dataFrom,
+        LocalDate dataTo,
+        long seed,
+        String reportDirectory
+) {
+    /**
+     * Validates the record upon creation.
+     *
+     * @throws IllegalArgumentException if invariants are violated
+     */
+    public LoadConfig {
+        if (rate < 0 || concurrency < 1) {
+            throw new IllegalArgumentException("rate must be >= 0 and concurrency >= 1");
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("mix must give a positive weight to at least one endpoint");
+        }
+        if (symbols.isEmpty()) {
+            throw new IllegalArgumentException("symbols must not be empty");
+        }
+        if (dataFrom.isAfter(dataTo)) {
+            throw new IllegalArgumentException("dataFrom must not be after dataTo");
+        }
+        mix = Map.copyOf(mix);
+        symbols = List.copyOf(symbols);
+    }
+
+    /**
+     * @return true if requests arrive at a fixed rate (open model), false if virtual users loop (closed model)
+     */
+    public boolean openModel() {
+        return rate > 0;
+    }
+
+    /**
+     * Parses {@code --key=value} arguments, unknown keys are rejected. Keys: url, token, rate, concurrency,
+     * duration, warmup, timeout (ISO-8601 or 30s/500ms/2m), mix (e.g. recommendations=2,crypto=5,top=1), symbols,
+     * from, to, seed, report.
+     *
+     * @param args command line arguments
+     * @return configuration with defaults for missing keys
+     * @throws IllegalArgumentException if an argument is malformed
+     */
+    public static LoadConfig parse(String... args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        try {
+            LoadConfig config = new LoadConfig(
+                    URI.create(stripSlash(values.getOrDefault("url", "http://localhost:8080/crypto/api/v1"))),
+                    values.getOrDefault("token", "loadgen"),
+                    Double.parseDouble(values.getOrDefault("rate", "0")),
+                    Integer.parseInt(values.getOrDefault("concurrency", "16")),
+                    duration(values.getOrDefault("duration", "30s")),
+                    duration(values.getOrDefault("warmup", "5s")),
+                    duration(values.getOrDefault("timeout", "5s")),
+                    mix(values.getOrDefault("mix", "recommendations=2,crypto=5,top=1")),
+                    Arrays.stream(values.getOrDefault("symbols", "BTC,DOGE,ETH,LTC,XRP").split(","))
+                            .map(String::trim)
+                            .filter(symbol -> !symbol.isEmpty())
+                            .toList(),
+                    LocalDate.parse(values.getOrDefault("from", "2022-01-01")),
+                    LocalDate.parse(values.getOrDefault("to", "2022-01-31")),
+                    Long.parseLong(values.getOrDefault("seed", "42")),
+                    values.get("report"));
+            values.keySet().removeAll(List.of("url", "token", "rate", "concurrency", "duration", "warmup", "timeout",
+                    "mix", "symbols", "from", "to", "seed", "report"));
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown arguments: " + values.keySet());
+            }
+            return config;
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid argument: " + e.getMessage(), e);
+        }
+    }
+
+    private static String stripSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    static Duration duration(String value) {
+        if (value.startsWith("P") || value.startsWith("p")) {
+            return Duration.parse(value);
+        }
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        long amount = Long.parseLong(value.substring(0, value.length() - 1));
+        return switch (value.charAt(value.length() - 1)) {
+            case 's' -> Duration.ofSeconds(amount);
+            case 'm' -> Duration.ofMinutes(amount);
+            case 'h' -> Duration.ofHours(amount);
+            default -> throw new IllegalArgumentException("Invalid duration: " + value);
+        };
+    }
+
+    private static Map<Endpoint, Integer> mix(String value) {
+        Map<Endpoint, Integer> mix = new HashMap<>();
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            mix.put(Endpoint.byName(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return mix;
+    }
+}
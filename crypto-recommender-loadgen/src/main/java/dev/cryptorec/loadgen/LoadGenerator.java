@@ -0,0 +1,144 @@
+package dev.cryptorec.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * HTTP load generator running every request on its own virtual thread.
+ * <p>
+ * Two workload models:
+ * - open (rate &gt; 0): requests arrive as a Poisson process of the configured rate whatever the response times, as
+ * independent clients do. Latency is measured from the intended arrival, so a server falling behind shows up in the
+ * percentiles instead of silently lowering the offered load. At most {@code concurrency} requests are in flight,
+ * arrivals beyond that are counted as dropped.
+ * - closed (rate = 0): {@code concurrency} virtual users send their next request as soon as the previous one
+ * completes; throughput is whatever the server sustains.
+ * <p>
+ * Requests started during the warm-up are sent but not recorded. The run ends once the requests started before the
+ * end of the measured duration have completed.
+ */
+public class LoadGenerator {
+
+    private final LoadConfig config;
+    private final HttpClient client;
+
+    /**
+     * @param config load test settings
+     */
+    public LoadGenerator(LoadConfig config) {
+        this.config = config;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.requestTimeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * Runs the warm-up and the measured duration.
+     *
+     * @return report of the measured requests
+     * @throws InterruptedException if interrupted while generating load
+     */
+    public LoadReport run() throws InterruptedException {
+        LoadReport report = new LoadReport();
+        long measureStart = System.nanoTime() + config.warmup().toNanos();
+        long end = measureStart + config.duration().toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (config.openModel()) {
+                runOpen(executor, report, measureStart, end);
+            } else {
+                runClosed(executor, report, measureStart, end);
+            }
+        }
+
+        report.finish(config.duration());
+        return report;
+    }
+
+    private void runOpen(ExecutorService executor, LoadReport report, long measureStart, long end)
+            throws InterruptedException {
+        RequestMix mix = new RequestMix(config, config.seed());
+        Random arrivals = new Random(config.seed());
+        Semaphore inFlight = new Semaphore(config.concurrency());
+        double meanGapNanos = 1e9 / config.rate();
+
+        long intended = System.nanoTime();
+        while (true) {
+            // exponential inter-arrival times: Poisson arrivals
+            intended += (long) (-Math.log(1 - arrivals.nextDouble()) * meanGapNanos);
+            if (intended >= end) {
+                return;
+            }
+            sleepUntil(intended);
+
+            RequestMix.PlannedRequest request = mix.next();
+            LoadReport target = intended >= measureStart ? report : null;
+            if (!inFlight.tryAcquire()) {
+                if (target != null) {
+                    target.recordDropped();
+                }
+                continue;
+            }
+            long start = intended;
+            executor.submit(() -> {
+                try {
+                    send(request, start, target);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+    }
+
+    private void runClosed(ExecutorService executor, LoadReport report, long measureStart, long end) {
+        for (int user = 0; user < config.concurrency(); user++) {
+            RequestMix mix = new RequestMix(config, config.seed() + user);
+            executor.submit(() -> {
+                long start;
+                while ((start = System.nanoTime()) < end) {
+                    send(mix.next(), start, start >= measureStart ? report : null);
+                }
+            });
+        }
+    }
+
+    private void send(RequestMix.PlannedRequest request, long start, LoadReport report) {
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(config.baseUrl() + request.path()))
+                .timeout(config.requestTimeout())
+                .header("Authorization", "Token " + config.token())
+                .GET()
+                .build();
+        try {
+            HttpResponse<Void> response = client.send(httpRequest, HttpResponse.BodyHandlers.discarding());
+            if (report != null) {
+                report.recordResponse(request.endpoint(), response.statusCode(), System.nanoTime() - start);
+            }
+        } catch (IOException e) {
+            if (report != null) {
+                report.recordFailure(request.endpoint(), e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
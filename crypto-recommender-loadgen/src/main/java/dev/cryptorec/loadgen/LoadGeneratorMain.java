@@ -0,0 +1,47 @@
+package dev.cryptorec.loadgen;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Command line entry point of the load generator.
+ * <p>
+ * Example, 200 requests per second for one minute against a local instance:
+ * {@code java -jar crypto-recommender-loadgen.jar --rate=200 --duration=1m --report=target/load}
+ */
+public final class LoadGeneratorMain {
+
+    private LoadGeneratorMain() {
+        // Entry point, no instantiation
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: --url=http://localhost:8080/crypto/api/v1 --rate=<req/s, 0 for closed loop>"
+                    + " --concurrency=16 --duration=30s --warmup=5s --timeout=5s"
+                    + " --mix=recommendations=2,crypto=5,top=1 --symbols=BTC,ETH --from=2022-01-01 --to=2022-01-31"
+                    + " --seed=42 --report=<directory for .hgrm files>");
+            System.exit(2);
+            return;
+        }
+
+        System.out.printf("%s load against %s: %s, %s (warm-up %s), mix %s%n",
+                config.openModel() ? "open" : "closed", config.baseUrl(),
+                config.openModel() ? config.rate() + " req/s, max " + config.concurrency() + " in flight"
+                        : config.concurrency() + " virtual users",
+                config.duration(), config.warmup(), config.mix());
+
+        LoadReport report = new LoadGenerator(config).run();
+        report.print(System.out);
+
+        if (config.reportDirectory() != null) {
+            Path directory = Path.of(config.reportDirectory());
+            report.writeHistograms(directory);
+            System.out.println("percentile distributions written to " + directory.toAbsolutePath());
+        }
+    }
+}
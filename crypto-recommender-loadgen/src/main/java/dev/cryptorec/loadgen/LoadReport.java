@@ -0,0 +1,178 @@
+package dev.cryptorec.loadgen;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the measured requests, per endpoint.
+ * <p>
+ * Latencies go into HdrHistograms (microseconds, 3 significant digits, up to one minute); in the open model they
+ * are measured from the intended start of a request, so time spent queued behind a slow server is included
+ * (no coordinated omission). Outcomes are counted by HTTP status, and by exception type for requests without
+ * response; 429 (rate limited) is reported separately from other errors.
+ */
+public class LoadReport {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Map<Integer, LongAdder>> statuses = new EnumMap<>(Endpoint.class);
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private volatile Duration elapsed = Duration.ZERO;
+
+    public LoadReport() {
+        for (Endpoint endpoint : Endpoint.values()) {
+            latencies.put(endpoint, new ConcurrentHistogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS));
+            statuses.put(endpoint, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Records a request that received a response.
+     *
+     * @param endpoint     endpoint of the request
+     * @param status       HTTP status
+     * @param latencyNanos latency from the (intended) start to the complete response
+     */
+    public void recordResponse(Endpoint endpoint, int status, long latencyNanos) {
+        latencies.get(endpoint).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+        statuses.get(endpoint).computeIfAbsent(status, ignored -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records a request without response (timeout, connection refused, ...).
+     *
+     * @param endpoint endpoint of the request
+     * @param failure  cause
+     */
+    public void recordFailure(Endpoint endpoint, Throwable failure) {
+        failures.computeIfAbsent(endpoint.mixName() + " " + failure.getClass().getSimpleName(),
+                ignored -> new LongAdder()).increment();
+    }
+
+    /**
+     * Records an arrival of the open model that was not sent because too many requests were in flight.
+     */
+    public void recordDropped() {
+        dropped.increment();
+    }
+
+    void finish(Duration measured) {
+        this.elapsed = measured;
+    }
+
+    /**
+     * @return latency histogram of an endpoint, in microseconds
+     */
+    public Histogram latencies(Endpoint endpoint) {
+        return latencies.get(endpoint);
+    }
+
+    /**
+     * @return number of responses of an endpoint with the given status
+     */
+    public long count(Endpoint endpoint, int status) {
+        LongAdder count = statuses.get(endpoint).get(status);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * @return number of requests without response, by endpoint and exception type
+     */
+    public Map<String, Long> failures() {
+        Map<String, Long> result = new TreeMap<>();
+        failures.forEach((key, count) -> result.put(key, count.sum()));
+        return result;
+    }
+
+    /**
+     * @return number of open model arrivals not sent
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return all responses and failures of all endpoints
+     */
+    public long total() {
+        long responses = statuses.values().stream()
+                .flatMap(byStatus -> byStatus.values().stream())
+                .mapToLong(LongAdder::sum)
+                .sum();
+        return responses + failures.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    /**
+     * Prints throughput, outcome breakdown and latency percentiles per endpoint.
+     *
+     * @param out target stream
+     */
+    public void print(PrintStream out) {
+        double seconds = Math.max(elapsed.toNanos() / 1e9, 1e-9);
+        out.printf("measured %.1f s, %d requests, %.1f req/s, %d dropped%n", seconds, total(), total() / seconds,
+                dropped());
+        out.printf("%-16s %8s %8s %8s %8s %8s %10s %10s %10s %10s %10s%n", "endpoint", "req/s", "2xx", "429",
+                "4xx", "5xx", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Histogram histogram = latencies.get(endpoint);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Map<Integer, LongAdder> byStatus = statuses.get(endpoint);
+            out.printf("%-16s %8.1f %8d %8d %8d %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n", endpoint.mixName(),
+                    histogram.getTotalCount() / seconds,
+                    sum(byStatus, 200, 299),
+                    count(endpoint, 429),
+                    sum(byStatus, 400, 499) - count(endpoint, 429),
+                    sum(byStatus, 500, 599),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+        failures().forEach((key, count) -> out.printf("no response: %s x %d%n", key, count));
+    }
+
+    /**
+     * Writes the percentile distribution of each endpoint as {endpoint}.hgrm (HdrHistogram plotter format, ms).
+     *
+     * @param directory target directory, created if missing
+     * @throws IOException if a file cannot be written
+     */
+    public void writeHistograms(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Endpoint endpoint : Endpoint.values()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(endpoint.mixName()
+                    + ".hgrm")))) {
+                latencies.get(endpoint).outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private static long sum(Map<Integer, LongAdder> byStatus, int from, int to) {
+        return byStatus.entrySet().stream()
+                .filter(entry -> entry.getKey() >= from && entry.getKey() <= to)
+                .mapToLong(entry -> entry.getValue().sum())
+                .sum();
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,94 @@
+package dev.cryptorec.loadgen;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Draws requests from the configured endpoint weights with varied parameters.
+ * <p>
+ * Timeframes alternate between the periodMonths presets and explicit fromDate/toDate windows inside the data set,
+ * so the mix exercises both cached standard windows and arbitrary ones. Not thread-safe: each generating thread
+ * owns a mix, the same seed replays the same sequence.
+ */
+public class RequestMix {
+
+    static final List<Integer> PERIOD_MONTHS = List.of(1, 3, 6, 12);
+    static final List<String> SORTS = List.of("normalizedRange_desc", "normalizedRange_asc", "symbol_asc",
+            "max_desc,symbol_asc");
+    static final List<Integer> PAGE_SIZES = List.of(10, 50);
+
+    private final LoadConfig config;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+    private final Random random;
+
+    /**
+     * @param config load test settings
+     * @param seed   seed of this mix
+     */
+    public RequestMix(LoadConfig config, long seed) {
+        this.config = config;
+        this.random = new Random(seed);
+
+        List<Map.Entry<Endpoint, Integer>> weighted = config.mix().entrySet().stream()
+                .filter(entry -> entry.getValue() > 0)
+                .sorted(Map.Entry.comparingByKey())
+                .toList();
+        this.endpoints = new Endpoint[weighted.size()];
+        this.cumulativeWeights = new int[weighted.size()];
+        int total = 0;
+        for (int i = 0; i < weighted.size(); i++) {
+            endpoints[i] = weighted.get(i).getKey();
+            total += weighted.get(i).getValue();
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * @return next request to send
+     */
+    public PlannedRequest next() {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (draw >= cumulativeWeights[index]) {
+            index++;
+        }
+
+        Endpoint endpoint = endpoints[index];
+        String path = switch (endpoint) {
+            case RECOMMENDATIONS -> "/recommendations?page=" + random.nextInt(3)
+                    + "&size=" + pick(PAGE_SIZES)
+                    + "&sort_by=" + pick(SORTS).replace(",", "%2C")
+                    + "&" + timeframe();
+            case CRYPTO -> "/recommendations/" + pick(config.symbols()) + "?" + timeframe();
+            case TOP -> "/recommendations/top?" + timeframe();
+        };
+        return new PlannedRequest(endpoint, path);
+    }
+
+    private String timeframe() {
+        if (random.nextBoolean()) {
+            return "periodMonths=" + pick(PERIOD_MONTHS);
+        }
+        long days = ChronoUnit.DAYS.between(config.dataFrom(), config.dataTo());
+        LocalDate from = config.dataFrom().plusDays(random.nextLong(days + 1));
+        LocalDate to = from.plusDays(random.nextLong(ChronoUnit.DAYS.between(from, config.dataTo()) + 1));
+        return "fromDate=" + from + "&toDate=" + to;
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    /**
+     * Request drawn from the mix.
+     *
+     * @param endpoint endpoint the request is reported under
+     * @param path     path and query relative to the base url
+     */
+    public record PlannedRequest(Endpoint endpoint, String path) {
+    }
+}
@@ -0,0 +1,54 @@
+package dev.cryptorec.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadConfigTest {
+
+    @Test
+    void testDefaultsDescribeAClosedLoopAgainstALocalInstance() {
+        LoadConfig config = LoadConfig.parse();
+
+        assertFalse(config.openModel());
+        assertEquals(URI.create("http://localhost:8080/crypto/api/v1"), config.baseUrl());
+        assertEquals(16, config.concurrency());
+        assertEquals(Duration.ofSeconds(30), config.duration());
+        assertEquals(List.of("BTC", "DOGE", "ETH", "LTC", "XRP"), config.symbols());
+        assertNull(config.reportDirectory());
+    }
+
+    @Test
+    void testParseArguments() {
+        LoadConfig config = LoadConfig.parse("--url=http://host:9000/api/", "--rate=250.5", "--duration=2m",
+                "--warmup=PT10S", "--timeout=500ms", "--mix=crypto=1,top=0", "--symbols=btc, eth",
+                "--report=target/load");
+
+        assertTrue(config.openModel());
+        assertEquals(250.5, config.rate());
+        assertEquals(URI.create("http://host:9000/api"), config.baseUrl());
+        assertEquals(Duration.ofMinutes(2), config.duration());
+        assertEquals(Duration.ofSeconds(10), config.warmup());
+        assertEquals(Duration.ofMillis(500), config.requestTimeout());
+        assertEquals(Map.of(Endpoint.CRYPTO, 1, Endpoint.TOP, 0), config.mix());
+        assertEquals(List.of("btc", "eth"), config.symbols());
+        assertEquals("target/load", config.reportDirectory());
+    }
+
+    @Test
+    void testInvalidArgumentsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("rate=10"));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--rps=10"));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--rate=fast"));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--rate=-1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--duration=10d"));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--mix=search=1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--mix=top=0"));
+        assertThrows(IllegalArgumentException.class, () -> LoadConfig.parse("--from=2022-02-01"));
+    }
+}
@@ -0,0 +1,131 @@
+package dev.cryptorec.loadgen;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    private HttpServer server;
+    private final AtomicInteger received = new AtomicInteger();
+    private final List<String> authorizations = new CopyOnWriteArrayList<>();
+    private volatile long delayMillis;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", exchange -> {
+            authorizations.add(exchange.getRequestHeaders().getFirst("Authorization"));
+            // every fourth request is rate limited
+            int status = received.incrementAndGet() % 4 == 0 ? 429 : 200;
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    private LoadConfig config(String... args) {
+        String[] all = new String[args.length + 1];
+        all[0] = "--url=http://localhost:" + server.getAddress().getPort() + "/api";
+        System.arraycopy(args, 0, all, 1, args.length);
+        return LoadConfig.parse(all);
+    }
+
+    @Test
+    void testOpenModelHoldsTheArrivalRateAndBreaksDownStatuses() throws Exception {
+        LoadReport report = new LoadGenerator(config("--rate=200", "--concurrency=64", "--duration=2s", "--warmup=0s",
+                "--token=secret")).run();
+
+        long total = report.total();
+        // Poisson arrivals: 400 expected, a few standard deviations of slack
+        assertTrue(total > 320 && total < 480, "total " + total);
+        assertEquals(total, received.get());
+        assertEquals(0, report.dropped());
+        assertTrue(report.failures().isEmpty());
+
+        long limited = 0;
+        long ok = 0;
+        long recorded = 0;
+        for (Endpoint endpoint : Endpoint.values()) {
+            limited += report.count(endpoint, 429);
+            ok += report.count(endpoint, 200);
+            recorded += report.latencies(endpoint).getTotalCount();
+        }
+        assertEquals(total / 4, limited);
+        assertEquals(total, ok + limited);
+        assertEquals(total, recorded);
+        assertTrue(authorizations.stream().allMatch("Token secret"::equals));
+    }
+
+    @Test
+    void testOpenModelDropsArrivalsBeyondTheInFlightCap() throws Exception {
+        delayMillis = 200;
+
+        LoadReport report = new LoadGenerator(config("--rate=100", "--concurrency=2", "--duration=1s",
+                "--warmup=0s")).run();
+
+        // about 100 arrivals, at most 2 in flight for 200 ms each
+        assertTrue(report.total() <= 12, "total " + report.total());
+        assertTrue(report.dropped() > 50, "dropped " + report.dropped());
+        // latency is measured from the intended arrival, so it includes the server time
+        long p50 = report.latencies(Endpoint.CRYPTO).getValueAtPercentile(50);
+        assertTrue(report.latencies(Endpoint.CRYPTO).getTotalCount() == 0 || p50 >= 200_000, "p50 " + p50);
+    }
+
+    @Test
+    void testClosedModelDoesNotRecordWarmupRequests() throws Exception {
+        delayMillis = 10;
+
+        LoadReport report = new LoadGenerator(config("--concurrency=4", "--duration=500ms", "--warmup=300ms"))
+                .run();
+
+        assertTrue(report.total() > 0);
+        // requests of the warm-up reached the server but not the report
+        assertTrue(received.get() > report.total(), received.get() + " / " + report.total());
+        assertTrue(report.total() <= 4 * (500 / 10 + 1), "total " + report.total());
+    }
+
+    @Test
+    void testUnreachableServerIsReportedAsFailures(@TempDir Path directory) throws Exception {
+        server.stop(0);
+
+        LoadReport report = new LoadGenerator(config("--rate=50", "--duration=300ms", "--warmup=0s",
+                "--mix=top=1")).run();
+
+        assertTrue(report.total() > 0);
+        assertEquals(report.total(), report.failures().get("top ConnectException"));
+
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        report.print(new PrintStream(printed, true));
+        assertTrue(printed.toString().contains("top ConnectException"), printed.toString());
+
+        report.writeHistograms(directory);
+        assertTrue(Files.exists(directory.resolve("top.hgrm")));
+    }
+}
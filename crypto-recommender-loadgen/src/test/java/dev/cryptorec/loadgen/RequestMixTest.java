@@ -0,0 +1,57 @@
+package dev.cryptorec.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestMixTest {
+
+    @Test
+    void testSameSeedReplaysTheSameSequence() {
+        LoadConfig config = LoadConfig.parse();
+
+        List<RequestMix.PlannedRequest> first = draw(new RequestMix(config, 7), 100);
+        List<RequestMix.PlannedRequest> second = draw(new RequestMix(config, 7), 100);
+
+        assertEquals(first, second);
+        assertNotEquals(first, draw(new RequestMix(config, 8), 100));
+    }
+
+    @Test
+    void testEndpointsFollowTheWeights() {
+        RequestMix mix = new RequestMix(LoadConfig.parse("--mix=recommendations=1,crypto=3,top=0"), 1);
+
+        Map<Endpoint, Integer> counts = new EnumMap<>(Endpoint.class);
+        draw(mix, 10_000).forEach(request -> counts.merge(request.endpoint(), 1, Integer::sum));
+
+        assertNull(counts.get(Endpoint.TOP));
+        assertEquals(7500, counts.get(Endpoint.CRYPTO), 200);
+        assertEquals(2500, counts.get(Endpoint.RECOMMENDATIONS), 200);
+    }
+
+    @Test
+    void testPathsVaryParametersInsideTheDataRange() {
+        RequestMix mix = new RequestMix(LoadConfig.parse("--symbols=BTC", "--from=2022-01-10", "--to=2022-01-12"), 3);
+
+        for (RequestMix.PlannedRequest request : draw(mix, 1_000)) {
+            String path = request.path();
+            switch (request.endpoint()) {
+                case RECOMMENDATIONS -> assertTrue(path.matches(
+                        "/recommendations\\?page=[0-2]&size=(10|50)&sort_by=[A-Za-z_%2C]+&.+"), path);
+                case CRYPTO -> assertTrue(path.startsWith("/recommendations/BTC?"), path);
+                case TOP -> assertTrue(path.startsWith("/recommendations/top?"), path);
+            }
+            assertTrue(path.matches(".*(periodMonths=(1|3|6|12)"
+                    + "|fromDate=2022-01-1[0-2]&toDate=2022-01-1[0-2])$"), path);
+        }
+    }
+
+    private static List<RequestMix.PlannedRequest> draw(RequestMix mix, int count) {
+        return IntStream.range(0, count).mapToObj(i -> mix.next()).toList();
+    }
+}
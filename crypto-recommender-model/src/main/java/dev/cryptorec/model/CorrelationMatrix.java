@@ -0,0 +1,56 @@
+package dev.cryptorec.model;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Pairwise Pearson correlation of the returns of several cryptocurrencies on a common time grid.
+ * <p>
+ * Values are stored row-major in a flat array, {@code values[i * size + j]} being the correlation of
+ * {@code symbols[i]} and {@code symbols[j]}; the matrix is symmetric. A pair without enough overlapping returns, or
+ * with a constant series, has no correlation ({@link Double#NaN}).
+ *
+ * @param symbols       cryptocurrency symbols, in row/column order
+ * @param timeframeFrom start date of the timeframe (inclusive)
+ * @param timeframeTo   end date of the timeframe (inclusive)
+ * @param interval      width of a grid step; returns are computed between consecutive steps
+ * @param steps         number of grid steps in the timeframe
+ * @param values        row-major correlations, not copied
+ */
+public record CorrelationMatrix(
+        List<String> symbols,
+        LocalDate timeframeFrom,
+        LocalDate timeframeTo,
+        Duration interval,
+        int steps,
+        double[] values
+) {
+    /**
+     * Validates the record upon creation.
+     *
+     * @throws IllegalArgumentException if invariants are violated
+     */
+    public CorrelationMatrix {
+        symbols = List.copyOf(symbols);
+        if (values == null || values.length != symbols.size() * symbols.size()) {
+            throw new IllegalArgumentException("Values must hold one correlation per symbol pair");
+        }
+    }
+
+    /**
+     * @return number of symbols (rows and columns)
+     */
+    public int size() {
+        return symbols.size();
+    }
+
+    /**
+     * @param row    row index
+     * @param column column index
+     * @return correlation of the two symbols, NaN if undefined
+     */
+    public double get(int row, int column) {
+        return values[row * symbols.size() + column];
+    }
+}
@@ -14,6 +14,10 @@ import java.time.LocalDate;
  * @param newest          The newest (latest) price point within the timeframe
  * @param timeframeFrom   Start date of the timeframe (inclusive)
  * @param timeframeTo     End date of the timeframe (inclusive)
+ * @param tickCount       Number of price points within the timeframe (nullable, if the provider does not count them)
+ * @param returnStdDev    Sample standard deviation of the log returns between consecutive price points (nullable)
+ * @param meanReturn      Mean log return between consecutive price points (nullable)
+ * @param maxDrawdown     Largest relative fall from a running peak, (peak - trough) / peak (nullable)
  */
 public record CryptoStats(
         String symbol,
@@ -23,7 +27,11 @@ public record CryptoStats(
         PriceData oldest,
         PriceData newest,
         LocalDate timeframeFrom,
-        LocalDate timeframeTo
+        LocalDate timeframeTo,
+        Long tickCount,
+        BigDecimal returnStdDev,
+        BigDecimal meanReturn,
+        BigDecimal maxDrawdown
 ) {
     /**
      * Validates the record upon creation.
@@ -47,5 +55,12 @@ public record CryptoStats(
             throw new IllegalArgumentException("Timeframe from must not be after to");
         }
     }
-}
 
+    /**
+     * Creates statistics without the return metrics.
+     */
+    public CryptoStats(String symbol, BigDecimal normalizedRange, PriceData min, PriceData max, PriceData oldest,
+                       PriceData newest, LocalDate timeframeFrom, LocalDate timeframeTo) {
+        this(symbol, normalizedRange, min, max, oldest, newest, timeframeFrom, timeframeTo, null, null, null, null);
+    }
+}
@@ -6,15 +6,35 @@ import java.util.List;
  * Generic paginated result wrapper.
  * Encapsulates paginated data with metadata.
  *
- * @param <T> the type of items in the paginated result
+ * @param <T>        the type of items in the paginated result
+ * @param warnings   non-fatal problems while building the result (e.g. a shard that did not answer),
+ *                   a non-empty list means the result may be partial
+ * @param nextCursor opaque cursor of the following page (nullable, null on the last page or for offset pages)
  */
 public record PaginatedResult<T>(
         List<T> items,
         int page,
         int size,
         int totalElements,
-        int totalPages
+        int totalPages,
+        List<String> warnings,
+        String nextCursor
 ) {
+    /**
+     * Creates a complete paginated result without warnings.
+     */
+    public PaginatedResult(List<T> items, int page, int size, int totalElements, int totalPages) {
+        this(items, page, size, totalElements, totalPages, List.of(), null);
+    }
+
+    /**
+     * Creates a paginated result without a cursor.
+     */
+    public PaginatedResult(List<T> items, int page, int size, int totalElements, int totalPages,
+                           List<String> warnings) {
+        this(items, page, size, totalElements, totalPages, warnings, null);
+    }
+
     /**
      * Validates the paginated result.
      * Ensures page and size are non-negative and consistent with total elements.
@@ -35,6 +55,6 @@ public record PaginatedResult<T>(
         if (items == null) {
             throw new IllegalArgumentException("Items list cannot be null");
         }
+        warnings = warnings == null ? List.of() : List.copyOf(warnings);
     }
 }
-
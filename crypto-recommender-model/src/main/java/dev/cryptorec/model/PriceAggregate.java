@@ -0,0 +1,134 @@
+package dev.cryptorec.model;
+
+import java.util.List;
+
+/**
+ * Immutable summary of a chronologically ordered block of price points.
+ * It carries exactly what {@link CryptoStats} needs, so statistics can be computed from pre-aggregated blocks
+ * (zone maps of on-disk segments, daily rollups, in-memory tiers) without rescanning the price points.
+ * <p>
+ * Tie rules match a scan over the sorted series: the earliest point wins for min and max.
+ *
+ * @param count   number of price points in the block
+ * @param min     the minimum price point of the block
+ * @param max     the maximum price point of the block
+ * @param oldest  the oldest (earliest) price point of the block
+ * @param newest  the newest (latest) price point of the block
+ * @param returns summary of the log returns of the block, null if not tracked or if a price is zero
+ */
+public record PriceAggregate(
+        long count,
+        PriceData min,
+        PriceData max,
+        PriceData oldest,
+        PriceData newest,
+        ReturnStats returns
+) {
+    /**
+     * Validates the record upon creation.
+     *
+     * @throws IllegalArgumentException if invariants are violated
+     */
+    public PriceAggregate {
+        if (count < 1) {
+            throw new IllegalArgumentException("Aggregate must cover at least one price point");
+        }
+        if (min == null || max == null || oldest == null || newest == null) {
+            throw new IllegalArgumentException("Price points must not be null");
+        }
+    }
+
+    /**
+     * Creates an aggregate without return summary, for sources that only keep min/max/oldest/newest.
+     */
+    public PriceAggregate(long count, PriceData min, PriceData max, PriceData oldest, PriceData newest) {
+        this(count, min, max, oldest, newest, null);
+    }
+
+    /**
+     * Aggregates a chronologically ordered list of price points in a single pass, including the Welford update of
+     * the return summary; returns are never materialized.
+     *
+     * @param prices sorted, non-empty list of price points
+     * @return aggregate of the list
+     * @throws IllegalArgumentException if the list is null or empty
+     */
+    public static PriceAggregate of(List<PriceData> prices) {
+        if (prices == null || prices.isEmpty()) {
+            throw new IllegalArgumentException("Prices list cannot be null or empty");
+        }
+        return of(PriceSeries.of(prices), 0, prices.size());
+    }
+
+    /**
+     * Aggregates a range of a price series in a single pass, like {@link #of(List)}. Only the min, max, oldest and
+     * newest points are materialized, so columnar series are aggregated without allocating per point.
+     *
+     * @param series chronologically ordered price series
+     * @param from   index of the first point (inclusive)
+     * @param to     index after the last point (exclusive)
+     * @return aggregate of the range
+     * @throws IllegalArgumentException if the range is empty or out of the series
+     */
+    public static PriceAggregate of(PriceSeries series, int from, int to) {
+        if (from < 0 || to > series.size() || from >= to) {
+            throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ") of a series of "
+                    + series.size() + " points");
+        }
+
+        int minIndex = from;
+        int maxIndex = from;
+        double previous = series.priceAsDouble(from);
+        double peak = previous;
+        double mean = 0;
+        double m2 = 0;
+        double maxDrawdown = 0;
+        boolean positive = previous > 0;
+        for (int i = from + 1; i < to; i++) {
+            if (series.comparePrices(i, minIndex) < 0) {
+                minIndex = i;
+            }
+            if (series.comparePrices(i, maxIndex) > 0) {
+                maxIndex = i;
+            }
+
+            double value = series.priceAsDouble(i);
+            positive &= value > 0;
+            double logReturn = Math.log(value / previous);
+            double delta = logReturn - mean;
+            mean += delta / (i - from);
+            m2 += delta * (logReturn - mean);
+            peak = Math.max(peak, value);
+            maxDrawdown = Math.max(maxDrawdown, 1 - value / peak);
+            previous = value;
+        }
+
+        ReturnStats summary = positive ? new ReturnStats(mean, m2, maxDrawdown) : null;
+        return new PriceAggregate(to - from, series.point(minIndex), series.point(maxIndex), series.point(from),
+                series.point(to - 1), summary);
+    }
+
+    /**
+     * Merges this aggregate with the aggregate of the block that immediately follows it in time.
+     *
+     * @param later aggregate of a block whose points are all at or after this block's points
+     * @return aggregate of both blocks
+     */
+    public PriceAggregate merge(PriceAggregate later) {
+        ReturnStats mergedReturns = null;
+        if (returns != null && later.returns != null) {
+            double boundaryReturn = Math.log(later.oldest.price().doubleValue() / newest.price().doubleValue());
+            mergedReturns = returns.merge(count - 1, later.returns, later.count - 1, boundaryReturn,
+                    max.price().doubleValue(), later.min.price().doubleValue());
+        }
+
+        return new PriceAggregate(
+                count + later.count,
+                later.min.price().compareTo(min.price()) < 0 ? later.min : min,
+                later.max.price().compareTo(max.price()) > 0 ? later.max : max,
+                oldest,
+                later.newest,
+                mergedReturns
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package dev.cryptorec.model;
+
+import java.util.List;
+
+/**
+ * Prices of several cryptocurrencies aligned on a common {@link TimeGrid}, as a primitive matrix.
+ * <p>
+ * Values are stored row-major, one row per symbol: {@code values[row * steps + step]}. A step without price is
+ * {@link Double#NaN}. Downstream analytics read the rows directly instead of per-point objects.
+ *
+ * @param symbols cryptocurrency symbols, in row order
+ * @param grid    time grid of the columns
+ * @param values  row-major prices in USD, not copied
+ */
+public record PriceMatrix(
+        List<String> symbols,
+        TimeGrid grid,
+        double[] values
+) {
+    /**
+     * Validates the record upon creation.
+     *
+     * @throws IllegalArgumentException if invariants are violated
+     */
+    public PriceMatrix {
+        symbols = List.copyOf(symbols);
+        if (values == null || values.length != (long) symbols.size() * grid.steps()) {
+            throw new IllegalArgumentException("Values must hold one price per symbol and step");
+        }
+    }
+
+    /**
+     * @return number of rows (symbols)
+     */
+    public int rows() {
+        return symbols.size();
+    }
+
+    /**
+     * @param row  row index
+     * @param step step index
+     * @return price of the symbol in the step, NaN if none
+     */
+    public double get(int row, int step) {
+        return values[offset(row) + step];
+    }
+
+    /**
+     * @param row row index
+     * @return index of the first step of the row in {@link #values()}
+     */
+    public int offset(int row) {
+        return row * grid.steps();
+    }
+
+    /**
+     * Carries the last price forward over steps without price, between the first and the last priced step of each
+     * row; steps before the first and after the last price stay NaN.
+     *
+     * @return new matrix without gaps inside the priced range of each row
+     */
+    public PriceMatrix fillForward() {
+        double[] filled = values.clone();
+        int steps = grid.steps();
+        for (int row = 0; row < rows(); row++) {
+            int offset = offset(row);
+            int last = offset + steps - 1;
+            while (last >= offset && Double.isNaN(filled[last])) {
+                last--;
+            }
+            for (int i = offset + 1; i <= last; i++) {
+                if (Double.isNaN(filled[i])) {
+                    filled[i] = filled[i - 1];
+                }
+            }
+        }
+        return new PriceMatrix(symbols, grid, filled);
+    }
+}
@@ -0,0 +1,106 @@
+package dev.cryptorec.model;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Read-only, chronologically ordered view over the price points of a symbol, addressed by index.
+ * <p>
+ * It lets statistics be computed over columnar storage (e.g. off-heap timestamp and price columns) without
+ * materializing a {@link PriceData} per point: implementations answer comparisons and double conversions from
+ * their own representation and only create the few points that end up in the result.
+ */
+public interface PriceSeries {
+
+    /**
+     * @return number of price points
+     */
+    int size();
+
+    /**
+     * @param index index of the point, 0 is the oldest
+     * @return timestamp of the point (epoch ms)
+     */
+    long timestamp(int index);
+
+    /**
+     * @param index index of the point
+     * @return exact price of the point in USD
+     */
+    BigDecimal price(int index);
+
+    /**
+     * @param index index of the point
+     * @return price of the point as the nearest double, as {@link BigDecimal#doubleValue()}
+     */
+    default double priceAsDouble(int index) {
+        return price(index).doubleValue();
+    }
+
+    /**
+     * @param index      index of a point
+     * @param otherIndex index of another point
+     * @return negative, zero or positive as the price of the first point is lower, equal or higher
+     */
+    default int comparePrices(int index, int otherIndex) {
+        return price(index).compareTo(price(otherIndex));
+    }
+
+    /**
+     * @param index index of the point
+     * @return the point
+     */
+    default PriceData point(int index) {
+        return new PriceData(timestamp(index), price(index));
+    }
+
+    /**
+     * Binary searches the first point at or after a timestamp.
+     *
+     * @param timestamp epoch ms
+     * @return index of the first point with a timestamp at or after the given one, {@link #size()} if there is none
+     */
+    default int lowerBound(long timestamp) {
+        int low = 0;
+        int high = size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamp(middle) < timestamp) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Views a sorted list of price points as a series.
+     *
+     * @param prices chronologically ordered price points
+     * @return series backed by the list
+     */
+    static PriceSeries of(List<PriceData> prices) {
+        return new PriceSeries() {
+            @Override
+            public int size() {
+                return prices.size();
+            }
+
+            @Override
+            public long timestamp(int index) {
+                return prices.get(index).timestamp();
+            }
+
+            @Override
+            public BigDecimal price(int index) {
+                return prices.get(index).price();
+            }
+
+            @Override
+            public PriceData point(int index) {
+                return prices.get(index);
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package dev.cryptorec.model;
+
+/**
+ * Online (Welford) summary of the log returns between consecutive price points of a block, with its maximum
+ * drawdown. Part of {@link PriceAggregate}: it is built in the same pass as min/max and merged with the summary of
+ * the following block without revisiting the points.
+ * <p>
+ * The number of returns is not stored, a block of n points has n - 1 returns.
+ *
+ * @param mean        mean log return
+ * @param m2          sum of squared deviations of the log returns from their mean
+ * @param maxDrawdown largest relative fall from a running peak, (peak - trough) / peak, in [0, 1]
+ */
+public record ReturnStats(
+        double mean,
+        double m2,
+        double maxDrawdown
+) {
+    /**
+     * Summary of a block without returns (a single point).
+     */
+    public static final ReturnStats EMPTY = new ReturnStats(0, 0, 0);
+
+    /**
+     * Merges the summaries of two consecutive blocks (Chan et al. pairwise update), including the return between
+     * the last point of the earlier block and the first point of the later one.
+     *
+     * @param returns        number of returns of this (earlier) block
+     * @param later          summary of the later block
+     * @param laterReturns   number of returns of the later block
+     * @param boundaryReturn log return from the newest point of this block to the oldest point of the later block
+     * @param earlierPeak    maximum price of this block
+     * @param laterTrough    minimum price of the later block
+     * @return summary of both blocks
+     */
+    public ReturnStats merge(long returns, ReturnStats later, long laterReturns, double boundaryReturn,
+                             double earlierPeak, double laterTrough) {
+        // this block followed by the boundary return, then followed by the later block
+        long n = returns + 1;
+        double delta = boundaryReturn - mean;
+        double mergedMean = mean + delta / n;
+        double mergedM2 = m2 + delta * delta * returns / n;
+
+        long total = n + laterReturns;
+        delta = later.mean - mergedMean;
+        mergedMean += delta * laterReturns / total;
+        mergedM2 += later.m2 + delta * delta * n * laterReturns / total;
+
+        // a trough of the later block may fall from the peak of the earlier one
+        double crossDrawdown = earlierPeak > 0 ? 1 - laterTrough / earlierPeak : 0;
+        return new ReturnStats(mergedMean, mergedM2,
+                Math.max(Math.max(maxDrawdown, later.maxDrawdown), crossDrawdown));
+    }
+
+    /**
+     * @param returns number of returns of the block
+     * @return sample standard deviation of the log returns, NaN with fewer than 2 returns
+     */
+    public double stdDev(long returns) {
+        return returns < 2 ? Double.NaN : Math.sqrt(m2 / (returns - 1));
+    }
+}
@@ -0,0 +1,138 @@
+package dev.cryptorec.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cheap per-symbol metadata known without computing statistics for a timeframe.
+ * <p>
+ * The all-time aggregate bounds every timeframe: the min/max/oldest/newest prices of any window lie within
+ * [allTime.min, allTime.max]. Together with the gaps it also describes the coverage of the series: a window
+ * outside [allTime.oldest, allTime.newest] or inside a gap holds no data.
+ * Providers and query filters use it to skip symbols before any price point is read.
+ *
+ * @param symbol  cryptocurrency symbol
+ * @param allTime aggregate of the whole price series of the symbol
+ * @param gaps    chronologically ordered intervals longer than {@link #GAP_THRESHOLD_MILLIS} without price points
+ */
+public record SymbolMetadata(
+        String symbol,
+        PriceAggregate allTime,
+        List<Gap> gaps
+) {
+    /**
+     * Minimum distance between two consecutive price points recorded as a gap (one day, the smallest timeframe).
+     */
+    public static final long GAP_THRESHOLD_MILLIS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Validates the record upon creation.
+     *
+     * @throws IllegalArgumentException if invariants are violated
+     */
+    public SymbolMetadata {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol must not be blank");
+        }
+        if (allTime == null) {
+            throw new IllegalArgumentException("All-time aggregate must not be null");
+        }
+        gaps = gaps == null ? List.of() : List.copyOf(gaps);
+    }
+
+    /**
+     * Builds the metadata of a chronologically ordered price series in a single pass.
+     *
+     * @param prices non-empty price series
+     * @return metadata of the series
+     */
+    public static SymbolMetadata of(CryptoPrice prices) {
+        return of(PriceSeries.of(prices.prices()), prices.symbol());
+    }
+
+    /**
+     * Builds the metadata of a price series, like {@link #of(CryptoPrice)}. The gaps are found on the timestamps
+     * alone, so columnar series are described without copying their points to the heap.
+     *
+     * @param series non-empty, chronologically ordered price series
+     * @param symbol cryptocurrency symbol of the series
+     * @return metadata of the series
+     */
+    public static SymbolMetadata of(PriceSeries series, String symbol) {
+        List<Gap> gaps = new ArrayList<>();
+        for (int i = 1; i < series.size(); i++) {
+            long previous = series.timestamp(i - 1);
+            long current = series.timestamp(i);
+            if (current - previous > GAP_THRESHOLD_MILLIS) {
+                gaps.add(new Gap(previous, current));
+            }
+        }
+        return new SymbolMetadata(symbol, PriceAggregate.of(series, 0, series.size()), gaps);
+    }
+
+    /**
+     * @return timestamp of the first price point
+     */
+    public long firstTimestamp() {
+        return allTime.oldest().timestamp();
+    }
+
+    /**
+     * @return timestamp of the last price point
+     */
+    public long lastTimestamp() {
+        return allTime.newest().timestamp();
+    }
+
+    /**
+     * @return number of price points
+     */
+    public long count() {
+        return allTime.count();
+    }
+
+    /**
+     * Checks whether the series has at least one point within [fromTs, toTs], in O(log gaps).
+     *
+     * @param fromTs start of the window (inclusive, epoch millis)
+     * @param toTs   end of the window (inclusive, epoch millis)
+     * @return true if the series has data in the window
+     */
+    public boolean hasDataIn(long fromTs, long toTs) {
+        if (firstTimestamp() > toTs || lastTimestamp() < fromTs) {
+            return false;
+        }
+
+        // the last gap starting before the window is the only one that can contain it
+        int low = 0;
+        int high = gaps.size() - 1;
+        Gap candidate = null;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Gap gap = gaps.get(mid);
+            if (gap.after() < fromTs) {
+                candidate = gap;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return candidate == null || !candidate.contains(fromTs, toTs);
+    }
+
+    /**
+     * Interval without price points between two consecutive points.
+     *
+     * @param after  timestamp of the last point before the gap
+     * @param before timestamp of the first point after the gap
+     */
+    public record Gap(long after, long before) {
+
+        /**
+         * @return true if [fromTs, toTs] lies strictly inside the gap
+         */
+        public boolean contains(long fromTs, long toTs) {
+            return fromTs > after && toTs < before;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package dev.cryptorec.model;
+
+/**
+ * Regular time grid shared by resampled series: step i covers [fromTs + i * intervalMillis, fromTs + (i + 1) *
+ * intervalMillis).
+ *
+ * @param fromTs         start of the first step (epoch millis)
+ * @param intervalMillis width of a step
+ * @param steps          number of steps
+ */
+public record TimeGrid(
+        long fromTs,
+        long intervalMillis,
+        int steps
+) {
+    /**
+     * Validates the record upon creation.
+     *
+     * @throws IllegalArgumentException if invariants are violated
+     */
+    public TimeGrid {
+        if (intervalMillis <= 0) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        if (steps < 1) {
+            throw new IllegalArgumentException("Grid must have at least one step");
+        }
+    }
+
+    /**
+     * Creates the grid covering [fromTs, toTs].
+     *
+     * @param fromTs         start of the grid (inclusive, epoch millis)
+     * @param toTs           end of the grid (inclusive, epoch millis)
+     * @param intervalMillis width of a step
+     * @return grid whose last step contains toTs
+     * @throws IllegalArgumentException if the range is empty or has too many steps to index
+     */
+    public static TimeGrid of(long fromTs, long toTs, long intervalMillis) {
+        if (intervalMillis <= 0 || toTs < fromTs) {
+            throw new IllegalArgumentException("Interval and timeframe must be positive");
+        }
+        long lastStep = (toTs - fromTs) / intervalMillis;
+        if (lastStep >= Integer.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Too many grid steps: " + lastStep);
+        }
+        return new TimeGrid(fromTs, intervalMillis, (int) lastStep + 1);
+    }
+
+    /**
+     * @param step step index
+     * @return start of the step (epoch millis)
+     */
+    public long startOf(int step) {
+        return fromTs + step * intervalMillis;
+    }
+
+    /**
+     * @param timestamp epoch millis
+     * @return index of the step containing the timestamp, negative before the grid, {@link #steps()} or more after
+     */
+    public long stepOf(long timestamp) {
+        return Math.floorDiv(timestamp - fromTs, intervalMillis);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.cryptorec.model.exception;
+
+/**
+ * Thrown when a pagination cursor refers to a result snapshot that has expired or was evicted;
+ * the client has to restart from the first page.
+ */
+public class CursorExpiredException extends RuntimeException {
+    public CursorExpiredException(String message) {
+        super(message);
+    }
+}
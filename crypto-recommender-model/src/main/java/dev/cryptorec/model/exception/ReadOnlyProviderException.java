@@ -0,0 +1,10 @@
+package dev.cryptorec.model.exception;
+
+/**
+ * Thrown when data is written to a provider that serves its data read-only.
+ */
+public class ReadOnlyProviderException extends RuntimeException {
+    public ReadOnlyProviderException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package dev.cryptorec.model.exception;
+
+/**
+ * Thrown when the shard owning the requested data cannot be reached or does not answer in time.
+ */
+public class ShardUnavailableException extends RuntimeException {
+    public ShardUnavailableException(String message) {
+        super(message);
+    }
+
+    public ShardUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,10 @@
+package dev.cryptorec.model.exception;
+
+/**
+ * Thrown when a protected endpoint is called without a valid token.
+ */
+public class UnauthorizedException extends RuntimeException {
+    public UnauthorizedException(String message) {
+        super(message);
+    }
+}
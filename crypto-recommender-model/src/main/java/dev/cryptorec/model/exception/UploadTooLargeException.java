@@ -0,0 +1,10 @@
+package dev.cryptorec.model.exception;
+
+/**
+ * Thrown when an upload exceeds the configured size limit; it is rejected before the limit is buffered.
+ */
+public class UploadTooLargeException extends RuntimeException {
+    public UploadTooLargeException(String message) {
+        super(message);
+    }
+}
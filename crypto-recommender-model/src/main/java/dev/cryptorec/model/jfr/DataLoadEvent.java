@@ -0,0 +1,31 @@
+package dev.cryptorec.model.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a price file read into memory; the event duration is the read and parse time.
+ */
+@Name("dev.cryptorec.DataLoad")
+@Label("Price Data Load")
+@Category({"Crypto Recommender", "Data"})
+@Description("A price file read and parsed by a data provider")
+@StackTrace(false)
+public class DataLoadEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("Rows")
+    @Description("Price points read")
+    public long rows;
+
+    @Label("Bytes")
+    @DataAmount(DataAmount.BYTES)
+    public long bytes;
+}
@@ -0,0 +1,35 @@
+package dev.cryptorec.model.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * JFR event of the statistics of one symbol computed by scanning its price points.
+ * Only calculations of at least 1 ms are recorded by default, so listings over many small symbols do not flood a
+ * continuous recording; lower the threshold in the recording settings to see all of them.
+ */
+@Name("dev.cryptorec.StatsCalculation")
+@Label("Stats Calculation")
+@Category({"Crypto Recommender", "Stats"})
+@Description("Statistics of a symbol computed from its price points within a timeframe")
+@StackTrace(false)
+@Threshold("1 ms")
+public class StatsCalculationEvent extends Event {
+
+    @Label("Symbol")
+    public String symbol;
+
+    @Label("From Date")
+    public String fromDate;
+
+    @Label("To Date")
+    public String toDate;
+
+    @Label("Points Scanned")
+    public long points;
+}
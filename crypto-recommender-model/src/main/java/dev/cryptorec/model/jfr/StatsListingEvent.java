@@ -0,0 +1,36 @@
+package dev.cryptorec.model.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a listing: statistics of all symbols computed, filtered, sorted and sliced into a page.
+ * The event duration is the whole provider call.
+ */
+@Name("dev.cryptorec.StatsListing")
+@Label("Stats Listing")
+@Category({"Crypto Recommender", "Stats"})
+@Description("Statistics of the symbol universe sorted and paginated")
+@StackTrace(false)
+public class StatsListingEvent extends Event {
+
+    @Label("Universe Size")
+    @Description("Symbols with statistics in the timeframe that match the filter")
+    public long universe;
+
+    @Label("Sort")
+    public String sortBy;
+
+    @Label("Filter")
+    public String filter;
+
+    @Label("Page")
+    public int page;
+
+    @Label("Page Size")
+    public int size;
+}
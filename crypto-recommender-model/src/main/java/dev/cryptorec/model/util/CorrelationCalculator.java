@@ -0,0 +1,202 @@
+package dev.cryptorec.model.util;
+
+import dev.cryptorec.model.PriceMatrix;
+
+import java.util.stream.IntStream;
+
+/**
+ * Computes pairwise Pearson correlations of log returns on a common time grid.
+ * <p>
+ * Input: prices aligned on a grid by {@link Resampler}, usually the last price of each step. Steps without price
+ * carry the previous price forward. A series is defined from its first to its last priced step only, so the returns
+ * of a series form one contiguous range of the grid, and the returns two series have in common are the intersection
+ * of their ranges.
+ * <p>
+ * Per pair, the sums of x, x² and their counterparts for y come from per-series prefix sums in O(1); only the dot
+ * product of the two return vectors is computed over the overlap. The matrix is split into blocks of
+ * {@value #BLOCK} x {@value #BLOCK} symbol pairs that are computed in parallel, each block walking the time axis in
+ * chunks of {@value #CHUNK} steps so the return vectors of both blocks stay in cache while they are combined.
+ */
+public final class CorrelationCalculator {
+
+    /**
+     * Symbols per block side.
+     */
+    static final int BLOCK = 32;
+
+    /**
+     * Grid steps per chunk: 2 x 32 vectors of 1024 doubles (512 KB) fit in the L2 cache of current cores.
+     */
+    static final int CHUNK = 1024;
+
+    /**
+     * Minimum number of overlapping returns for a correlation to be defined.
+     */
+    static final int MIN_OVERLAP = 3;
+
+    private CorrelationCalculator() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Computes the correlation matrix of the returns of prices aligned on a grid.
+     *
+     * @param prices price of each symbol and step, typically the last price of the step (see {@link Resampler})
+     * @return row-major correlations, NaN where undefined
+     */
+    public static double[] correlate(PriceMatrix prices) {
+        Returns[] returns = IntStream.range(0, prices.rows()).parallel()
+                .mapToObj(row -> Returns.of(prices, row))
+                .toArray(Returns[]::new);
+        return correlate(returns);
+    }
+
+    static double[] correlate(Returns[] returns) {
+        int size = returns.length;
+        double[] values = new double[size * size];
+        int blocks = (size + BLOCK - 1) / BLOCK;
+
+        // one task per block of the upper triangle (including the diagonal blocks)
+        IntStream.range(0, blocks * (blocks + 1) / 2).parallel().forEach(task -> {
+            int rowBlock = 0;
+            int remaining = task;
+            while (remaining >= blocks - rowBlock) {
+                remaining -= blocks - rowBlock;
+                rowBlock++;
+            }
+            correlateBlock(returns, values, rowBlock * BLOCK, (rowBlock + remaining) * BLOCK);
+        });
+        return values;
+    }
+
+    private static void correlateBlock(Returns[] returns, double[] values, int rowStart, int columnStart) {
+        int size = returns.length;
+        int rowEnd = Math.min(rowStart + BLOCK, size);
+        int columnEnd = Math.min(columnStart + BLOCK, size);
+        double[] dots = new double[BLOCK * BLOCK];
+
+        int from = Integer.MAX_VALUE;
+        int to = 0;
+        for (int i = rowStart; i < rowEnd; i++) {
+            from = Math.min(from, returns[i].from);
+            to = Math.max(to, returns[i].to);
+        }
+
+        for (int chunk = from; chunk < to; chunk += CHUNK) {
+            int chunkEnd = Math.min(chunk + CHUNK, to);
+            for (int i = rowStart; i < rowEnd; i++) {
+                Returns x = returns[i];
+                for (int j = Math.max(columnStart, i); j < columnEnd; j++) {
+                    Returns y = returns[j];
+                    int lo = Math.max(chunk, Math.max(x.from, y.from));
+                    int hi = Math.min(chunkEnd, Math.min(x.to, y.to));
+                    if (lo < hi) {
+                        dots[(i - rowStart) * BLOCK + (j - columnStart)] += dot(x.values, y.values, lo, hi);
+                    }
+                }
+            }
+        }
+
+        for (int i = rowStart; i < rowEnd; i++) {
+            for (int j = Math.max(columnStart, i); j < columnEnd; j++) {
+                double correlation = pearson(returns[i], returns[j], dots[(i - rowStart) * BLOCK + (j - columnStart)]);
+                values[i * size + j] = correlation;
+                values[j * size + i] = correlation;
+            }
+        }
+    }
+
+    private static double dot(double[] x, double[] y, int from, int to) {
+        // independent accumulators: a single sum serializes on the latency of each addition
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int t = from;
+        for (; t + 3 < to; t += 4) {
+            s0 += x[t] * y[t];
+            s1 += x[t + 1] * y[t + 1];
+            s2 += x[t + 2] * y[t + 2];
+            s3 += x[t + 3] * y[t + 3];
+        }
+        for (; t < to; t++) {
+            s0 += x[t] * y[t];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static double pearson(Returns x, Returns y, double sumXY) {
+        int lo = Math.max(x.from, y.from);
+        int hi = Math.min(x.to, y.to);
+        int n = hi - lo;
+        if (n < MIN_OVERLAP) {
+            return Double.NaN;
+        }
+
+        double sumX = x.sum[hi] - x.sum[lo];
+        double sumY = y.sum[hi] - y.sum[lo];
+        double varX = x.sumOfSquares[hi] - x.sumOfSquares[lo] - sumX * sumX / n;
+        double varY = y.sumOfSquares[hi] - y.sumOfSquares[lo] - sumY * sumY / n;
+        if (varX <= 0 || varY <= 0) {
+            return Double.NaN;
+        }
+
+        double correlation = (sumXY - sumX * sumY / n) / Math.sqrt(varX * varY);
+        return Math.clamp(correlation, -1.0, 1.0);
+    }
+
+    /**
+     * Log returns of one series on the grid, zero outside [from, to), with prefix sums over the whole grid.
+     */
+    static final class Returns {
+        final double[] values;
+        final double[] sum;
+        final double[] sumOfSquares;
+        final int from;
+        final int to;
+
+        Returns(double[] values, int from, int to) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.sum = new double[values.length + 1];
+            this.sumOfSquares = new double[values.length + 1];
+            for (int t = 0; t < values.length; t++) {
+                sum[t + 1] = sum[t] + values[t];
+                sumOfSquares[t + 1] = sumOfSquares[t] + values[t] * values[t];
+            }
+        }
+
+        /**
+         * Computes the returns of a row; the return of step t is ln(close[t] / close[t - 1]), steps without a
+         * (positive) price carry the previous one forward.
+         */
+        static Returns of(PriceMatrix prices, int row) {
+            int steps = prices.grid().steps();
+            int offset = prices.offset(row);
+            double[] close = prices.values();
+            int first = 0;
+            while (first < steps && !(close[offset + first] > 0)) {
+                first++;
+            }
+            int last = steps - 1;
+            while (last > first && !(close[offset + last] > 0)) {
+                last--;
+            }
+
+            double[] values = new double[steps];
+            if (first == steps) {
+                return new Returns(values, 0, 0);
+            }
+            double previous = close[offset + first];
+            for (int t = first + 1; t <= last; t++) {
+                double current = close[offset + t];
+                if (current > 0) {
+                    values[t] = Math.log(current / previous);
+                    previous = current;
+                }
+            }
+            return new Returns(values, first + 1, last + 1);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package dev.cryptorec.model.util;
 import dev.cryptorec.model.exception.InvalidTimeframeException;
 
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 
 /**
  * Utility class for resolving and validating timeframe parameters.
@@ -15,7 +16,7 @@ public final class DateRangeResolver {
     }
 
     /**
-     * Resolves timeframe parameters to actual from/to dates.
+     * Resolves timeframe parameters to actual from/to dates, relative to the current UTC date.
      *
      * @param fromDate     explicit start date (nullable)
      * @param toDate       explicit end date (nullable)
@@ -24,6 +25,22 @@ public final class DateRangeResolver {
      * @throws InvalidTimeframeException if parameters are invalid or ambiguous
      */
     public static LocalDate[] resolveTimeframe(LocalDate fromDate, LocalDate toDate, Integer periodMonths) {
+        return resolveTimeframe(fromDate, toDate, periodMonths, LocalDate.now(ZoneOffset.UTC));
+    }
+
+    /**
+     * Resolves timeframe parameters to actual from/to dates, relative to the given date.
+     * A periodMonths window ends on that date, so it only changes at UTC midnight.
+     *
+     * @param fromDate     explicit start date (nullable)
+     * @param toDate       explicit end date (nullable)
+     * @param periodMonths number of months to look back (nullable)
+     * @param today        date the periodMonths window and an open toDate end on
+     * @return array [fromDate, toDate] as LocalDate objects
+     * @throws InvalidTimeframeException if parameters are invalid or ambiguous
+     */
+    public static LocalDate[] resolveTimeframe(LocalDate fromDate, LocalDate toDate, Integer periodMonths,
+                                               LocalDate today) {
         // Check for ambiguous parameters
         if (periodMonths != null && (fromDate != null || toDate != null)) {
             throw new InvalidTimeframeException(
@@ -41,7 +58,7 @@ public final class DateRangeResolver {
             }
 
             if (resolvedTo == null) {
-                resolvedTo = LocalDate.now();
+                resolvedTo = today;
             }
 
             if (fromDate.isAfter(resolvedTo)) {
@@ -57,10 +74,29 @@ public final class DateRangeResolver {
             throw new InvalidTimeframeException("periodMonths must be between 1 and 60");
         }
 
-        LocalDate to = LocalDate.now();
+        LocalDate to = today;
         LocalDate from = to.minusMonths(months);
 
         return new LocalDate[]{from, to};
     }
-}
 
+    /**
+     * Converts a date to epoch milliseconds at the start of the day (UTC).
+     *
+     * @param date date to convert
+     * @return epoch milliseconds of 00:00:00.000 UTC on the given date
+     */
+    public static long startOfDayMillis(LocalDate date) {
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Converts a date to epoch milliseconds at the end of the day (UTC), so that ranges are inclusive.
+     *
+     * @param date date to convert
+     * @return epoch milliseconds of 23:59:59.999 UTC on the given date
+     */
+    public static long endOfDayMillis(LocalDate date) {
+        return startOfDayMillis(date.plusDays(1)) - 1;
+    }
+}
@@ -0,0 +1,164 @@
+package dev.cryptorec.model.util;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Time spent by one request in each processing stage, used to explain slow requests.
+ * <p>
+ * The web layer binds a trace to the request thread; {@link #propagating} carries it over to the threads running
+ * provider calls, and code on the request path adds its stage with {@link #time}. Without a bound trace
+ * {@link #current()} is {@link #NONE}, which only runs the action.
+ * <p>
+ * Stages running once per symbol (fetch, calculate) are summed over symbols, so when symbols are processed
+ * concurrently they can exceed the wall-clock time of the request. A request answered by an identical in-flight
+ * computation only shows the stages it ran itself.
+ */
+public final class RequestTrace {
+
+    /**
+     * Processing stages of a request.
+     */
+    public enum Stage {
+        /** parameter validation, timeframe resolution, filter and sort compilation */
+        RESOLVE,
+        /** reading price series from the provider */
+        FETCH,
+        /** aggregating prices into statistics */
+        CALCULATE,
+        /** sorting the statistics of all symbols */
+        SORT,
+        /** mapping the result to the API model */
+        MAP
+    }
+
+    /**
+     * Trace of code running outside a traced request, records nothing.
+     */
+    public static final RequestTrace NONE = new RequestTrace(false);
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final AtomicLongArray nanos = new AtomicLongArray(Stage.values().length);
+
+    /**
+     * Creates an empty trace.
+     */
+    public RequestTrace() {
+        this(true);
+    }
+
+    private RequestTrace(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return trace bound to the current thread, {@link #NONE} if there is none
+     */
+    public static RequestTrace current() {
+        RequestTrace trace = CURRENT.get();
+        return trace != null ? trace : NONE;
+    }
+
+    /**
+     * Binds a trace to the current thread until {@link #unbind()}.
+     *
+     * @param trace trace of the request handled by this thread
+     */
+    public static void bind(RequestTrace trace) {
+        CURRENT.set(trace);
+    }
+
+    /**
+     * Removes the trace bound to the current thread.
+     */
+    public static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Runs an action and adds its duration to a stage of the current thread's trace.
+     *
+     * @param stage  stage of the action
+     * @param action action to run
+     * @return result of the action
+     */
+    public static <T> T time(Stage stage, Supplier<T> action) {
+        return current().timed(stage, action);
+    }
+
+    /**
+     * Runs an action and adds its duration to a stage of this trace, also if the action throws.
+     * Use it for actions running on threads the trace is not propagated to, such as future callbacks.
+     *
+     * @param stage  stage of the action
+     * @param action action to run
+     * @return result of the action
+     */
+    public <T> T timed(Stage stage, Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            add(stage, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Adds time to a stage.
+     *
+     * @param stage      stage
+     * @param stageNanos duration in nanoseconds
+     */
+    public void add(Stage stage, long stageNanos) {
+        if (enabled) {
+            nanos.addAndGet(stage.ordinal(), stageNanos);
+        }
+    }
+
+    /**
+     * @return time of each stage that ran, in nanoseconds, in stage order
+     */
+    public Map<Stage, Long> stageNanos() {
+        Map<Stage, Long> result = new EnumMap<>(Stage.class);
+        for (Stage stage : Stage.values()) {
+            long value = nanos.get(stage.ordinal());
+            if (value > 0) {
+                result.put(stage, value);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Wraps an executor so that tasks run with the trace of the thread submitting them.
+     *
+     * @param executor executor running the tasks
+     * @return executor propagating the submitter's trace
+     */
+    public static Executor propagating(Executor executor) {
+        return command -> {
+            RequestTrace trace = CURRENT.get();
+            if (trace == null) {
+                executor.execute(command);
+                return;
+            }
+            executor.execute(() -> {
+                RequestTrace previous = CURRENT.get();
+                CURRENT.set(trace);
+                try {
+                    command.run();
+                } finally {
+                    CURRENT.set(previous);
+                }
+            });
+        };
+    }
+}
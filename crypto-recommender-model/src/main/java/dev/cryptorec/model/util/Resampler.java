@@ -0,0 +1,156 @@
+package dev.cryptorec.model.util;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.PriceMatrix;
+import dev.cryptorec.model.TimeGrid;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Projects price series with unrelated timestamps onto a shared {@link TimeGrid}.
+ * <p>
+ * Each series is chronologically sorted, so it is merged against the grid in a single pass: the current step only
+ * moves forward and its end is compared per point, the step index is recomputed only when a point leaves the current
+ * step. No timestamp join or per-point object is needed; rows are filled in parallel.
+ */
+public final class Resampler {
+
+    /**
+     * Value kept for a step.
+     */
+    public enum Aggregation {
+        /**
+         * Last price of the step (close).
+         */
+        LAST,
+        /**
+         * Arithmetic mean of the prices of the step.
+         */
+        MEAN
+    }
+
+    /**
+     * Open/high/low/close matrices of the same series and grid.
+     *
+     * @param open  first price of each step
+     * @param high  highest price of each step
+     * @param low   lowest price of each step
+     * @param close last price of each step
+     */
+    public record Ohlc(PriceMatrix open, PriceMatrix high, PriceMatrix low, PriceMatrix close) {
+    }
+
+    private Resampler() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Resamples series onto a grid, one value per step.
+     *
+     * @param series      chronologically ordered price series, one row each
+     * @param grid        target grid
+     * @param aggregation value kept for a step
+     * @return matrix with NaN for steps without price
+     */
+    public static PriceMatrix resample(List<CryptoPrice> series, TimeGrid grid, Aggregation aggregation) {
+        int steps = grid.steps();
+        double[] values = new double[Math.multiplyExact(series.size(), steps)];
+        Arrays.fill(values, Double.NaN);
+
+        IntStream.range(0, series.size()).parallel().forEach(row -> {
+            int offset = row * steps;
+            int[] counts = aggregation == Aggregation.MEAN ? new int[steps] : null;
+            scan(series.get(row).prices(), grid, (step, price) -> {
+                int i = offset + step;
+                if (counts == null) {
+                    values[i] = price;
+                } else {
+                    values[i] = counts[step]++ == 0 ? price : values[i] + price;
+                }
+            });
+            if (counts != null) {
+                for (int step = 0; step < steps; step++) {
+                    if (counts[step] > 1) {
+                        values[offset + step] /= counts[step];
+                    }
+                }
+            }
+        });
+
+        return new PriceMatrix(symbols(series), grid, values);
+    }
+
+    /**
+     * Resamples series onto a grid into open/high/low/close matrices, in a single pass per series.
+     *
+     * @param series chronologically ordered price series, one row each
+     * @param grid   target grid
+     * @return OHLC matrices with NaN for steps without price
+     */
+    public static Ohlc ohlc(List<CryptoPrice> series, TimeGrid grid) {
+        int steps = grid.steps();
+        int size = Math.multiplyExact(series.size(), steps);
+        double[] open = new double[size];
+        double[] high = new double[size];
+        double[] low = new double[size];
+        double[] close = new double[size];
+        Arrays.fill(open, Double.NaN);
+        Arrays.fill(high, Double.NaN);
+        Arrays.fill(low, Double.NaN);
+        Arrays.fill(close, Double.NaN);
+
+        IntStream.range(0, series.size()).parallel().forEach(row -> {
+            int offset = row * steps;
+            scan(series.get(row).prices(), grid, (step, price) -> {
+                int i = offset + step;
+                if (Double.isNaN(open[i])) {
+                    open[i] = price;
+                    high[i] = price;
+                    low[i] = price;
+                } else {
+                    high[i] = Math.max(high[i], price);
+                    low[i] = Math.min(low[i], price);
+                }
+                close[i] = price;
+            });
+        });
+
+        List<String> symbols = symbols(series);
+        return new Ohlc(new PriceMatrix(symbols, grid, open), new PriceMatrix(symbols, grid, high),
+                new PriceMatrix(symbols, grid, low), new PriceMatrix(symbols, grid, close));
+    }
+
+    private static void scan(List<PriceData> prices, TimeGrid grid, PointConsumer consumer) {
+        int step = -1;
+        long stepStart = Long.MAX_VALUE;
+        long stepEnd = Long.MIN_VALUE;
+        for (PriceData price : prices) {
+            long timestamp = price.timestamp();
+            if (timestamp >= stepEnd || timestamp < stepStart) {
+                long next = grid.stepOf(timestamp);
+                if (next < 0) {
+                    continue;
+                }
+                if (next >= grid.steps()) {
+                    break;
+                }
+                step = (int) next;
+                stepStart = grid.startOf(step);
+                stepEnd = stepStart + grid.intervalMillis();
+            }
+            consumer.accept(step, price.price().doubleValue());
+        }
+    }
+
+    private static List<String> symbols(List<CryptoPrice> series) {
+        return series.stream().map(CryptoPrice::symbol).toList();
+    }
+
+    @FunctionalInterface
+    private interface PointConsumer {
+        void accept(int step, double price);
+    }
+}
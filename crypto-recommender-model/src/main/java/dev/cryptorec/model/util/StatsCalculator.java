@@ -2,7 +2,11 @@ package dev.cryptorec.model.util;
 
 import dev.cryptorec.model.PriceData;
 import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PriceAggregate;
+import dev.cryptorec.model.PriceSeries;
+import dev.cryptorec.model.ReturnStats;
 import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.model.jfr.StatsCalculationEvent;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -12,6 +16,7 @@ import java.time.ZoneId;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Utility class for calculating cryptocurrency statistics.
@@ -29,6 +34,11 @@ public final class StatsCalculator {
      */
     private static final RoundingMode USD_ROUNDING_MODE = RoundingMode.HALF_UP;
 
+    /**
+     * Scale of the return metrics (log returns of consecutive ticks are typically around 1e-3)
+     */
+    private static final int RETURN_SCALE = 6;
+
     private StatsCalculator() {
         // Utility class, no instantiation
     }
@@ -49,30 +59,127 @@ public final class StatsCalculator {
             List<PriceData> prices,
             LocalDate fromDate,
             LocalDate toDate
+    ) {
+        return tryCalculateStats(symbol, prices, fromDate, toDate)
+                .orElseThrow(() -> noData(symbol));
+    }
+
+    /**
+     * Calculates aggregated statistics for a list of price data without throwing when there is none.
+     * Listings over many symbols use this variant: a symbol without data in the timeframe is an expected outcome,
+     * not an error, and must not cost an exception.
+     *
+     * @param symbol   cryptocurrency symbol (e.g., BTC, ETH)
+     * @param prices   list of price data points in USD (nullable)
+     * @param fromDate start date of the timeframe
+     * @param toDate   end date of the timeframe
+     * @return CryptoStats containing aggregated values in USD, empty if prices list is empty
+     */
+    public static Optional<CryptoStats> tryCalculateStats(
+            String symbol,
+            List<PriceData> prices,
+            LocalDate fromDate,
+            LocalDate toDate
     ) {
         if (prices == null || prices.isEmpty()) {
-            throw new ValidationException("No price data available for " + symbol + " in the specified timeframe");
+            return Optional.empty();
+        }
+
+        return Optional.of(calculateStats(symbol, PriceSeries.of(prices), 0, prices.size(), fromDate, toDate));
+    }
+
+    /**
+     * Calculates aggregated statistics over the points of a price series within the timeframe, found by binary
+     * search. The series is read in place, e.g. off-heap columns are aggregated without copying them to the heap.
+     *
+     * @param symbol   cryptocurrency symbol (e.g., BTC, ETH)
+     * @param series   chronologically ordered price series in USD
+     * @param fromDate start date of the timeframe (inclusive)
+     * @param toDate   end date of the timeframe (inclusive)
+     * @return CryptoStats containing aggregated values in USD, empty if the series has no point in the timeframe
+     */
+    public static Optional<CryptoStats> tryCalculateStatsWithin(
+            String symbol,
+            PriceSeries series,
+            LocalDate fromDate,
+            LocalDate toDate
+    ) {
+        int from = series.lowerBound(DateRangeResolver.startOfDayMillis(fromDate));
+        int to = series.lowerBound(DateRangeResolver.endOfDayMillis(toDate) + 1);
+        if (from >= to) {
+            return Optional.empty();
+        }
+
+        return Optional.of(calculateStats(symbol, series, from, to, fromDate, toDate));
+    }
+
+    private static CryptoStats calculateStats(String symbol, PriceSeries series, int from, int to,
+                                              LocalDate fromDate, LocalDate toDate) {
+        StatsCalculationEvent event = new StatsCalculationEvent();
+        event.begin();
+        CryptoStats stats = calculateStats(symbol, PriceAggregate.of(series, from, to), fromDate, toDate);
+        event.end();
+        if (event.shouldCommit()) {
+            event.symbol = symbol;
+            event.fromDate = String.valueOf(fromDate);
+            event.toDate = String.valueOf(toDate);
+            event.points = to - from;
+            event.commit();
         }
+        return stats;
+    }
 
-        PriceData minPrice = findMin(prices);
-        PriceData maxPrice = findMax(prices);
-        PriceData oldest = prices.getFirst();
-        PriceData newest = prices.getLast();
+    /**
+     * Creates the exception reported when a single symbol is requested for a timeframe without data.
+     *
+     * @param symbol cryptocurrency symbol
+     * @return exception to throw
+     */
+    public static ValidationException noData(String symbol) {
+        return new ValidationException("No price data available for " + symbol + " in the specified timeframe");
+    }
 
-        BigDecimal normalizedRange = calculateNormalizedRange(minPrice.price(), maxPrice.price());
+    /**
+     * Calculates aggregated statistics from a pre-aggregated block of price data.
+     * Results are in USD currency with proper scale (2 decimal places); return metrics are present when the
+     * aggregate tracks returns, mean and standard deviation need at least 2 and 3 points respectively.
+     *
+     * @param symbol    cryptocurrency symbol (e.g., BTC, ETH)
+     * @param aggregate aggregate of the price data within the timeframe
+     * @param fromDate  start date of the timeframe
+     * @param toDate    end date of the timeframe
+     * @return CryptoStats containing aggregated values in USD
+     */
+    public static CryptoStats calculateStats(
+            String symbol,
+            PriceAggregate aggregate,
+            LocalDate fromDate,
+            LocalDate toDate
+    ) {
+        BigDecimal normalizedRange = calculateNormalizedRange(aggregate.min().price(), aggregate.max().price());
+        ReturnStats returns = aggregate.returns();
+        long returnCount = aggregate.count() - 1;
 
         return new CryptoStats(
                 symbol,
                 normalizedRange,
-                minPrice,
-                maxPrice,
-                oldest,
-                newest,
+                aggregate.min(),
+                aggregate.max(),
+                aggregate.oldest(),
+                aggregate.newest(),
                 fromDate,
-                toDate
+                toDate,
+                aggregate.count(),
+                returns == null ? null : returnMetric(returns.stdDev(returnCount)),
+                returns == null || returnCount < 1 ? null : returnMetric(returns.mean()),
+                returns == null ? null : returnMetric(returns.maxDrawdown())
         );
     }
 
+    private static BigDecimal returnMetric(double value) {
+        return Double.isFinite(value) ? BigDecimal.valueOf(value).setScale(RETURN_SCALE, USD_ROUNDING_MODE) : null;
+    }
+
     /**
      * Calculates normalized range: (max - min) / min
      * Normalized range shows the volatility as a ratio.
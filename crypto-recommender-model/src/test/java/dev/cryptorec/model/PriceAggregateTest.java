@@ -0,0 +1,121 @@
+package dev.cryptorec.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceAggregateTest {
+
+    private static PriceData point(long timestamp, String price) {
+        return new PriceData(timestamp, new BigDecimal(price));
+    }
+
+    @Test
+    void testOf() {
+        List<PriceData> prices = List.of(point(1000, "100"), point(2000, "50"), point(3000, "150"), point(4000, "75"));
+
+        PriceAggregate aggregate = PriceAggregate.of(prices);
+
+        assertEquals(4, aggregate.count());
+        assertEquals(point(2000, "50"), aggregate.min());
+        assertEquals(point(3000, "150"), aggregate.max());
+        assertEquals(point(1000, "100"), aggregate.oldest());
+        assertEquals(point(4000, "75"), aggregate.newest());
+    }
+
+    @Test
+    void testOfEmptyList() {
+        assertThrows(IllegalArgumentException.class, () -> PriceAggregate.of(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> PriceAggregate.of(null));
+    }
+
+    @Test
+    void testOfSeriesRange() {
+        List<PriceData> prices = List.of(point(1000, "100"), point(2000, "50"), point(3000, "150"),
+                point(4000, "50"), point(5000, "150"), point(6000, "75"));
+        PriceSeries series = PriceSeries.of(prices);
+
+        assertEquals(PriceAggregate.of(prices.subList(1, 5)), PriceAggregate.of(series, 1, 5));
+        assertEquals(3, series.lowerBound(3500));
+        assertEquals(0, series.lowerBound(0));
+        assertThrows(IllegalArgumentException.class, () -> PriceAggregate.of(series, 2, 2));
+        assertThrows(IllegalArgumentException.class, () -> PriceAggregate.of(series, 0, 7));
+    }
+
+    @Test
+    void testMergeEqualsSinglePass() {
+        List<PriceData> prices = List.of(point(1000, "100"), point(2000, "50"), point(3000, "150"),
+                point(4000, "50"), point(5000, "150"), point(6000, "75"));
+
+        PriceAggregate merged = PriceAggregate.of(prices.subList(0, 3)).merge(PriceAggregate.of(prices.subList(3, 6)));
+
+        PriceAggregate singlePass = PriceAggregate.of(prices);
+        assertEquals(singlePass.count(), merged.count());
+        assertEquals(singlePass.min(), merged.min());
+        assertEquals(singlePass.max(), merged.max());
+        assertEquals(singlePass.oldest(), merged.oldest());
+        assertEquals(singlePass.newest(), merged.newest());
+        assertReturnsEqual(singlePass.returns(), merged.returns());
+        // ties keep the earliest point
+        assertEquals(2000, merged.min().timestamp());
+        assertEquals(3000, merged.max().timestamp());
+    }
+
+    @Test
+    void testReturnMetrics() {
+        // log returns: ln(2), ln(1/2), ln(2); the fall from 200 to 100 is the max drawdown
+        List<PriceData> prices = List.of(point(1000, "100"), point(2000, "200"), point(3000, "100"),
+                point(4000, "200"));
+
+        ReturnStats returns = PriceAggregate.of(prices).returns();
+
+        double ln2 = Math.log(2);
+        assertEquals(ln2 / 3, returns.mean(), 1e-12);
+        // deviations 2/3 ln2, -4/3 ln2, 2/3 ln2: m2 = 24/9 ln2^2, sample variance m2 / 2
+        assertEquals(Math.sqrt(24.0 / 9 / 2) * ln2, returns.stdDev(3), 1e-12);
+        assertEquals(0.5, returns.maxDrawdown(), 1e-12);
+        assertTrue(Double.isNaN(ReturnStats.EMPTY.stdDev(1)));
+        assertEquals(ReturnStats.EMPTY, PriceAggregate.of(prices.subList(0, 1)).returns());
+    }
+
+    @Test
+    void testMergeOfManyBlocksMatchesSinglePass() {
+        Random random = new Random(7);
+        List<PriceData> prices = new ArrayList<>();
+        double price = 1000;
+        for (int i = 0; i < 1000; i++) {
+            price *= Math.exp(random.nextGaussian() * 0.02);
+            prices.add(new PriceData(i * 1000L, BigDecimal.valueOf(price)));
+        }
+
+        PriceAggregate merged = null;
+        for (int from = 0; from < prices.size(); ) {
+            int to = Math.min(prices.size(), from + 1 + random.nextInt(50));
+            PriceAggregate block = PriceAggregate.of(prices.subList(from, to));
+            merged = merged == null ? block : merged.merge(block);
+            from = to;
+        }
+
+        assertReturnsEqual(PriceAggregate.of(prices).returns(), merged.returns());
+    }
+
+    @Test
+    void testZeroPriceDisablesReturns() {
+        List<PriceData> prices = List.of(point(1000, "100"), point(2000, "0"), point(3000, "100"));
+
+        assertNull(PriceAggregate.of(prices).returns());
+        assertNull(PriceAggregate.of(prices.subList(0, 1)).merge(PriceAggregate.of(prices.subList(1, 3))).returns());
+        assertNull(new PriceAggregate(1, prices.get(0), prices.get(0), prices.get(0), prices.get(0)).returns());
+    }
+
+    private static void assertReturnsEqual(ReturnStats expected, ReturnStats actual) {
+        assertEquals(expected.mean(), actual.mean(), 1e-12);
+        assertEquals(expected.m2(), actual.m2(), 1e-9);
+        assertEquals(expected.maxDrawdown(), actual.maxDrawdown(), 1e-12);
+    }
+}
@@ -0,0 +1,62 @@
+package dev.cryptorec.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolMetadataTest {
+
+    private static final long HOUR = 60 * 60 * 1000L;
+    private static final long DAY = 24 * HOUR;
+
+    private static PriceData point(long timestamp) {
+        return new PriceData(timestamp, BigDecimal.TEN);
+    }
+
+    // points on days 0, 1, 5 and 6, with a gap from day 1 to day 5
+    private final SymbolMetadata metadata = SymbolMetadata.of(new CryptoPrice("BTC", List.of(
+            point(0), point(DAY), point(5 * DAY), point(6 * DAY))));
+
+    @Test
+    void testCoverage() {
+        assertEquals(0, metadata.firstTimestamp());
+        assertEquals(6 * DAY, metadata.lastTimestamp());
+        assertEquals(4, metadata.count());
+        // consecutive points exactly one day apart are not a gap
+        assertEquals(List.of(new SymbolMetadata.Gap(DAY, 5 * DAY)), metadata.gaps());
+    }
+
+    @Test
+    void testHasDataIn() {
+        assertTrue(metadata.hasDataIn(0, DAY - 1));
+        assertTrue(metadata.hasDataIn(DAY, 2 * DAY));
+        assertTrue(metadata.hasDataIn(2 * DAY, 5 * DAY));
+        assertTrue(metadata.hasDataIn(-DAY, 0));
+
+        // inside the gap
+        assertFalse(metadata.hasDataIn(DAY + 1, 5 * DAY - 1));
+        assertFalse(metadata.hasDataIn(2 * DAY, 3 * DAY));
+        // outside the series
+        assertFalse(metadata.hasDataIn(-DAY, -1));
+        assertFalse(metadata.hasDataIn(7 * DAY, 8 * DAY));
+    }
+
+    @Test
+    void testSeriesMetadataMatchesListMetadata() {
+        List<PriceData> prices = List.of(point(0), point(DAY), point(5 * DAY), point(6 * DAY));
+
+        assertEquals(metadata, SymbolMetadata.of(PriceSeries.of(prices), "BTC"));
+    }
+
+    @Test
+    void testSeriesWithoutGaps() {
+        SymbolMetadata dense = SymbolMetadata.of(new CryptoPrice("ETH", List.of(point(0), point(HOUR))));
+
+        assertTrue(dense.gaps().isEmpty());
+        assertTrue(dense.hasDataIn(0, 0));
+        assertFalse(dense.hasDataIn(HOUR + 1, DAY));
+    }
+}
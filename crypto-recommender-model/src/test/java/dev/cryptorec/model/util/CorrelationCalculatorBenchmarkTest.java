@@ -0,0 +1,56 @@
+package dev.cryptorec.model.util;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.PriceMatrix;
+import dev.cryptorec.model.TimeGrid;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the correlation matrix of 500 symbols over a year of hourly prices.
+ * <p>
+ * Run with: mvn -pl crypto-recommender-model test -Pbenchmark -Dbench.symbols=500 -Dbench.hours=8760
+ */
+@Tag("benchmark")
+class CorrelationCalculatorBenchmarkTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long START = 1640995200000L;
+
+    @Test
+    void benchmarkCorrelationMatrix() {
+        int symbols = Integer.getInteger("bench.symbols", 500);
+        int hours = Integer.getInteger("bench.hours", 8760);
+
+        List<CryptoPrice> series = IntStream.range(0, symbols).parallel()
+                .mapToObj(s -> {
+                    Random random = new Random(s);
+                    List<PriceData> prices = new ArrayList<>(hours);
+                    double price = 100;
+                    for (int t = 0; t < hours; t++) {
+                        price *= Math.exp(random.nextGaussian() * 0.01);
+                        prices.add(new PriceData(START + t * HOUR, BigDecimal.valueOf(price)));
+                    }
+                    return new CryptoPrice("S" + s, prices);
+                })
+                .toList();
+
+        for (int run = 1; run <= 5; run++) {
+            long started = System.nanoTime();
+            PriceMatrix closes = Resampler.resample(series, TimeGrid.of(START, START + (hours - 1) * HOUR, HOUR),
+                    Resampler.Aggregation.LAST);
+            long resampled = System.nanoTime();
+            double[] values = CorrelationCalculator.correlate(closes);
+            System.out.printf("run %d: %d x %d matrix over %d steps in %d ms (resample %d ms) (%.3f)%n", run,
+                    symbols, symbols, hours, (System.nanoTime() - started) / 1_000_000,
+                    (resampled - started) / 1_000_000, values[1]);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package dev.cryptorec.model.util;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.PriceMatrix;
+import dev.cryptorec.model.TimeGrid;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CorrelationCalculatorTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long START = 1640995200000L; // 2022-01-01T00:00Z
+
+    private static CryptoPrice series(String symbol, double... prices) {
+        List<PriceData> points = new ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            if (!Double.isNaN(prices[i])) {
+                points.add(new PriceData(START + i * HOUR, BigDecimal.valueOf(prices[i])));
+            }
+        }
+        return new CryptoPrice(symbol, points);
+    }
+
+    private static double[] randomWalk(Random random, int steps) {
+        double[] prices = new double[steps];
+        prices[0] = 100;
+        for (int t = 1; t < steps; t++) {
+            prices[t] = prices[t - 1] * Math.exp(random.nextGaussian() * 0.01);
+        }
+        return prices;
+    }
+
+    private static double[] correlate(List<CryptoPrice> series, long fromTs, long toTs, long interval) {
+        PriceMatrix closes = Resampler.resample(series, TimeGrid.of(fromTs, toTs, interval), Resampler.Aggregation.LAST);
+        return CorrelationCalculator.correlate(closes);
+    }
+
+    /**
+     * Textbook two-pass Pearson correlation of the log returns both series have.
+     */
+    private static double naive(double[] x, double[] y) {
+        List<double[]> pairs = new ArrayList<>();
+        for (int t = 1; t < x.length; t++) {
+            pairs.add(new double[]{Math.log(x[t] / x[t - 1]), Math.log(y[t] / y[t - 1])});
+        }
+        double meanX = pairs.stream().mapToDouble(p -> p[0]).average().orElseThrow();
+        double meanY = pairs.stream().mapToDouble(p -> p[1]).average().orElseThrow();
+        double cov = 0;
+        double varX = 0;
+        double varY = 0;
+        for (double[] p : pairs) {
+            cov += (p[0] - meanX) * (p[1] - meanY);
+            varX += (p[0] - meanX) * (p[0] - meanX);
+            varY += (p[1] - meanY) * (p[1] - meanY);
+        }
+        return cov / Math.sqrt(varX * varY);
+    }
+
+    @Test
+    void testMatchesNaivePearsonAcrossBlocksAndChunks() {
+        // more symbols than one block and more steps than one chunk
+        int symbols = CorrelationCalculator.BLOCK + 5;
+        int steps = CorrelationCalculator.CHUNK * 2 + 100;
+        Random random = new Random(42);
+        double[] market = randomWalk(random, steps);
+        double[][] prices = new double[symbols][];
+        List<CryptoPrice> series = new ArrayList<>();
+        for (int s = 0; s < symbols; s++) {
+            double[] own = randomWalk(random, steps);
+            prices[s] = new double[steps];
+            for (int t = 0; t < steps; t++) {
+                // mix of a common factor and an own walk gives correlations all over [0, 1]
+                prices[s][t] = Math.pow(market[t], s / (double) symbols) * Math.pow(own[t], 1 - s / (double) symbols);
+            }
+            series.add(series("S" + s, prices[s]));
+        }
+
+        double[] values = correlate(series, START, START + (steps - 1) * HOUR, HOUR);
+
+        for (int i = 0; i < symbols; i++) {
+            assertEquals(1.0, values[i * symbols + i], 1e-9);
+            for (int j = 0; j < symbols; j++) {
+                assertEquals(naive(prices[i], prices[j]), values[i * symbols + j], 1e-9, "pair " + i + "," + j);
+                assertEquals(values[i * symbols + j], values[j * symbols + i]);
+            }
+        }
+    }
+
+    @Test
+    void testAlignsOnGridAndCarriesPricesForward() {
+        double nan = Double.NaN;
+        CryptoPrice full = series("A", 1, 2, 4, 8, 4, 2, 4);
+        // the missing steps carry 2 forward: returns 0.69, 0, 0, -0.69, 0, 0.69
+        CryptoPrice gaps = series("B", 1, 2, nan, nan, 1, nan, 2);
+        // several prices in one 2h step: the last one is the close of the step
+        CryptoPrice dense = series("C", 5, 1, 5, 2, 5, 4, 5);
+
+        double[] values = correlate(List.of(full, gaps, dense), START, START + 7 * HOUR,
+                2 * HOUR);
+
+        assertEquals(4, TimeGrid.of(START, START + 7 * HOUR, 2 * HOUR).steps());
+        // closes on the 2h grid: A 2, 8, 2, 4; B 2, 2, 1, 2; C 1, 2, 4, 5
+        assertEquals(naive(new double[]{2, 8, 2, 4}, new double[]{2, 2, 1, 2}), values[1], 1e-12);
+        assertEquals(naive(new double[]{2, 8, 2, 4}, new double[]{1, 2, 4, 5}), values[2], 1e-12);
+    }
+
+    @Test
+    void testUsesOverlappingRangeOnly() {
+        double nan = Double.NaN;
+        double[] a = {10, 11, 10.5, 12, 11, 13, 12.5, 14};
+        double[] b = {nan, nan, 20, 23, 21, 26, nan, nan};
+
+        double[] values = correlate(List.of(series("A", a), series("B", b)), START,
+                START + 7 * HOUR, HOUR);
+
+        // B is defined from step 2 to 5 only, it is not carried forward past its last price
+        assertEquals(naive(new double[]{10.5, 12, 11, 13}, new double[]{20, 23, 21, 26}), values[1], 1e-12);
+    }
+
+    @Test
+    void testUndefinedCorrelationsAreNaN() {
+        double nan = Double.NaN;
+        CryptoPrice moving = series("A", 1, 2, 1, 3, 2, 4);
+        CryptoPrice constant = series("B", 5, 5, 5, 5, 5, 5);
+        CryptoPrice early = series("C", 1, 2, 3, nan, nan, nan);
+        CryptoPrice empty = new CryptoPrice("D", List.of());
+
+        double[] values = correlate(List.of(moving, constant, early, empty), START,
+                START + 5 * HOUR, HOUR);
+
+        assertEquals(1.0, values[0], 1e-12);
+        assertTrue(Double.isNaN(values[1]), "constant series");
+        assertTrue(Double.isNaN(values[2]), "only two common returns");
+        assertTrue(Double.isNaN(values[3]), "no data");
+        assertTrue(Double.isNaN(values[15]), "no data on the diagonal");
+    }
+
+    @Test
+    void testNonPositivePricesAreSkipped() {
+        double[] a = {10, 11, 10.5, 12, 11, 13};
+        double[] b = {20, 0, 21, 24, 22, 26};
+
+        double[] values = correlate(List.of(series("A", a), series("B", b)), START, START + 5 * HOUR, HOUR);
+
+        // the zero price is treated like a missing one: 20 is carried forward
+        assertEquals(naive(a, new double[]{20, 20, 21, 24, 22, 26}), values[1], 1e-12);
+    }
+}
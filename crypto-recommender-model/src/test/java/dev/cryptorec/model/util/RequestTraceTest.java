@@ -0,0 +1,77 @@
+package dev.cryptorec.model.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTraceTest {
+
+    @AfterEach
+    void unbind() {
+        RequestTrace.unbind();
+    }
+
+    @Test
+    void testStagesAreSummedPerTrace() {
+        RequestTrace trace = new RequestTrace();
+        RequestTrace.bind(trace);
+
+        assertEquals("ok", RequestTrace.time(RequestTrace.Stage.FETCH, () -> "ok"));
+        RequestTrace.time(RequestTrace.Stage.FETCH, () -> sleep(5));
+        trace.add(RequestTrace.Stage.SORT, 1_000);
+        assertThrows(IllegalStateException.class, () -> RequestTrace.time(RequestTrace.Stage.CALCULATE, () -> {
+            throw new IllegalStateException("no data");
+        }));
+
+        Map<RequestTrace.Stage, Long> stages = trace.stageNanos();
+        assertEquals(List.of(RequestTrace.Stage.FETCH, RequestTrace.Stage.CALCULATE,
+                RequestTrace.Stage.SORT), List.copyOf(stages.keySet()));
+        assertTrue(stages.get(RequestTrace.Stage.FETCH) >= 5_000_000L);
+        assertEquals(1_000L, stages.get(RequestTrace.Stage.SORT));
+    }
+
+    @Test
+    void testWithoutBoundTraceNothingIsRecorded() {
+        assertSame(RequestTrace.NONE, RequestTrace.current());
+        assertEquals(42, RequestTrace.time(RequestTrace.Stage.MAP, () -> 42));
+        RequestTrace.NONE.add(RequestTrace.Stage.MAP, 1_000);
+        assertTrue(RequestTrace.NONE.stageNanos().isEmpty());
+    }
+
+    @Test
+    void testPropagatingExecutorCarriesTheSubmittersTrace() {
+        try (ExecutorService pool = Executors.newSingleThreadExecutor()) {
+            var executor = RequestTrace.propagating(pool);
+            RequestTrace trace = new RequestTrace();
+            RequestTrace.bind(trace);
+
+            RequestTrace seen = CompletableFuture.supplyAsync(() -> {
+                RequestTrace.current().add(RequestTrace.Stage.FETCH, 7);
+                return RequestTrace.current();
+            }, executor).join();
+            RequestTrace.unbind();
+            RequestTrace afterwards = CompletableFuture.supplyAsync(RequestTrace::current, executor).join();
+
+            assertSame(trace, seen);
+            assertEquals(7L, trace.stageNanos().get(RequestTrace.Stage.FETCH));
+            // the pool thread does not keep the trace of an earlier task
+            assertSame(RequestTrace.NONE, afterwards);
+        }
+    }
+
+    private static Object sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
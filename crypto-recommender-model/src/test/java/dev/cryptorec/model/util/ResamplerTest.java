@@ -0,0 +1,93 @@
+package dev.cryptorec.model.util;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.PriceMatrix;
+import dev.cryptorec.model.TimeGrid;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResamplerTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long START = 1640995200000L; // 2022-01-01T00:00Z
+
+    // 10 minute grid over 40 minutes: steps [0, 10), [10, 20), [20, 30), [30, 40]
+    private static final TimeGrid GRID = TimeGrid.of(START, START + 39 * MINUTE, 10 * MINUTE);
+
+    private static PriceData point(long minute, String price) {
+        return new PriceData(START + minute * MINUTE, new BigDecimal(price));
+    }
+
+    // timestamps do not line up across symbols
+    private static final List<CryptoPrice> SERIES = List.of(
+            new CryptoPrice("BTC", List.of(point(1, "10"), point(4, "12"), point(9, "11"), point(10, "13"),
+                    point(35, "20"))),
+            new CryptoPrice("ETH", List.of(point(12, "2"), point(19, "4"), point(21, "3"), point(45, "9"))));
+
+    private static void assertRow(double[] expected, PriceMatrix matrix, int row) {
+        for (int step = 0; step < expected.length; step++) {
+            assertEquals(expected[step], matrix.get(row, step), 1e-12, matrix.symbols().get(row) + " step " + step);
+        }
+    }
+
+    @Test
+    void testLastAndMean() {
+        PriceMatrix last = Resampler.resample(SERIES, GRID, Resampler.Aggregation.LAST);
+        PriceMatrix mean = Resampler.resample(SERIES, GRID, Resampler.Aggregation.MEAN);
+
+        assertEquals(List.of("BTC", "ETH"), last.symbols());
+        assertEquals(4, GRID.steps());
+        assertRow(new double[]{11, 13, Double.NaN, 20}, last, 0);
+        // the point after the grid is ignored
+        assertRow(new double[]{Double.NaN, 4, 3, Double.NaN}, last, 1);
+        assertRow(new double[]{11, 13, Double.NaN, 20}, mean, 0);
+        assertRow(new double[]{Double.NaN, 3, 3, Double.NaN}, mean, 1);
+    }
+
+    @Test
+    void testOhlc() {
+        Resampler.Ohlc ohlc = Resampler.ohlc(SERIES, GRID);
+
+        assertRow(new double[]{10, 13, Double.NaN, 20}, ohlc.open(), 0);
+        assertRow(new double[]{12, 13, Double.NaN, 20}, ohlc.high(), 0);
+        assertRow(new double[]{10, 13, Double.NaN, 20}, ohlc.low(), 0);
+        assertRow(new double[]{11, 13, Double.NaN, 20}, ohlc.close(), 0);
+        assertRow(new double[]{Double.NaN, 2, 3, Double.NaN}, ohlc.open(), 1);
+        assertRow(new double[]{Double.NaN, 4, 3, Double.NaN}, ohlc.high(), 1);
+    }
+
+    @Test
+    void testPointsBeforeGridAndEmptySeries() {
+        TimeGrid late = TimeGrid.of(START + 10 * MINUTE, START + 29 * MINUTE, 10 * MINUTE);
+        List<CryptoPrice> series = List.of(SERIES.getFirst(), new CryptoPrice("XRP", List.of()));
+
+        PriceMatrix last = Resampler.resample(series, late, Resampler.Aggregation.LAST);
+
+        assertRow(new double[]{13, Double.NaN}, last, 0);
+        assertRow(new double[]{Double.NaN, Double.NaN}, last, 1);
+    }
+
+    @Test
+    void testFillForwardWithinPricedRange() {
+        PriceMatrix last = Resampler.resample(SERIES, GRID, Resampler.Aggregation.LAST).fillForward();
+
+        assertRow(new double[]{11, 13, 13, 20}, last, 0);
+        // not before the first nor after the last price
+        assertRow(new double[]{Double.NaN, 4, 3, Double.NaN}, last, 1);
+    }
+
+    @Test
+    void testGrid() {
+        assertEquals(-1, GRID.stepOf(START - 1));
+        assertEquals(1, GRID.stepOf(START + 10 * MINUTE));
+        assertEquals(START + 30 * MINUTE, GRID.startOf(3));
+        assertThrows(IllegalArgumentException.class, () -> TimeGrid.of(START, START - 1, MINUTE));
+        assertThrows(IllegalArgumentException.class, () -> TimeGrid.of(START, START, 0));
+        assertThrows(IllegalArgumentException.class, () -> TimeGrid.of(0, Long.MAX_VALUE, 1));
+    }
+}
@@ -1,11 +1,19 @@
 package dev.cryptorec.model.util;
 
+import dev.cryptorec.model.PriceAggregate;
 import dev.cryptorec.model.PriceData;
 import dev.cryptorec.model.CryptoStats;
 import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.model.jfr.StatsCalculationEvent;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -75,6 +83,28 @@ class StatsCalculatorTest {
         assertEquals(prices.get(0), stats.oldest());
         assertEquals(prices.get(2), stats.newest());
         assertTrue(stats.normalizedRange().signum() >= 0);
+
+        // log returns ln(47/46) and ln(45/47)
+        assertEquals(3L, stats.tickCount());
+        assertEquals(new BigDecimal("-0.010989"), stats.meanReturn());
+        assertEquals(new BigDecimal("0.045956"), stats.returnStdDev());
+        assertEquals(new BigDecimal("0.042553"), stats.maxDrawdown());
+    }
+
+    @Test
+    void testReturnMetricsNeedEnoughPoints() {
+        LocalDate day = LocalDate.of(2022, 1, 1);
+        PriceData price = new PriceData(1000, new BigDecimal("100"));
+
+        CryptoStats single = StatsCalculator.calculateStats("BTC", List.of(price), day, day);
+        assertEquals(1L, single.tickCount());
+        assertNull(single.meanReturn());
+        assertNull(single.returnStdDev());
+        assertEquals(new BigDecimal("0.000000"), single.maxDrawdown());
+
+        CryptoStats untracked = StatsCalculator.calculateStats("BTC",
+                new PriceAggregate(1, price, price, price, price), day, day);
+        assertNull(untracked.maxDrawdown());
     }
 
     @Test
@@ -86,6 +116,43 @@ class StatsCalculatorTest {
                 () -> StatsCalculator.calculateStats("BTC", List.of(), fromDate, toDate));
     }
 
+    @Test
+    void testTryCalculateStats() {
+        LocalDate fromDate = LocalDate.of(2022, 1, 1);
+        LocalDate toDate = LocalDate.of(2022, 1, 31);
+        List<PriceData> prices = List.of(new PriceData(1641009600000L, new BigDecimal("100")),
+                new PriceData(1641096000000L, new BigDecimal("150")));
+
+        assertTrue(StatsCalculator.tryCalculateStats("BTC", List.of(), fromDate, toDate).isEmpty());
+        assertTrue(StatsCalculator.tryCalculateStats("BTC", null, fromDate, toDate).isEmpty());
+        assertEquals(StatsCalculator.calculateStats("BTC", prices, fromDate, toDate),
+                StatsCalculator.tryCalculateStats("BTC", prices, fromDate, toDate).orElseThrow());
+    }
+
+    @Test
+    void testTryCalculateStatsRecordsJfrEvent(@TempDir Path directory) throws Exception {
+        List<PriceData> prices = List.of(new PriceData(1641009600000L, new BigDecimal("100")),
+                new PriceData(1641096000000L, new BigDecimal("150")),
+                new PriceData(1641182400000L, new BigDecimal("120")));
+        Path file = directory.resolve("stats.jfr");
+
+        try (Recording recording = new Recording()) {
+            recording.enable(StatsCalculationEvent.class).withThreshold(Duration.ZERO);
+            recording.start();
+            StatsCalculator.tryCalculateStats("JFR", prices, LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 31));
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordedEvent event = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("dev.cryptorec.StatsCalculation"))
+                .filter(e -> "JFR".equals(e.getString("symbol")))
+                .findFirst().orElseThrow();
+        assertEquals(3, event.getLong("points"));
+        assertEquals("2022-01-01", event.getString("fromDate"));
+        assertEquals("2022-01-31", event.getString("toDate"));
+    }
+
     @Test
     void testEpochMillisToLocalDate() {
         long epochMillis = 1641009600000L; // 2022-01-01 00:00:00 UTC
@@ -0,0 +1,130 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.provider.query.StatsQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link DataProvider}.
+ * Every call returns immediately, the result (or the provider exception, e.g.
+ * {@link dev.cryptorec.model.exception.CryptoNotFoundException}) is delivered through the future,
+ * so callers can overlap the I/O of several calls instead of blocking a request thread per call.
+ * <p>
+ * Synchronous providers are exposed through {@link AsyncDataProviderAdapter}.
+ */
+public interface AsyncDataProvider {
+
+    /**
+     * Retrieves all available cryptos.
+     *
+     * @return future of the crypto symbols (e.g., BTC, ETH, XRP)
+     */
+    CompletableFuture<List<String>> getAllCryptos();
+
+    /**
+     * Retrieves all price data for a specific cryptocurrency.
+     *
+     * @param symbol cryptocurrency symbol
+     * @return future of the CryptoPrice containing all price data for the symbol
+     */
+    CompletableFuture<CryptoPrice> getCryptoPrices(String symbol);
+
+    /**
+     * Retrieves price data for a specific cryptocurrency within a date range.
+     * Dates are inclusive.
+     *
+     * @param symbol   cryptocurrency symbol
+     * @param fromDate start date (inclusive)
+     * @param toDate   end date (inclusive)
+     * @return future of the CryptoPrice containing filtered price data
+     */
+    CompletableFuture<CryptoPrice> getCryptoPricesByTimeframe(String symbol, LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Calculates statistics for a specific cryptocurrency within a date range.
+     * Dates are inclusive.
+     *
+     * @param symbol   cryptocurrency symbol
+     * @param fromDate start date (inclusive)
+     * @param toDate   end date (inclusive)
+     * @return future of the CryptoStats for the symbol within the timeframe
+     */
+    CompletableFuture<CryptoStats> getCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Calculates statistics for a specific cryptocurrency, see {@link DataProvider#tryGetCryptoStats}.
+     *
+     * @param symbol   cryptocurrency symbol
+     * @param fromDate start date (inclusive)
+     * @param toDate   end date (inclusive)
+     * @return future of the CryptoStats for the symbol within the timeframe, empty if there is no data
+     */
+    CompletableFuture<Optional<CryptoStats>> tryGetCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Version of the data served by the provider, see {@link DataProvider#dataVersion()}.
+     * Reading it is cheap and does not block.
+     *
+     * @return current data version
+     */
+    default long dataVersion() {
+        return 0L;
+    }
+
+    /**
+     * Version of the data of one symbol, see {@link DataProvider#symbolVersion(String)}.
+     * Reading it is cheap and does not block.
+     *
+     * @param symbol cryptocurrency symbol
+     * @return current data version of the symbol
+     */
+    default long symbolVersion(String symbol) {
+        return dataVersion();
+    }
+
+    /**
+     * Retrieves paginated cryptocurrency statistics for all cryptos.
+     *
+     * @param page         zero-based page index
+     * @param size         page size
+     * @param sortBy       sort field and direction (e.g., "normalizedRange_desc")
+     * @param fromDate     start date (nullable)
+     * @param toDate       end date (nullable)
+     * @param periodMonths months to look back (nullable)
+     * @return future of the PaginatedResult containing crypto statistics and pagination metadata
+     */
+    CompletableFuture<PaginatedResult<CryptoStats>> getPaginatedStats(
+            int page,
+            int size,
+            String sortBy,
+            LocalDate fromDate,
+            LocalDate toDate,
+            Integer periodMonths
+    );
+
+    /**
+     * Retrieves paginated statistics of the cryptos matching a query, see {@link DataProvider#queryStats}.
+     *
+     * @param page         zero-based page index
+     * @param size         page size
+     * @param query        compiled filter and sort
+     * @param fromDate     start date
+     * @param toDate       end date
+     * @param periodMonths months to look back (nullable)
+     * @return future of the PaginatedResult containing the matching crypto statistics
+     */
+    CompletableFuture<PaginatedResult<CryptoStats>> queryStats(
+            int page,
+            int size,
+            StatsQuery query,
+            LocalDate fromDate,
+            LocalDate toDate,
+            Integer periodMonths
+    );
+}
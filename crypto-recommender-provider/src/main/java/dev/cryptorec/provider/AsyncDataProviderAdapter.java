@@ -0,0 +1,111 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.jfr.StatsListingEvent;
+import dev.cryptorec.model.util.RequestTrace;
+import dev.cryptorec.provider.query.StatsQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Exposes a synchronous {@link DataProvider} as an {@link AsyncDataProvider}.
+ * Each call runs on the given executor; with a virtual-thread executor blocking providers (JDBC, HTTP, disk)
+ * cost no platform thread while waiting, and independent calls run concurrently.
+ * The {@link RequestTrace} of the calling thread is carried over to the executor, so provider stages are timed.
+ * Listings are recorded as {@link StatsListingEvent}s.
+ */
+public class AsyncDataProviderAdapter implements AsyncDataProvider {
+
+    private final DataProvider delegate;
+    private final Executor executor;
+
+    /**
+     * @param delegate synchronous provider
+     * @param executor executor running the provider calls
+     */
+    public AsyncDataProviderAdapter(DataProvider delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = RequestTrace.propagating(executor);
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getAllCryptos() {
+        return CompletableFuture.supplyAsync(delegate::getAllCryptos, executor);
+    }
+
+    @Override
+    public CompletableFuture<CryptoPrice> getCryptoPrices(String symbol) {
+        return CompletableFuture.supplyAsync(() -> delegate.getCryptoPrices(symbol), executor);
+    }
+
+    @Override
+    public CompletableFuture<CryptoPrice> getCryptoPricesByTimeframe(String symbol, LocalDate fromDate,
+                                                                     LocalDate toDate) {
+        return CompletableFuture.supplyAsync(() -> delegate.getCryptoPricesByTimeframe(symbol, fromDate, toDate),
+                executor);
+    }
+
+    @Override
+    public CompletableFuture<CryptoStats> getCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        return CompletableFuture.supplyAsync(() -> delegate.getCryptoStats(symbol, fromDate, toDate), executor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<CryptoStats>> tryGetCryptoStats(String symbol, LocalDate fromDate,
+                                                                      LocalDate toDate) {
+        return CompletableFuture.supplyAsync(() -> delegate.tryGetCryptoStats(symbol, fromDate, toDate), executor);
+    }
+
+    @Override
+    public long dataVersion() {
+        return delegate.dataVersion();
+    }
+
+    @Override
+    public long symbolVersion(String symbol) {
+        return delegate.symbolVersion(symbol);
+    }
+
+    @Override
+    public CompletableFuture<PaginatedResult<CryptoStats>> getPaginatedStats(int page, int size, String sortBy,
+                                                                             LocalDate fromDate, LocalDate toDate,
+                                                                             Integer periodMonths) {
+        return CompletableFuture.supplyAsync(() -> recordListing(page, size, sortBy, null,
+                () -> delegate.getPaginatedStats(page, size, sortBy, fromDate, toDate, periodMonths)), executor);
+    }
+
+    @Override
+    public CompletableFuture<PaginatedResult<CryptoStats>> queryStats(int page, int size, StatsQuery query,
+                                                                      LocalDate fromDate, LocalDate toDate,
+                                                                      Integer periodMonths) {
+        return CompletableFuture.supplyAsync(() -> recordListing(page, size, query.sortBy(), query.filterSource(),
+                () -> delegate.queryStats(page, size, query, fromDate, toDate, periodMonths)), executor);
+    }
+
+    /**
+     * Runs a listing call of the delegate as a {@link StatsListingEvent}, so listings of every provider are recorded.
+     */
+    private static PaginatedResult<CryptoStats> recordListing(int page, int size, String sortBy, String filter,
+                                                              Supplier<PaginatedResult<CryptoStats>> listing) {
+        StatsListingEvent event = new StatsListingEvent();
+        event.begin();
+        PaginatedResult<CryptoStats> result = listing.get();
+        event.end();
+        if (event.shouldCommit()) {
+            event.universe = result.totalElements();
+            event.sortBy = sortBy;
+            event.filter = filter;
+            event.page = page;
+            event.size = size;
+            event.commit();
+        }
+        return result;
+    }
+}
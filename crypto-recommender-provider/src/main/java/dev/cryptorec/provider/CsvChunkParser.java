@@ -0,0 +1,316 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.PriceData;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+/**
+ * Parses a large CSV price file on all cores.
+ * <p>
+ * The file is split into byte ranges aligned on line boundaries. Each range is memory-mapped and parsed in parallel
+ * into primitive columns (timestamp, unscaled price, scale), without per-row strings. The chunks are then turned into
+ * price points in parallel, each at its offset of one shared array, so rows keep their file order. A chunk records
+ * whether its timestamps ascend; if every chunk does and the chunks follow each other, the sort is skipped, otherwise
+ * the chunks are the ascending runs merged by the stable sort.
+ * <p>
+ * Only plain files are handled: unquoted fields, decimal numbers without sign or exponent and at most 18 digits.
+ * Anything else, including malformed rows, makes {@link #read} return empty so the caller falls back to the general
+ * parser, which reports errors the same way for every file size.
+ */
+final class CsvChunkParser {
+
+    /**
+     * Largest range mapped at once, a mapped buffer being limited to 2 GB.
+     */
+    static final long MAX_CHUNK_BYTES = 1L << 30;
+
+    private static final int MAX_DIGITS = 18;
+    private static final int MAX_HEADER_BYTES = 4096;
+
+    private CsvChunkParser() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Reads a CSV price file in parallel chunks.
+     *
+     * @param csvFile CSV file with a header line
+     * @param chunks  number of chunks, raised so that none exceeds {@link #MAX_CHUNK_BYTES}
+     * @return mutable list of the price points sorted by timestamp, empty if the file needs the general parser
+     * @throws IOException if the file cannot be read
+     */
+    static Optional<List<PriceData>> read(Path csvFile, int chunks) throws IOException {
+        try (FileChannel channel = FileChannel.open(csvFile, StandardOpenOption.READ)) {
+            long size = channel.size();
+            Header header = readHeader(channel);
+            if (header == null) {
+                return Optional.empty();
+            }
+
+            long[] bounds = bounds(channel, header.length(), size,
+                    (int) Math.max(chunks, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES));
+            Chunk[] parsed = IntStream.range(0, bounds.length - 1).parallel()
+                    .mapToObj(i -> parse(channel, bounds[i], bounds[i + 1], header))
+                    .toArray(Chunk[]::new);
+            if (Arrays.stream(parsed).anyMatch(chunk -> chunk == null)) {
+                return Optional.empty();
+            }
+            return Optional.of(concatenate(parsed));
+        }
+    }
+
+    /**
+     * Splits [start, size) into ranges ending after a line feed (the last one at the end of the file).
+     */
+    private static long[] bounds(FileChannel channel, long start, long size, int chunks) throws IOException {
+        long[] bounds = new long[chunks + 1];
+        bounds[0] = start;
+        int count = 1;
+        for (int i = 1; i < chunks; i++) {
+            long nominal = start + (size - start) * i / chunks;
+            long aligned = nextLine(channel, Math.max(nominal, bounds[count - 1]), size);
+            if (aligned > bounds[count - 1] && aligned < size) {
+                bounds[count++] = aligned;
+            }
+        }
+        bounds[count++] = size;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * @return position after the first line feed at or after the position, the size if there is none
+     */
+    private static long nextLine(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private static Header readHeader(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(MAX_HEADER_BYTES, channel.size()));
+        channel.read(buffer, 0);
+        int end = 0;
+        while (end < buffer.position() && buffer.get(end) != '\n') {
+            end++;
+        }
+        if (end == buffer.position()) {
+            return null;
+        }
+        String line = new String(buffer.array(), 0, end, StandardCharsets.UTF_8).strip();
+        if (line.indexOf('"') >= 0) {
+            return null;
+        }
+        List<String> names = List.of(line.split(",", -1));
+        int timestamp = names.indexOf("timestamp");
+        int price = names.indexOf("price");
+        if (timestamp < 0 || price < 0) {
+            return null;
+        }
+        return new Header(end + 1, names.size(), timestamp, price);
+    }
+
+    /**
+     * Parses the lines of [start, end) into primitive columns.
+     *
+     * @return the chunk, null if a line is not plain
+     */
+    private static Chunk parse(FileChannel channel, long start, long end, Header header) {
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        } catch (IOException e) {
+            return null;
+        }
+
+        Chunk chunk = new Chunk((int) Math.min(Integer.MAX_VALUE - 8, (end - start) / 24 + 16));
+        int limit = buffer.limit();
+        int position = 0;
+        while (position < limit) {
+            int lineEnd = position;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > position && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            if (lineEnd > position && !parseLine(buffer, position, lineEnd, header, chunk)) {
+                return null;
+            }
+            position = next;
+        }
+        return chunk;
+    }
+
+    private static boolean parseLine(MappedByteBuffer buffer, int start, int end, Header header, Chunk chunk) {
+        long timestamp = -1;
+        long unscaled = -1;
+        int scale = 0;
+        int column = 0;
+        int fieldStart = start;
+        for (int i = start; i <= end; i++) {
+            if (i < end && buffer.get(i) != ',') {
+                continue;
+            }
+            if (column == header.timestampColumn()) {
+                timestamp = parseDigits(buffer, fieldStart, i);
+                if (timestamp < 0) {
+                    return false;
+                }
+            } else if (column == header.priceColumn()) {
+                int dot = fieldStart;
+                while (dot < i && buffer.get(dot) != '.') {
+                    dot++;
+                }
+                boolean hasFraction = dot < i;
+                long integer = parseDigits(buffer, fieldStart, dot);
+                long fraction = hasFraction ? parseDigits(buffer, dot + 1, i) : 0;
+                scale = hasFraction ? i - dot - 1 : 0;
+                int digits = (dot - fieldStart) + scale;
+                if (integer < 0 || fraction < 0 || digits > MAX_DIGITS) {
+                    return false;
+                }
+                unscaled = integer * pow10(scale) + fraction;
+            }
+            column++;
+            fieldStart = i + 1;
+        }
+        if (column != header.columns() || unscaled <= 0) {
+            return false;
+        }
+        chunk.add(timestamp, unscaled, scale);
+        return true;
+    }
+
+    /**
+     * @return value of the decimal digits in [start, end), -1 if the range is empty, has another byte or too many
+     */
+    private static long parseDigits(MappedByteBuffer buffer, int start, int end) {
+        if (end <= start || end - start > MAX_DIGITS) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    private static List<PriceData> concatenate(Chunk[] chunks) {
+        int[] offsets = new int[chunks.length + 1];
+        for (int i = 0; i < chunks.length; i++) {
+            offsets[i + 1] = Math.addExact(offsets[i], chunks[i].size);
+        }
+
+        PriceData[] prices = new PriceData[offsets[chunks.length]];
+        IntStream.range(0, chunks.length).parallel().forEach(i -> {
+            Chunk chunk = chunks[i];
+            for (int row = 0; row < chunk.size; row++) {
+                prices[offsets[i] + row] = new PriceData(chunk.timestamps[row],
+                        BigDecimal.valueOf(chunk.unscaled[row], chunk.scales[row]));
+            }
+        });
+
+        List<PriceData> list = new ArrayList<>(Arrays.asList(prices));
+        if (!isSorted(chunks)) {
+            // each sorted chunk is an ascending run the merge sort only merges
+            list.sort(Comparator.comparingLong(PriceData::timestamp));
+        }
+        return list;
+    }
+
+    private static boolean isSorted(Chunk[] chunks) {
+        long previous = Long.MIN_VALUE;
+        for (Chunk chunk : chunks) {
+            if (chunk.size == 0) {
+                continue;
+            }
+            if (!chunk.sorted || chunk.timestamps[0] < previous) {
+                return false;
+            }
+            previous = chunk.timestamps[chunk.size - 1];
+        }
+        return true;
+    }
+
+    /**
+     * @param length          bytes of the header line, including its line feed
+     * @param columns         number of columns
+     * @param timestampColumn index of the timestamp column
+     * @param priceColumn     index of the price column
+     */
+    private record Header(int length, int columns, int timestampColumn, int priceColumn) {
+    }
+
+    /**
+     * Parsed rows of a chunk in primitive columns.
+     */
+    private static final class Chunk {
+
+        private long[] timestamps;
+        private long[] unscaled;
+        private byte[] scales;
+        private int size;
+        private boolean sorted = true;
+
+        Chunk(int capacity) {
+            timestamps = new long[capacity];
+            unscaled = new long[capacity];
+            scales = new byte[capacity];
+        }
+
+        void add(long timestamp, long unscaledPrice, int scale) {
+            if (size == timestamps.length) {
+                int capacity = Math.max(16, size + (size >> 1));
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                unscaled = Arrays.copyOf(unscaled, capacity);
+                scales = Arrays.copyOf(scales, capacity);
+            }
+            if (size > 0 && timestamp < timestamps[size - 1]) {
+                sorted = false;
+            }
+            timestamps[size] = timestamp;
+            unscaled[size] = unscaledPrice;
+            scales[size] = (byte) scale;
+            size++;
+        }
+    }
+}
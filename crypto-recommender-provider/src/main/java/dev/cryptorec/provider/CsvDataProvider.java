@@ -4,25 +4,29 @@ import dev.cryptorec.model.PriceData;
 import dev.cryptorec.model.CryptoPrice;
 import dev.cryptorec.model.CryptoStats;
 import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.SymbolMetadata;
 import dev.cryptorec.model.exception.CryptoNotFoundException;
-import dev.cryptorec.model.exception.ValidationException;
-import dev.cryptorec.model.util.StatsCalculator;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.provider.wal.PriceBatch;
+import dev.cryptorec.provider.wal.WriteAheadLog;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -31,16 +35,36 @@ import java.util.stream.Collectors;
  * <p>
  * CSV file format: timestamp (epoch ms), symbol, price
  * Files are expected in the format: {symbol}_values.csv in the configured(mount) directory.
+ * <p>
+ * Series can be extended at runtime by {@link #beginIngestion ingestions}; a commit replaces the series of its symbol
+ * with the merged one and optionally rewrites the CSV file of the symbol.
+ * <p>
+ * With a {@link WriteAheadLog} every commit is logged first and applied only once the log holds it as durably as
+ * configured, so commits that were not persisted survive a restart: the log is replayed over the CSV files on
+ * startup. A commit the log rejects is not applied. {@link #checkpoint() Checkpoints} write the series changed since
+ * the previous one to their CSV files and delete the log segments they cover, which keeps the replay short.
  */
-public class CsvDataProvider implements DataProvider {
+public class CsvDataProvider implements WritableDataProvider, AutoCloseable {
 
     private static final Logger log = LoggerFactory.getLogger(CsvDataProvider.class);
-    private static final String CSV_EXTENSION = "_values.csv";
-    // todo: in real we would want to dynamically discover available cryptos by scanning the directory, but for MVP we hardcode supported list
+    // todo: in real we would want to dynamically discover available cryptos by scanning the directory,
+    //  but for MVP we hardcode supported list
     private static final List<String> SUPPORTED_CRYPTOS = List.of("BTC", "ETH", "LTC", "DOGE", "XRP");
 
     private final Path csvDirectory;
+    private final Predicate<String> loadedSymbols;
     private final Map<String, CryptoPrice> cache = new ConcurrentHashMap<>();
+    private final Map<String, SymbolMetadata> metadata = new ConcurrentHashMap<>();
+    private final Map<String, Long> symbolVersions = new ConcurrentHashMap<>();
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final WriteAheadLog wal;
+    // symbols with logged commits not yet written to their CSV file
+    private final Set<String> dirtySymbols = ConcurrentHashMap.newKeySet();
+    // logged commits are applied in log order: a commit waits until all commits logged before it are applied
+    private long loggedCommits;
+    private long appliedCommits;
+    private ScheduledExecutorService checkpointScheduler;
+    private boolean closed;
     private volatile boolean initialized = false;
 
     /**
@@ -49,14 +73,44 @@ public class CsvDataProvider implements DataProvider {
      * @param csvDirectory path to the directory containing CSV files
      */
     public CsvDataProvider(String csvDirectory) {
+        this(csvDirectory, null, symbol -> true);
+    }
+
+    /**
+     * Creates a CSV provider loading only some of the symbols of the directory, e.g. those assigned to a shard.
+     *
+     * @param csvDirectory  path to the directory containing CSV files
+     * @param loadedSymbols accepts the upper-case symbols to load
+     */
+    public CsvDataProvider(String csvDirectory, Predicate<String> loadedSymbols) {
+        this(csvDirectory, null, loadedSymbols);
+    }
+
+    /**
+     * Creates a CSV provider logging its commits, and replays the log over the CSV files.
+     *
+     * @param csvDirectory path to the directory containing CSV files
+     * @param wal          log of the commits, owned and closed by the provider; null to not log them
+     */
+    public CsvDataProvider(String csvDirectory, WriteAheadLog wal) {
+        this(csvDirectory, wal, symbol -> true);
+    }
+
+    private CsvDataProvider(String csvDirectory, WriteAheadLog wal, Predicate<String> loadedSymbols) {
         this.csvDirectory = Path.of(csvDirectory);
+        this.loadedSymbols = loadedSymbols;
+        this.wal = wal;
         this.initializeCache();
+        if (wal != null) {
+            replay();
+        }
     }
 
     /**
-     * Initializes the cache by loading all CSV files for supported cryptos.
-     * todo: in a real implementation, we would want to watch the directory for changes and update the cache accordingly,
-     * but for MVP we load once at startup.
+     * Initializes the cache by loading the CSV files of the supported cryptos and of symbols created by ingestions.
+     * Files are parsed concurrently, one virtual thread per symbol, so startup takes about as long as the largest file.
+     * todo: in a real implementation, we would want to watch the directory for changes and update the cache
+     * accordingly, but for MVP we load once at startup.
      */
     private void initializeCache() {
         synchronized (this) {
@@ -66,11 +120,23 @@ public class CsvDataProvider implements DataProvider {
 
             log.info("Initializing CSV provider with directory: {}", csvDirectory.toAbsolutePath());
 
-            for (String symbol : SUPPORTED_CRYPTOS) {
-                try {
-                    loadCryptoData(symbol);
-                } catch (Exception e) {
-                    log.warn("Failed to load data for crypto {}: {}", symbol, e.getMessage());
+            Set<String> symbols = new TreeSet<>(SUPPORTED_CRYPTOS);
+            try {
+                symbols.addAll(CsvPriceReader.listSymbols(csvDirectory));
+            } catch (IOException e) {
+                log.warn("Failed to list CSV directory {}: {}", csvDirectory, e.getMessage());
+            }
+            symbols.removeIf(loadedSymbols.negate());
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (String symbol : symbols) {
+                    executor.execute(() -> {
+                        try {
+                            loadCryptoData(symbol);
+                        } catch (Exception e) {
+                            log.warn("Failed to load data for crypto {}: {}", symbol, e.getMessage());
+                        }
+                    });
                 }
             }
 
@@ -85,32 +151,13 @@ public class CsvDataProvider implements DataProvider {
      * @param symbol cryptocurrency symbol
      */
     private void loadCryptoData(String symbol) throws IOException {
-        Path csvFile = csvDirectory.resolve(symbol + CSV_EXTENSION);
-
-        if (!Files.exists(csvFile)) {
-            throw new IOException("CSV file not found: " + csvFile);
-        }
-
-        List<PriceData> prices = new ArrayList<>();
+        List<PriceData> prices = CsvPriceReader.read(CsvPriceReader.csvFile(csvDirectory, symbol));
 
-        try (InputStream inputStream = Files.newInputStream(csvFile);
-             InputStreamReader reader = new InputStreamReader(inputStream);
-             CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withHeader().withIgnoreEmptyLines())) {
-
-            for (CSVRecord record : csvParser) {
-                long timestamp = Long.parseLong(record.get("timestamp"));
-                BigDecimal priceInUsd = new BigDecimal(record.get("price"));
-
-                // PriceData only contains timestamp and price (in USD)
-                // The crypto symbol is stored separately in CryptoPrice
-                prices.add(new PriceData(timestamp, priceInUsd));
-            }
+        CryptoPrice cryptoPrice = new CryptoPrice(symbol, Collections.unmodifiableList(prices));
+        if (!prices.isEmpty()) {
+            metadata.put(symbol, SymbolMetadata.of(cryptoPrice));
         }
-
-        // Sort by timestamp (ascending - earliest first)
-        prices.sort(Comparator.comparingLong(PriceData::timestamp));
-
-        cache.put(symbol, new CryptoPrice(symbol, Collections.unmodifiableList(prices)));
+        cache.put(symbol, cryptoPrice);
         log.debug("Loaded {} price points for {}", prices.size(), symbol);
     }
 
@@ -137,8 +184,8 @@ public class CsvDataProvider implements DataProvider {
     public CryptoPrice getCryptoPricesByTimeframe(String symbol, LocalDate fromDate, LocalDate toDate) {
         CryptoPrice allPrices = getCryptoPrices(symbol);
 
-        long fromEpoch = dateToEpochMillis(fromDate);
-        long toEpoch = dateToEpochMillis(toDate) + (24 * 60 * 60 * 1000) - 1; // End of day
+        long fromEpoch = DateRangeResolver.startOfDayMillis(fromDate);
+        long toEpoch = DateRangeResolver.endOfDayMillis(toDate);
 
         List<PriceData> filtered = allPrices.prices().stream()
                 .filter(p -> p.timestamp() >= fromEpoch && p.timestamp() <= toEpoch)
@@ -147,6 +194,12 @@ public class CsvDataProvider implements DataProvider {
         return new CryptoPrice(symbol, filtered);
     }
 
+    @Override
+    public Optional<SymbolMetadata> getSymbolMetadata(String symbol) {
+        ensureInitialized();
+        return Optional.ofNullable(metadata.get(symbol.toUpperCase()));
+    }
+
     @Override
     public PaginatedResult<CryptoStats> getPaginatedStats(int page, int size, String sortBy, LocalDate fromDate,
                                                           LocalDate toDate, Integer periodMonths) {
@@ -155,76 +208,316 @@ public class CsvDataProvider implements DataProvider {
 
         for (String crypto : cryptos) {
             try {
-                var cryptoPrices = getCryptoPricesByTimeframe(crypto, fromDate, toDate);
-                stats.add(StatsCalculator.calculateStats(crypto, cryptoPrices.prices(), fromDate, toDate));
+                // symbols without data in the timeframe are skipped without an exception
+                tryGetCryptoStats(crypto, fromDate, toDate).ifPresent(stats::add);
             } catch (Exception e) {
                 log.warn("Failed to calculate stats for {}: {}", crypto, e.getMessage());
             }
         }
 
-        // Sort
-        stats.sort(createComparator(sortBy));
+        return StatsPaginator.sortAndPaginate(stats, page, size, sortBy);
+    }
 
-        // Paginate
-        int totalElements = stats.size();
-        int totalPages = (int) Math.ceil((double) totalElements / size);
-        int startIdx = Math.min(page * size, totalElements);
-        int endIdx = Math.min(startIdx + size, totalElements);
+    @Override
+    public long dataVersion() {
+        return dataVersion.get();
+    }
 
-        List<CryptoStats> pageItems = stats.subList(startIdx, endIdx);
+    @Override
+    public long symbolVersion(String symbol) {
+        return symbolVersions.getOrDefault(symbol.toUpperCase(), 0L);
+    }
 
-        return new PaginatedResult<>(pageItems, page, size, totalElements, totalPages);
+    /**
+     * Starts an ingestion buffering the appended points until commit; it is used by a single thread.
+     */
+    @Override
+    public PriceIngestion beginIngestion(String symbol) {
+        ensureInitialized();
+        return new Ingestion(symbol.toUpperCase());
     }
 
     /**
-     * Converts LocalDate to epoch milliseconds (start of day in UTC).
+     * Replays the logged commits over the loaded CSV files, in log order.
      */
-    private long dateToEpochMillis(LocalDate date) {
-        return date.atStartOfDay(ZoneId.of("UTC")).toInstant().toEpochMilli();
+    private void replay() {
+        long started = System.nanoTime();
+        Map<String, List<PriceData>> pending = new HashMap<>();
+        long records = wal.replay(record -> {
+            PriceBatch batch = PriceBatch.decode(record);
+            List<PriceData> points = pending.computeIfAbsent(batch.symbol(), symbol -> new ArrayList<>());
+            points.addAll(batch.prices());
+            if (batch.last()) {
+                pending.remove(batch.symbol());
+                apply(batch.symbol(), points, false);
+                dirtySymbols.add(batch.symbol());
+            }
+        });
+        // an ingestion whose last record is missing was never acknowledged
+        pending.forEach((symbol, points) -> log.warn("Dropping {} logged points of {} from an incomplete commit",
+                points.size(), symbol));
+        log.info("Replayed {} write-ahead log records into {} symbols in {} ms", records, dirtySymbols.size(),
+                (System.nanoTime() - started) / 1_000_000);
     }
 
     /**
-     * Ensures the cache is initialized before any operation.
+     * Logs ingested points and then merges them into the series of a symbol. Commits are appended to the log under
+     * the lock and applied in the same order, so none of them is lost and replay rebuilds the same series; waiting
+     * for the log happens outside the lock, so that the commits of concurrent ingestions share its writes. Points
+     * are applied only if the log accepted them.
+     *
+     * @throws IllegalStateException if the log rejects the points; the series is unchanged
      */
-    private void ensureInitialized() {
-        if (!initialized) {
-            initializeCache();
+    private PriceIngestion.IngestResult merge(String symbol, List<PriceData> appended, boolean persist) {
+        if (wal == null) {
+            return apply(symbol, appended, persist);
+        }
+
+        CompletableFuture<Void> logged = null;
+        long commit;
+        synchronized (this) {
+            for (byte[] record : PriceBatch.encode(symbol, appended)) {
+                logged = wal.append(record);
+            }
+            commit = loggedCommits++;
+        }
+
+        Throwable failure = null;
+        try {
+            // records are written in order, the last one being durable implies the others are
+            logged.join();
+        } catch (CompletionException e) {
+            failure = e.getCause();
+        }
+
+        synchronized (this) {
+            try {
+                awaitApplied(commit);
+                if (failure != null) {
+                    throw new IllegalStateException("Failed to log prices of " + symbol + ", they are not applied",
+                            failure);
+                }
+                return applyLogged(symbol, appended, persist);
+            } finally {
+                appliedCommits++;
+                notifyAll();
+            }
         }
     }
 
     /**
-     * Creates a comparator based on the sortBy parameter.
-     * Format: "field_direction" e.g., "normalizedRange_desc", "symbol_asc"
-     * todo: in future DSL query, and resolver per data provider
+     * Applies logged points. They are durable in the log already, so a failed write of the CSV file publishes them
+     * anyway and leaves the file to the next checkpoint.
      */
-    private Comparator<CryptoStats> createComparator(String sortBy) {
-        if (sortBy == null || sortBy.isEmpty()) {
-            sortBy = "normalizedRange_desc";
+    private synchronized PriceIngestion.IngestResult applyLogged(String symbol, List<PriceData> appended,
+                                                                 boolean persist) {
+        if (persist) {
+            try {
+                return apply(symbol, appended, true);
+            } catch (UncheckedIOException e) {
+                log.warn("{}, it is written by the next checkpoint: {}", e.getMessage(), e.getCause().getMessage());
+            }
         }
+        PriceIngestion.IngestResult result = apply(symbol, appended, false);
+        dirtySymbols.add(symbol);
+        return result;
+    }
 
-        String[] parts = sortBy.split("_");
-        if (parts.length != 2) {
-            throw new ValidationException("Invalid sort format. Expected 'field_direction' (e.g., normalizedRange_desc)");
+    /**
+     * Waits until the given number of logged commits are applied; commits being applied in log order, the wait is
+     * short and not interruptible.
+     */
+    private synchronized void awaitApplied(long commits) {
+        boolean interrupted = false;
+        while (appliedCommits < commits) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
         }
+    }
 
-        String field = parts[0];
-        String direction = parts[1];
+    private synchronized PriceIngestion.IngestResult apply(String symbol, List<PriceData> appended,
+                                                           boolean persist) {
+        // stable sort: among points with the same timestamp the last appended stays last
+        appended.sort(Comparator.comparingLong(PriceData::timestamp));
+        CryptoPrice current = cache.get(symbol);
+        List<PriceData> existing = current != null ? current.prices() : List.of();
+
+        List<PriceData> merged = new ArrayList<>(existing.size() + appended.size());
+        long added = 0;
+        long replaced = 0;
+        int i = 0;
+        int j = 0;
+        while (j < appended.size()) {
+            PriceData next = appended.get(j++);
+            if (j < appended.size() && appended.get(j).timestamp() == next.timestamp()) {
+                continue;
+            }
+            while (i < existing.size() && existing.get(i).timestamp() < next.timestamp()) {
+                merged.add(existing.get(i++));
+            }
+            if (i < existing.size() && existing.get(i).timestamp() == next.timestamp()) {
+                replaced++;
+                while (i < existing.size() && existing.get(i).timestamp() == next.timestamp()) {
+                    i++;
+                }
+            } else {
+                added++;
+            }
+            merged.add(next);
+        }
+        merged.addAll(existing.subList(i, existing.size()));
 
-        Comparator<CryptoStats> comparator = switch (field) {
-            case "normalizedRange" -> Comparator.comparing(CryptoStats::normalizedRange);
-            case "symbol" -> Comparator.comparing(CryptoStats::symbol);
-            case "min" -> Comparator.comparing(s -> s.min().price());
-            case "max" -> Comparator.comparing(s -> s.max().price());
-            default -> throw new ValidationException("Invalid sort field: " + field);
-        };
+        if (persist) {
+            try {
+                CsvPriceWriter.write(CsvPriceReader.csvFile(csvDirectory, symbol), symbol, merged);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to persist prices of " + symbol, e);
+            }
+        }
 
-        if ("asc".equalsIgnoreCase(direction)) {
-            return comparator;
-        } else if ("desc".equalsIgnoreCase(direction)) {
-            return comparator.reversed();
-        } else {
-            throw new ValidationException("Invalid sort direction: " + direction);
+        CryptoPrice updated = new CryptoPrice(symbol, Collections.unmodifiableList(merged));
+        if (!merged.isEmpty()) {
+            metadata.put(symbol, SymbolMetadata.of(updated));
+        }
+        cache.put(symbol, updated);
+        // versions change after the data: a reader seeing the new version also sees the new series
+        symbolVersions.merge(symbol, 1L, Long::sum);
+        dataVersion.incrementAndGet();
+        log.info("Merged {} new and {} replaced price points into {}, {} in total", added, replaced, symbol,
+                merged.size());
+        return new PriceIngestion.IngestResult(symbol, added, replaced, merged.size(), persist);
+    }
+
+    /**
+     * Writes the series with logged commits to their CSV files and deletes the log segments covering them.
+     *
+     * @return number of written series
+     */
+    public int checkpoint() {
+        if (wal == null) {
+            return 0;
+        }
+        // commits are logged before they are applied: the rolled segments may hold commits still waiting for the
+        // log, so the series are written once every commit logged before the roll is applied (or failed)
+        CompletableFuture<Long> rolled;
+        long logged;
+        synchronized (this) {
+            rolled = wal.rollSegment();
+            logged = loggedCommits;
+        }
+        long sequence = rolled.join();
+        awaitApplied(logged);
+        int written = 0;
+        boolean complete = true;
+        for (String symbol : List.copyOf(dirtySymbols)) {
+            dirtySymbols.remove(symbol);
+            try {
+                synchronized (this) {
+                    CsvPriceWriter.write(CsvPriceReader.csvFile(csvDirectory, symbol), symbol,
+                            cache.get(symbol).prices());
+                }
+                written++;
+            } catch (IOException e) {
+                dirtySymbols.add(symbol);
+                complete = false;
+                log.warn("Checkpoint of {} failed, its log records are kept: {}", symbol, e.getMessage());
+            }
+        }
+        int deleted = complete ? wal.deleteSegmentsThrough(sequence) : 0;
+        log.info("Checkpoint wrote {} series up to log record {}, deleted {} log segments", written, sequence,
+                deleted);
+        return written;
+    }
+
+    /**
+     * Runs {@link #checkpoint()} periodically in the background; does nothing without a write-ahead log.
+     *
+     * @param interval time between two checkpoints, bounds the log replayed on startup
+     */
+    public synchronized void startCheckpoints(Duration interval) {
+        if (wal == null || closed || checkpointScheduler != null) {
+            return;
+        }
+        checkpointScheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("wal-checkpoint").daemon().factory());
+        checkpointScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (RuntimeException e) {
+                // a failed run must not cancel the following ones, the next checkpoint retries
+                log.warn("Checkpoint failed: {}", e.getMessage());
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the checkpoints, writes a last one and closes the write-ahead log.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (wal == null || closed) {
+                return;
+            }
+            closed = true;
+            if (checkpointScheduler != null) {
+                checkpointScheduler.shutdownNow();
+                checkpointScheduler = null;
+            }
+        }
+        try {
+            checkpoint();
+        } finally {
+            wal.close();
+        }
+    }
+
+    private final class Ingestion implements PriceIngestion {
+
+        private final String symbol;
+        private List<PriceData> appended = new ArrayList<>();
+
+        Ingestion(String symbol) {
+            this.symbol = symbol;
+        }
+
+        @Override
+        public void append(PriceData price) {
+            open().add(price);
+        }
+
+        @Override
+        public IngestResult commit(boolean persist) {
+            List<PriceData> points = open();
+            appended = null;
+            return merge(symbol, points, persist);
+        }
+
+        @Override
+        public void close() {
+            appended = null;
+        }
+
+        private List<PriceData> open() {
+            if (appended == null) {
+                throw new IllegalStateException("Ingestion of " + symbol + " is already committed or closed");
+            }
+            return appended;
         }
     }
-}
 
+    /**
+     * Ensures the cache is initialized before any operation.
+     */
+    private void ensureInitialized() {
+        if (!initialized) {
+            initializeCache();
+        }
+    }
+}
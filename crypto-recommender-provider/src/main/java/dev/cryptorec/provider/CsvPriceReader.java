@@ -0,0 +1,200 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.model.jfr.DataLoadEvent;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Utility class for reading CSV price files.
+ * <p>
+ * CSV file format: timestamp (epoch ms), symbol, price
+ * Files are expected in the format: {symbol}_values.csv
+ */
+public final class CsvPriceReader {
+
+    /**
+     * Suffix of CSV price files, the symbol is the part of the file name before it.
+     */
+    public static final String CSV_EXTENSION = "_values.csv";
+
+    /**
+     * Size from which a file is parsed in parallel chunks, smaller files parse faster on one thread.
+     */
+    static final long PARALLEL_THRESHOLD_BYTES = 64L * 1024 * 1024;
+
+    private CsvPriceReader() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Resolves the CSV file of a symbol within a directory.
+     *
+     * @param directory directory containing CSV files
+     * @param symbol    cryptocurrency symbol
+     * @return path of the {symbol}_values.csv file (may not exist)
+     */
+    public static Path csvFile(Path directory, String symbol) {
+        return directory.resolve(symbol + CSV_EXTENSION);
+    }
+
+    /**
+     * Lists the symbols that have a CSV file in the directory.
+     *
+     * @param directory directory containing CSV files
+     * @return upper-case symbols sorted alphabetically, empty if the directory does not exist
+     * @throws IOException if the directory cannot be listed
+     */
+    public static List<String> listSymbols(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(f -> f.getFileName().toString())
+                    .filter(name -> name.endsWith(CSV_EXTENSION))
+                    .map(name -> name.substring(0, name.length() - CSV_EXTENSION.length()).toUpperCase())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Reads a CSV file into a list of price points sorted by timestamp (ascending - earliest first).
+     * Files of at least {@link #PARALLEL_THRESHOLD_BYTES} are parsed in parallel chunks, one per core.
+     * Each read is recorded as a {@link DataLoadEvent}.
+     *
+     * @param csvFile path to the CSV file
+     * @return mutable, sorted list of price points
+     * @throws IOException if the file does not exist or cannot be read
+     */
+    public static List<PriceData> read(Path csvFile) throws IOException {
+        return read(csvFile, PARALLEL_THRESHOLD_BYTES, Runtime.getRuntime().availableProcessors());
+    }
+
+    static List<PriceData> read(Path csvFile, long parallelThreshold, int chunks) throws IOException {
+        if (!Files.exists(csvFile)) {
+            throw new IOException("CSV file not found: " + csvFile);
+        }
+
+        DataLoadEvent event = new DataLoadEvent();
+        event.begin();
+        long bytes = Files.size(csvFile);
+        List<PriceData> prices = bytes >= parallelThreshold && chunks > 1
+                ? CsvChunkParser.read(csvFile, chunks).orElse(null) : null;
+        if (prices == null) {
+            prices = readSequential(csvFile);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            String fileName = csvFile.getFileName().toString();
+            event.symbol = fileName.endsWith(CSV_EXTENSION)
+                    ? fileName.substring(0, fileName.length() - CSV_EXTENSION.length()).toUpperCase() : fileName;
+            event.rows = prices.size();
+            event.bytes = bytes;
+            event.commit();
+        }
+        return prices;
+    }
+
+    private static List<PriceData> readSequential(Path csvFile) throws IOException {
+        List<PriceData> prices = new ArrayList<>();
+
+        try (InputStream inputStream = Files.newInputStream(csvFile);
+             InputStreamReader reader = new InputStreamReader(inputStream);
+             CSVParser csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withHeader().withIgnoreEmptyLines())) {
+
+            for (CSVRecord record : csvParser) {
+                long timestamp = Long.parseLong(record.get("timestamp"));
+                BigDecimal priceInUsd = new BigDecimal(record.get("price"));
+
+                // PriceData only contains timestamp and price (in USD)
+                // The crypto symbol is stored separately in CryptoPrice
+                prices.add(new PriceData(timestamp, priceInUsd));
+            }
+        }
+
+        // Sort by timestamp (ascending - earliest first)
+        prices.sort(Comparator.comparingLong(PriceData::timestamp));
+        return prices;
+    }
+
+    /**
+     * Parses CSV price rows while they are read and validates each one, without holding more than the current row.
+     * The header must name the timestamp and price columns; a symbol column, if present, must match the symbol.
+     *
+     * @param reader source of the CSV rows, not closed
+     * @param symbol upper-case symbol the rows belong to
+     * @param sink   receiver of each valid price point, in file order
+     * @return number of parsed rows
+     * @throws ValidationException if the header or a row is invalid, naming its line, or the source fails
+     */
+    public static long parse(Reader reader, String symbol, Consumer<PriceData> sink) {
+        CSVParser csvParser;
+        try {
+            csvParser = new CSVParser(reader, CSVFormat.DEFAULT.withHeader().withIgnoreEmptyLines()
+                    .withIgnoreSurroundingSpaces());
+        } catch (IOException e) {
+            throw new ValidationException("Failed to read CSV header: " + e.getMessage(), e);
+        }
+        if (!csvParser.getHeaderMap().containsKey("timestamp") || !csvParser.getHeaderMap().containsKey("price")) {
+            throw new ValidationException("CSV header must contain timestamp and price columns, got: "
+                    + csvParser.getHeaderNames());
+        }
+        boolean hasSymbol = csvParser.getHeaderMap().containsKey("symbol");
+
+        long rows = 0;
+        try {
+            for (CSVRecord record : csvParser) {
+                sink.accept(parseRow(record, symbol, hasSymbol));
+                rows++;
+            }
+        } catch (UncheckedIOException e) {
+            // commons-csv reports malformed input and read failures of the source alike
+            throw new ValidationException("Malformed or truncated CSV after line " + (rows + 1) + ": "
+                    + e.getCause().getMessage(), e);
+        }
+        return rows;
+    }
+
+    private static PriceData parseRow(CSVRecord record, String symbol, boolean hasSymbol) {
+        long line = record.getParser().getCurrentLineNumber();
+        if (!record.isConsistent()) {
+            throw new ValidationException("Line " + line + ": expected " + record.getParser().getHeaderNames().size()
+                    + " columns, got " + record.size());
+        }
+        if (hasSymbol && !symbol.equalsIgnoreCase(record.get("symbol"))) {
+            throw new ValidationException("Line " + line + ": symbol " + record.get("symbol") + " is not " + symbol);
+        }
+        long timestamp;
+        BigDecimal price;
+        try {
+            timestamp = Long.parseLong(record.get("timestamp"));
+            price = new BigDecimal(record.get("price"));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Line " + line + ": timestamp and price must be numbers", e);
+        }
+        if (timestamp < 0 || price.signum() <= 0) {
+            throw new ValidationException("Line " + line + ": timestamp must not be negative and price must be "
+                    + "positive");
+        }
+        return new PriceData(timestamp, price);
+    }
+}
@@ -0,0 +1,53 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.PriceData;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Utility class for writing CSV price files in the format read by {@link CsvPriceReader}.
+ */
+public final class CsvPriceWriter {
+
+    private CsvPriceWriter() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Writes the price series of a symbol, replacing the file atomically: readers see either the previous or the
+     * complete new file, and a failed write leaves the previous file untouched.
+     *
+     * @param csvFile path of the {symbol}_values.csv file
+     * @param symbol  cryptocurrency symbol written on every row
+     * @param prices  price points in the order they are written
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path csvFile, String symbol, List<PriceData> prices) throws IOException {
+        Path directory = csvFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, csvFile.getFileName().toString(), ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write("timestamp,symbol,price");
+                writer.newLine();
+                for (PriceData price : prices) {
+                    writer.write(Long.toString(price.timestamp()));
+                    writer.write(',');
+                    writer.write(symbol);
+                    writer.write(',');
+                    writer.write(price.price().toPlainString());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, csvFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
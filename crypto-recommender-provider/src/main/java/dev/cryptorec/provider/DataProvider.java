@@ -3,9 +3,15 @@ package dev.cryptorec.provider;
 import dev.cryptorec.model.CryptoPrice;
 import dev.cryptorec.model.CryptoStats;
 import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.SymbolMetadata;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.model.util.RequestTrace;
+import dev.cryptorec.model.util.StatsCalculator;
+import dev.cryptorec.provider.query.StatsQuery;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Interface for data providers.
@@ -42,6 +48,89 @@ public interface DataProvider {
      */
     CryptoPrice getCryptoPricesByTimeframe(String symbol, LocalDate fromDate, LocalDate toDate);
 
+    /**
+     * Calculates statistics (min/max/oldest/newest) for a specific cryptocurrency within a date range.
+     * Dates are inclusive.
+     * <p>
+     * The default implementation filters the price series and aggregates it in memory.
+     * Providers backed by a storage engine should override it and push the aggregation down.
+     *
+     * @param symbol   cryptocurrency symbol
+     * @param fromDate start date (inclusive)
+     * @param toDate   end date (inclusive)
+     * @return CryptoStats for the symbol within the timeframe
+     * @throws dev.cryptorec.model.exception.CryptoNotFoundException if symbol not found
+     * @throws dev.cryptorec.model.exception.ValidationException     if there is no data in the timeframe
+     */
+    default CryptoStats getCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        return tryGetCryptoStats(symbol, fromDate, toDate).orElseThrow(() -> StatsCalculator.noData(symbol));
+    }
+
+    /**
+     * Calculates statistics like {@link #getCryptoStats}, but reports a timeframe without data as an empty result
+     * instead of an exception. Listings over all symbols use it, where partially covered symbols are common.
+     * <p>
+     * The default implementation skips symbols whose {@link #getSymbolMetadata coverage} has no data in the
+     * timeframe before reading any price, then aggregates the filtered series in memory.
+     *
+     * @param symbol   cryptocurrency symbol
+     * @param fromDate start date (inclusive)
+     * @param toDate   end date (inclusive)
+     * @return CryptoStats for the symbol within the timeframe, empty if there is no data in the timeframe
+     * @throws dev.cryptorec.model.exception.CryptoNotFoundException if symbol not found
+     */
+    default Optional<CryptoStats> tryGetCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        Optional<SymbolMetadata> metadata = getSymbolMetadata(symbol);
+        if (metadata.isPresent() && !metadata.get().hasDataIn(DateRangeResolver.startOfDayMillis(fromDate),
+                DateRangeResolver.endOfDayMillis(toDate))) {
+            return Optional.empty();
+        }
+
+        var cryptoPrices = RequestTrace.time(RequestTrace.Stage.FETCH,
+                () -> getCryptoPricesByTimeframe(symbol, fromDate, toDate));
+        return RequestTrace.time(RequestTrace.Stage.CALCULATE,
+                () -> StatsCalculator.tryCalculateStats(symbol, cryptoPrices.prices(), fromDate, toDate));
+    }
+
+    /**
+     * Retrieves cheap metadata (all-time min/max/oldest/newest, coverage gaps) of a symbol, used to skip symbols
+     * that have no data in a timeframe or cannot match a query before their statistics are computed.
+     * <p>
+     * The default implementation has no metadata, so no symbol is skipped.
+     *
+     * @param symbol cryptocurrency symbol
+     * @return metadata of the symbol, empty if unknown
+     */
+    default Optional<SymbolMetadata> getSymbolMetadata(String symbol) {
+        return Optional.empty();
+    }
+
+    /**
+     * Version of the data served by this provider. It changes whenever prices are added, replaced or removed, so
+     * results computed for one version must not be reused for another.
+     * <p>
+     * The default implementation is for providers whose data does not change after startup.
+     *
+     * @return current data version
+     */
+    default long dataVersion() {
+        return 0L;
+    }
+
+    /**
+     * Version of the data of one symbol. It changes whenever prices of the symbol are added, replaced or removed,
+     * so consumers keeping per-symbol results recompute only the symbols whose version changed.
+     * <p>
+     * The default implementation returns the {@link #dataVersion() data version}: any change of the provider is
+     * seen as a change of every symbol.
+     *
+     * @param symbol cryptocurrency symbol
+     * @return current data version of the symbol
+     */
+    default long symbolVersion(String symbol) {
+        return dataVersion();
+    }
+
     /**
      * Retrieves paginated cryptocurrency statistics for all cryptos.
      * Includes sorting and pagination logic.
@@ -62,5 +151,29 @@ public interface DataProvider {
             LocalDate toDate,
             Integer periodMonths
     );
-}
 
+    /**
+     * Retrieves paginated statistics of the cryptos matching a query, sorted by the query's sort.
+     * <p>
+     * Without a filter this is {@link #getPaginatedStats}. With a filter, the default implementation skips symbols
+     * whose {@link #getSymbolMetadata metadata} cannot match, computes the statistics of the others and applies the
+     * filter before sorting and paginating.
+     *
+     * @param page         zero-based page index
+     * @param size         page size
+     * @param query        compiled filter and sort
+     * @param fromDate     start date
+     * @param toDate       end date
+     * @param periodMonths months to look back (nullable)
+     * @return PaginatedResult containing the matching crypto statistics and pagination metadata
+     */
+    default PaginatedResult<CryptoStats> queryStats(int page, int size, StatsQuery query, LocalDate fromDate,
+                                                    LocalDate toDate, Integer periodMonths) {
+        if (!query.hasFilter()) {
+            return getPaginatedStats(page, size, query.sortBy(), fromDate, toDate, periodMonths);
+        }
+
+        List<CryptoStats> stats = query.collect(this, getAllCryptos(), fromDate, toDate);
+        return StatsPaginator.sortAndPaginate(stats, page, size, query.comparator());
+    }
+}
@@ -0,0 +1,363 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.PriceData;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Feeds a CSV price file to a {@link SortedPriceSink} in timestamp order with bounded memory, whatever the file size.
+ * <p>
+ * The file is first streamed straight to the sink, on the assumption that it is sorted. At the first row older than
+ * the previous one the sink is reset and the file is read again through an external merge sort: rows are collected
+ * into runs of at most runSize points, each run is sorted and spilled to a temporary file, and the runs are merged
+ * k-way (in several passes if there are more than fanIn of them). Only one run, or one buffered point per run while
+ * merging, is held in memory. Files that fit a single run are sorted in memory without spilling.
+ * <p>
+ * Rows of the same timestamp are collapsed into one point by default; the last row of the file wins, as for ingested
+ * prices. A sorter keeping duplicates sends them all, in file order.
+ */
+public class ExternalPriceSorter {
+
+    private static final Logger log = LoggerFactory.getLogger(ExternalPriceSorter.class);
+    private static final int DEFAULT_FAN_IN = 64;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    private static final Comparator<PriceData> BY_TIMESTAMP = Comparator.comparingLong(PriceData::timestamp);
+
+    private final Path tempDirectory;
+    private final int runSize;
+    private final int fanIn;
+    private final boolean collapseDuplicates;
+
+    /**
+     * Creates a sorter merging up to 64 runs at once.
+     *
+     * @param tempDirectory directory of the spilled runs
+     * @param runSize       maximum number of points sorted in memory
+     */
+    public ExternalPriceSorter(Path tempDirectory, int runSize) {
+        this(tempDirectory, runSize, DEFAULT_FAN_IN, true);
+    }
+
+    /**
+     * Creates a sorter.
+     *
+     * @param tempDirectory directory of the spilled runs
+     * @param runSize       maximum number of points sorted in memory
+     * @param fanIn         maximum number of runs merged at once
+     */
+    public ExternalPriceSorter(Path tempDirectory, int runSize, int fanIn) {
+        this(tempDirectory, runSize, fanIn, true);
+    }
+
+    /**
+     * Creates a sorter.
+     *
+     * @param tempDirectory      directory of the spilled runs
+     * @param runSize            maximum number of points sorted in memory
+     * @param fanIn              maximum number of runs merged at once
+     * @param collapseDuplicates whether rows of the same timestamp are collapsed into the last one
+     */
+    public ExternalPriceSorter(Path tempDirectory, int runSize, int fanIn, boolean collapseDuplicates) {
+        if (runSize < 1) {
+            throw new IllegalArgumentException("Run size must be positive");
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Fan-in must be at least 2");
+        }
+        this.tempDirectory = tempDirectory;
+        this.runSize = runSize;
+        this.fanIn = fanIn;
+        this.collapseDuplicates = collapseDuplicates;
+    }
+
+    /**
+     * Sends the price points of a CSV file to a sink in ascending timestamp order, one point per timestamp unless
+     * duplicates are kept.
+     *
+     * @param csvFile CSV file with timestamp and price columns
+     * @param sink    receiver of the points
+     * @return rows read and points sent
+     * @throws IOException if the file cannot be read, a run cannot be spilled or the sink fails
+     */
+    public Result sort(Path csvFile, SortedPriceSink sink) throws IOException {
+        long started = System.nanoTime();
+        Result result = streamSorted(csvFile, sink);
+        if (result == null) {
+            sink.reset();
+            result = mergeSort(csvFile, sink);
+        }
+        log.info("Sorted {} rows of {} into {} points in {} ms ({} spilled runs)", result.rows(),
+                csvFile.getFileName(), result.points(), (System.nanoTime() - started) / 1_000_000, result.runs());
+        return result;
+    }
+
+    /**
+     * @return result, null if the file turns out not to be sorted
+     */
+    private Result streamSorted(Path csvFile, SortedPriceSink sink) throws IOException {
+        Deduplicator out = new Deduplicator(sink, collapseDuplicates);
+        long rows = 0;
+        try (CSVParser csvParser = open(csvFile)) {
+            for (CSVRecord record : csvParser) {
+                PriceData point = parse(record);
+                if (point.timestamp() < out.lastTimestamp()) {
+                    log.debug("{} is not sorted at line {}", csvFile.getFileName(), csvParser.getCurrentLineNumber());
+                    return null;
+                }
+                out.accept(point);
+                rows++;
+            }
+        }
+        out.flush();
+        return new Result(rows, out.points, 0, true);
+    }
+
+    private Result mergeSort(Path csvFile, SortedPriceSink sink) throws IOException {
+        List<Path> spilled = new ArrayList<>();
+        try {
+            List<PriceData> buffer = new ArrayList<>(Math.min(runSize, 1 << 16));
+            long rows = 0;
+            try (CSVParser csvParser = open(csvFile)) {
+                for (CSVRecord record : csvParser) {
+                    PriceData point = parse(record);
+                    if (buffer.size() == runSize) {
+                        spilled.add(spill(buffer));
+                        buffer.clear();
+                    }
+                    buffer.add(point);
+                    rows++;
+                }
+            }
+
+            Deduplicator out = new Deduplicator(sink, collapseDuplicates);
+            if (spilled.isEmpty()) {
+                buffer.sort(BY_TIMESTAMP);
+                for (PriceData point : buffer) {
+                    out.accept(point);
+                }
+            } else {
+                if (!buffer.isEmpty()) {
+                    spilled.add(spill(buffer));
+                }
+                buffer = null;
+
+                List<Path> runs = List.copyOf(spilled);
+                while (runs.size() > fanIn) {
+                    List<Path> merged = new ArrayList<>();
+                    for (int i = 0; i < runs.size(); i += fanIn) {
+                        List<Path> group = runs.subList(i, Math.min(runs.size(), i + fanIn));
+                        Path run = newRun();
+                        spilled.add(run);
+                        try (RunWriter writer = new RunWriter(run, count(group))) {
+                            merge(group, writer::write);
+                        }
+                        merged.add(run);
+                    }
+                    runs = merged;
+                }
+                merge(runs, out::accept);
+            }
+            out.flush();
+            return new Result(rows, out.points, spilled.size(), false);
+        } finally {
+            for (Path run : spilled) {
+                Files.deleteIfExists(run);
+            }
+        }
+    }
+
+    private Path spill(List<PriceData> buffer) throws IOException {
+        buffer.sort(BY_TIMESTAMP);
+        Path run = newRun();
+        try (RunWriter writer = new RunWriter(run, buffer.size())) {
+            for (PriceData point : buffer) {
+                writer.write(point);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(run);
+            throw e;
+        }
+        return run;
+    }
+
+    private Path newRun() throws IOException {
+        Files.createDirectories(tempDirectory);
+        return Files.createTempFile(tempDirectory, "sort-run-", ".tmp");
+    }
+
+    private static long count(List<Path> runs) throws IOException {
+        long count = 0;
+        for (Path run : runs) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(run))) {
+                count += in.readLong();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Merges sorted runs; points of equal timestamps keep the order of their runs.
+     */
+    private static void merge(List<Path> runs, PointConsumer consumer) throws IOException {
+        List<RunReader> readers = new ArrayList<>(runs.size());
+        try {
+            PriorityQueue<RunReader> heads = new PriorityQueue<>(runs.size(),
+                    Comparator.comparingLong((RunReader reader) -> reader.head.timestamp())
+                            .thenComparingInt(reader -> reader.index));
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run, readers.size());
+                readers.add(reader);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+            while (!heads.isEmpty()) {
+                RunReader reader = heads.poll();
+                consumer.accept(reader.head);
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
+    }
+
+    private static CSVParser open(Path csvFile) throws IOException {
+        return new CSVParser(Files.newBufferedReader(csvFile, StandardCharsets.UTF_8),
+                CSVFormat.DEFAULT.withHeader().withIgnoreEmptyLines());
+    }
+
+    private static PriceData parse(CSVRecord record) {
+        return new PriceData(Long.parseLong(record.get("timestamp")), new BigDecimal(record.get("price")));
+    }
+
+    /**
+     * @param rows      rows of the file
+     * @param points    points sent to the sink, one per distinct timestamp unless duplicates are kept
+     * @param runs      runs spilled to disk, including intermediate merges
+     * @param presorted whether the file was already sorted and streamed without sorting
+     */
+    public record Result(long rows, long points, int runs, boolean presorted) {
+    }
+
+    @FunctionalInterface
+    private interface PointConsumer {
+        void accept(PriceData point) throws IOException;
+    }
+
+    /**
+     * Holds back the last point until a later timestamp arrives, so the last row of a timestamp wins; passes every
+     * point through when duplicates are kept.
+     */
+    private static final class Deduplicator {
+
+        private final SortedPriceSink sink;
+        private final boolean collapse;
+        private PriceData pending;
+        private long points;
+
+        Deduplicator(SortedPriceSink sink, boolean collapse) {
+            this.sink = sink;
+            this.collapse = collapse;
+        }
+
+        long lastTimestamp() {
+            return pending == null ? Long.MIN_VALUE : pending.timestamp();
+        }
+
+        void accept(PriceData point) throws IOException {
+            if (pending != null && (!collapse || pending.timestamp() != point.timestamp())) {
+                flush();
+            }
+            pending = point;
+        }
+
+        void flush() throws IOException {
+            if (pending != null) {
+                sink.accept(pending.timestamp(), pending.price());
+                points++;
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * Run file: point count, then per point the timestamp, the price scale and the unscaled price bytes.
+     */
+    private static final class RunWriter implements Closeable {
+
+        private final DataOutputStream out;
+
+        RunWriter(Path run, long count) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), IO_BUFFER_SIZE));
+            out.writeLong(count);
+        }
+
+        void write(PriceData point) throws IOException {
+            byte[] unscaled = point.price().unscaledValue().toByteArray();
+            out.writeLong(point.timestamp());
+            out.writeInt(point.price().scale());
+            out.writeShort(unscaled.length);
+            out.write(unscaled);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class RunReader implements Closeable {
+
+        private final DataInputStream in;
+        private final int index;
+        private long remaining;
+        private PriceData head;
+
+        RunReader(Path run, int index) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), IO_BUFFER_SIZE));
+            this.index = index;
+            this.remaining = in.readLong();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            remaining--;
+            long timestamp = in.readLong();
+            int scale = in.readInt();
+            byte[] unscaled = in.readNBytes(in.readUnsignedShort());
+            head = new PriceData(timestamp, new BigDecimal(new BigInteger(unscaled), scale));
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.PriceData;
+
+/**
+ * Price points of one symbol ingested into a {@link WritableDataProvider}.
+ * <p>
+ * Points are appended in any order while the source is read and are not visible until {@link #commit}, which
+ * merges them into the series of the symbol at once: a point with the timestamp of an existing one replaces its
+ * price, among appended points with the same timestamp the last one wins. Closing an ingestion that was not
+ * committed discards it.
+ */
+public interface PriceIngestion extends AutoCloseable {
+
+    /**
+     * @param price price point to merge on commit
+     * @throws IllegalStateException if the ingestion was committed or closed
+     */
+    void append(PriceData price);
+
+    /**
+     * Merges the appended points into the series of the symbol and publishes the result.
+     *
+     * @param persist whether the merged series is also written to the provider's storage, before it is published
+     * @return counts of the merge
+     * @throws IllegalStateException if the ingestion was committed or closed
+     */
+    IngestResult commit(boolean persist);
+
+    /**
+     * Discards the appended points unless they were committed.
+     */
+    @Override
+    void close();
+
+    /**
+     * Outcome of a committed ingestion.
+     *
+     * @param symbol      symbol of the series
+     * @param added       points with a new timestamp
+     * @param replaced    points replacing the price of an existing timestamp
+     * @param totalPoints points of the series after the merge
+     * @param persisted   whether the series was written to the provider's storage
+     */
+    record IngestResult(String symbol, long added, long replaced, long totalPoints, boolean persisted) {
+    }
+}
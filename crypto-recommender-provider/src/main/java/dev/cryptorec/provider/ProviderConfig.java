@@ -1,25 +1,243 @@
 package dev.cryptorec.provider;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.cryptorec.provider.jdbc.CsvBulkImporter;
+import dev.cryptorec.provider.jdbc.JdbcDataProvider;
+import dev.cryptorec.provider.lazy.LazyCsvDataProvider;
+import dev.cryptorec.provider.offheap.OffHeapDataProvider;
+import dev.cryptorec.provider.sharded.HttpShardClient;
+import dev.cryptorec.provider.sharded.LocalShardClient;
+import dev.cryptorec.provider.sharded.ShardClient;
+import dev.cryptorec.provider.sharded.ShardRing;
+import dev.cryptorec.provider.sharded.ShardedDataProvider;
+import dev.cryptorec.provider.tiered.TieredDataProvider;
+import dev.cryptorec.provider.wal.Durability;
+import dev.cryptorec.provider.wal.WriteAheadLog;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
 
 /**
  * Configuration class for provider module.
  * Instantiates and manages beans for data provider components.
+ * <p>
+ * The active provider is selected with crypto.provider.type:
+ * - csv (default): in-memory provider loading CSV files, optionally logging ingested prices, see crypto.wal
+ * - lazy: CSV files loaded on first access, bounded by a memory budget
+ * - jdbc: embedded H2 database, optionally importing CSV files on startup
+ * - tiered: recent months in memory, older history in zone-mapped on-disk segments
+ * - offheap: CSV files loaded into off-heap price columns, optionally memory-mapped from column files
+ * - sharded: symbols partitioned across several instances, see crypto.sharded
  */
 @Configuration
 public class ProviderConfig {
 
     /**
-     * Creates a CSV data provider bean.
+     * Creates a CSV data provider bean, logging its ingested prices to a write-ahead log if enabled.
      *
-     * @param csvDirectory path to directory containing CSV files
+     * @param csvDirectory       path to directory containing CSV files
+     * @param walEnabled         whether ingested prices are logged and replayed on startup
+     * @param walDirectory       directory of the log segments
+     * @param durability         when a logged commit is acknowledged: fsync, write or async
+     * @param segmentSize        size from which a new log segment is started
+     * @param flushInterval      longest time a logged commit stays unforced in write and async modes
+     * @param checkpointInterval time between two checkpoints into the CSV files
      * @return configured CsvDataProvider instance
      */
     @Bean
-    public DataProvider dataProvider(@Value("${crypto.csv.directory:prices}") String csvDirectory) {
-        return new CsvDataProvider(csvDirectory);
+    @ConditionalOnProperty(name = "crypto.provider.type", havingValue = "csv", matchIfMissing = true)
+    public DataProvider dataProvider(@Value("${crypto.csv.directory:prices}") String csvDirectory,
+                                     @Value("${crypto.wal.enabled:false}") boolean walEnabled,
+                                     @Value("${crypto.wal.directory:data/wal}") String walDirectory,
+                                     @Value("${crypto.wal.durability:fsync}") String durability,
+                                     @Value("${crypto.wal.segment-size:64MB}") DataSize segmentSize,
+                                     @Value("${crypto.wal.flush-interval:10ms}") Duration flushInterval,
+                                     @Value("${crypto.wal.checkpoint-interval:5m}") Duration checkpointInterval) {
+        if (!walEnabled) {
+            return new CsvDataProvider(csvDirectory);
+        }
+        WriteAheadLog wal = new WriteAheadLog(Path.of(walDirectory), Durability.valueOf(durability.toUpperCase()),
+                segmentSize.toBytes(), flushInterval);
+        CsvDataProvider provider = new CsvDataProvider(csvDirectory, wal);
+        provider.startCheckpoints(checkpointInterval);
+        return provider;
+    }
+
+    /**
+     * Creates a CSV data provider bean that loads symbols on first access and evicts the least recently used ones
+     * when the memory budget is exceeded.
+     *
+     * @param csvDirectory path to directory containing CSV files
+     * @param memoryBudget approximate maximum heap size of the loaded price series
+     * @return configured LazyCsvDataProvider instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "crypto.provider.type", havingValue = "lazy")
+    public DataProvider lazyCsvDataProvider(@Value("${crypto.csv.directory:prices}") String csvDirectory,
+                                            @Value("${crypto.lazy.memory-budget:256MB}") DataSize memoryBudget) {
+        return new LazyCsvDataProvider(Path.of(csvDirectory), memoryBudget.toBytes());
+    }
+
+    /**
+     * Creates a JDBC data provider bean backed by an embedded H2 database with a Hikari connection pool.
+     *
+     * @param jdbcUrl         JDBC url of the embedded database
+     * @param poolSize        maximum number of pooled connections
+     * @param importOnStartup whether CSV files missing from the database are imported on startup
+     * @param csvDirectory    path to directory containing CSV files to import
+     * @return configured JdbcDataProvider instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "crypto.provider.type", havingValue = "jdbc")
+    public DataProvider jdbcDataProvider(@Value("${crypto.jdbc.url:jdbc:h2:file:./data/crypto-prices}") String jdbcUrl,
+                                         @Value("${crypto.jdbc.pool-size:8}") int poolSize,
+                                         @Value("${crypto.jdbc.import-on-startup:true}") boolean importOnStartup,
+                                         @Value("${crypto.csv.directory:prices}") String csvDirectory) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("crypto-jdbc");
+        config.setJdbcUrl(jdbcUrl);
+        config.setMaximumPoolSize(poolSize);
+
+        HikariDataSource dataSource = new HikariDataSource(config);
+        JdbcDataProvider provider = new JdbcDataProvider(dataSource);
+
+        if (importOnStartup) {
+            new CsvBulkImporter(dataSource).importDirectory(Path.of(csvDirectory), true);
+        }
+
+        return provider;
+    }
+
+    /**
+     * Creates a tiered (hot in memory / cold on disk) data provider bean.
+     *
+     * @param csvDirectory     path to directory containing CSV files
+     * @param segmentDirectory path to directory containing cold segments
+     * @param hotMonths        number of recent months kept in memory
+     * @param sortRunSize      price points sorted in memory when an unsorted CSV file is split into months
+     * @return configured TieredDataProvider instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "crypto.provider.type", havingValue = "tiered")
+    public DataProvider tieredDataProvider(@Value("${crypto.csv.directory:prices}") String csvDirectory,
+                                           @Value("${crypto.tiered.segment-directory:segments}") String segmentDirectory,
+                                           @Value("${crypto.tiered.hot-months:12}") int hotMonths,
+                                           @Value("${crypto.tiered.sort-run-size:1000000}") int sortRunSize) {
+        return new TieredDataProvider(Path.of(csvDirectory), Path.of(segmentDirectory), hotMonths, Clock.systemUTC(),
+                sortRunSize);
+    }
+
+    /**
+     * Creates a CSV data provider bean keeping the price series outside the heap; the memory is released when the
+     * context closes.
+     *
+     * @param csvDirectory    path to directory containing CSV files
+     * @param columnDirectory path to directory of memory-mapped column files, blank to allocate native memory
+     * @param sortRunSize     price points sorted in memory when converting an unsorted CSV file into a column file
+     * @return configured OffHeapDataProvider instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "crypto.provider.type", havingValue = "offheap")
+    public DataProvider offHeapDataProvider(@Value("${crypto.csv.directory:prices}") String csvDirectory,
+                                            @Value("${crypto.offheap.directory:}") String columnDirectory,
+                                            @Value("${crypto.offheap.sort-run-size:1000000}") int sortRunSize) {
+        return new OffHeapDataProvider(Path.of(csvDirectory),
+                columnDirectory.isBlank() ? null : Path.of(columnDirectory), sortRunSize);
     }
-}
 
+    /**
+     * Exposes the active data provider asynchronously, running each call on its own virtual thread.
+     *
+     * @param dataProvider active data provider
+     * @return AsyncDataProvider delegating to the data provider
+     */
+    @Bean
+    public AsyncDataProvider asyncDataProvider(DataProvider dataProvider) {
+        return new AsyncDataProviderAdapter(dataProvider, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    /**
+     * Creates the consistent hash ring of the sharded cluster.
+     *
+     * @param peers comma-separated shardId=baseUrl pairs of all shards, including this one
+     * @return ring over the shard ids
+     */
+    @Bean
+    @ConditionalOnProperty(name = "crypto.provider.type", havingValue = "sharded")
+    public ShardRing shardRing(@Value("${crypto.sharded.peers}") String peers) {
+        return new ShardRing(parsePeers(peers).keySet());
+    }
+
+    /**
+     * Creates the client of the local shard, loading only the CSV files of the symbols the ring assigns to it.
+     *
+     * @param shardId      id of this instance on the ring
+     * @param ring         ring of the cluster
+     * @param csvDirectory path to directory containing CSV files
+     * @return local shard client
+     */
+    @Bean
+    @ConditionalOnProperty(name = "crypto.provider.type", havingValue = "sharded")
+    public LocalShardClient localShardClient(@Value("${crypto.sharded.shard-id}") String shardId, ShardRing ring,
+                                             @Value("${crypto.csv.directory:prices}") String csvDirectory) {
+        if (!ring.shardIds().contains(shardId)) {
+            throw new IllegalStateException("Shard id " + shardId + " is not one of the peers " + ring.shardIds());
+        }
+        return new LocalShardClient(shardId, ring,
+                new CsvDataProvider(csvDirectory, symbol -> ring.isOwnedBy(symbol, shardId)));
+    }
+
+    /**
+     * Creates a sharded data provider bean, calling peers over HTTP and the local shard directly.
+     *
+     * @param ring             ring of the cluster
+     * @param localShardClient local shard client
+     * @param peers            comma-separated shardId=baseUrl pairs of all shards
+     * @param timeout          deadline of a call to peers
+     * @param token            token shared by the shards of the cluster, authenticating their internal endpoints
+     * @return configured ShardedDataProvider instance
+     */
+    @Bean
+    @ConditionalOnProperty(name = "crypto.provider.type", havingValue = "sharded")
+    public DataProvider shardedDataProvider(ShardRing ring, LocalShardClient localShardClient,
+                                            @Value("${crypto.sharded.peers}") String peers,
+                                            @Value("${crypto.sharded.timeout:2s}") Duration timeout,
+                                            @Value("${crypto.sharded.token:}") String token) {
+        if (token.isBlank()) {
+            throw new IllegalStateException("crypto.sharded.token must be set, peers reject unauthenticated calls");
+        }
+        List<ShardClient> shards = new ArrayList<>();
+        parsePeers(peers).forEach((shardId, baseUrl) -> shards.add(shardId.equals(localShardClient.shardId())
+                ? localShardClient
+                : new HttpShardClient(shardId, baseUrl, timeout, token)));
+
+        return new ShardedDataProvider(ring, shards, timeout);
+    }
+
+    /**
+     * Parses "shard-0=http://host:8080/crypto/api/v1,shard-1=..." into shard id to base url.
+     */
+    private static Map<String, String> parsePeers(String peers) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        for (String peer : peers.split(",")) {
+            String[] parts = peer.trim().split("=", 2);
+            if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+                throw new IllegalStateException("Invalid peer '" + peer + "', expected shardId=baseUrl");
+            }
+            parsed.put(parts[0].trim(), parts[1].trim());
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,26 @@
+package dev.cryptorec.provider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Storage fed with a price series in timestamp order, one point at a time, by {@link ExternalPriceSorter}.
+ */
+public interface SortedPriceSink {
+
+    /**
+     * Receives the next point; timestamps are strictly ascending, or ascending if the sorter keeps duplicates.
+     *
+     * @param timestamp epoch ms
+     * @param price     price in USD
+     * @throws IOException if the point cannot be stored
+     */
+    void accept(long timestamp, BigDecimal price) throws IOException;
+
+    /**
+     * Discards every point received so far, the series is sent again from its start.
+     *
+     * @throws IOException if the stored points cannot be discarded
+     */
+    void reset() throws IOException;
+}
@@ -0,0 +1,89 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.model.util.RequestTrace;
+import dev.cryptorec.provider.query.QueryCompiler;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Utility class for sorting and paginating crypto statistics.
+ * Shared by data provider implementations so that every provider exposes the same sort keys and paging rules.
+ */
+public final class StatsPaginator {
+
+    /**
+     * Default sort applied when no sortBy parameter is provided.
+     */
+    public static final String DEFAULT_SORT = QueryCompiler.DEFAULT_SORT;
+
+    private StatsPaginator() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Creates a comparator based on the sortBy parameter.
+     * Format: comma-separated "field_direction" keys e.g., "normalizedRange_desc", "max_desc,symbol_asc",
+     * compiled once and cached by {@link QueryCompiler}.
+     *
+     * @param sortBy sort expression (nullable, defaults to normalizedRange_desc)
+     * @return comparator for CryptoStats
+     * @throws ValidationException if the sort format, field or direction is invalid
+     */
+    public static Comparator<CryptoStats> comparator(String sortBy) {
+        return QueryCompiler.sort(sortBy);
+    }
+
+    /**
+     * Sorts the given statistics in place and returns the requested page.
+     *
+     * @param stats  mutable list of statistics for the whole universe
+     * @param page   zero-based page index
+     * @param size   page size
+     * @param sortBy sort field and direction
+     * @return PaginatedResult containing the requested page and pagination metadata
+     */
+    public static PaginatedResult<CryptoStats> sortAndPaginate(List<CryptoStats> stats, int page, int size,
+                                                               String sortBy) {
+        return sortAndPaginate(stats, page, size, comparator(sortBy));
+    }
+
+    /**
+     * Sorts the given statistics in place with a compiled comparator and returns the requested page.
+     *
+     * @param stats      mutable list of statistics for the whole universe
+     * @param page       zero-based page index
+     * @param size       page size
+     * @param comparator sort order
+     * @return PaginatedResult containing the requested page and pagination metadata
+     */
+    public static PaginatedResult<CryptoStats> sortAndPaginate(List<CryptoStats> stats, int page, int size,
+                                                               Comparator<CryptoStats> comparator) {
+        long start = System.nanoTime();
+        stats.sort(comparator);
+        RequestTrace.current().add(RequestTrace.Stage.SORT, System.nanoTime() - start);
+        return paginate(stats, page, size);
+    }
+
+    /**
+     * Slices an already sorted list into the requested page.
+     *
+     * @param sorted sorted list of statistics
+     * @param page   zero-based page index
+     * @param size   page size
+     * @return PaginatedResult containing the requested page and pagination metadata
+     */
+    public static PaginatedResult<CryptoStats> paginate(List<CryptoStats> sorted, int page, int size) {
+        int totalElements = sorted.size();
+        int totalPages = size == 0 ? 0 : (int) Math.ceil((double) totalElements / size);
+        int startIdx = (int) Math.min((long) page * size, totalElements);
+        int endIdx = (int) Math.min((long) startIdx + size, totalElements);
+
+        List<CryptoStats> pageItems = sorted.subList(startIdx, endIdx);
+
+        return new PaginatedResult<>(pageItems, page, size, totalElements, totalPages);
+    }
+}
@@ -0,0 +1,18 @@
+package dev.cryptorec.provider;
+
+/**
+ * Data provider whose price series can be extended at runtime, e.g. by uploads.
+ * Every committed ingestion changes the {@link #dataVersion() data version} and the
+ * {@link #symbolVersion(String) version of its symbol}, so results computed before it are not reused.
+ */
+public interface WritableDataProvider extends DataProvider {
+
+    /**
+     * Starts an ingestion of price points for a symbol, which is created on commit if it is unknown.
+     * Ingestions of the same symbol may run concurrently; their commits are applied one after the other.
+     *
+     * @param symbol upper-case cryptocurrency symbol
+     * @return ingestion to append the price points to
+     */
+    PriceIngestion beginIngestion(String symbol);
+}
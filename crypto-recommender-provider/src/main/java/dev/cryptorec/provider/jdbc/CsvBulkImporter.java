@@ -0,0 +1,304 @@
+package dev.cryptorec.provider.jdbc;
+
+import dev.cryptorec.provider.CsvPriceReader;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk importer that streams CSV price files into the embedded price store.
+ * Rows are never held in memory as a whole: they are parsed one by one and written in JDBC batches,
+ * committing every batch so that very large files (hundreds of millions of rows) can be imported.
+ * While streaming, the importer also maintains the per-day rollup (min/max/first/last) used for aggregation.
+ * <p>
+ * Rows are staged under a staging key that readers never query, and swapped in for the symbol's previous rows in a
+ * single transaction once the whole file is read: readers see either the old or the new series, never a partial one,
+ * and a failed import leaves the symbol as it was.
+ * <p>
+ * CSV file format: timestamp (epoch ms), symbol, price
+ * Files are expected in the format: {symbol}_values.csv
+ */
+public class CsvBulkImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvBulkImporter.class);
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    // symbols are upper-case letters and digits, so a staging key never collides with one
+    private static final String STAGING_PREFIX = "~";
+
+    private final DataSource dataSource;
+    private final int batchSize;
+
+    /**
+     * Creates an importer with the default batch size.
+     *
+     * @param dataSource target data source
+     */
+    public CsvBulkImporter(DataSource dataSource) {
+        this(dataSource, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Creates an importer.
+     *
+     * @param dataSource target data source
+     * @param batchSize  number of rows per JDBC batch/commit
+     */
+    public CsvBulkImporter(DataSource dataSource, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports every {symbol}_values.csv file of a directory.
+     *
+     * @param directory    directory containing CSV files
+     * @param skipExisting if true, symbols that are already present in the store are not re-imported
+     * @return total number of imported rows
+     */
+    public long importDirectory(Path directory, boolean skipExisting) {
+        if (!Files.isDirectory(directory)) {
+            log.warn("CSV import directory does not exist: {}", directory.toAbsolutePath());
+            return 0;
+        }
+
+        Set<String> existing = skipExisting ? existingSymbols() : Set.of();
+        long total = 0;
+
+        try {
+            for (String symbol : CsvPriceReader.listSymbols(directory)) {
+                if (existing.contains(symbol)) {
+                    log.debug("Skipping import of {}, already present", symbol);
+                    continue;
+                }
+
+                try {
+                    total += importFile(symbol, CsvPriceReader.csvFile(directory, symbol));
+                } catch (Exception e) {
+                    log.warn("Failed to import data for crypto {}: {}", symbol, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list CSV directory " + directory, e);
+        }
+
+        return total;
+    }
+
+    /**
+     * Imports a single CSV file, replacing any existing rows of the symbol.
+     *
+     * @param symbol  cryptocurrency symbol
+     * @param csvFile path to the CSV file
+     * @return number of imported rows
+     * @throws IOException  if the file cannot be read
+     * @throws SQLException if the import fails; the staged rows are removed and the symbol keeps its previous rows
+     */
+    public long importFile(String symbol, Path csvFile) throws IOException, SQLException {
+        String upperSymbol = symbol.toUpperCase();
+        String stagingSymbol = STAGING_PREFIX + upperSymbol;
+        long started = System.nanoTime();
+        long rows = 0;
+
+        try (Connection connection = dataSource.getConnection();
+             Reader reader = Files.newBufferedReader(csvFile, StandardCharsets.UTF_8);
+             CSVParser csvParser = CSVFormat.DEFAULT.builder()
+                     .setHeader()
+                     .setSkipHeaderRecord(true)
+                     .setIgnoreEmptyLines(true)
+                     .build()
+                     .parse(reader)) {
+
+            connection.setAutoCommit(false);
+            try {
+                PriceSchema.create(connection);
+                // rows left behind by an import that died mid-way
+                deleteTicks(connection, stagingSymbol);
+                connection.commit();
+
+                long firstTs = Long.MAX_VALUE;
+                long lastTs = Long.MIN_VALUE;
+                Map<Long, DayAggregate> days = new HashMap<>();
+
+                try (PreparedStatement insert = connection.prepareStatement(
+                        "INSERT INTO price_tick (symbol, ts, price) VALUES (?, ?, ?)")) {
+                    for (CSVRecord record : csvParser) {
+                        long timestamp = Long.parseLong(record.get("timestamp"));
+                        BigDecimal price = new BigDecimal(record.get("price"));
+
+                        insert.setString(1, stagingSymbol);
+                        insert.setLong(2, timestamp);
+                        insert.setBigDecimal(3, price);
+                        insert.addBatch();
+
+                        firstTs = Math.min(firstTs, timestamp);
+                        lastTs = Math.max(lastTs, timestamp);
+                        days.computeIfAbsent(Math.floorDiv(timestamp, DAY_MILLIS), day -> new DayAggregate())
+                                .accept(timestamp, price);
+
+                        if (++rows % batchSize == 0) {
+                            insert.executeBatch();
+                            connection.commit();
+                        }
+                    }
+                    insert.executeBatch();
+                }
+
+                deleteSymbol(connection, upperSymbol);
+                renameTicks(connection, stagingSymbol, upperSymbol);
+                insertDays(connection, upperSymbol, days);
+                upsertSymbol(connection, upperSymbol, rows, rows == 0 ? null : firstTs, rows == 0 ? null : lastTs);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                deleteTicks(connection, stagingSymbol);
+                connection.commit();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("Imported {} rows for {} in {} ms ({} rows/s)", rows, upperSymbol, elapsedMs, rows * 1000 / elapsedMs);
+        return rows;
+    }
+
+    private Set<String> existingSymbols() {
+        Set<String> symbols = new HashSet<>();
+        try (Connection connection = dataSource.getConnection()) {
+            PriceSchema.create(connection);
+            try (var statement = connection.createStatement();
+                 var resultSet = statement.executeQuery("SELECT symbol FROM crypto_symbol")) {
+                while (resultSet.next()) {
+                    symbols.add(resultSet.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read existing symbols", e);
+        }
+        return symbols;
+    }
+
+    private void deleteSymbol(Connection connection, String symbol) throws SQLException {
+        for (String table : new String[]{PriceSchema.TICK_TABLE, PriceSchema.DAILY_TABLE, PriceSchema.SYMBOL_TABLE}) {
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM " + table + " WHERE symbol = ?")) {
+                delete.setString(1, symbol);
+                delete.executeUpdate();
+            }
+        }
+    }
+
+    private void deleteTicks(Connection connection, String symbol) throws SQLException {
+        try (PreparedStatement delete = connection.prepareStatement(
+                "DELETE FROM " + PriceSchema.TICK_TABLE + " WHERE symbol = ?")) {
+            delete.setString(1, symbol);
+            delete.executeUpdate();
+        }
+    }
+
+    private void renameTicks(Connection connection, String from, String to) throws SQLException {
+        // ids are kept, so points sharing a timestamp keep their file order
+        try (PreparedStatement update = connection.prepareStatement(
+                "UPDATE " + PriceSchema.TICK_TABLE + " SET symbol = ? WHERE symbol = ?")) {
+            update.setString(1, to);
+            update.setString(2, from);
+            update.executeUpdate();
+        }
+    }
+
+    private void insertDays(Connection connection, String symbol, Map<Long, DayAggregate> days) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement("""
+                INSERT INTO price_daily (symbol, epoch_day, row_count, min_ts, min_price, max_ts, max_price,
+                                         first_ts, first_price, last_ts, last_price)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """)) {
+            for (Map.Entry<Long, DayAggregate> entry : days.entrySet()) {
+                DayAggregate day = entry.getValue();
+                insert.setString(1, symbol);
+                insert.setLong(2, entry.getKey());
+                insert.setLong(3, day.count);
+                insert.setLong(4, day.minTs);
+                insert.setBigDecimal(5, day.minPrice);
+                insert.setLong(6, day.maxTs);
+                insert.setBigDecimal(7, day.maxPrice);
+                insert.setLong(8, day.firstTs);
+                insert.setBigDecimal(9, day.firstPrice);
+                insert.setLong(10, day.lastTs);
+                insert.setBigDecimal(11, day.lastPrice);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void upsertSymbol(Connection connection, String symbol, long rows, Long firstTs, Long lastTs)
+            throws SQLException {
+        try (PreparedStatement merge = connection.prepareStatement(
+                "MERGE INTO crypto_symbol (symbol, row_count, first_ts, last_ts) KEY (symbol) VALUES (?, ?, ?, ?)")) {
+            merge.setString(1, symbol);
+            merge.setLong(2, rows);
+            merge.setObject(3, firstTs);
+            merge.setObject(4, lastTs);
+            merge.executeUpdate();
+        }
+    }
+
+    /**
+     * Running min/max/first/last of one UTC day, fed in file order.
+     * Tie rules match StatsCalculator on a stably sorted series: the earliest point wins for min/max,
+     * the first row of the earliest timestamp is the oldest and the last row of the latest timestamp the newest.
+     */
+    private static final class DayAggregate {
+        long count;
+        long minTs;
+        BigDecimal minPrice;
+        long maxTs;
+        BigDecimal maxPrice;
+        long firstTs = Long.MAX_VALUE;
+        BigDecimal firstPrice;
+        long lastTs = Long.MIN_VALUE;
+        BigDecimal lastPrice;
+
+        void accept(long timestamp, BigDecimal price) {
+            count++;
+            if (minPrice == null || price.compareTo(minPrice) < 0 || (price.compareTo(minPrice) == 0 && timestamp < minTs)) {
+                minTs = timestamp;
+                minPrice = price;
+            }
+            if (maxPrice == null || price.compareTo(maxPrice) > 0 || (price.compareTo(maxPrice) == 0 && timestamp < maxTs)) {
+                maxTs = timestamp;
+                maxPrice = price;
+            }
+            if (timestamp < firstTs) {
+                firstTs = timestamp;
+                firstPrice = price;
+            }
+            if (timestamp >= lastTs) {
+                lastTs = timestamp;
+                lastPrice = price;
+            }
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package dev.cryptorec.provider.jdbc;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.model.util.RequestTrace;
+import dev.cryptorec.model.util.StatsCalculator;
+import dev.cryptorec.provider.DataProvider;
+import dev.cryptorec.provider.StatsPaginator;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC-based data provider backed by an embedded SQL engine (H2).
+ * <p>
+ * Price points live in the price_tick table indexed by (symbol, ts), so timeframe reads are index range scans.
+ * Statistics are aggregated inside the database over the price_daily rollup: min/max/first/last for a timeframe
+ * are resolved with primary key range scans and lookups, so only four price points per symbol ever cross the
+ * JDBC boundary instead of the whole series, and the cost does not grow with the tick density. The rollup keeps no
+ * return summary: of the return metrics only the tick count is provided.
+ * <p>
+ * The data set is therefore bounded by disk, not by heap. Data is loaded with {@link CsvBulkImporter}.
+ */
+public class JdbcDataProvider implements DataProvider, AutoCloseable {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String SELECT_SYMBOLS = "SELECT symbol FROM crypto_symbol ORDER BY symbol";
+    private static final String SELECT_SYMBOL_EXISTS = "SELECT 1 FROM crypto_symbol WHERE symbol = ?";
+    private static final String SELECT_RANGE = """
+            SELECT ts, price FROM price_tick
+            WHERE symbol = ? AND ts BETWEEN ? AND ?
+            ORDER BY ts, id
+            """;
+    private static final String SELECT_AGGREGATE = """
+            SELECT MIN(min_price), MAX(max_price), MIN(first_ts), MAX(last_ts), SUM(row_count) FROM price_daily
+            WHERE symbol = ? AND epoch_day BETWEEN ? AND ?
+            """;
+    // Earliest point with the extreme price: matches StatsCalculator, which keeps the first of equal min/max prices
+    private static final String SELECT_MIN_TS = """
+            SELECT MIN(min_ts) FROM price_daily
+            WHERE symbol = ? AND epoch_day BETWEEN ? AND ? AND min_price = ?
+            """;
+    private static final String SELECT_MAX_TS = """
+            SELECT MIN(max_ts) FROM price_daily
+            WHERE symbol = ? AND epoch_day BETWEEN ? AND ? AND max_price = ?
+            """;
+    private static final String SELECT_FIRST_PRICE = "SELECT first_price FROM price_daily WHERE symbol = ? AND epoch_day = ?";
+    private static final String SELECT_LAST_PRICE = "SELECT last_price FROM price_daily WHERE symbol = ? AND epoch_day = ?";
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+
+    private final DataSource dataSource;
+
+    /**
+     * Creates a JDBC provider on top of the given data source and creates the schema if needed.
+     *
+     * @param dataSource pooled data source of the embedded database
+     */
+    public JdbcDataProvider(DataSource dataSource) {
+        this.dataSource = dataSource;
+
+        try (Connection connection = dataSource.getConnection()) {
+            PriceSchema.create(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to initialize price schema", e);
+        }
+    }
+
+    @Override
+    public List<String> getAllCryptos() {
+        try (Connection connection = dataSource.getConnection()) {
+            return selectSymbols(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to list cryptos", e);
+        }
+    }
+
+    @Override
+    public CryptoPrice getCryptoPrices(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
+
+        try (Connection connection = dataSource.getConnection()) {
+            ensureExists(connection, upperSymbol);
+            return new CryptoPrice(upperSymbol, selectRange(connection, upperSymbol, 0, Long.MAX_VALUE));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read prices for " + symbol, e);
+        }
+    }
+
+    @Override
+    public CryptoPrice getCryptoPricesByTimeframe(String symbol, LocalDate fromDate, LocalDate toDate) {
+        String upperSymbol = symbol.toUpperCase();
+        long fromEpoch = DateRangeResolver.startOfDayMillis(fromDate);
+        long toEpoch = DateRangeResolver.endOfDayMillis(toDate);
+
+        try (Connection connection = dataSource.getConnection()) {
+            ensureExists(connection, upperSymbol);
+            return new CryptoPrice(symbol, selectRange(connection, upperSymbol, fromEpoch, toEpoch));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read prices for " + symbol, e);
+        }
+    }
+
+    @Override
+    public CryptoStats getCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        String upperSymbol = symbol.toUpperCase();
+
+        try (Connection connection = dataSource.getConnection()) {
+            ensureExists(connection, upperSymbol);
+            return aggregate(connection, symbol, upperSymbol, fromDate, toDate)
+                    .orElseThrow(() -> StatsCalculator.noData(symbol));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to aggregate prices for " + symbol, e);
+        }
+    }
+
+    @Override
+    public Optional<CryptoStats> tryGetCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        String upperSymbol = symbol.toUpperCase();
+
+        try (Connection connection = dataSource.getConnection()) {
+            ensureExists(connection, upperSymbol);
+            return aggregate(connection, symbol, upperSymbol, fromDate, toDate);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to aggregate prices for " + symbol, e);
+        }
+    }
+
+    @Override
+    public PaginatedResult<CryptoStats> getPaginatedStats(int page, int size, String sortBy, LocalDate fromDate,
+                                                          LocalDate toDate, Integer periodMonths) {
+        List<CryptoStats> stats = new ArrayList<>();
+
+        try (Connection connection = dataSource.getConnection()) {
+            for (String crypto : selectSymbols(connection)) {
+                aggregate(connection, crypto, crypto, fromDate, toDate).ifPresent(stats::add);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to aggregate prices", e);
+        }
+
+        return StatsPaginator.sortAndPaginate(stats, page, size, sortBy);
+    }
+
+    /**
+     * Closes the underlying connection pool, if it is closeable.
+     */
+    @Override
+    public void close() throws Exception {
+        if (dataSource instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Aggregates min/max/oldest/newest inside the database.
+     * Timeframes are whole UTC days, so the aggregate is resolved over the daily rollup (one row per day)
+     * with primary key range scans and lookups: raw ticks are never scanned nor transferred.
+     * Timed as the fetch stage of the request, since the database aggregates while reading.
+     */
+    private Optional<CryptoStats> aggregate(Connection connection, String symbol, String upperSymbol, LocalDate fromDate,
+                                            LocalDate toDate) throws SQLException {
+        long start = System.nanoTime();
+        try {
+            return queryAggregate(connection, symbol, upperSymbol, fromDate, toDate);
+        } finally {
+            RequestTrace.current().add(RequestTrace.Stage.FETCH, System.nanoTime() - start);
+        }
+    }
+
+    private Optional<CryptoStats> queryAggregate(Connection connection, String symbol, String upperSymbol,
+                                                 LocalDate fromDate, LocalDate toDate) throws SQLException {
+        long fromDay = fromDate.toEpochDay();
+        long toDay = toDate.toEpochDay();
+
+        BigDecimal minPrice;
+        BigDecimal maxPrice;
+        long oldestTs;
+        long newestTs;
+        long tickCount;
+
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_AGGREGATE)) {
+            bindRange(statement, upperSymbol, fromDay, toDay);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                minPrice = resultSet.getBigDecimal(1);
+                maxPrice = resultSet.getBigDecimal(2);
+                oldestTs = resultSet.getLong(3);
+                newestTs = resultSet.getLong(4);
+                tickCount = resultSet.getLong(5);
+            }
+        }
+
+        if (minPrice == null) {
+            return Optional.empty();
+        }
+
+        PriceData min = new PriceData(timestampAtPrice(connection, SELECT_MIN_TS, upperSymbol, fromDay, toDay, minPrice),
+                minPrice);
+        PriceData max = new PriceData(timestampAtPrice(connection, SELECT_MAX_TS, upperSymbol, fromDay, toDay, maxPrice),
+                maxPrice);
+        PriceData oldest = new PriceData(oldestTs,
+                priceOfDay(connection, SELECT_FIRST_PRICE, upperSymbol, Math.floorDiv(oldestTs, DAY_MILLIS)));
+        PriceData newest = new PriceData(newestTs,
+                priceOfDay(connection, SELECT_LAST_PRICE, upperSymbol, Math.floorDiv(newestTs, DAY_MILLIS)));
+
+        return Optional.of(new CryptoStats(
+                symbol,
+                StatsCalculator.calculateNormalizedRange(minPrice, maxPrice),
+                min,
+                max,
+                oldest,
+                newest,
+                fromDate,
+                toDate,
+                tickCount,
+                null,
+                null,
+                null
+        ));
+    }
+
+    private long timestampAtPrice(Connection connection, String sql, String symbol, long fromDay, long toDay,
+                                  BigDecimal price) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            bindRange(statement, symbol, fromDay, toDay);
+            statement.setBigDecimal(4, price);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private BigDecimal priceOfDay(Connection connection, String sql, String symbol, long day) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, symbol);
+            statement.setLong(2, day);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getBigDecimal(1);
+            }
+        }
+    }
+
+    private List<PriceData> selectRange(Connection connection, String symbol, long fromEpoch, long toEpoch)
+            throws SQLException {
+        List<PriceData> prices = new ArrayList<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_RANGE)) {
+            statement.setFetchSize(FETCH_SIZE);
+            bindRange(statement, symbol, fromEpoch, toEpoch);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    prices.add(new PriceData(resultSet.getLong(1), resultSet.getBigDecimal(2)));
+                }
+            }
+        }
+
+        return prices;
+    }
+
+    private List<String> selectSymbols(Connection connection) throws SQLException {
+        List<String> symbols = new ArrayList<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_SYMBOLS);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                symbols.add(resultSet.getString(1));
+            }
+        }
+
+        return symbols;
+    }
+
+    private void ensureExists(Connection connection, String symbol) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(SELECT_SYMBOL_EXISTS)) {
+            statement.setString(1, symbol);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new CryptoNotFoundException("Cryptocurrency not found: " + symbol + ". Available: "
+                            + selectSymbols(connection));
+                }
+            }
+        }
+    }
+
+    private static void bindRange(PreparedStatement statement, String symbol, long from, long to)
+            throws SQLException {
+        statement.setString(1, symbol);
+        statement.setLong(2, from);
+        statement.setLong(3, to);
+    }
+}
@@ -0,0 +1,77 @@
+package dev.cryptorec.provider.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * DDL for the embedded price store.
+ * <p>
+ * Tables:
+ * - crypto_symbol: one row per symbol with row count and covered time range (used for symbol listing)
+ * - price_tick: raw price points, indexed by (symbol, ts) so timeframe queries are index range scans;
+ *   the identity id preserves insertion (file) order for points sharing a timestamp
+ * - price_daily: per (symbol, UTC day) rollup with min/max/first/last points, maintained by the importer.
+ *   Timeframes are whole UTC days, so statistics for any timeframe are exact aggregates over daily rows
+ *   and never need to scan raw ticks.
+ */
+final class PriceSchema {
+
+    static final String SYMBOL_TABLE = "crypto_symbol";
+    static final String TICK_TABLE = "price_tick";
+    static final String DAILY_TABLE = "price_daily";
+
+    private static final String[] DDL = {
+            """
+            CREATE TABLE IF NOT EXISTS crypto_symbol (
+                symbol    VARCHAR(32) PRIMARY KEY,
+                row_count BIGINT      NOT NULL,
+                first_ts  BIGINT,
+                last_ts   BIGINT
+            )
+            """,
+            """
+            CREATE TABLE IF NOT EXISTS price_tick (
+                id     BIGINT GENERATED ALWAYS AS IDENTITY PRIMARY KEY,
+                symbol VARCHAR(32) NOT NULL,
+                ts     BIGINT      NOT NULL,
+                price  DECFLOAT    NOT NULL
+            )
+            """,
+            "CREATE INDEX IF NOT EXISTS idx_price_tick_symbol_ts ON price_tick (symbol, ts)",
+            """
+            CREATE TABLE IF NOT EXISTS price_daily (
+                symbol      VARCHAR(32) NOT NULL,
+                epoch_day   BIGINT      NOT NULL,
+                row_count   BIGINT      NOT NULL,
+                min_ts      BIGINT      NOT NULL,
+                min_price   DECFLOAT    NOT NULL,
+                max_ts      BIGINT      NOT NULL,
+                max_price   DECFLOAT    NOT NULL,
+                first_ts    BIGINT      NOT NULL,
+                first_price DECFLOAT    NOT NULL,
+                last_ts     BIGINT      NOT NULL,
+                last_price  DECFLOAT    NOT NULL,
+                PRIMARY KEY (symbol, epoch_day)
+            )
+            """
+    };
+
+    private PriceSchema() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Creates tables and indexes if they do not exist yet.
+     *
+     * @param connection open connection
+     * @throws SQLException if DDL execution fails
+     */
+    static void create(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String ddl : DDL) {
+                statement.execute(ddl);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package dev.cryptorec.provider.lazy;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.SymbolMetadata;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.provider.CsvPriceReader;
+import dev.cryptorec.provider.DataProvider;
+import dev.cryptorec.provider.StatsPaginator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * CSV-based data provider that loads the series of a symbol on first access instead of at startup.
+ * <p>
+ * The symbol list is taken from the file names of the CSV directory, so {@link #getAllCryptos()} is complete
+ * without reading any file. Loaded series are held in a {@link SymbolCache} bounded by a memory budget:
+ * rarely queried (long-tail) symbols are evicted and reloaded from disk when they are queried again.
+ * <p>
+ * Listing stats of all symbols reads every file; with a budget smaller than the whole data set such listings
+ * cycle through the cache, so this mode fits workloads dominated by single-symbol queries.
+ */
+public class LazyCsvDataProvider implements DataProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(LazyCsvDataProvider.class);
+
+    private final Path csvDirectory;
+    private final List<String> symbols;
+    private final Set<String> knownSymbols;
+    private final SymbolCache cache;
+    // kept when a series is evicted, it is a few hundred bytes per symbol
+    private final Map<String, SymbolMetadata> metadata = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a lazy provider and scans the directory for symbols.
+     *
+     * @param csvDirectory      directory containing {symbol}_values.csv files
+     * @param memoryBudgetBytes approximate maximum heap size of the loaded series
+     */
+    public LazyCsvDataProvider(Path csvDirectory, long memoryBudgetBytes) {
+        this.csvDirectory = csvDirectory;
+        this.cache = new SymbolCache(memoryBudgetBytes, this::load);
+
+        try {
+            this.symbols = CsvPriceReader.listSymbols(csvDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list CSV directory " + csvDirectory, e);
+        }
+        this.knownSymbols = Set.copyOf(symbols);
+        log.info("Lazy CSV provider found {} cryptos in {} (memory budget {} bytes)", symbols.size(),
+                csvDirectory.toAbsolutePath(), memoryBudgetBytes);
+    }
+
+    private CryptoPrice load(String symbol) {
+        try {
+            List<PriceData> prices = CsvPriceReader.read(CsvPriceReader.csvFile(csvDirectory, symbol));
+            log.debug("Loaded {} price points for {}", prices.size(), symbol);
+            CryptoPrice cryptoPrice = new CryptoPrice(symbol, Collections.unmodifiableList(prices));
+            if (!prices.isEmpty()) {
+                metadata.put(symbol, SymbolMetadata.of(cryptoPrice));
+            }
+            return cryptoPrice;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load data for crypto " + symbol, e);
+        }
+    }
+
+    @Override
+    public List<String> getAllCryptos() {
+        return symbols;
+    }
+
+    @Override
+    public CryptoPrice getCryptoPrices(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
+        if (!knownSymbols.contains(upperSymbol)) {
+            throw new CryptoNotFoundException("Cryptocurrency not found: " + symbol);
+        }
+
+        return cache.get(upperSymbol);
+    }
+
+    @Override
+    public CryptoPrice getCryptoPricesByTimeframe(String symbol, LocalDate fromDate, LocalDate toDate) {
+        CryptoPrice allPrices = getCryptoPrices(symbol);
+
+        long fromEpoch = DateRangeResolver.startOfDayMillis(fromDate);
+        long toEpoch = DateRangeResolver.endOfDayMillis(toDate);
+
+        List<PriceData> filtered = allPrices.prices().stream()
+                .filter(p -> p.timestamp() >= fromEpoch && p.timestamp() <= toEpoch)
+                .toList();
+
+        return new CryptoPrice(symbol, filtered);
+    }
+
+    /**
+     * Metadata is known once a symbol has been loaded; symbols never loaded are not skipped by query filters.
+     */
+    @Override
+    public Optional<SymbolMetadata> getSymbolMetadata(String symbol) {
+        return Optional.ofNullable(metadata.get(symbol.toUpperCase()));
+    }
+
+    @Override
+    public PaginatedResult<CryptoStats> getPaginatedStats(int page, int size, String sortBy, LocalDate fromDate,
+                                                          LocalDate toDate, Integer periodMonths) {
+        List<CryptoStats> stats = new ArrayList<>();
+
+        for (String crypto : symbols) {
+            try {
+                // symbols without data in the timeframe are skipped without an exception
+                tryGetCryptoStats(crypto, fromDate, toDate).ifPresent(stats::add);
+            } catch (Exception e) {
+                log.warn("Failed to calculate stats for {}: {}", crypto, e.getMessage());
+            }
+        }
+
+        return StatsPaginator.sortAndPaginate(stats, page, size, sortBy);
+    }
+
+    /**
+     * @return cache of the loaded series
+     */
+    public SymbolCache cache() {
+        return cache;
+    }
+}
@@ -0,0 +1,196 @@
+package dev.cryptorec.provider.lazy;
+
+import dev.cryptorec.model.CryptoPrice;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Memory-bounded cache of price series, loading a symbol on first access.
+ * <p>
+ * Loaded series are kept in least-recently-used order together with their approximate heap size. When the total
+ * exceeds the budget, the least recently used series are evicted; the series just loaded is always kept, so a
+ * single series larger than the budget is still served.
+ * <p>
+ * Concurrent misses on the same symbol are deduplicated: the first caller loads, the others wait for its result.
+ */
+public final class SymbolCache {
+
+    /**
+     * Approximate retained size of one price point: PriceData (header, long, reference), a compact BigDecimal and
+     * the list slot referencing it.
+     */
+    static final long BYTES_PER_PRICE_POINT = 80;
+
+    /**
+     * Approximate fixed size of a series: CryptoPrice, symbol, list and cache entry.
+     */
+    static final long BYTES_PER_SERIES = 256;
+
+    private final long budgetBytes;
+    private final Function<String, CryptoPrice> loader;
+
+    // guarded by itself, iteration order is access order (eldest first)
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<CryptoPrice>> loading = new ConcurrentHashMap<>();
+    private long usedBytes;
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param budgetBytes approximate maximum heap size of the cached series
+     * @param loader      loads the series of a symbol, exceptions are propagated to all waiting callers
+     */
+    public SymbolCache(long budgetBytes, Function<String, CryptoPrice> loader) {
+        if (budgetBytes < 1) {
+            throw new IllegalArgumentException("Memory budget must be positive");
+        }
+        this.budgetBytes = budgetBytes;
+        this.loader = loader;
+    }
+
+    /**
+     * Returns the cached series of a symbol, loading it on a miss.
+     *
+     * @param symbol cryptocurrency symbol
+     * @return price series of the symbol
+     */
+    public CryptoPrice get(String symbol) {
+        CryptoPrice cached = lookup(symbol);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<CryptoPrice> future = new CompletableFuture<>();
+        CompletableFuture<CryptoPrice> inFlight = loading.putIfAbsent(symbol, future);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+
+        try {
+            // a load may have completed between the lookup and claiming the symbol
+            CryptoPrice prices = lookup(symbol);
+            if (prices == null) {
+                prices = loader.apply(symbol);
+                loads.incrementAndGet();
+                admit(symbol, prices);
+            }
+            future.complete(prices);
+            return prices;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(symbol, future);
+        }
+    }
+
+    /**
+     * Drops the cached series of a symbol, the next access reloads it.
+     *
+     * @param symbol cryptocurrency symbol
+     */
+    public void invalidate(String symbol) {
+        synchronized (entries) {
+            Entry removed = entries.remove(symbol);
+            if (removed != null) {
+                usedBytes -= removed.bytes();
+            }
+        }
+    }
+
+    /**
+     * @return approximate heap size of the cached series
+     */
+    public long usedBytes() {
+        synchronized (entries) {
+            return usedBytes;
+        }
+    }
+
+    /**
+     * @return number of cached series
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * @return true if the series of the symbol is cached
+     */
+    public boolean contains(String symbol) {
+        synchronized (entries) {
+            return entries.containsKey(symbol);
+        }
+    }
+
+    /**
+     * @return number of series loaded since creation
+     */
+    public long loads() {
+        return loads.get();
+    }
+
+    /**
+     * @return number of series evicted since creation
+     */
+    public long evictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Approximates the retained heap size of a series.
+     *
+     * @param prices price series
+     * @return approximate size in bytes
+     */
+    static long estimateBytes(CryptoPrice prices) {
+        return BYTES_PER_SERIES + prices.prices().size() * BYTES_PER_PRICE_POINT;
+    }
+
+    private CryptoPrice lookup(String symbol) {
+        synchronized (entries) {
+            Entry entry = entries.get(symbol);
+            return entry == null ? null : entry.prices();
+        }
+    }
+
+    private void admit(String symbol, CryptoPrice prices) {
+        long bytes = estimateBytes(prices);
+        synchronized (entries) {
+            Entry previous = entries.put(symbol, new Entry(prices, bytes));
+            usedBytes += bytes - (previous == null ? 0 : previous.bytes());
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (usedBytes > budgetBytes && entries.size() > 1) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                usedBytes -= evicted.getValue().bytes();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static CryptoPrice await(CompletableFuture<CryptoPrice> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Entry(CryptoPrice prices, long bytes) {
+    }
+}
@@ -0,0 +1,216 @@
+package dev.cryptorec.provider.offheap;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.SymbolMetadata;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.model.util.RequestTrace;
+import dev.cryptorec.model.util.StatsCalculator;
+import dev.cryptorec.provider.CsvPriceReader;
+import dev.cryptorec.provider.DataProvider;
+import dev.cryptorec.provider.ExternalPriceSorter;
+import dev.cryptorec.provider.StatsPaginator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * CSV-based data provider keeping the price series off the Java heap, in {@link PriceColumns} owned by a shared
+ * {@link Arena}.
+ * <p>
+ * The heap only holds the per-symbol {@link SymbolMetadata} and the column views, so old-gen size and GC pauses do
+ * not grow with the loaded history. Statistics are aggregated in place over the columns; only
+ * {@link #getCryptoPrices} and {@link #getCryptoPricesByTimeframe} copy points to the heap, for their result.
+ * <p>
+ * Without a column directory the columns are allocated from native memory and the CSV files are parsed on every
+ * start. With a column directory each CSV file is converted once into a column file that is memory-mapped, so a
+ * restart maps the files without parsing and the OS page cache holds the data. The conversion streams the rows
+ * through an {@link ExternalPriceSorter} into the column file, so CSV files larger than the heap can be loaded, in
+ * any order; rows of the same timestamp are collapsed into the last one.
+ */
+public class OffHeapDataProvider implements DataProvider, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapDataProvider.class);
+    private static final String COLUMN_EXTENSION = ".col";
+    private static final int DEFAULT_SORT_RUN_SIZE = 1_000_000;
+
+    private final Path csvDirectory;
+    private final Path columnDirectory;
+    private final ExternalPriceSorter sorter;
+    private final Arena arena = Arena.ofShared();
+    private final Map<String, PriceColumns> columns = new ConcurrentHashMap<>();
+    private final Map<String, SymbolMetadata> metadata = new ConcurrentHashMap<>();
+    private final List<String> symbols;
+
+    /**
+     * Creates an off-heap provider and loads all CSV files of the directory.
+     *
+     * @param csvDirectory    directory containing {symbol}_values.csv files
+     * @param columnDirectory directory of the memory-mapped column files, null to allocate native memory instead
+     */
+    public OffHeapDataProvider(Path csvDirectory, Path columnDirectory) {
+        this(csvDirectory, columnDirectory, DEFAULT_SORT_RUN_SIZE);
+    }
+
+    /**
+     * Creates an off-heap provider and loads all CSV files of the directory.
+     *
+     * @param csvDirectory    directory containing {symbol}_values.csv files
+     * @param columnDirectory directory of the memory-mapped column files, null to allocate native memory instead
+     * @param sortRunSize     maximum number of price points sorted in memory when converting an unsorted CSV file
+     */
+    public OffHeapDataProvider(Path csvDirectory, Path columnDirectory, int sortRunSize) {
+        this.csvDirectory = csvDirectory;
+        this.columnDirectory = columnDirectory;
+        this.sorter = columnDirectory == null ? null : new ExternalPriceSorter(columnDirectory, sortRunSize);
+
+        List<String> found;
+        try {
+            found = CsvPriceReader.listSymbols(csvDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list CSV directory " + csvDirectory, e);
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String symbol : found) {
+                executor.execute(() -> {
+                    try {
+                        load(symbol);
+                    } catch (Exception e) {
+                        log.warn("Failed to load data for crypto {}: {}", symbol, e.getMessage());
+                    }
+                });
+            }
+        }
+
+        this.symbols = found.stream().filter(columns::containsKey).toList();
+        log.info("Off-heap provider loaded {} cryptos from {}, {} bytes of {} memory", symbols.size(),
+                csvDirectory.toAbsolutePath(), offHeapBytes(), columnDirectory == null ? "native" : "mapped");
+    }
+
+    private void load(String symbol) throws IOException {
+        Path csvFile = CsvPriceReader.csvFile(csvDirectory, symbol);
+        PriceColumns series;
+        if (columnDirectory == null) {
+            series = PriceColumns.allocate(CsvPriceReader.read(csvFile), arena);
+        } else {
+            Path columnFile = columnDirectory.resolve(symbol + COLUMN_EXTENSION);
+            if (!Files.exists(columnFile)
+                    || Files.getLastModifiedTime(columnFile).compareTo(Files.getLastModifiedTime(csvFile)) < 0) {
+                try (PriceColumns.Writer writer = PriceColumns.writer(columnFile)) {
+                    sorter.sort(csvFile, writer);
+                    writer.commit();
+                }
+            }
+            series = PriceColumns.map(columnFile, arena);
+        }
+
+        if (series.size() > 0) {
+            metadata.put(symbol, SymbolMetadata.of(series, symbol));
+        }
+        columns.put(symbol, series);
+        log.debug("Loaded {} price points for {} off-heap", series.size(), symbol);
+    }
+
+    @Override
+    public List<String> getAllCryptos() {
+        return symbols;
+    }
+
+    /**
+     * Copies the whole series of a symbol to the heap; prefer {@link #tryGetCryptoStats}, which does not.
+     */
+    @Override
+    public CryptoPrice getCryptoPrices(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
+        PriceColumns series = series(symbol);
+        return new CryptoPrice(upperSymbol, copy(series, 0, series.size()));
+    }
+
+    @Override
+    public CryptoPrice getCryptoPricesByTimeframe(String symbol, LocalDate fromDate, LocalDate toDate) {
+        PriceColumns series = series(symbol);
+        int from = series.lowerBound(DateRangeResolver.startOfDayMillis(fromDate));
+        int to = series.lowerBound(DateRangeResolver.endOfDayMillis(toDate) + 1);
+        return new CryptoPrice(symbol.toUpperCase(), copy(series, from, Math.max(from, to)));
+    }
+
+    /**
+     * Aggregates the columns within the timeframe in place, without copying price points to the heap.
+     */
+    @Override
+    public Optional<CryptoStats> tryGetCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        PriceColumns series = series(symbol);
+        return RequestTrace.time(RequestTrace.Stage.CALCULATE,
+                () -> StatsCalculator.tryCalculateStatsWithin(symbol.toUpperCase(), series, fromDate, toDate));
+    }
+
+    @Override
+    public Optional<SymbolMetadata> getSymbolMetadata(String symbol) {
+        return Optional.ofNullable(metadata.get(symbol.toUpperCase()));
+    }
+
+    @Override
+    public PaginatedResult<CryptoStats> getPaginatedStats(int page, int size, String sortBy, LocalDate fromDate,
+                                                          LocalDate toDate, Integer periodMonths) {
+        List<CryptoStats> stats = new ArrayList<>();
+
+        for (String crypto : symbols) {
+            try {
+                // symbols without data in the timeframe are skipped without an exception
+                tryGetCryptoStats(crypto, fromDate, toDate).ifPresent(stats::add);
+            } catch (Exception e) {
+                log.warn("Failed to calculate stats for {}: {}", crypto, e.getMessage());
+            }
+        }
+
+        return StatsPaginator.sortAndPaginate(stats, page, size, sortBy);
+    }
+
+    /**
+     * @return bytes of price columns held outside the heap
+     */
+    public long offHeapBytes() {
+        return columns.values().stream().mapToLong(PriceColumns::byteSize).sum();
+    }
+
+    /**
+     * Releases the native memory and unmaps the column files; later calls fail with {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        arena.close();
+    }
+
+    private PriceColumns series(String symbol) {
+        PriceColumns series = columns.get(symbol.toUpperCase());
+        if (series == null) {
+            throw new CryptoNotFoundException("Cryptocurrency not found: " + symbol + ". Available: " + symbols);
+        }
+        return series;
+    }
+
+    private static List<PriceData> copy(PriceColumns series, int from, int to) {
+        List<PriceData> prices = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            prices.add(series.point(i));
+        }
+        return prices;
+    }
+}
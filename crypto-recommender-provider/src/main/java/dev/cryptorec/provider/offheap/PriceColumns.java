@@ -0,0 +1,428 @@
+package dev.cryptorec.provider.offheap;
+
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.PriceSeries;
+import dev.cryptorec.provider.SortedPriceSink;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Price series of one symbol stored column-wise outside the Java heap, in {@link MemorySegment}s.
+ * <p>
+ * Columns, each contiguous and in little-endian order:
+ * - timestamps: epoch ms, one long per point
+ * - prices: unscaled value at the series scale (the largest scale of its prices), one long per point, so
+ * prices compare as longs
+ * - scales: original scale of each price, one byte per point, so {@link #price(int)} returns the exact
+ * {@link BigDecimal} the CSV file had
+ * <p>
+ * The memory comes from an {@link Arena} owned by the caller, either allocated ({@link #allocate}) or mapped from a
+ * column file ({@link #map}, written by {@link #write} or streamed by a {@link Writer}). Only this object and its
+ * segment views are on the heap, whatever the number of points. All views are read-only and bounds-checked; once the
+ * arena is closed any access throws {@link IllegalStateException} instead of reading freed memory.
+ */
+public final class PriceColumns implements PriceSeries {
+
+    static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private static final int MAGIC = 0x4C4F4343; // "CCOL" in little-endian order
+    private static final int VERSION = 1;
+    // magic, version, count, series scale
+    private static final long HEADER_SIZE = 4L * Integer.BYTES;
+    private static final int MAX_SCALE = 18;
+    private static final double[] POWERS_OF_TEN = new double[MAX_SCALE + 1];
+    // largest magnitude exactly representable as a double, below it unscaled / 10^scale is correctly rounded
+    private static final long MAX_EXACT_DOUBLE = 1L << 53;
+
+    static {
+        for (int i = 0; i <= MAX_SCALE; i++) {
+            POWERS_OF_TEN[i] = Math.pow(10, i);
+        }
+    }
+
+    private final int size;
+    private final int scale;
+    private final MemorySegment timestamps;
+    private final MemorySegment prices;
+    private final MemorySegment scales;
+
+    private PriceColumns(MemorySegment columns, int size, int scale) {
+        MemorySegment readOnly = columns.asReadOnly();
+        long longColumnSize = (long) size * Long.BYTES;
+        this.size = size;
+        this.scale = scale;
+        this.timestamps = readOnly.asSlice(0, longColumnSize);
+        this.prices = readOnly.asSlice(longColumnSize, longColumnSize);
+        this.scales = readOnly.asSlice(2 * longColumnSize, size);
+    }
+
+    /**
+     * Copies a price series into memory allocated from an arena.
+     *
+     * @param prices chronologically ordered price points
+     * @param arena  arena owning the memory
+     * @return columns of the series
+     * @throws IllegalArgumentException if a price has more than 18 decimals or does not fit a long at the
+     *                                  series scale
+     */
+    public static PriceColumns allocate(List<PriceData> prices, Arena arena) {
+        int scale = seriesScale(prices);
+        MemorySegment columns = arena.allocate(columnsSize(prices.size()), Long.BYTES);
+        fill(columns, prices, scale);
+        return new PriceColumns(columns, prices.size(), scale);
+    }
+
+    /**
+     * Writes a price series to a column file atomically (temp file + move), to be mapped by {@link #map}.
+     *
+     * @param path   target file
+     * @param prices chronologically ordered price points
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, List<PriceData> prices) throws IOException {
+        int scale = seriesScale(prices);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (Arena arena = Arena.ofConfined();
+             FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            MemorySegment file = arena.allocate(HEADER_SIZE + columnsSize(prices.size()), Long.BYTES);
+            file.set(INT, 0, MAGIC);
+            file.set(INT, Integer.BYTES, VERSION);
+            file.set(INT, 2 * Integer.BYTES, prices.size());
+            file.set(INT, 3 * Integer.BYTES, scale);
+            fill(file.asSlice(HEADER_SIZE), prices, scale);
+
+            var buffer = file.asByteBuffer();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Opens a writer streaming a chronologically ordered series into a column file, without holding it in memory.
+     *
+     * @param path target file, replaced atomically on {@link Writer#commit()}
+     * @return writer of the file
+     * @throws IOException if the temporary files cannot be created
+     */
+    public static Writer writer(Path path) throws IOException {
+        return new Writer(path);
+    }
+
+    /**
+     * Maps a column file read-only; the pages are loaded by the OS on access and stay in the page cache, not in
+     * the heap.
+     *
+     * @param path  column file written by {@link #write}
+     * @param arena arena owning the mapping, closing it unmaps the file
+     * @return columns of the file
+     * @throws IOException if the file cannot be read or is not a column file
+     */
+    public static PriceColumns map(Path path, Arena arena) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < HEADER_SIZE) {
+                throw new IOException("Not a price column file: " + path);
+            }
+            MemorySegment file = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize, arena);
+            if (file.get(INT, 0) != MAGIC) {
+                throw new IOException("Not a price column file: " + path);
+            }
+            int version = file.get(INT, Integer.BYTES);
+            if (version != VERSION) {
+                throw new IOException("Unsupported price column file version " + version + ": " + path);
+            }
+            int size = file.get(INT, 2 * Integer.BYTES);
+            int scale = file.get(INT, 3 * Integer.BYTES);
+            if (size < 0 || scale < 0 || scale > MAX_SCALE || fileSize != HEADER_SIZE + columnsSize(size)) {
+                throw new IOException("Corrupt price column file: " + path);
+            }
+            return new PriceColumns(file.asSlice(HEADER_SIZE), size, scale);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long timestamp(int index) {
+        return timestamps.getAtIndex(LONG, index);
+    }
+
+    @Override
+    public BigDecimal price(int index) {
+        int priceScale = scales.get(ValueLayout.JAVA_BYTE, index);
+        // dropping the padding zeros of the series scale is exact
+        return BigDecimal.valueOf(prices.getAtIndex(LONG, index), scale)
+                .setScale(priceScale, RoundingMode.UNNECESSARY);
+    }
+
+    @Override
+    public double priceAsDouble(int index) {
+        long unscaled = prices.getAtIndex(LONG, index);
+        if (Math.abs(unscaled) < MAX_EXACT_DOUBLE) {
+            // both operands are exact, so the quotient is correctly rounded like BigDecimal.doubleValue()
+            return unscaled / POWERS_OF_TEN[scale];
+        }
+        return price(index).doubleValue();
+    }
+
+    @Override
+    public int comparePrices(int index, int otherIndex) {
+        return Long.compare(prices.getAtIndex(LONG, index), prices.getAtIndex(LONG, otherIndex));
+    }
+
+    /**
+     * @return read-only view of the timestamp column, one little-endian long per point
+     */
+    public MemorySegment timestamps() {
+        return timestamps;
+    }
+
+    /**
+     * @return off-heap bytes of the columns
+     */
+    public long byteSize() {
+        return columnsSize(size);
+    }
+
+    private static long columnsSize(int size) {
+        return 2L * size * Long.BYTES + size;
+    }
+
+    private static int seriesScale(List<PriceData> prices) {
+        int scale = 0;
+        for (PriceData price : prices) {
+            int priceScale = price.price().scale();
+            if (priceScale > MAX_SCALE || priceScale < Byte.MIN_VALUE) {
+                throw new IllegalArgumentException("Unsupported scale of price " + price.price()
+                        + ", at most " + MAX_SCALE + " decimals are supported");
+            }
+            scale = Math.max(scale, priceScale);
+        }
+        return scale;
+    }
+
+    private static void fill(MemorySegment columns, List<PriceData> prices, int scale) {
+        long longColumnSize = (long) prices.size() * Long.BYTES;
+        for (int i = 0; i < prices.size(); i++) {
+            PriceData point = prices.get(i);
+            BigDecimal price = point.price();
+            long unscaled;
+            try {
+                unscaled = price.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Price " + price + " does not fit the price column", e);
+            }
+            columns.setAtIndex(LONG, i, point.timestamp());
+            columns.set(LONG, longColumnSize + (long) i * Long.BYTES, unscaled);
+            columns.set(ValueLayout.JAVA_BYTE, 2 * longColumnSize + i, (byte) price.scale());
+        }
+    }
+
+    /**
+     * Streams a series into a column file as it arrives.
+     * <p>
+     * The series scale is only known at the end, so the timestamps go to the target's temporary file right after
+     * its header, while the prices (at their own scale) and the scales go to two side files. {@link #commit()}
+     * appends the prices rescaled to the series scale and the scales, writes the header and moves the file in place.
+     * Closing without committing deletes the temporary files.
+     */
+    public static final class Writer implements SortedPriceSink, Closeable {
+
+        private static final int BUFFER_SIZE = 64 * 1024;
+
+        private final Path path;
+        private final Path tmp;
+        private final Path pricesTmp;
+        private final Path scalesTmp;
+        private final FileChannel file;
+        private final FileChannel pricesFile;
+        private final FileChannel scalesFile;
+        private final ByteBuffer timestampBuffer = buffer(BUFFER_SIZE);
+        private final ByteBuffer priceBuffer = buffer(BUFFER_SIZE);
+        private final ByteBuffer scaleBuffer = buffer(BUFFER_SIZE);
+        private int size;
+        private int scale;
+        private boolean committed;
+
+        private Writer(Path path) throws IOException {
+            this.path = path;
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            this.tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            this.pricesTmp = path.resolveSibling(path.getFileName() + ".prices.tmp");
+            this.scalesTmp = path.resolveSibling(path.getFileName() + ".scales.tmp");
+            this.file = open(tmp);
+            this.pricesFile = open(pricesTmp);
+            this.scalesFile = open(scalesTmp);
+            file.position(HEADER_SIZE);
+        }
+
+        private static ByteBuffer buffer(int capacity) {
+            return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private static FileChannel open(Path path) throws IOException {
+            return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /**
+         * @throws IllegalArgumentException if the price has more than 18 decimals or does not fit a long
+         */
+        @Override
+        public void accept(long timestamp, BigDecimal price) throws IOException {
+            int priceScale = price.scale();
+            if (priceScale > MAX_SCALE || priceScale < Byte.MIN_VALUE) {
+                throw new IllegalArgumentException("Unsupported scale of price " + price
+                        + ", at most " + MAX_SCALE + " decimals are supported");
+            }
+            if (size == Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("A column file holds at most " + Integer.MAX_VALUE + " points");
+            }
+            long unscaled;
+            try {
+                unscaled = price.unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Price " + price + " does not fit the price column", e);
+            }
+            put(timestampBuffer, file).putLong(timestamp);
+            put(priceBuffer, pricesFile).putLong(unscaled);
+            put(scaleBuffer, scalesFile).put((byte) priceScale);
+            scale = Math.max(scale, priceScale);
+            size++;
+        }
+
+        @Override
+        public void reset() throws IOException {
+            timestampBuffer.clear();
+            priceBuffer.clear();
+            scaleBuffer.clear();
+            file.truncate(HEADER_SIZE).position(HEADER_SIZE);
+            pricesFile.truncate(0).position(0);
+            scalesFile.truncate(0).position(0);
+            size = 0;
+            scale = 0;
+        }
+
+        /**
+         * Completes the column file and moves it to its path; the writer is then only closed.
+         *
+         * @return number of points of the file
+         * @throws IOException              if the file cannot be written
+         * @throws IllegalArgumentException if a price does not fit a long at the series scale
+         */
+        public int commit() throws IOException {
+            flush(timestampBuffer, file);
+            flush(priceBuffer, pricesFile);
+            flush(scaleBuffer, scalesFile);
+
+            ByteBuffer prices = buffer(BUFFER_SIZE);
+            ByteBuffer scales = buffer(BUFFER_SIZE / Long.BYTES);
+            long position = 0;
+            while (position < size) {
+                prices.clear();
+                scales.clear();
+                int count = (int) Math.min(scales.capacity(), size - position);
+                prices.limit(count * Long.BYTES);
+                scales.limit(count);
+                readFully(pricesFile, prices, position * Long.BYTES);
+                readFully(scalesFile, scales, position);
+                for (int i = 0; i < count; i++) {
+                    put(timestampBuffer, file).putLong(rescale(prices.getLong(i * Long.BYTES), scales.get(i)));
+                }
+                position += count;
+            }
+            flush(timestampBuffer, file);
+
+            long scalesSize = scalesFile.size();
+            for (long transferred = 0; transferred < scalesSize; ) {
+                transferred += scalesFile.transferTo(transferred, scalesSize - transferred, file);
+            }
+
+            ByteBuffer header = ByteBuffer.allocate((int) HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC).putInt(VERSION).putInt(size).putInt(scale).flip();
+            while (header.hasRemaining()) {
+                file.write(header, header.position());
+            }
+            file.close();
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            committed = true;
+            return size;
+        }
+
+        private long rescale(long unscaled, int priceScale) {
+            try {
+                if (scale - priceScale <= MAX_SCALE) {
+                    return Math.multiplyExact(unscaled, (long) POWERS_OF_TEN[scale - priceScale]);
+                }
+                return BigDecimal.valueOf(unscaled, priceScale).setScale(scale, RoundingMode.UNNECESSARY)
+                        .unscaledValue().longValueExact();
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Price " + BigDecimal.valueOf(unscaled, priceScale)
+                        + " does not fit the price column", e);
+            }
+        }
+
+        /**
+         * Closes the files and deletes the temporary ones, the column file too if it was not committed.
+         */
+        @Override
+        public void close() throws IOException {
+            try (file; pricesFile; scalesFile) {
+                // the channels are closed before their files are deleted
+            } finally {
+                Files.deleteIfExists(pricesTmp);
+                Files.deleteIfExists(scalesTmp);
+                if (!committed) {
+                    Files.deleteIfExists(tmp);
+                }
+            }
+        }
+
+        private static ByteBuffer put(ByteBuffer buffer, FileChannel channel) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush(buffer, channel);
+            }
+            return buffer;
+        }
+
+        private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of temporary column file");
+                }
+            }
+        }
+    }
+}
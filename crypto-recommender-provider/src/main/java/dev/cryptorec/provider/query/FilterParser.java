@@ -0,0 +1,297 @@
+package dev.cryptorec.provider.query;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.SymbolMetadata;
+import dev.cryptorec.model.exception.ValidationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recursive-descent parser compiling a filter expression into a {@link StatsFilter}.
+ * <p>
+ * Grammar (keywords are case-insensitive, AND binds tighter than OR):
+ * <pre>
+ * filter     := or
+ * or         := and ("OR" and)*
+ * and        := unary ("AND" unary)*
+ * unary      := "NOT" unary | "(" or ")" | comparison
+ * comparison := numericField op number | "symbol" ("=" | "!=") (identifier | 'quoted')
+ * op         := "&gt;" | "&gt;=" | "&lt;" | "&lt;=" | "=" | "!="
+ * </pre>
+ * Numeric fields: normalizedRange, min, max, oldest, newest (prices in USD), tickCount, returnStdDev, meanReturn,
+ * maxDrawdown. A comparison on a field the stats do not carry is false.
+ * Example: {@code normalizedRange > 0.5 AND (max < 100 OR symbol = BTC)}
+ */
+final class FilterParser {
+
+    private final String source;
+    private final List<Token> tokens;
+    private int position;
+
+    private FilterParser(String source) {
+        this.source = source;
+        this.tokens = tokenize(source);
+    }
+
+    /**
+     * Parses and compiles a filter expression.
+     *
+     * @param source filter expression
+     * @return compiled filter
+     * @throws ValidationException if the expression is invalid
+     */
+    static StatsFilter parse(String source) {
+        FilterParser parser = new FilterParser(source);
+        StatsFilter filter = parser.or();
+        if (parser.peek().type() != TokenType.END) {
+            throw parser.error("Unexpected '" + parser.peek().text() + "'");
+        }
+        return filter;
+    }
+
+    private StatsFilter or() {
+        List<StatsFilter> operands = new ArrayList<>(List.of(and()));
+        while (peekKeyword("OR")) {
+            position++;
+            operands.add(and());
+        }
+        return operands.size() == 1 ? operands.getFirst() : new Or(List.copyOf(operands));
+    }
+
+    private StatsFilter and() {
+        List<StatsFilter> operands = new ArrayList<>(List.of(unary()));
+        while (peekKeyword("AND")) {
+            position++;
+            operands.add(unary());
+        }
+        return operands.size() == 1 ? operands.getFirst() : new And(List.copyOf(operands));
+    }
+
+    private StatsFilter unary() {
+        if (peekKeyword("NOT")) {
+            position++;
+            return new Not(unary());
+        }
+        if (peek().type() == TokenType.OPEN) {
+            position++;
+            StatsFilter inner = or();
+            expect(TokenType.CLOSE, "Expected ')'");
+            return inner;
+        }
+        return comparison();
+    }
+
+    private StatsFilter comparison() {
+        Token field = expect(TokenType.IDENTIFIER, "Expected a field name");
+        Token operatorToken = expect(TokenType.OPERATOR, "Expected a comparison operator after '" + field.text() + "'");
+        Operator operator = Operator.of(operatorToken.text());
+
+        if ("symbol".equals(field.text())) {
+            if (operator != Operator.EQ && operator != Operator.NE) {
+                throw error("Only = and != are supported for symbol");
+            }
+            Token value = next();
+            if (value.type() != TokenType.IDENTIFIER && value.type() != TokenType.STRING) {
+                throw error("Expected a symbol after '" + operatorToken.text() + "'");
+            }
+            return new SymbolComparison(operator, value.text());
+        }
+
+        StatsField statsField = StatsField.byName(field.text())
+                .orElseThrow(() -> error("Unknown filter field: " + field.text()));
+        Token value = expect(TokenType.NUMBER, "Expected a number after '" + operatorToken.text() + "'");
+        return new NumericComparison(statsField, operator, new BigDecimal(value.text()));
+    }
+
+    private Token peek() {
+        return tokens.get(position);
+    }
+
+    private boolean peekKeyword(String keyword) {
+        return peek().type() == TokenType.IDENTIFIER && peek().text().equalsIgnoreCase(keyword);
+    }
+
+    private Token next() {
+        return tokens.get(position++);
+    }
+
+    private Token expect(TokenType type, String message) {
+        if (peek().type() != type) {
+            throw error(message);
+        }
+        return next();
+    }
+
+    private ValidationException error(String message) {
+        return new ValidationException("Invalid filter at position " + peek().offset() + ": " + message
+                + " in '" + source + "'");
+    }
+
+    private static List<Token> tokenize(String source) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            int start = i;
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                tokens.add(new Token(TokenType.OPEN, "(", start));
+                i++;
+            } else if (c == ')') {
+                tokens.add(new Token(TokenType.CLOSE, ")", start));
+                i++;
+            } else if (c == '<' || c == '>' || c == '=' || c == '!') {
+                i++;
+                if (i < source.length() && source.charAt(i) == '=' && c != '=') {
+                    i++;
+                }
+                String text = source.substring(start, i);
+                if ("!".equals(text)) {
+                    throw new ValidationException("Invalid filter at position " + start + ": expected '!='");
+                }
+                tokens.add(new Token(TokenType.OPERATOR, text, start));
+            } else if (c == '\'') {
+                int end = source.indexOf('\'', i + 1);
+                if (end < 0) {
+                    throw new ValidationException("Invalid filter at position " + start + ": unterminated string");
+                }
+                tokens.add(new Token(TokenType.STRING, source.substring(i + 1, end), start));
+                i = end + 1;
+            } else if (Character.isDigit(c) || c == '-' || c == '.') {
+                i++;
+                while (i < source.length() && (Character.isDigit(source.charAt(i)) || source.charAt(i) == '.')) {
+                    i++;
+                }
+                String text = source.substring(start, i);
+                if (!text.matches("-?(\\d+(\\.\\d*)?|\\.\\d+)")) {
+                    throw new ValidationException("Invalid filter at position " + start + ": invalid number " + text);
+                }
+                tokens.add(new Token(TokenType.NUMBER, text, start));
+            } else if (Character.isLetter(c)) {
+                while (i < source.length() && Character.isLetterOrDigit(source.charAt(i))) {
+                    i++;
+                }
+                tokens.add(new Token(TokenType.IDENTIFIER, source.substring(start, i), start));
+            } else {
+                throw new ValidationException("Invalid filter at position " + start + ": unexpected '" + c + "'");
+            }
+        }
+        tokens.add(new Token(TokenType.END, "end of filter", source.length()));
+        return tokens;
+    }
+
+    private enum TokenType { IDENTIFIER, NUMBER, STRING, OPERATOR, OPEN, CLOSE, END }
+
+    private record Token(TokenType type, String text, int offset) {
+    }
+
+    private enum Operator {
+        GT(">"), GE(">="), LT("<"), LE("<="), EQ("="), NE("!=");
+
+        private final String text;
+
+        Operator(String text) {
+            this.text = text;
+        }
+
+        static Operator of(String text) {
+            for (Operator operator : values()) {
+                if (operator.text.equals(text)) {
+                    return operator;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operator " + text);
+        }
+
+        boolean test(int comparison) {
+            return switch (this) {
+                case GT -> comparison > 0;
+                case GE -> comparison >= 0;
+                case LT -> comparison < 0;
+                case LE -> comparison <= 0;
+                case EQ -> comparison == 0;
+                case NE -> comparison != 0;
+            };
+        }
+    }
+
+    private record NumericComparison(StatsField field, Operator operator, BigDecimal value) implements StatsFilter {
+
+        @Override
+        public boolean matches(CryptoStats stats) {
+            BigDecimal actual = field.value(stats);
+            return actual != null && operator.test(actual.compareTo(value));
+        }
+
+        @Override
+        public boolean mayMatch(SymbolMetadata metadata) {
+            BigDecimal lower = field.lowerBound(metadata.allTime());
+            BigDecimal upper = field.upperBound(metadata.allTime());
+            return switch (operator) {
+                case GT -> upper == null || upper.compareTo(value) > 0;
+                case GE -> upper == null || upper.compareTo(value) >= 0;
+                case LT -> lower == null || lower.compareTo(value) < 0;
+                case LE -> lower == null || lower.compareTo(value) <= 0;
+                case EQ -> (lower == null || lower.compareTo(value) <= 0)
+                        && (upper == null || upper.compareTo(value) >= 0);
+                case NE -> true;
+            };
+        }
+    }
+
+    private record SymbolComparison(Operator operator, String symbol) implements StatsFilter {
+
+        @Override
+        public boolean matches(CryptoStats stats) {
+            return stats.symbol().equalsIgnoreCase(symbol) == (operator == Operator.EQ);
+        }
+
+        @Override
+        public boolean mayMatch(SymbolMetadata metadata) {
+            return metadata.symbol().equalsIgnoreCase(symbol) == (operator == Operator.EQ);
+        }
+    }
+
+    private record And(List<StatsFilter> operands) implements StatsFilter {
+
+        @Override
+        public boolean matches(CryptoStats stats) {
+            return operands.stream().allMatch(operand -> operand.matches(stats));
+        }
+
+        @Override
+        public boolean mayMatch(SymbolMetadata metadata) {
+            return operands.stream().allMatch(operand -> operand.mayMatch(metadata));
+        }
+    }
+
+    private record Or(List<StatsFilter> operands) implements StatsFilter {
+
+        @Override
+        public boolean matches(CryptoStats stats) {
+            return operands.stream().anyMatch(operand -> operand.matches(stats));
+        }
+
+        @Override
+        public boolean mayMatch(SymbolMetadata metadata) {
+            return operands.stream().anyMatch(operand -> operand.mayMatch(metadata));
+        }
+    }
+
+    private record Not(StatsFilter operand) implements StatsFilter {
+
+        @Override
+        public boolean matches(CryptoStats stats) {
+            return !operand.matches(stats);
+        }
+
+        @Override
+        public boolean mayMatch(SymbolMetadata metadata) {
+            // bounds cannot prove that the negated condition never holds
+            return true;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package dev.cryptorec.provider.query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded least-recently-used cache of compiled query plans keyed by their source string.
+ * Compilation failures are not cached, invalid queries are rejected again on every call.
+ *
+ * @param <T> compiled plan
+ */
+final class PlanCache<T> {
+
+    private final int capacity;
+    private final Map<String, T> plans;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    PlanCache(int capacity) {
+        this.capacity = capacity;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                return size() > PlanCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached plan of a query, compiling it on a miss.
+     * Compilation runs outside the lock; concurrent misses on the same query may compile it twice.
+     */
+    T get(String source, Function<String, T> compiler) {
+        synchronized (plans) {
+            T plan = plans.get(source);
+            if (plan != null) {
+                hits.incrementAndGet();
+                return plan;
+            }
+        }
+
+        misses.incrementAndGet();
+        T plan = compiler.apply(source);
+        synchronized (plans) {
+            plans.put(source, plan);
+        }
+        return plan;
+    }
+
+    long hits() {
+        return hits.get();
+    }
+
+    long misses() {
+        return misses.get();
+    }
+}
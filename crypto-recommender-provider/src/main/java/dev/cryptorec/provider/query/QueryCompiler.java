@@ -0,0 +1,138 @@
+package dev.cryptorec.provider.query;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.exception.ValidationException;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.StringJoiner;
+
+/**
+ * Compiles filter and sort expressions into reusable {@link StatsFilter}s and comparators.
+ * Compiled plans are cached by their source string, so a query is parsed once however often it is repeated.
+ * <p>
+ * Sort format: comma-separated "field_direction" keys, applied in order, e.g. "normalizedRange_desc,symbol_asc".
+ * Fields: normalizedRange, symbol, min, max, oldest, newest, tickCount, returnStdDev, meanReturn, maxDrawdown;
+ * directions: asc, desc. Stats without a return metric sort last in both directions.
+ * Filter format: see {@link FilterParser}.
+ */
+public final class QueryCompiler {
+
+    /**
+     * Default sort applied when no sort expression is provided.
+     */
+    public static final String DEFAULT_SORT = "normalizedRange_desc";
+
+    private static final int CACHE_CAPACITY = 512;
+    private static final PlanCache<StatsFilter> FILTERS = new PlanCache<>(CACHE_CAPACITY);
+    private static final PlanCache<Comparator<CryptoStats>> SORTS = new PlanCache<>(CACHE_CAPACITY);
+
+    private QueryCompiler() {
+        // Utility class, no instantiation
+    }
+
+    /**
+     * Compiles a filter expression.
+     *
+     * @param filter filter expression (nullable, blank accepts everything)
+     * @return compiled filter
+     * @throws ValidationException if the expression is invalid
+     */
+    public static StatsFilter filter(String filter) {
+        if (filter == null || filter.isBlank()) {
+            return StatsFilter.ALL;
+        }
+        return FILTERS.get(filter.strip(), FilterParser::parse);
+    }
+
+    /**
+     * Compiles a sort expression.
+     *
+     * @param sortBy sort expression (nullable, defaults to normalizedRange_desc)
+     * @return comparator for CryptoStats
+     * @throws ValidationException if the sort format, field or direction is invalid
+     */
+    public static Comparator<CryptoStats> sort(String sortBy) {
+        if (sortBy == null || sortBy.isBlank()) {
+            sortBy = DEFAULT_SORT;
+        }
+        return SORTS.get(sortBy.strip(), QueryCompiler::compileSort);
+    }
+
+    /**
+     * Renders the values a sort expression orders by, e.g. "0.6384,ETH" for "normalizedRange_desc,symbol_asc".
+     * Used as the keyset position of pagination cursors.
+     *
+     * @param sortBy sort expression (nullable, defaults to normalizedRange_desc)
+     * @param stats  statistics to render the key of
+     * @return comma-separated sort key values
+     * @throws ValidationException if the sort expression is invalid
+     */
+    public static String sortKey(String sortBy, CryptoStats stats) {
+        sort(sortBy);
+        if (sortBy == null || sortBy.isBlank()) {
+            sortBy = DEFAULT_SORT;
+        }
+        StringJoiner key = new StringJoiner(",");
+        for (String sortKey : sortBy.split(",")) {
+            String field = sortKey.strip().split("_")[0];
+            key.add("symbol".equals(field)
+                    ? stats.symbol()
+                    : plain(StatsField.byName(field).orElseThrow().value(stats)));
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return number of filter and sort compilations answered from the plan cache
+     */
+    public static long cacheHits() {
+        return FILTERS.hits() + SORTS.hits();
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+
+    private static Comparator<CryptoStats> compileSort(String sortBy) {
+        Comparator<CryptoStats> comparator = null;
+        for (String key : sortBy.split(",")) {
+            Comparator<CryptoStats> keyComparator = compileSortKey(key.strip());
+            comparator = comparator == null ? keyComparator : comparator.thenComparing(keyComparator);
+        }
+        return comparator;
+    }
+
+    private static Comparator<CryptoStats> compileSortKey(String key) {
+        String[] parts = key.split("_");
+        if (parts.length != 2) {
+            throw new ValidationException("Invalid sort format. Expected 'field_direction' (e.g., normalizedRange_desc)");
+        }
+
+        String field = parts[0];
+        String direction = parts[1];
+
+        Optional<StatsField> statsField = StatsField.byName(field);
+        if (!"symbol".equals(field) && statsField.isEmpty()) {
+            throw new ValidationException("Invalid sort field: " + field);
+        }
+
+        boolean ascending;
+        if ("asc".equalsIgnoreCase(direction)) {
+            ascending = true;
+        } else if ("desc".equalsIgnoreCase(direction)) {
+            ascending = false;
+        } else {
+            throw new ValidationException("Invalid sort direction: " + direction);
+        }
+
+        if (statsField.isEmpty()) {
+            Comparator<CryptoStats> bySymbol = Comparator.comparing(CryptoStats::symbol);
+            return ascending ? bySymbol : bySymbol.reversed();
+        }
+        // stats without the field (return metrics of some providers) come last in both directions
+        Comparator<BigDecimal> order = ascending ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        return Comparator.comparing(statsField.get()::value, Comparator.nullsLast(order));
+    }
+}
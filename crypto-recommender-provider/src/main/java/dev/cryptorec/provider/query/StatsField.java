@@ -0,0 +1,101 @@
+package dev.cryptorec.provider.query;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PriceAggregate;
+import dev.cryptorec.model.util.StatsCalculator;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Numeric fields of {@link CryptoStats} usable in filters and sorts, with the bounds their value can take in any
+ * timeframe given the all-time aggregate of a symbol.
+ */
+enum StatsField {
+
+    NORMALIZED_RANGE("normalizedRange", CryptoStats::normalizedRange,
+            allTime -> BigDecimal.ZERO,
+            allTime -> allTime.min().price().signum() > 0
+                    ? StatsCalculator.calculateNormalizedRange(allTime.min().price(), allTime.max().price())
+                    : null),
+    MIN("min", stats -> stats.min().price(), allTime -> allTime.min().price(), allTime -> allTime.max().price()),
+    MAX("max", stats -> stats.max().price(), allTime -> allTime.min().price(), allTime -> allTime.max().price()),
+    OLDEST("oldest", stats -> stats.oldest().price(), allTime -> allTime.min().price(),
+            allTime -> allTime.max().price()),
+    NEWEST("newest", stats -> stats.newest().price(), allTime -> allTime.min().price(),
+            allTime -> allTime.max().price()),
+    TICK_COUNT("tickCount", stats -> stats.tickCount() == null ? null : BigDecimal.valueOf(stats.tickCount()),
+            allTime -> BigDecimal.ONE, allTime -> BigDecimal.valueOf(allTime.count())),
+    RETURN_STD_DEV("returnStdDev", CryptoStats::returnStdDev, allTime -> BigDecimal.ZERO, allTime -> null),
+    // the mean log return of a window is ln(newest / oldest) / returns, at most ln(max / min) in absolute value
+    MEAN_RETURN("meanReturn", CryptoStats::meanReturn,
+            allTime -> logRange(allTime) == null ? null : logRange(allTime).negate(),
+            StatsField::logRange),
+    MAX_DRAWDOWN("maxDrawdown", CryptoStats::maxDrawdown, allTime -> BigDecimal.ZERO,
+            allTime -> allTime.max().price().signum() > 0
+                    ? bound(1 - allTime.min().price().doubleValue() / allTime.max().price().doubleValue())
+                    : null);
+
+    /**
+     * Scale of the bounds of return metrics, rounded outwards so that rounded values never fall outside them.
+     */
+    private static final int BOUND_SCALE = 6;
+
+    private final String fieldName;
+    private final Function<CryptoStats, BigDecimal> value;
+    private final Function<PriceAggregate, BigDecimal> lowerBound;
+    private final Function<PriceAggregate, BigDecimal> upperBound;
+
+    StatsField(String fieldName, Function<CryptoStats, BigDecimal> value,
+               Function<PriceAggregate, BigDecimal> lowerBound, Function<PriceAggregate, BigDecimal> upperBound) {
+        this.fieldName = fieldName;
+        this.value = value;
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+    }
+
+    private static BigDecimal logRange(PriceAggregate allTime) {
+        if (allTime.min().price().signum() <= 0) {
+            return null;
+        }
+        return bound(Math.log(allTime.max().price().doubleValue() / allTime.min().price().doubleValue()));
+    }
+
+    private static BigDecimal bound(double upper) {
+        return BigDecimal.valueOf(upper).setScale(BOUND_SCALE, RoundingMode.CEILING);
+    }
+
+    static Optional<StatsField> byName(String name) {
+        return Arrays.stream(values()).filter(field -> field.fieldName.equals(name)).findFirst();
+    }
+
+    String fieldName() {
+        return fieldName;
+    }
+
+    /**
+     * @return value of the field, null if the stats do not carry it (return metrics of some providers)
+     */
+    BigDecimal value(CryptoStats stats) {
+        return value.apply(stats);
+    }
+
+    /**
+     * @return lowest value the field can take in any timeframe of a series with the given all-time aggregate,
+     * null if unbounded
+     */
+    BigDecimal lowerBound(PriceAggregate allTime) {
+        return lowerBound.apply(allTime);
+    }
+
+    /**
+     * @return highest value the field can take in any timeframe of a series with the given all-time aggregate,
+     * null if unbounded
+     */
+    BigDecimal upperBound(PriceAggregate allTime) {
+        return upperBound.apply(allTime);
+    }
+}
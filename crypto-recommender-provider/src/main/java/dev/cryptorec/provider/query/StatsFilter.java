@@ -0,0 +1,42 @@
+package dev.cryptorec.provider.query;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.SymbolMetadata;
+
+/**
+ * Compiled filter over crypto statistics.
+ * <p>
+ * Besides the exact test on computed statistics, a filter answers whether a symbol can match at all given only its
+ * {@link SymbolMetadata}; symbols that cannot are skipped before their statistics are computed.
+ */
+public interface StatsFilter {
+
+    /**
+     * Filter accepting everything.
+     */
+    StatsFilter ALL = new StatsFilter() {
+        @Override
+        public boolean matches(CryptoStats stats) {
+            return true;
+        }
+
+        @Override
+        public boolean mayMatch(SymbolMetadata metadata) {
+            return true;
+        }
+    };
+
+    /**
+     * @param stats statistics of a symbol for the queried timeframe
+     * @return true if the statistics satisfy the filter
+     */
+    boolean matches(CryptoStats stats);
+
+    /**
+     * Conservative pre-check: false only if no timeframe of the symbol can satisfy the filter.
+     *
+     * @param metadata metadata of a symbol
+     * @return false if the symbol can be skipped
+     */
+    boolean mayMatch(SymbolMetadata metadata);
+}
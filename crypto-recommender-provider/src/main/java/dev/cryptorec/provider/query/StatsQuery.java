@@ -0,0 +1,91 @@
+package dev.cryptorec.provider.query;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.SymbolMetadata;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.provider.DataProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Compiled query over crypto statistics: a filter and a (multi-key) sort.
+ * Instances are cheap to create, the compiled filter and comparator come from the plan cache of
+ * {@link QueryCompiler}.
+ *
+ * @param filterSource filter expression (nullable)
+ * @param sortBy       sort expression (nullable, defaults to normalizedRange_desc)
+ * @param filter       compiled filter
+ * @param comparator   compiled sort
+ */
+public record StatsQuery(
+        String filterSource,
+        String sortBy,
+        StatsFilter filter,
+        Comparator<CryptoStats> comparator
+) {
+    private static final Logger log = LoggerFactory.getLogger(StatsQuery.class);
+
+    /**
+     * Compiles a query.
+     *
+     * @param filter filter expression (nullable)
+     * @param sortBy sort expression (nullable)
+     * @return compiled query
+     * @throws dev.cryptorec.model.exception.ValidationException if an expression is invalid
+     */
+    public static StatsQuery of(String filter, String sortBy) {
+        return new StatsQuery(filter, sortBy, QueryCompiler.filter(filter), QueryCompiler.sort(sortBy));
+    }
+
+    /**
+     * @return true if the query filters statistics
+     */
+    public boolean hasFilter() {
+        return filter != StatsFilter.ALL;
+    }
+
+    /**
+     * Computes the statistics of the given symbols that satisfy the filter, in no particular order.
+     * Symbols whose metadata shows they have no data in the timeframe or cannot satisfy the filter are skipped
+     * without computing their statistics; symbols without data or whose statistics fail are skipped as well.
+     *
+     * @param provider provider computing the statistics and supplying the metadata
+     * @param symbols  symbols to evaluate
+     * @param fromDate start date (inclusive)
+     * @param toDate   end date (inclusive)
+     * @return mutable list of matching statistics
+     */
+    public List<CryptoStats> collect(DataProvider provider, Collection<String> symbols, LocalDate fromDate,
+                                     LocalDate toDate) {
+        long fromTs = DateRangeResolver.startOfDayMillis(fromDate);
+        long toTs = DateRangeResolver.endOfDayMillis(toDate);
+        List<CryptoStats> stats = new ArrayList<>();
+        int pruned = 0;
+
+        for (String symbol : symbols) {
+            Optional<SymbolMetadata> metadata = provider.getSymbolMetadata(symbol);
+            if (metadata.isPresent() && !(metadata.get().hasDataIn(fromTs, toTs) && filter.mayMatch(metadata.get()))) {
+                pruned++;
+                continue;
+            }
+
+            try {
+                provider.tryGetCryptoStats(symbol, fromDate, toDate)
+                        .filter(filter::matches)
+                        .ifPresent(stats::add);
+            } catch (Exception e) {
+                log.warn("Failed to calculate stats for {}: {}", symbol, e.getMessage());
+            }
+        }
+
+        log.debug("Query '{}' pruned {} of {} symbols by metadata", filterSource, pruned, symbols.size());
+        return stats;
+    }
+}
@@ -0,0 +1,156 @@
+package dev.cryptorec.provider.sharded;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.ShardUnavailableException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.query.StatsQuery;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.util.UriBuilder;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Shard client calling the internal shard endpoints of a peer instance, authenticated with the token shared by the
+ * shards of the cluster.
+ * <p>
+ * Error responses of the peer are mapped back to the domain exceptions (404 - CryptoNotFoundException,
+ * 400 - ValidationException), connection problems, timeouts and server errors to ShardUnavailableException.
+ */
+public class HttpShardClient implements ShardClient {
+
+    /**
+     * Path of the internal shard endpoints, relative to the base url of an instance.
+     */
+    public static final String BASE_PATH = "/internal/shard";
+
+    private static final ObjectMapper ERROR_MAPPER = new ObjectMapper();
+    private static final ParameterizedTypeReference<List<String>> SYMBOLS_TYPE = new ParameterizedTypeReference<>() {
+    };
+    private static final ParameterizedTypeReference<PaginatedResult<CryptoStats>> TOP_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final String shardId;
+    private final RestClient restClient;
+
+    /**
+     * @param shardId id of the peer shard
+     * @param baseUrl base url of the peer including the context path (e.g. http://localhost:8081/crypto/api/v1)
+     * @param timeout connect and read timeout of a single call
+     * @param token   token of the cluster, sent as bearer token
+     */
+    public HttpShardClient(String shardId, String baseUrl, Duration timeout, String token) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+
+        this.shardId = shardId;
+        this.restClient = RestClient.builder()
+                .baseUrl(baseUrl + BASE_PATH)
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .requestFactory(requestFactory)
+                .defaultStatusHandler(HttpStatusCode::isError, (request, response) -> {
+                    throw toException(response);
+                })
+                .build();
+    }
+
+    @Override
+    public String shardId() {
+        return shardId;
+    }
+
+    @Override
+    public List<String> symbols() {
+        return call(() -> restClient.get().uri("/symbols").retrieve().body(SYMBOLS_TYPE));
+    }
+
+    @Override
+    public CryptoPrice prices(String symbol, LocalDate fromDate, LocalDate toDate) {
+        return call(() -> restClient.get()
+                .uri(builder -> withTimeframe(builder.path("/prices/{symbol}"), fromDate, toDate).build(symbol))
+                .retrieve()
+                .body(CryptoPrice.class));
+    }
+
+    @Override
+    public CryptoStats stats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        return call(() -> restClient.get()
+                .uri(builder -> withTimeframe(builder.path("/stats/{symbol}"), fromDate, toDate).build(symbol))
+                .retrieve()
+                .body(CryptoStats.class));
+    }
+
+    @Override
+    public PaginatedResult<CryptoStats> top(int limit, StatsQuery query, LocalDate fromDate, LocalDate toDate) {
+        return call(() -> restClient.get()
+                .uri(builder -> withTimeframe(builder.path("/top"), fromDate, toDate)
+                        .queryParam("limit", limit)
+                        .queryParamIfPresent("sortBy", Optional.ofNullable(query.sortBy()))
+                        .queryParamIfPresent("filter", Optional.ofNullable(query.filterSource()))
+                        .build())
+                .retrieve()
+                .body(TOP_TYPE));
+    }
+
+    private <T> T call(Supplier<T> request) {
+        try {
+            return request.get();
+        } catch (ResourceAccessException e) {
+            throw new ShardUnavailableException("Shard " + shardId + " is unavailable: " + e.getMessage(), e);
+        } catch (CancellationException e) {
+            // the JDK request factory cancels the exchange when the read timeout elapses
+            throw new ShardUnavailableException("Shard " + shardId + " timed out", e);
+        }
+    }
+
+    private static UriBuilder withTimeframe(UriBuilder builder, LocalDate fromDate, LocalDate toDate) {
+        return builder.queryParamIfPresent("fromDate", Optional.ofNullable(fromDate))
+                .queryParamIfPresent("toDate", Optional.ofNullable(toDate));
+    }
+
+    private RuntimeException toException(ClientHttpResponse response) throws IOException {
+        int status = response.getStatusCode().value();
+        String message = errorMessage(response);
+
+        return switch (status) {
+            case 404 -> new CryptoNotFoundException(message);
+            case 400 -> new ValidationException(message);
+            default -> new ShardUnavailableException("Shard " + shardId + " responded " + status + ": " + message);
+        };
+    }
+
+    /**
+     * Extracts the first detail of the peer's ErrorResponse, falling back to the raw body.
+     */
+    private static String errorMessage(ClientHttpResponse response) throws IOException {
+        byte[] body = response.getBody().readAllBytes();
+        try {
+            JsonNode details = ERROR_MAPPER.readTree(body).path("details");
+            if (details.isArray() && !details.isEmpty()) {
+                return details.get(0).asText();
+            }
+        } catch (IOException e) {
+            // not an ErrorResponse, use the raw body
+        }
+        return new String(body);
+    }
+}
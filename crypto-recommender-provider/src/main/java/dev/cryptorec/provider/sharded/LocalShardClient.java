@@ -0,0 +1,77 @@
+package dev.cryptorec.provider.sharded;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.provider.DataProvider;
+import dev.cryptorec.provider.StatsPaginator;
+import dev.cryptorec.provider.query.StatsQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Shard client serving the data of this instance.
+ * <p>
+ * Only the symbols that the ring assigns to this shard are exposed, so several instances can be started over
+ * the same data directory (e.g. locally) and still partition the universe without overlap.
+ */
+public class LocalShardClient implements ShardClient {
+
+    private final String shardId;
+    private final ShardRing ring;
+    private final DataProvider delegate;
+
+    /**
+     * @param shardId  id of this shard
+     * @param ring     ring of the cluster
+     * @param delegate provider reading the local data
+     */
+    public LocalShardClient(String shardId, ShardRing ring, DataProvider delegate) {
+        this.shardId = shardId;
+        this.ring = ring;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String shardId() {
+        return shardId;
+    }
+
+    @Override
+    public List<String> symbols() {
+        return delegate.getAllCryptos().stream()
+                .filter(symbol -> ring.isOwnedBy(symbol, shardId))
+                .sorted()
+                .toList();
+    }
+
+    @Override
+    public CryptoPrice prices(String symbol, LocalDate fromDate, LocalDate toDate) {
+        ensureOwned(symbol);
+        if (fromDate == null || toDate == null) {
+            return delegate.getCryptoPrices(symbol);
+        }
+        return delegate.getCryptoPricesByTimeframe(symbol, fromDate, toDate);
+    }
+
+    @Override
+    public CryptoStats stats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        ensureOwned(symbol);
+        return delegate.getCryptoStats(symbol, fromDate, toDate);
+    }
+
+    @Override
+    public PaginatedResult<CryptoStats> top(int limit, StatsQuery query, LocalDate fromDate, LocalDate toDate) {
+        List<CryptoStats> stats = query.collect(delegate, symbols(), fromDate, toDate);
+        return StatsPaginator.sortAndPaginate(stats, 0, limit, query.comparator());
+    }
+
+    private void ensureOwned(String symbol) {
+        if (!ring.isOwnedBy(symbol, shardId)) {
+            throw new CryptoNotFoundException("Cryptocurrency " + symbol.toUpperCase() + " is not held by shard "
+                    + shardId);
+        }
+    }
+}
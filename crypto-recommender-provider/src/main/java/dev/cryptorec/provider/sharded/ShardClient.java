@@ -0,0 +1,60 @@
+package dev.cryptorec.provider.sharded;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.provider.query.StatsQuery;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Access to the data held by one shard of the cluster.
+ * Implementations either read the local data directly or call a peer instance over HTTP.
+ */
+public interface ShardClient {
+
+    /**
+     * @return id of the shard, as used on the {@link ShardRing}
+     */
+    String shardId();
+
+    /**
+     * @return symbols held by the shard
+     */
+    List<String> symbols();
+
+    /**
+     * Retrieves price data of a symbol held by the shard.
+     *
+     * @param symbol   cryptocurrency symbol
+     * @param fromDate start date (inclusive, nullable for the whole series)
+     * @param toDate   end date (inclusive, nullable for the whole series)
+     * @return CryptoPrice containing the price data
+     * @throws dev.cryptorec.model.exception.CryptoNotFoundException if symbol not found on the shard
+     */
+    CryptoPrice prices(String symbol, LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Calculates statistics of a symbol held by the shard.
+     *
+     * @param symbol   cryptocurrency symbol
+     * @param fromDate start date (inclusive)
+     * @param toDate   end date (inclusive)
+     * @return CryptoStats for the symbol within the timeframe
+     * @throws dev.cryptorec.model.exception.CryptoNotFoundException if symbol not found on the shard
+     * @throws dev.cryptorec.model.exception.ValidationException     if there is no data in the timeframe
+     */
+    CryptoStats stats(String symbol, LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Retrieves the first {@code limit} statistics of the shard matching the query filter, in the query sort order.
+     *
+     * @param limit    maximum number of statistics to return
+     * @param query    filter and sort
+     * @param fromDate start date (inclusive)
+     * @param toDate   end date (inclusive)
+     * @return sorted statistics (page 0 of size {@code limit}) with the shard's total number of elements
+     */
+    PaginatedResult<CryptoStats> top(int limit, StatsQuery query, LocalDate fromDate, LocalDate toDate);
+}
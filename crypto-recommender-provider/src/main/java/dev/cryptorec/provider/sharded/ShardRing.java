@@ -0,0 +1,102 @@
+package dev.cryptorec.provider.sharded;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring assigning symbols to shards.
+ * <p>
+ * Every shard is placed on the ring at a number of virtual nodes, a symbol belongs to the first virtual node
+ * clockwise from its hash. Adding or removing a shard only moves the symbols of the neighbouring ranges,
+ * and the assignment is identical on every instance given the same shard ids.
+ */
+public final class ShardRing {
+
+    /**
+     * Default number of virtual nodes per shard, enough for an even spread over a handful of shards.
+     */
+    public static final int DEFAULT_VIRTUAL_NODES = 128;
+
+    private final TreeMap<Long, String> ring = new TreeMap<>();
+    private final List<String> shardIds;
+
+    /**
+     * Creates a ring with the default number of virtual nodes.
+     *
+     * @param shardIds ids of all shards of the cluster
+     */
+    public ShardRing(Collection<String> shardIds) {
+        this(shardIds, DEFAULT_VIRTUAL_NODES);
+    }
+
+    /**
+     * Creates a ring.
+     *
+     * @param shardIds     ids of all shards of the cluster
+     * @param virtualNodes number of ring positions per shard
+     * @throws IllegalArgumentException if there are no shards or virtualNodes is not positive
+     */
+    public ShardRing(Collection<String> shardIds, int virtualNodes) {
+        if (shardIds == null || shardIds.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("Virtual nodes must be positive");
+        }
+
+        this.shardIds = shardIds.stream().sorted().toList();
+        for (String shardId : this.shardIds) {
+            for (int i = 0; i < virtualNodes; i++) {
+                ring.put(hash(shardId + "#" + i), shardId);
+            }
+        }
+    }
+
+    /**
+     * @return ids of all shards, sorted
+     */
+    public List<String> shardIds() {
+        return shardIds;
+    }
+
+    /**
+     * Resolves the shard owning a symbol. Symbols are case-insensitive.
+     *
+     * @param symbol cryptocurrency symbol
+     * @return id of the owning shard
+     */
+    public String ownerOf(String symbol) {
+        SortedMap<Long, String> tail = ring.tailMap(hash(symbol.toUpperCase()));
+        return tail.isEmpty() ? ring.firstEntry().getValue() : tail.get(tail.firstKey());
+    }
+
+    /**
+     * @return true if the symbol is owned by the given shard
+     */
+    public boolean isOwnedBy(String symbol, String shardId) {
+        return ownerOf(symbol).equals(shardId);
+    }
+
+    /**
+     * Stable 64-bit hash (first 8 bytes of MD5), independent of the JVM and of String.hashCode.
+     */
+    private static long hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(key.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ShardRing" + shardIds;
+    }
+}
@@ -0,0 +1,233 @@
+package dev.cryptorec.provider.sharded;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.exception.ShardUnavailableException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.DataProvider;
+import dev.cryptorec.provider.query.StatsQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Data provider partitioning symbols across several instances of the service (shards).
+ * <p>
+ * Symbols are assigned to shards with a consistent hash {@link ShardRing}. Single-symbol calls are routed to the
+ * owning shard. Universe-wide calls are scattered to all shards in parallel and gathered under a common deadline:
+ * for a page of recommendations each shard returns only its first (page + 1) * size statistics, which are merged
+ * into the global order. Shards that fail or miss the deadline are left out and reported in
+ * {@link PaginatedResult#warnings()}, so a slow shard degrades the result instead of failing the request.
+ */
+public class ShardedDataProvider implements DataProvider, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardedDataProvider.class);
+
+    private final ShardRing ring;
+    private final Map<String, ShardClient> shards;
+    private final Duration timeout;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong partialListings = new AtomicLong();
+
+    /**
+     * @param ring    ring assigning symbols to shards
+     * @param shards  clients of all shards of the ring (including the local one)
+     * @param timeout deadline for gathering the responses of a scattered call
+     * @throws IllegalArgumentException if the clients do not match the shards of the ring
+     */
+    public ShardedDataProvider(ShardRing ring, Collection<? extends ShardClient> shards, Duration timeout) {
+        Map<String, ShardClient> byId = new LinkedHashMap<>();
+        for (ShardClient shard : shards) {
+            byId.put(shard.shardId(), shard);
+        }
+        if (!byId.keySet().equals(new HashSet<>(ring.shardIds()))) {
+            throw new IllegalArgumentException("Shard clients " + byId.keySet() + " do not match " + ring);
+        }
+
+        this.ring = ring;
+        this.shards = byId;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Symbols of the shards that answered before the deadline. The listing has no warnings to carry, so a partial one
+     * is logged and counted: the symbols of a missing shard are left out of everything built on the listing.
+     */
+    @Override
+    public List<String> getAllCryptos() {
+        List<String> warnings = new ArrayList<>();
+        List<String> symbols = scatter(ShardClient::symbols, warnings).stream()
+                .flatMap(List::stream)
+                .sorted()
+                .toList();
+        if (!warnings.isEmpty()) {
+            partialListings.incrementAndGet();
+            log.warn("Listing {} symbols without the symbols of unavailable shards: {}", symbols.size(), warnings);
+        }
+        return symbols;
+    }
+
+    @Override
+    public CryptoPrice getCryptoPrices(String symbol) {
+        return ownerOf(symbol).prices(symbol, null, null);
+    }
+
+    @Override
+    public CryptoPrice getCryptoPricesByTimeframe(String symbol, LocalDate fromDate, LocalDate toDate) {
+        return ownerOf(symbol).prices(symbol, fromDate, toDate);
+    }
+
+    @Override
+    public CryptoStats getCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        return ownerOf(symbol).stats(symbol, fromDate, toDate);
+    }
+
+    /**
+     * The owning shard computes the stats; a remote shard reports a timeframe without data as 400, which arrives
+     * here as a ValidationException. Listings do not use this path, shards skip such symbols locally.
+     */
+    @Override
+    public Optional<CryptoStats> tryGetCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        try {
+            return Optional.of(getCryptoStats(symbol, fromDate, toDate));
+        } catch (ValidationException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public PaginatedResult<CryptoStats> getPaginatedStats(int page, int size, String sortBy, LocalDate fromDate,
+                                                          LocalDate toDate, Integer periodMonths) {
+        // compiling validates sortBy before fanning out
+        return queryStats(page, size, StatsQuery.of(null, sortBy), fromDate, toDate, periodMonths);
+    }
+
+    /**
+     * Every shard filters and sorts its own symbols (pruning them with its local metadata) and returns its top
+     * entries, which are merged here.
+     */
+    @Override
+    public PaginatedResult<CryptoStats> queryStats(int page, int size, StatsQuery query, LocalDate fromDate,
+                                                   LocalDate toDate, Integer periodMonths) {
+        // ties are ordered by symbol, as within a shard
+        Comparator<CryptoStats> comparator = query.comparator().thenComparing(CryptoStats::symbol);
+        int limit = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+
+        List<String> warnings = new ArrayList<>();
+        List<PaginatedResult<CryptoStats>> partials = scatter(
+                shard -> shard.top(limit, query, fromDate, toDate), warnings);
+
+        int totalElements = partials.stream().mapToInt(PaginatedResult::totalElements).sum();
+        List<CryptoStats> merged = mergeTopK(partials, comparator, limit);
+
+        int totalPages = size == 0 ? 0 : (int) Math.ceil((double) totalElements / size);
+        int startIdx = (int) Math.min((long) page * size, merged.size());
+        List<CryptoStats> pageItems = merged.subList(startIdx, merged.size());
+
+        return new PaginatedResult<>(pageItems, page, size, totalElements, totalPages, warnings);
+    }
+
+    /**
+     * Calls every shard in parallel and collects the responses received before the deadline.
+     * Missing responses are added to warnings.
+     *
+     * @throws ShardUnavailableException if no shard responded
+     */
+    private <T> List<T> scatter(Function<ShardClient, T> call, List<String> warnings) {
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (ShardClient shard : shards.values()) {
+            futures.put(shard.shardId(), executor.submit(() -> call.apply(shard)));
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<T> responses = new ArrayList<>();
+
+        for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+            try {
+                responses.add(entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                entry.getValue().cancel(true);
+                warnings.add("Shard " + entry.getKey() + " did not respond within " + timeout.toMillis() + " ms");
+            } catch (ExecutionException e) {
+                warnings.add("Shard " + entry.getKey() + " failed: " + e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ShardUnavailableException("Interrupted while waiting for shards", e);
+            }
+        }
+
+        if (!warnings.isEmpty()) {
+            log.warn("Partial result from {}/{} shards: {}", responses.size(), shards.size(), warnings);
+        }
+        if (responses.isEmpty()) {
+            throw new ShardUnavailableException("No shard responded: " + warnings);
+        }
+
+        return responses;
+    }
+
+    /**
+     * K-way merge of the sorted per-shard lists, keeping only the first {@code limit} statistics.
+     */
+    private static List<CryptoStats> mergeTopK(List<PaginatedResult<CryptoStats>> partials,
+                                               Comparator<CryptoStats> comparator, int limit) {
+        record Head(CryptoStats stats, Iterator<CryptoStats> rest) {
+        }
+
+        PriorityQueue<Head> heads = new PriorityQueue<>(Comparator.comparing(Head::stats, comparator));
+        for (PaginatedResult<CryptoStats> partial : partials) {
+            Iterator<CryptoStats> iterator = partial.items().iterator();
+            if (iterator.hasNext()) {
+                heads.add(new Head(iterator.next(), iterator));
+            }
+        }
+
+        List<CryptoStats> merged = new ArrayList<>();
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head head = heads.poll();
+            merged.add(head.stats());
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+        }
+
+        return merged;
+    }
+
+    /**
+     * @return number of symbol listings that missed at least one shard since startup
+     */
+    public long partialListings() {
+        return partialListings.get();
+    }
+
+    private ShardClient ownerOf(String symbol) {
+        return shards.get(ring.ownerOf(symbol));
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
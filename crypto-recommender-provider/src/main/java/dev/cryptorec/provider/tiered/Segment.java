@@ -0,0 +1,298 @@
+package dev.cryptorec.provider.tiered;
+
+import dev.cryptorec.model.PriceAggregate;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.ReturnStats;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Immutable on-disk segment holding a chronologically sorted block of price points of one symbol.
+ * <p>
+ * File layout (big-endian):
+ * - header: magic, version, symbol, zone map (count, min, max, oldest, newest), since version 2 followed by the
+ * return summary (present flag, mean, m2, max drawdown), since version 3 by the CRC-32C of the encoded rows
+ * - body: fixed-size rows (timestamp long, price scale byte, price unscaled long), sorted by timestamp
+ * <p>
+ * Only the header is read when a segment is opened. The zone map answers queries that cover the whole segment;
+ * partially covered segments are binary searched on the fixed-size rows, so only the overlapping rows are read.
+ * The checksum tells whether a segment still holds given rows without reading its body; the zone map cannot, since
+ * different rows can have the same summary.
+ */
+public final class Segment {
+
+    private static final int MAGIC = 0x43534547; // "CSEG"
+    private static final short VERSION = 3;
+    private static final short VERSION_WITHOUT_CHECKSUM = 2;
+    private static final short VERSION_WITHOUT_RETURNS = 1;
+    private static final int ROW_SIZE = Long.BYTES + Byte.BYTES + Long.BYTES;
+    private static final int READ_BUFFER_ROWS = 4096;
+
+    private final Path path;
+    private final String symbol;
+    private final PriceAggregate zoneMap;
+    private final OptionalLong checksum;
+    private final long bodyOffset;
+
+    private Segment(Path path, String symbol, PriceAggregate zoneMap, OptionalLong checksum, long bodyOffset) {
+        this.path = path;
+        this.symbol = symbol;
+        this.zoneMap = zoneMap;
+        this.checksum = checksum;
+        this.bodyOffset = bodyOffset;
+    }
+
+    /**
+     * Writes a new segment atomically (temp file + move) and returns it opened.
+     *
+     * @param path   target file
+     * @param symbol cryptocurrency symbol
+     * @param prices sorted, non-empty list of price points
+     * @return the written segment
+     * @throws IOException if the file cannot be written
+     */
+    public static Segment write(Path path, String symbol, List<PriceData> prices) throws IOException {
+        PriceAggregate zoneMap = PriceAggregate.of(prices);
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeUTF(symbol);
+            out.writeLong(zoneMap.count());
+            writePoint(out, zoneMap.min());
+            writePoint(out, zoneMap.max());
+            writePoint(out, zoneMap.oldest());
+            writePoint(out, zoneMap.newest());
+            writeReturns(out, zoneMap.returns());
+            out.writeLong(checksum(prices));
+            for (PriceData price : prices) {
+                writePoint(out, price);
+            }
+        }
+
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(path);
+    }
+
+    /**
+     * Opens a segment by reading its header only.
+     *
+     * @param path segment file
+     * @return opened segment
+     * @throws IOException if the file cannot be read or is not a segment
+     */
+    public static Segment open(Path path) throws IOException {
+        try (InputStream stream = Files.newInputStream(path);
+             DataInputStream in = new DataInputStream(stream)) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a price segment: " + path);
+            }
+            short version = in.readShort();
+            if (version < VERSION_WITHOUT_RETURNS || version > VERSION) {
+                throw new IOException("Unsupported segment version " + version + ": " + path);
+            }
+
+            String symbol = in.readUTF();
+            long count = in.readLong();
+            PriceData min = readPoint(in);
+            PriceData max = readPoint(in);
+            PriceData oldest = readPoint(in);
+            PriceData newest = readPoint(in);
+            // segments written before returns were tracked answer without them until they are rewritten
+            ReturnStats returns = version >= VERSION_WITHOUT_CHECKSUM ? readReturns(in) : null;
+            OptionalLong checksum = version == VERSION ? OptionalLong.of(in.readLong()) : OptionalLong.empty();
+
+            long bodyOffset = Files.size(path) - count * ROW_SIZE;
+            return new Segment(path, symbol, new PriceAggregate(count, min, max, oldest, newest, returns), checksum,
+                    bodyOffset);
+        }
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public String symbol() {
+        return symbol;
+    }
+
+    /**
+     * @return min/max/oldest/newest of the whole segment, read from the header
+     */
+    public PriceAggregate zoneMap() {
+        return zoneMap;
+    }
+
+    /**
+     * @return CRC-32C of the encoded rows, read from the header; empty for segments written before it was stored
+     */
+    public OptionalLong checksum() {
+        return checksum;
+    }
+
+    /**
+     * Computes the checksum a segment of the given rows stores in its header.
+     *
+     * @param prices sorted price points
+     * @return CRC-32C of the rows as encoded in a segment body
+     */
+    public static long checksum(List<PriceData> prices) {
+        CRC32C crc = new CRC32C();
+        ByteBuffer row = ByteBuffer.allocate(ROW_SIZE);
+        for (PriceData price : prices) {
+            row.clear();
+            row.putLong(price.timestamp());
+            row.put((byte) price.price().scale());
+            row.putLong(price.price().unscaledValue().longValueExact());
+            crc.update(row.flip());
+        }
+        return crc.getValue();
+    }
+
+    public long firstTimestamp() {
+        return zoneMap.oldest().timestamp();
+    }
+
+    public long lastTimestamp() {
+        return zoneMap.newest().timestamp();
+    }
+
+    /**
+     * @return true if the segment has no point within [fromTs, toTs]
+     */
+    public boolean isDisjoint(long fromTs, long toTs) {
+        return lastTimestamp() < fromTs || firstTimestamp() > toTs;
+    }
+
+    /**
+     * @return true if every point of the segment is within [fromTs, toTs]
+     */
+    public boolean isCoveredBy(long fromTs, long toTs) {
+        return firstTimestamp() >= fromTs && lastTimestamp() <= toTs;
+    }
+
+    /**
+     * Reads the price points within [fromTs, toTs] from the segment body.
+     *
+     * @return sorted price points within the range
+     * @throws IOException if the body cannot be read
+     */
+    public List<PriceData> read(long fromTs, long toTs) throws IOException {
+        List<PriceData> prices = new ArrayList<>();
+        scan(fromTs, toTs, prices::add);
+        return prices;
+    }
+
+    /**
+     * Aggregates the price points within [fromTs, toTs], from the zone map if the range covers the segment,
+     * otherwise by scanning only the overlapping rows of the body.
+     *
+     * @return aggregate of the points within the range, empty if there are none
+     * @throws IOException if the body cannot be read
+     */
+    public Optional<PriceAggregate> aggregate(long fromTs, long toTs) throws IOException {
+        if (isDisjoint(fromTs, toTs)) {
+            return Optional.empty();
+        }
+        if (isCoveredBy(fromTs, toTs)) {
+            return Optional.of(zoneMap);
+        }
+
+        List<PriceData> prices = read(fromTs, toTs);
+        return prices.isEmpty() ? Optional.empty() : Optional.of(PriceAggregate.of(prices));
+    }
+
+    private void scan(long fromTs, long toTs, Consumer<PriceData> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long start = lowerBound(channel, fromTs);
+            channel.position(bodyOffset + start * ROW_SIZE);
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Channels.newInputStream(channel), ROW_SIZE * READ_BUFFER_ROWS));
+            for (long row = start; row < zoneMap.count(); row++) {
+                PriceData price = readPoint(in);
+                if (price.timestamp() > toTs) {
+                    break;
+                }
+                consumer.accept(price);
+            }
+        }
+    }
+
+    /**
+     * Binary search for the first row with timestamp >= fromTs, reading only the timestamps of probed rows.
+     */
+    private long lowerBound(FileChannel channel, long fromTs) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+        long low = 0;
+        long high = zoneMap.count();
+
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            buffer.clear();
+            channel.read(buffer, bodyOffset + mid * ROW_SIZE);
+            if (buffer.getLong(0) < fromTs) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low;
+    }
+
+    private static void writePoint(DataOutputStream out, PriceData price) throws IOException {
+        BigDecimal value = price.price();
+        if (value.scale() < Byte.MIN_VALUE || value.scale() > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Price scale not supported in segments: " + value);
+        }
+
+        out.writeLong(price.timestamp());
+        out.writeByte(value.scale());
+        out.writeLong(value.unscaledValue().longValueExact());
+    }
+
+    private static PriceData readPoint(DataInputStream in) throws IOException {
+        long timestamp = in.readLong();
+        int scale = in.readByte();
+        long unscaled = in.readLong();
+        return new PriceData(timestamp, BigDecimal.valueOf(unscaled, scale));
+    }
+
+    private static void writeReturns(DataOutputStream out, ReturnStats returns) throws IOException {
+        out.writeBoolean(returns != null);
+        if (returns != null) {
+            out.writeDouble(returns.mean());
+            out.writeDouble(returns.m2());
+            out.writeDouble(returns.maxDrawdown());
+        }
+    }
+
+    private static ReturnStats readReturns(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new ReturnStats(in.readDouble(), in.readDouble(), in.readDouble());
+    }
+}
@@ -0,0 +1,404 @@
+package dev.cryptorec.provider.tiered;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.PriceAggregate;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.model.util.RequestTrace;
+import dev.cryptorec.model.util.StatsCalculator;
+import dev.cryptorec.provider.CsvPriceReader;
+import dev.cryptorec.provider.DataProvider;
+import dev.cryptorec.provider.ExternalPriceSorter;
+import dev.cryptorec.provider.SortedPriceSink;
+import dev.cryptorec.provider.StatsPaginator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Tiered data provider: recent data (hot tier) stays in memory, older data (cold tier) is stored in
+ * immutable monthly on-disk {@link Segment}s of which only the headers are kept in memory.
+ * <p>
+ * Statistics are computed by merging per-tier {@link PriceAggregate}s in chronological order: segments fully
+ * covered by the requested timeframe are answered from their zone map, only partially covered segments are read.
+ * Because whole-month segments are the common case for historical windows, most cold queries never touch segment
+ * bodies. Results are identical to an in-memory scan of the full series.
+ * <p>
+ * Layout: {segmentDirectory}/{SYMBOL}/{yyyy-MM}.seg. CSV files are streamed month by month in timestamp order
+ * through an {@link ExternalPriceSorter}, so only the hot window and one cold month are held in memory at a time,
+ * however long the history. A cold month whose rows differ from its segment's (checksum in the header, rows
+ * corrected or appended in the CSV) is rewritten; segments of months missing from the CSV are kept, so history
+ * archived into segments does not need to remain in the CSV directory.
+ */
+public class TieredDataProvider implements DataProvider {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredDataProvider.class);
+    private static final String SEGMENT_EXTENSION = ".seg";
+    private static final int DEFAULT_SORT_RUN_SIZE = 1_000_000;
+    private static final int SORT_FAN_IN = 64;
+
+    private final Path csvDirectory;
+    private final Path segmentDirectory;
+    private final int hotMonths;
+    private final Clock clock;
+    private final ExternalPriceSorter sorter;
+    private final Map<String, SymbolTiers> tiers = new ConcurrentHashMap<>();
+
+    private final AtomicLong zoneMapHits = new AtomicLong();
+    private final AtomicLong segmentReads = new AtomicLong();
+
+    /**
+     * Creates a tiered provider sorting up to a million points in memory when a CSV file is not sorted.
+     *
+     * @param csvDirectory     directory containing {symbol}_values.csv files
+     * @param segmentDirectory directory containing (or receiving) cold segments
+     * @param hotMonths        number of months kept in memory (counted from the first day of the current month)
+     * @param clock            clock used to compute the hot window
+     */
+    public TieredDataProvider(Path csvDirectory, Path segmentDirectory, int hotMonths, Clock clock) {
+        this(csvDirectory, segmentDirectory, hotMonths, clock, DEFAULT_SORT_RUN_SIZE);
+    }
+
+    /**
+     * Creates a tiered provider and builds the tiers from the CSV and segment directories.
+     *
+     * @param csvDirectory     directory containing {symbol}_values.csv files
+     * @param segmentDirectory directory containing (or receiving) cold segments, also used for spilled sort runs
+     * @param hotMonths        number of months kept in memory (counted from the first day of the current month)
+     * @param clock            clock used to compute the hot window
+     * @param sortRunSize      maximum number of price points sorted in memory when a CSV file is not sorted
+     */
+    public TieredDataProvider(Path csvDirectory, Path segmentDirectory, int hotMonths, Clock clock, int sortRunSize) {
+        if (hotMonths < 0) {
+            throw new IllegalArgumentException("Hot months must be non-negative");
+        }
+        this.csvDirectory = csvDirectory;
+        this.segmentDirectory = segmentDirectory;
+        this.hotMonths = hotMonths;
+        this.clock = clock;
+        // duplicates are kept so that stats match an in-memory scan of the CSV file
+        this.sorter = new ExternalPriceSorter(segmentDirectory, sortRunSize, SORT_FAN_IN, false);
+
+        initializeTiers();
+    }
+
+    /**
+     * Builds the tiers: rows older than the hot window are archived into monthly segments (unless an identical
+     * segment already exists), the remaining rows are kept in memory.
+     * Symbols that only have segments (archived history without a CSV file) are served from the cold tier.
+     */
+    private void initializeTiers() {
+        long hotFrom = hotWindowStart();
+        log.info("Initializing tiered provider: csv={}, segments={}, hot from {}", csvDirectory.toAbsolutePath(),
+                segmentDirectory.toAbsolutePath(), Instant.ofEpochMilli(hotFrom));
+
+        try {
+            for (String symbol : CsvPriceReader.listSymbols(csvDirectory)) {
+                try {
+                    tiers.put(symbol, buildTiers(symbol, hotFrom));
+                } catch (Exception e) {
+                    log.warn("Failed to load data for crypto {}: {}", symbol, e.getMessage());
+                }
+            }
+
+            if (Files.isDirectory(segmentDirectory)) {
+                try (Stream<Path> dirs = Files.list(segmentDirectory)) {
+                    for (Path dir : dirs.filter(Files::isDirectory).toList()) {
+                        String symbol = dir.getFileName().toString().toUpperCase();
+                        if (!tiers.containsKey(symbol)) {
+                            tiers.put(symbol, new SymbolTiers(openSegments(symbol, Long.MAX_VALUE), List.of()));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to initialize tiered provider", e);
+        }
+
+        log.info("Tiered provider initialized with {} cryptos", tiers.size());
+    }
+
+    private SymbolTiers buildTiers(String symbol, long hotFrom) throws IOException {
+        MonthSplitter splitter = new MonthSplitter(symbol, hotFrom);
+        sorter.sort(CsvPriceReader.csvFile(csvDirectory, symbol), splitter);
+        splitter.flushMonth();
+
+        List<PriceData> hot = Collections.unmodifiableList(splitter.hot);
+        List<Segment> cold = openSegments(symbol, hotFrom);
+        log.debug("Loaded {}: {} cold segments ({} written), {} hot price points", symbol, cold.size(),
+                splitter.written, hot.size());
+
+        return new SymbolTiers(cold, hot);
+    }
+
+    /**
+     * Opens the segments of a symbol that are older than the hot window; segments of months that are now
+     * within the hot window (e.g. after increasing hotMonths) are ignored as those rows are served from memory.
+     */
+    private List<Segment> openSegments(String symbol, long hotFrom) throws IOException {
+        Path dir = segmentDirectory.resolve(symbol);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SEGMENT_EXTENSION)).toList()) {
+                Segment segment = Segment.open(file);
+                if (segment.lastTimestamp() < hotFrom) {
+                    segments.add(segment);
+                }
+            }
+        }
+        segments.sort(Comparator.comparingLong(Segment::firstTimestamp));
+
+        return List.copyOf(segments);
+    }
+
+    @Override
+    public List<String> getAllCryptos() {
+        return new ArrayList<>(tiers.keySet());
+    }
+
+    @Override
+    public CryptoPrice getCryptoPrices(String symbol) {
+        String upperSymbol = symbol.toUpperCase();
+        return new CryptoPrice(upperSymbol, read(upperSymbol, Long.MIN_VALUE, Long.MAX_VALUE));
+    }
+
+    @Override
+    public CryptoPrice getCryptoPricesByTimeframe(String symbol, LocalDate fromDate, LocalDate toDate) {
+        long fromEpoch = DateRangeResolver.startOfDayMillis(fromDate);
+        long toEpoch = DateRangeResolver.endOfDayMillis(toDate);
+
+        return new CryptoPrice(symbol, read(symbol.toUpperCase(), fromEpoch, toEpoch));
+    }
+
+    @Override
+    public CryptoStats getCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        return tryGetCryptoStats(symbol, fromDate, toDate).orElseThrow(() -> StatsCalculator.noData(symbol));
+    }
+
+    @Override
+    public Optional<CryptoStats> tryGetCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+        SymbolTiers symbolTiers = tiersOf(symbol.toUpperCase());
+        long fromEpoch = DateRangeResolver.startOfDayMillis(fromDate);
+        long toEpoch = DateRangeResolver.endOfDayMillis(toDate);
+        // segments are aggregated while they are read, both count as fetch
+        long fetchStart = System.nanoTime();
+
+        PriceAggregate aggregate = null;
+
+        try {
+            for (Segment segment : symbolTiers.cold()) {
+                if (segment.isDisjoint(fromEpoch, toEpoch)) {
+                    continue;
+                }
+                if (segment.isCoveredBy(fromEpoch, toEpoch)) {
+                    zoneMapHits.incrementAndGet();
+                } else {
+                    segmentReads.incrementAndGet();
+                }
+                aggregate = merge(aggregate, segment.aggregate(fromEpoch, toEpoch).orElse(null));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read segments for " + symbol, e);
+        }
+
+        List<PriceData> hot = slice(symbolTiers.hot(), fromEpoch, toEpoch);
+        if (!hot.isEmpty()) {
+            aggregate = merge(aggregate, PriceAggregate.of(hot));
+        }
+        RequestTrace.current().add(RequestTrace.Stage.FETCH, System.nanoTime() - fetchStart);
+
+        if (aggregate == null) {
+            return Optional.empty();
+        }
+
+        return Optional.of(StatsCalculator.calculateStats(symbol, aggregate, fromDate, toDate));
+    }
+
+    @Override
+    public PaginatedResult<CryptoStats> getPaginatedStats(int page, int size, String sortBy, LocalDate fromDate,
+                                                          LocalDate toDate, Integer periodMonths) {
+        List<CryptoStats> stats = new ArrayList<>();
+
+        for (String crypto : getAllCryptos()) {
+            try {
+                // symbols without data in the timeframe are skipped without an exception
+                tryGetCryptoStats(crypto, fromDate, toDate).ifPresent(stats::add);
+            } catch (Exception e) {
+                log.warn("Failed to calculate stats for {}: {}", crypto, e.getMessage());
+            }
+        }
+
+        return StatsPaginator.sortAndPaginate(stats, page, size, sortBy);
+    }
+
+    /**
+     * @return number of segments answered from their zone map (header) since startup
+     */
+    public long zoneMapHits() {
+        return zoneMapHits.get();
+    }
+
+    /**
+     * @return number of segment bodies read to answer stats queries since startup
+     */
+    public long segmentReads() {
+        return segmentReads.get();
+    }
+
+    private List<PriceData> read(String upperSymbol, long fromEpoch, long toEpoch) {
+        SymbolTiers symbolTiers = tiersOf(upperSymbol);
+        List<PriceData> prices = new ArrayList<>();
+
+        try {
+            for (Segment segment : symbolTiers.cold()) {
+                if (!segment.isDisjoint(fromEpoch, toEpoch)) {
+                    prices.addAll(segment.read(fromEpoch, toEpoch));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read segments for " + upperSymbol, e);
+        }
+
+        prices.addAll(slice(symbolTiers.hot(), fromEpoch, toEpoch));
+        return prices;
+    }
+
+    private SymbolTiers tiersOf(String upperSymbol) {
+        SymbolTiers symbolTiers = tiers.get(upperSymbol);
+        if (symbolTiers == null) {
+            throw new CryptoNotFoundException("Cryptocurrency not found: " + upperSymbol + ". Available: "
+                    + tiers.keySet());
+        }
+        return symbolTiers;
+    }
+
+    private long hotWindowStart() {
+        LocalDate firstOfMonth = LocalDate.now(clock).withDayOfMonth(1);
+        return DateRangeResolver.startOfDayMillis(firstOfMonth.minusMonths(hotMonths));
+    }
+
+    private Path segmentPath(String symbol, YearMonth month) {
+        return segmentDirectory.resolve(symbol).resolve(month + SEGMENT_EXTENSION);
+    }
+
+    private static YearMonth monthOf(long timestamp) {
+        return YearMonth.from(Instant.ofEpochMilli(timestamp).atZone(ZoneOffset.UTC));
+    }
+
+    private static PriceAggregate merge(PriceAggregate earlier, PriceAggregate later) {
+        if (earlier == null) {
+            return later;
+        }
+        return later == null ? earlier : earlier.merge(later);
+    }
+
+    private static List<PriceData> slice(List<PriceData> sorted, long fromEpoch, long toEpoch) {
+        int from = lowerBound(sorted, fromEpoch);
+        int to = toEpoch == Long.MAX_VALUE ? sorted.size() : lowerBound(sorted, toEpoch + 1);
+        return sorted.subList(from, Math.max(from, to));
+    }
+
+    private static int lowerBound(List<PriceData> sorted, long timestamp) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted.get(mid).timestamp() < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Receives a CSV file in timestamp order, writes each cold month whose segment is missing or outdated and collects
+     * the hot rows. Only the current cold month is buffered.
+     */
+    private final class MonthSplitter implements SortedPriceSink {
+
+        private final String symbol;
+        private final long hotFrom;
+        private final List<PriceData> month = new ArrayList<>();
+        private final List<PriceData> hot = new ArrayList<>();
+        private YearMonth current;
+        private int written;
+
+        MonthSplitter(String symbol, long hotFrom) {
+            this.symbol = symbol;
+            this.hotFrom = hotFrom;
+        }
+
+        @Override
+        public void accept(long timestamp, BigDecimal price) throws IOException {
+            PriceData point = new PriceData(timestamp, price);
+            if (timestamp >= hotFrom) {
+                flushMonth();
+                hot.add(point);
+                return;
+            }
+            YearMonth pointMonth = monthOf(timestamp);
+            if (!pointMonth.equals(current)) {
+                flushMonth();
+                current = pointMonth;
+            }
+            month.add(point);
+        }
+
+        @Override
+        public void reset() {
+            // months written so far are compared again, and rewritten only if they still differ
+            month.clear();
+            hot.clear();
+            current = null;
+        }
+
+        void flushMonth() throws IOException {
+            if (month.isEmpty()) {
+                return;
+            }
+            Path path = segmentPath(symbol, current);
+            // the zone map summarizes the rows, the checksum tells whether they are still the same
+            OptionalLong stored = Files.exists(path) ? Segment.open(path).checksum() : OptionalLong.empty();
+            if (stored.isEmpty() || stored.getAsLong() != Segment.checksum(month)) {
+                Segment.write(path, symbol, month);
+                written++;
+            }
+            month.clear();
+        }
+    }
+
+    /**
+     * Tiers of one symbol: cold segments sorted by time, followed by the in-memory hot series.
+     */
+    private record SymbolTiers(List<Segment> cold, List<PriceData> hot) {
+    }
+}
@@ -0,0 +1,25 @@
+package dev.cryptorec.provider.wal;
+
+/**
+ * When an append to the {@link WriteAheadLog} is acknowledged.
+ */
+public enum Durability {
+
+    /**
+     * After the record is forced to disk. Appends waiting at the same time share one fsync (group commit);
+     * survives a power loss.
+     */
+    FSYNC,
+
+    /**
+     * After the record is written to the operating system, which forces it to disk within the flush interval;
+     * survives a crash of the process, not of the machine.
+     */
+    WRITE,
+
+    /**
+     * Immediately; the record is written and forced within the flush interval. A crash of the process loses the
+     * records of the last interval.
+     */
+    ASYNC
+}
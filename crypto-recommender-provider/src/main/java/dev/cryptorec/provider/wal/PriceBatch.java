@@ -0,0 +1,92 @@
+package dev.cryptorec.provider.wal;
+
+import dev.cryptorec.model.PriceData;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Price points of one committed ingestion, as stored in {@link WriteAheadLog} records.
+ * <p>
+ * A large ingestion is split into several records of at most {@link #MAX_POINTS} points; only the last one is
+ * flagged, so that replay applies an ingestion only once all its records are read and drops one torn by a crash.
+ *
+ * @param symbol upper-case symbol
+ * @param prices price points in commit order
+ * @param last   whether this record ends its ingestion
+ */
+public record PriceBatch(String symbol, List<PriceData> prices, boolean last) {
+
+    /**
+     * Points per record, keeping records well below the log's record size limit.
+     */
+    public static final int MAX_POINTS = 64 * 1024;
+
+    /**
+     * Encodes the points of an ingestion into log records.
+     *
+     * @param symbol upper-case symbol
+     * @param prices price points in commit order
+     * @return one record per {@link #MAX_POINTS} points, at least one
+     */
+    public static List<byte[]> encode(String symbol, List<PriceData> prices) {
+        List<byte[]> records = new ArrayList<>(prices.size() / MAX_POINTS + 1);
+        int from = 0;
+        do {
+            int to = Math.min(prices.size(), from + MAX_POINTS);
+            records.add(encode(symbol, prices.subList(from, to), to == prices.size()));
+            from = to;
+        } while (from < prices.size());
+        return records;
+    }
+
+    private static byte[] encode(String symbol, List<PriceData> prices, boolean last) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32 + prices.size() * 24);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(symbol);
+            out.writeBoolean(last);
+            out.writeInt(prices.size());
+            for (PriceData point : prices) {
+                byte[] unscaled = point.price().unscaledValue().toByteArray();
+                out.writeLong(point.timestamp());
+                out.writeInt(point.price().scale());
+                out.writeShort(unscaled.length);
+                out.write(unscaled);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @param record payload of a log record written by {@link #encode}
+     * @return the batch of the record
+     * @throws UncheckedIOException if the record is not a price batch
+     */
+    public static PriceBatch decode(byte[] record) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+            String symbol = in.readUTF();
+            boolean last = in.readBoolean();
+            int count = in.readInt();
+            List<PriceData> prices = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                long timestamp = in.readLong();
+                int scale = in.readInt();
+                byte[] unscaled = in.readNBytes(in.readUnsignedShort());
+                prices.add(new PriceData(timestamp, new BigDecimal(new BigInteger(unscaled), scale)));
+            }
+            return new PriceBatch(symbol, prices, last);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid price batch record", e);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package dev.cryptorec.provider.wal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only log of opaque records, split into segment files, written by a single background thread.
+ * <p>
+ * Appends from any number of threads are queued; the writer takes everything queued at once, writes it with one
+ * gathering write and, in {@link Durability#FSYNC} mode, forces it with one fsync before acknowledging the whole
+ * batch (group commit): while an fsync runs, the next batch accumulates. The other modes acknowledge earlier and force
+ * the log within the flush interval.
+ * <p>
+ * Records carry consecutive sequence numbers starting at 1 and a CRC32C checksum: [length][checksum][sequence]
+ * [payload]. A segment is named after the sequence of its first record, and a new one is started once it exceeds the
+ * segment size. On open, a torn or corrupt tail of the last segment, left by a crash mid-write, is cut off; a corrupt
+ * record anywhere else fails {@link #replay}. {@link #rollSegment} and {@link #deleteSegmentsThrough} let a checkpoint
+ * drop the segments whose records it has made durable elsewhere.
+ */
+public class WriteAheadLog implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+    private static final String SEGMENT_EXTENSION = ".wal";
+    // length, checksum, sequence
+    private static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES + Long.BYTES;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_BATCH = 4096;
+
+    private final Path directory;
+    private final Durability durability;
+    private final long segmentBytes;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong syncs = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+    private volatile Exception failure;
+
+    // owned by the writer thread once started
+    private FileChannel segment;
+    private long segmentSize;
+    private long nextSequence;
+    private long lastSync = System.nanoTime();
+    private boolean unsynced;
+
+    /**
+     * Opens the log of a directory, creating it if needed, and starts its writer thread.
+     *
+     * @param directory     directory of the segment files
+     * @param durability    when appends are acknowledged
+     * @param segmentBytes  size from which a new segment is started
+     * @param flushInterval longest time a written record stays unforced in {@link Durability#WRITE} and
+     *                      {@link Durability#ASYNC} modes
+     */
+    public WriteAheadLog(Path directory, Durability durability, long segmentBytes, Duration flushInterval) {
+        if (segmentBytes < 1) {
+            throw new IllegalArgumentException("Segment size must be positive");
+        }
+        if (flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException("Flush interval must be positive");
+        }
+        this.directory = directory;
+        this.durability = durability;
+        this.segmentBytes = segmentBytes;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        try {
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open write-ahead log " + directory, e);
+        }
+        this.writer = Thread.ofPlatform().name("wal-writer").daemon().start(this::run);
+    }
+
+    private void recover() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            nextSequence = 1;
+            openSegment();
+            return;
+        }
+
+        Path last = segments.getLast();
+        Scan scan = scan(last, firstSequence(last), null);
+        segment = FileChannel.open(last, StandardOpenOption.WRITE);
+        if (scan.end() < segment.size()) {
+            log.warn("Cutting off {} bytes of torn or corrupt records at the end of {}", segment.size() - scan.end(),
+                    last.getFileName());
+            segment.truncate(scan.end());
+            segment.force(true);
+        }
+        segment.position(scan.end());
+        segmentSize = scan.end();
+        nextSequence = scan.nextSequence();
+    }
+
+    /**
+     * Reads every record of the log in sequence order; call it before the first append.
+     *
+     * @param consumer receiver of the record payloads
+     * @return number of records read
+     * @throws UncheckedIOException if a segment cannot be read or a record before the last segment's tail is corrupt
+     */
+    public long replay(Consumer<byte[]> consumer) {
+        try {
+            List<Path> segments = segments();
+            long records = 0;
+            long expected = -1;
+            for (int i = 0; i < segments.size(); i++) {
+                Path file = segments.get(i);
+                long first = firstSequence(file);
+                if (expected >= 0 && first != expected) {
+                    throw new IOException("Write-ahead log segment " + file.getFileName() + " starts at " + first
+                            + ", expected " + expected);
+                }
+                Scan scan = scan(file, first, consumer);
+                if (i < segments.size() - 1 && scan.end() < Files.size(file)) {
+                    throw new IOException("Corrupt record at byte " + scan.end() + " of write-ahead log segment "
+                            + file.getFileName());
+                }
+                records += scan.nextSequence() - first;
+                expected = scan.nextSequence();
+            }
+            return records;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to replay write-ahead log " + directory, e);
+        }
+    }
+
+    /**
+     * Queues a record.
+     *
+     * @param payload record content, at most 64 MB
+     * @return future completed once the record is durable as configured, or failed if it cannot be written
+     * @throws IllegalStateException if the log is closed or failed
+     */
+    public CompletableFuture<Void> append(byte[] payload) {
+        if (payload.length > MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Record of " + payload.length + " bytes exceeds " + MAX_RECORD_SIZE);
+        }
+        CompletableFuture<Void> done = enqueue(new Request(Kind.APPEND, payload, new CompletableFuture<>()))
+                .thenApply(sequence -> null);
+        return durability == Durability.ASYNC ? CompletableFuture.completedFuture(null) : done;
+    }
+
+    /**
+     * Forces the current segment and starts a new one, so that every record queued so far is in a closed segment.
+     *
+     * @return future completed with the sequence of the last record before the new segment
+     */
+    public CompletableFuture<Long> rollSegment() {
+        return enqueue(new Request(Kind.ROLL, null, new CompletableFuture<>()));
+    }
+
+    /**
+     * Deletes the closed segments whose records all have a sequence up to the given one.
+     *
+     * @param sequence sequence of the last record that is no longer needed
+     * @return number of deleted segments
+     */
+    public int deleteSegmentsThrough(long sequence) {
+        try {
+            List<Path> segments = segments();
+            int deleted = 0;
+            // the last segment is the one being written, it is never deleted
+            while (deleted + 1 < segments.size() && firstSequence(segments.get(deleted + 1)) - 1 <= sequence) {
+                Files.delete(segments.get(deleted++));
+            }
+            return deleted;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete write-ahead log segments of " + directory, e);
+        }
+    }
+
+    /**
+     * @return number of fsyncs since the log was opened
+     */
+    public long syncCount() {
+        return syncs.get();
+    }
+
+    /**
+     * @return durability of the appends
+     */
+    public Durability durability() {
+        return durability;
+    }
+
+    /**
+     * Writes and forces the queued records, then stops the writer thread. Later appends fail.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        queue.add(new Request(Kind.CLOSE, null, new CompletableFuture<>()));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<Long> enqueue(Request request) {
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log " + directory + " is closed");
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Write-ahead log " + directory + " failed", failure);
+        }
+        queue.add(request);
+        return request.done();
+    }
+
+    private void run() {
+        List<Request> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                Request first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+            } catch (InterruptedException e) {
+                // only close() stops the writer, which must drain the queue first
+                continue;
+            }
+            running = process(batch);
+            batch.clear();
+        }
+
+        // appends that passed the closed check while the log was closing
+        queue.drainTo(batch);
+        batch.forEach(request -> request.done().completeExceptionally(
+                new IllegalStateException("Write-ahead log " + directory + " is closed")));
+    }
+
+    /**
+     * @return false once the log is closed
+     */
+    private boolean process(List<Request> batch) {
+        List<Request> written = new ArrayList<>(batch.size());
+        long[] sequences = new long[batch.size()];
+        boolean open = true;
+        try {
+            if (failure != null) {
+                throw failure;
+            }
+            List<ByteBuffer> records = new ArrayList<>(batch.size());
+            for (Request request : batch) {
+                if (!open) {
+                    request.done().completeExceptionally(
+                            new IllegalStateException("Write-ahead log " + directory + " is closed"));
+                    continue;
+                }
+                switch (request.kind()) {
+                    case APPEND -> {
+                        sequences[written.size()] = nextSequence;
+                        records.add(encode(nextSequence++, request.payload()));
+                        written.add(request);
+                    }
+                    case ROLL -> {
+                        // the records queued before the roll end the current segment
+                        write(records);
+                        sync();
+                        roll();
+                        request.done().complete(nextSequence - 1);
+                    }
+                    case CLOSE -> {
+                        write(records);
+                        sync();
+                        segment.close();
+                        open = false;
+                        request.done().complete(nextSequence - 1);
+                    }
+                }
+            }
+            if (open) {
+                write(records);
+                if (durability == Durability.FSYNC) {
+                    sync();
+                }
+            }
+            for (int i = 0; i < written.size(); i++) {
+                written.get(i).done().complete(sequences[i]);
+            }
+            if (open) {
+                if (segmentSize >= segmentBytes) {
+                    sync();
+                    roll();
+                } else if (unsynced && System.nanoTime() - lastSync >= flushIntervalNanos) {
+                    sync();
+                }
+            }
+        } catch (Exception e) {
+            if (failure == null) {
+                failure = e;
+                log.error("Write-ahead log {} failed, later appends are rejected: {}", directory, e.getMessage());
+            }
+            for (Request request : batch) {
+                request.done().completeExceptionally(e);
+            }
+            open = batch.stream().noneMatch(request -> request.kind() == Kind.CLOSE);
+        }
+        return open;
+    }
+
+    private void write(List<ByteBuffer> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteBuffer[] buffers = records.toArray(ByteBuffer[]::new);
+        long remaining = records.stream().mapToLong(ByteBuffer::remaining).sum();
+        while (remaining > 0) {
+            remaining -= segment.write(buffers);
+        }
+        segmentSize += Stream.of(buffers).mapToLong(ByteBuffer::limit).sum();
+        unsynced = true;
+        records.clear();
+    }
+
+    private void sync() throws IOException {
+        if (unsynced) {
+            segment.force(false);
+            syncs.incrementAndGet();
+            unsynced = false;
+        }
+        lastSync = System.nanoTime();
+    }
+
+    private void roll() throws IOException {
+        segment.close();
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        Path file = directory.resolve(String.format("%020d%s", nextSequence, SEGMENT_EXTENSION));
+        segment = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        segmentSize = 0;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(SEGMENT_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length()));
+    }
+
+    private static ByteBuffer encode(long sequence, byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        record.putInt(payload.length).putInt(checksum(sequence, payload)).putLong(sequence).put(payload);
+        return record.flip();
+    }
+
+    private static int checksum(long sequence, byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(sequence).flip());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Reads the valid records of a segment, stopping at the first torn, corrupt or out-of-sequence one.
+     */
+    private static Scan scan(Path file, long firstSequence, Consumer<byte[]> consumer) throws IOException {
+        long end = 0;
+        long sequence = firstSequence;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            while (true) {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                long recordSequence = in.readLong();
+                if (length < 0 || length > MAX_RECORD_SIZE || recordSequence != sequence) {
+                    break;
+                }
+                byte[] payload = in.readNBytes(length);
+                if (payload.length < length || checksum(recordSequence, payload) != checksum) {
+                    break;
+                }
+                if (consumer != null) {
+                    consumer.accept(payload);
+                }
+                end += RECORD_HEADER_SIZE + length;
+                sequence++;
+            }
+        } catch (EOFException e) {
+            // torn record at the end of the segment
+        }
+        return new Scan(end, sequence);
+    }
+
+    private record Scan(long end, long nextSequence) {
+    }
+
+    private enum Kind {
+        APPEND, ROLL, CLOSE
+    }
+
+    /**
+     * Queued request for the writer thread; only appends have a payload.
+     */
+    private record Request(Kind kind, byte[] payload, CompletableFuture<Long> done) {
+    }
+}
@@ -1,16 +1,28 @@
 package dev.cryptorec.provider;
 
 import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.PriceData;
 import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.query.StatsQuery;
+import dev.cryptorec.provider.wal.Durability;
+import dev.cryptorec.provider.wal.WriteAheadLog;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.math.BigDecimal;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -95,5 +107,182 @@ class CsvDataProviderTest {
         assertNotNull(filteredPrices);
         assertTrue(filteredPrices.prices().isEmpty());
     }
-}
 
+    @Test
+    void testQueryStatsPrunesSymbolsByMetadata() {
+        CsvDataProvider spy = Mockito.spy(provider);
+        LocalDate from = LocalDate.of(2022, 1, 1);
+        LocalDate to = LocalDate.of(2022, 1, 31);
+
+        PaginatedResult<CryptoStats> result = spy.queryStats(0, 10, StatsQuery.of("max > 100", "max_asc"), from, to,
+                null);
+
+        assertEquals(List.of("LTC", "ETH", "BTC"), result.items().stream().map(CryptoStats::symbol).toList());
+        // DOGE and XRP never traded above 1 USD, their stats are not computed
+        Mockito.verify(spy, Mockito.never()).getCryptoStats(Mockito.eq("DOGE"), Mockito.any(), Mockito.any());
+        Mockito.verify(spy, Mockito.never()).getCryptoStats(Mockito.eq("XRP"), Mockito.any(), Mockito.any());
+
+        // a timeframe without data prunes every symbol
+        assertEquals(0, spy.queryStats(0, 10, StatsQuery.of("max > 0", null), LocalDate.of(2023, 1, 1),
+                LocalDate.of(2023, 1, 31), null).totalElements());
+    }
+
+    @Test
+    void testSymbolsWithoutDataAreSkippedBeforeReadingPrices() {
+        CsvDataProvider spy = Mockito.spy(provider);
+        // XRP has no price points from 2022-01-14 22:00 to 2022-01-17 04:00
+        LocalDate day = LocalDate.of(2022, 1, 16);
+
+        assertTrue(spy.tryGetCryptoStats("XRP", day, day).isEmpty());
+        assertTrue(spy.tryGetCryptoStats("BTC", LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31)).isEmpty());
+        Mockito.verify(spy, Mockito.never()).getCryptoPricesByTimeframe(Mockito.any(), Mockito.any(), Mockito.any());
+
+        assertThrows(ValidationException.class, () -> spy.getCryptoStats("XRP", day, day));
+        assertTrue(spy.tryGetCryptoStats("BTC", day, day).isPresent());
+
+        PaginatedResult<CryptoStats> result = spy.getPaginatedStats(0, 10, null, day, day, null);
+        assertFalse(result.items().stream().anyMatch(stats -> stats.symbol().equals("XRP")));
+        assertEquals(4, result.totalElements());
+    }
+
+    @Test
+    void testIngestionMergesOnCommit() {
+        CryptoPrice before = provider.getCryptoPrices("BTC");
+        PriceData first = before.prices().getFirst();
+        long version = provider.dataVersion();
+
+        try (PriceIngestion ingestion = provider.beginIngestion("btc")) {
+            ingestion.append(new PriceData(1700000000000L, new BigDecimal("37000")));
+            ingestion.append(new PriceData(first.timestamp(), new BigDecimal("1")));
+            ingestion.append(new PriceData(first.timestamp(), new BigDecimal("2")));
+            // not visible before the commit
+            assertSame(before, provider.getCryptoPrices("BTC"));
+
+            PriceIngestion.IngestResult result = ingestion.commit(false);
+
+            assertEquals(new PriceIngestion.IngestResult("BTC", 1, 1, before.prices().size() + 1, false), result);
+            assertThrows(IllegalStateException.class, () -> ingestion.append(first));
+        }
+
+        List<PriceData> after = provider.getCryptoPrices("BTC").prices();
+        assertEquals(new BigDecimal("2"), after.getFirst().price());
+        assertEquals(1700000000000L, after.getLast().timestamp());
+        assertEquals(1700000000000L, provider.getSymbolMetadata("BTC").orElseThrow().lastTimestamp());
+        assertEquals(version + 1, provider.dataVersion());
+        assertEquals(1, provider.symbolVersion("BTC"));
+        assertEquals(0, provider.symbolVersion("ETH"));
+    }
+
+    @Test
+    void testIngestionCreatesAndPersistsSymbol(@TempDir Path directory) throws Exception {
+        CsvDataProvider empty = new CsvDataProvider(directory.toString());
+
+        try (PriceIngestion ingestion = empty.beginIngestion("SOL")) {
+            ingestion.append(new PriceData(1641013200000L, new BigDecimal("170.10")));
+            ingestion.append(new PriceData(1641009600000L, new BigDecimal("169.5")));
+            ingestion.commit(true);
+        }
+        try (PriceIngestion discarded = empty.beginIngestion("SOL")) {
+            discarded.append(new PriceData(1641016800000L, new BigDecimal("1")));
+        }
+
+        assertTrue(empty.getAllCryptos().contains("SOL"));
+        assertEquals(2, empty.getCryptoPrices("SOL").prices().size());
+        assertEquals(List.of("timestamp,symbol,price", "1641009600000,SOL,169.5", "1641013200000,SOL,170.10"),
+                Files.readAllLines(directory.resolve("SOL_values.csv")));
+        assertEquals(empty.getCryptoPrices("SOL").prices(),
+                CsvPriceReader.read(CsvPriceReader.csvFile(directory, "SOL")));
+    }
+
+    @Test
+    void testLoggedIngestionsSurviveRestartUntilCheckpointed(@TempDir Path directory) throws Exception {
+        Path walDirectory = directory.resolve("wal");
+        Path csvDirectory = directory.resolve("csv");
+        CsvDataProvider provider = new CsvDataProvider(csvDirectory.toString(),
+                new WriteAheadLog(walDirectory, Durability.FSYNC, 1 << 20, Duration.ofMillis(10)));
+        try (PriceIngestion ingestion = provider.beginIngestion("SOL")) {
+            ingestion.append(new PriceData(1641009600000L, new BigDecimal("169.5")));
+            ingestion.commit(false);
+        }
+        try (PriceIngestion ingestion = provider.beginIngestion("SOL")) {
+            ingestion.append(new PriceData(1641009600000L, new BigDecimal("170.10")));
+            ingestion.append(new PriceData(1641013200000L, new BigDecimal("171")));
+            ingestion.commit(false);
+        }
+        List<PriceData> expected = provider.getCryptoPrices("SOL").prices();
+        assertFalse(Files.exists(CsvPriceReader.csvFile(csvDirectory, "SOL")));
+
+        // a restart without checkpoint replays the log
+        CsvDataProvider restarted = new CsvDataProvider(csvDirectory.toString(),
+                new WriteAheadLog(walDirectory, Durability.FSYNC, 1 << 20, Duration.ofMillis(10)));
+        assertEquals(expected, restarted.getCryptoPrices("SOL").prices());
+
+        assertEquals(1, restarted.checkpoint());
+        restarted.close();
+        assertEquals(expected, CsvPriceReader.read(CsvPriceReader.csvFile(csvDirectory, "SOL")));
+        try (var segments = Files.list(walDirectory)) {
+            assertEquals(1, segments.count());
+        }
+
+        // after the checkpoint the series comes from its CSV file
+        try (CsvDataProvider checkpointed = new CsvDataProvider(csvDirectory.toString(),
+                new WriteAheadLog(walDirectory, Durability.FSYNC, 1 << 20, Duration.ofMillis(10)))) {
+            assertEquals(expected, checkpointed.getCryptoPrices("SOL").prices());
+            assertEquals(0, checkpointed.checkpoint());
+        }
+    }
+
+    @Test
+    void testIngestionRejectedByLogLeavesSeriesUnchanged(@TempDir Path directory) {
+        WriteAheadLog wal = new WriteAheadLog(directory.resolve("wal"), Durability.FSYNC, 1 << 20,
+                Duration.ofMillis(10));
+        CsvDataProvider provider = new CsvDataProvider(directory.resolve("csv").toString(), wal);
+        try (PriceIngestion ingestion = provider.beginIngestion("SOL")) {
+            ingestion.append(new PriceData(1641009600000L, new BigDecimal("169.5")));
+            ingestion.commit(false);
+        }
+        List<PriceData> before = provider.getCryptoPrices("SOL").prices();
+        long version = provider.dataVersion();
+
+        wal.close();
+        try (PriceIngestion ingestion = provider.beginIngestion("SOL")) {
+            ingestion.append(new PriceData(1641009600000L, new BigDecimal("1")));
+            ingestion.append(new PriceData(1641013200000L, new BigDecimal("171")));
+            assertThrows(IllegalStateException.class, () -> ingestion.commit(true));
+        }
+
+        assertEquals(before, provider.getCryptoPrices("SOL").prices());
+        assertEquals(version, provider.dataVersion());
+        assertEquals(1, provider.symbolVersion("SOL"));
+        assertFalse(Files.exists(CsvPriceReader.csvFile(directory.resolve("csv"), "SOL")));
+    }
+
+    @Test
+    void testConcurrentLoggedIngestionsReplayToTheSameSeries(@TempDir Path directory) throws Exception {
+        Path walDirectory = directory.resolve("wal");
+        Path csvDirectory = directory.resolve("csv");
+        CsvDataProvider provider = new CsvDataProvider(csvDirectory.toString(),
+                new WriteAheadLog(walDirectory, Durability.WRITE, 1 << 20, Duration.ofMillis(10)));
+
+        // every commit replaces the same point, so only applying in log order replays to the same price
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 200; i++) {
+                BigDecimal price = BigDecimal.valueOf(i + 1);
+                executor.execute(() -> {
+                    try (PriceIngestion ingestion = provider.beginIngestion("SOL")) {
+                        ingestion.append(new PriceData(1641009600000L, price));
+                        ingestion.commit(false);
+                    }
+                });
+            }
+        }
+        List<PriceData> expected = provider.getCryptoPrices("SOL").prices();
+        assertEquals(200, provider.symbolVersion("SOL"));
+
+        CsvDataProvider restarted = new CsvDataProvider(csvDirectory.toString(),
+                new WriteAheadLog(walDirectory, Durability.WRITE, 1 << 20, Duration.ofMillis(10)));
+        assertEquals(expected, restarted.getCryptoPrices("SOL").prices());
+        restarted.close();
+        provider.close();
+    }
+}
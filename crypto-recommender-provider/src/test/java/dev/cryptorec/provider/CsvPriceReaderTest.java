@@ -0,0 +1,95 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvPriceReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<PriceData> parse(String csv) {
+        List<PriceData> prices = new ArrayList<>();
+        long rows = CsvPriceReader.parse(new StringReader(csv), "BTC", prices::add);
+        assertEquals(prices.size(), rows);
+        return prices;
+    }
+
+    @Test
+    void testParsesRowsInFileOrder() {
+        assertEquals(List.of(new PriceData(1641013200000L, new BigDecimal("46979.61")),
+                        new PriceData(1641009600000L, new BigDecimal("46813.21"))),
+                parse("timestamp,symbol,price\n1641013200000,BTC,46979.61\n\n1641009600000, btc ,46813.21\n"));
+        // the symbol column is optional, columns are matched by name
+        assertEquals(List.of(new PriceData(1641009600000L, new BigDecimal("1.5"))),
+                parse("price,timestamp\n1.5,1641009600000\n"));
+    }
+
+    @Test
+    void testRejectsInvalidRowsNamingTheLine() {
+        assertEquals("Line 3: timestamp and price must be numbers", assertThrows(ValidationException.class,
+                () -> parse("timestamp,symbol,price\n1641009600000,BTC,1\n1641013200000,BTC,abc\n")).getMessage());
+        assertEquals("Line 4: timestamp and price must be numbers", assertThrows(ValidationException.class,
+                () -> parse("timestamp,symbol,price\n\n1641009600000,BTC,1\n-,BTC,2")).getMessage());
+        assertEquals("Line 2: symbol ETH is not BTC", assertThrows(ValidationException.class,
+                () -> parse("timestamp,symbol,price\n1641009600000,ETH,1\n")).getMessage());
+        assertEquals("Line 2: expected 3 columns, got 2", assertThrows(ValidationException.class,
+                () -> parse("timestamp,symbol,price\n1641009600000,BTC\n")).getMessage());
+        assertThrows(ValidationException.class, () -> parse("timestamp,symbol,price\n1641009600000,BTC,0\n"));
+        assertThrows(ValidationException.class, () -> parse("time,value\n1641009600000,1\n"));
+    }
+
+    private Path writeCsv(int rows, boolean sorted) throws IOException {
+        Random random = new Random(42);
+        StringBuilder csv = new StringBuilder("timestamp,symbol,price\r\n");
+        for (int i = 0; i < rows; i++) {
+            long timestamp = 1641009600000L + (sorted ? i : random.nextInt(rows)) * 60_000L;
+            String price = i % 3 == 0 ? String.valueOf(1 + random.nextInt(50_000))
+                    : (random.nextInt(50_000) + "." + String.format("%05d", 1 + random.nextInt(99_999)));
+            csv.append(timestamp).append(",BTC,").append(price).append(i % 7 == 0 ? "\r\n" : "\n");
+            if (i % 101 == 0) {
+                csv.append('\n');
+            }
+        }
+        return Files.writeString(tempDir.resolve("BTC_values.csv"), csv);
+    }
+
+    @Test
+    void testParallelChunksMatchSequentialRead() throws IOException {
+        for (boolean sorted : new boolean[]{true, false}) {
+            Path file = writeCsv(20_000, sorted);
+            List<PriceData> sequential = CsvPriceReader.read(file, Long.MAX_VALUE, 1);
+            for (int chunks : new int[]{2, 7, 64}) {
+                List<PriceData> chunked = CsvChunkParser.read(file, chunks).orElseThrow();
+                assertEquals(sequential, chunked, "sorted=" + sorted + ", chunks=" + chunks);
+                assertEquals(sequential, CsvPriceReader.read(file, 0, chunks));
+            }
+        }
+    }
+
+    @Test
+    void testChunkedReadFallsBackOnFilesItCannotParse() throws IOException {
+        Path quoted = Files.writeString(tempDir.resolve("ETH_values.csv"),
+                "timestamp,symbol,price\n1641009600000,\"ETH\",1E+2\n1641013200000,ETH,3.5\n");
+        assertTrue(CsvChunkParser.read(quoted, 2).isEmpty());
+        assertEquals(List.of(new PriceData(1641009600000L, new BigDecimal("1E+2")),
+                new PriceData(1641013200000L, new BigDecimal("3.5"))), CsvPriceReader.read(quoted, 0, 2));
+
+        Path malformed = Files.writeString(tempDir.resolve("XRP_values.csv"),
+                "timestamp,symbol,price\n1641009600000,XRP,0.8\nabc,XRP,0.9\n");
+        assertThrows(NumberFormatException.class, () -> CsvPriceReader.read(malformed, 0, 2));
+    }
+}
@@ -0,0 +1,126 @@
+package dev.cryptorec.provider;
+
+import dev.cryptorec.model.PriceData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExternalPriceSorterTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Collects the points it receives, checking their order.
+     */
+    private static class CollectingSink implements SortedPriceSink {
+        final List<PriceData> points = new ArrayList<>();
+        int resets;
+
+        @Override
+        public void accept(long timestamp, BigDecimal price) {
+            assertTrue(points.isEmpty() || points.getLast().timestamp() < timestamp);
+            points.add(new PriceData(timestamp, price));
+        }
+
+        @Override
+        public void reset() {
+            points.clear();
+            resets++;
+        }
+    }
+
+    private Path writeCsv(List<PriceData> rows) throws IOException {
+        StringBuilder csv = new StringBuilder("timestamp,symbol,price\n");
+        for (PriceData row : rows) {
+            csv.append(row.timestamp()).append(",BTC,").append(row.price().toPlainString()).append('\n');
+        }
+        return Files.writeString(directory.resolve("BTC_values.csv"), csv);
+    }
+
+    private static List<PriceData> lastPerTimestamp(List<PriceData> rows) {
+        Map<Long, PriceData> last = new TreeMap<>();
+        rows.forEach(row -> last.put(row.timestamp(), row));
+        return List.copyOf(last.values());
+    }
+
+    private List<String> tempFiles() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.map(f -> f.getFileName().toString()).filter(name -> name.startsWith("sort-run-")).toList();
+        }
+    }
+
+    @Test
+    void testSortedFileIsStreamedWithoutSpilling() throws IOException {
+        List<PriceData> rows = List.of(new PriceData(1L, new BigDecimal("1.5")),
+                new PriceData(2L, new BigDecimal("2")), new PriceData(2L, new BigDecimal("2.25")),
+                new PriceData(3L, new BigDecimal("0.001")));
+        CollectingSink sink = new CollectingSink();
+
+        ExternalPriceSorter.Result result = new ExternalPriceSorter(directory, 2).sort(writeCsv(rows), sink);
+
+        assertEquals(new ExternalPriceSorter.Result(4, 3, 0, true), result);
+        assertEquals(lastPerTimestamp(rows), sink.points);
+        assertEquals(0, sink.resets);
+    }
+
+    @Test
+    void testUnsortedFileIsMergedFromSpilledRuns() throws IOException {
+        Random random = new Random(7);
+        List<PriceData> rows = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            rows.add(new PriceData(random.nextInt(600), BigDecimal.valueOf(1 + random.nextInt(100_000), 3)));
+        }
+        Path csvFile = writeCsv(rows);
+
+        // 100 runs merged 4 at a time take several passes
+        CollectingSink sink = new CollectingSink();
+        ExternalPriceSorter.Result result = new ExternalPriceSorter(directory, 10, 4).sort(csvFile, sink);
+
+        assertEquals(lastPerTimestamp(rows), sink.points);
+        assertEquals(1, sink.resets);
+        assertEquals(1000, result.rows());
+        assertEquals(sink.points.size(), result.points());
+        assertFalse(result.presorted());
+        assertTrue(result.runs() > 100, "runs: " + result.runs());
+        assertEquals(List.of(), tempFiles());
+
+        // a file fitting one run is sorted in memory
+        CollectingSink inMemory = new CollectingSink();
+        assertEquals(0, new ExternalPriceSorter(directory, 1000).sort(csvFile, inMemory).runs());
+        assertEquals(sink.points, inMemory.points);
+    }
+
+    @Test
+    void testSpilledRunsAreDeletedWhenTheSinkFails() throws IOException {
+        List<PriceData> rows = new ArrayList<>();
+        for (int i = 20; i > 0; i--) {
+            rows.add(new PriceData(i, BigDecimal.ONE));
+        }
+        Path csvFile = writeCsv(rows);
+        SortedPriceSink failing = new CollectingSink() {
+            @Override
+            public void accept(long timestamp, BigDecimal price) {
+                if (timestamp == 5) {
+                    throw new IllegalArgumentException("full");
+                }
+                super.accept(timestamp, price);
+            }
+        };
+
+        assertThrows(IllegalArgumentException.class, () -> new ExternalPriceSorter(directory, 3).sort(csvFile, failing));
+        assertEquals(List.of(), tempFiles());
+        assertThrows(IllegalArgumentException.class, () -> new ExternalPriceSorter(directory, 0));
+    }
+}
@@ -0,0 +1,105 @@
+package dev.cryptorec.provider.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.cryptorec.provider.CsvDataProvider;
+import dev.cryptorec.provider.DataProvider;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the embedded SQL provider with the in-memory CSV provider on a synthetic data set.
+ * <p>
+ * Run with: mvn -pl crypto-recommender-provider test -Pbenchmark -Dbench.rows=100000000
+ * (default is 5M rows so the benchmark finishes in a couple of minutes; the in-memory provider is
+ * expected to fail with OutOfMemoryError well before 100M rows on a default heap).
+ */
+@Tag("benchmark")
+class JdbcDataProviderBenchmarkTest {
+
+    private static final List<String> SYMBOLS = List.of("BTC", "ETH", "LTC", "DOGE", "XRP");
+    private static final long MINUTE = 60_000L;
+    private static final LocalDate END = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void benchmarkJdbcVersusInMemory() throws Exception {
+        long rows = Long.getLong("bench.rows", 5_000_000L);
+        Path csvDir = Files.createDirectories(workDir.resolve("csv"));
+
+        long started = System.nanoTime();
+        generate(csvDir, rows);
+        report("generate csv", rows, started);
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:file:" + workDir.resolve("db/prices").toAbsolutePath());
+        config.setMaximumPoolSize(4);
+
+        try (HikariDataSource dataSource = new HikariDataSource(config)) {
+            JdbcDataProvider jdbc = new JdbcDataProvider(dataSource);
+
+            started = System.nanoTime();
+            new CsvBulkImporter(dataSource).importDirectory(csvDir, false);
+            report("jdbc import", rows, started);
+
+            queries("jdbc", jdbc);
+        }
+
+        try {
+            started = System.nanoTime();
+            CsvDataProvider inMemory = new CsvDataProvider(csvDir.toString());
+            report("in-memory load", rows, started);
+            queries("in-memory", inMemory);
+        } catch (OutOfMemoryError e) {
+            System.out.printf("in-memory provider does not fit in heap (%d MB max): %s%n",
+                    Runtime.getRuntime().maxMemory() / (1024 * 1024), e.getMessage());
+        }
+    }
+
+    private void queries(String name, DataProvider provider) {
+        for (int months : new int[]{1, 12, 60}) {
+            LocalDate from = END.minusMonths(months);
+            // first call warms up, second is measured
+            provider.getPaginatedStats(0, 50, "normalizedRange_desc", from, END, months);
+
+            long started = System.nanoTime();
+            provider.getPaginatedStats(0, 50, "normalizedRange_desc", from, END, months);
+            System.out.printf("%-10s getPaginatedStats %2d months: %8.2f ms%n", name, months,
+                    (System.nanoTime() - started) / 1e6);
+        }
+    }
+
+    private static void generate(Path csvDir, long rows) throws IOException {
+        long perSymbol = rows / SYMBOLS.size();
+        long endMillis = END.atStartOfDay().toEpochSecond(java.time.ZoneOffset.UTC) * 1000;
+        Random random = new Random(42);
+
+        for (String symbol : SYMBOLS) {
+            double price = 100 + random.nextDouble() * 1000;
+            try (BufferedWriter writer = Files.newBufferedWriter(csvDir.resolve(symbol + "_values.csv"))) {
+                writer.write("timestamp,symbol,price\n");
+                long ts = endMillis - perSymbol * MINUTE;
+                for (long i = 0; i < perSymbol; i++, ts += MINUTE) {
+                    price = Math.max(0.01, price * (1 + (random.nextGaussian() * 0.001)));
+                    writer.write(ts + "," + symbol + "," + String.format("%.2f", price) + "\n");
+                }
+            }
+        }
+    }
+
+    private static void report(String step, long rows, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        System.out.printf("%-20s %,d rows in %.2f s (%,.0f rows/s)%n", step, rows, seconds, rows / seconds);
+    }
+}
@@ -0,0 +1,130 @@
+package dev.cryptorec.provider.jdbc;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.CsvDataProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcDataProviderTest {
+
+    private HikariDataSource dataSource;
+    private JdbcDataProvider provider;
+    private CsvDataProvider csvProvider;
+
+    @BeforeEach
+    void setup() {
+        Path pricesDir = Paths.get("").toAbsolutePath();
+        while (!Files.exists(pricesDir.resolve("prices")) && pricesDir.getParent() != null) {
+            pricesDir = pricesDir.getParent();
+        }
+        pricesDir = pricesDir.resolve("prices");
+
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(2);
+        dataSource = new HikariDataSource(config);
+
+        provider = new JdbcDataProvider(dataSource);
+        new CsvBulkImporter(dataSource, 50).importDirectory(pricesDir, false);
+        csvProvider = new CsvDataProvider(pricesDir.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        provider.close();
+    }
+
+    @Test
+    void testGetAllCryptos() {
+        List<String> cryptos = provider.getAllCryptos();
+
+        assertEquals(List.of("BTC", "DOGE", "ETH", "LTC", "XRP"), cryptos);
+    }
+
+    @Test
+    void testGetCryptoPricesMatchesCsv() {
+        CryptoPrice jdbcPrices = provider.getCryptoPrices("btc");
+        CryptoPrice csvPrices = csvProvider.getCryptoPrices("BTC");
+
+        assertEquals("BTC", jdbcPrices.symbol());
+        assertEquals(csvPrices.prices().size(), jdbcPrices.prices().size());
+        for (int i = 0; i < csvPrices.prices().size(); i++) {
+            assertEquals(csvPrices.prices().get(i).timestamp(), jdbcPrices.prices().get(i).timestamp());
+            assertEquals(0, csvPrices.prices().get(i).price().compareTo(jdbcPrices.prices().get(i).price()));
+        }
+    }
+
+    @Test
+    void testGetCryptoStatsMatchesInMemoryCalculation() {
+        LocalDate from = LocalDate.of(2022, 1, 5);
+        LocalDate to = LocalDate.of(2022, 1, 20);
+
+        for (String symbol : provider.getAllCryptos()) {
+            CryptoStats expected = csvProvider.getCryptoStats(symbol, from, to);
+            CryptoStats actual = provider.getCryptoStats(symbol, from, to);
+
+            assertEquals(expected.symbol(), actual.symbol());
+            assertEquals(0, expected.normalizedRange().compareTo(actual.normalizedRange()));
+            assertEquals(expected.min().timestamp(), actual.min().timestamp());
+            assertEquals(expected.max().timestamp(), actual.max().timestamp());
+            assertEquals(expected.oldest().timestamp(), actual.oldest().timestamp());
+            assertEquals(expected.newest().timestamp(), actual.newest().timestamp());
+            assertEquals(0, expected.newest().price().compareTo(actual.newest().price()));
+        }
+    }
+
+    @Test
+    void testGetCryptoStatsEmptyTimeframe() {
+        assertThrows(ValidationException.class,
+                () -> provider.getCryptoStats("BTC", LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 31)));
+    }
+
+    @Test
+    void testGetCryptoPricesNotFound() {
+        assertThrows(CryptoNotFoundException.class, () -> provider.getCryptoPrices("NONEXISTENT"));
+    }
+
+    @Test
+    void testGetPaginatedStatsMatchesCsv() {
+        LocalDate from = LocalDate.of(2022, 1, 1);
+        LocalDate to = LocalDate.of(2022, 1, 31);
+
+        PaginatedResult<CryptoStats> expected = csvProvider.getPaginatedStats(0, 3, "normalizedRange_desc", from, to, null);
+        PaginatedResult<CryptoStats> actual = provider.getPaginatedStats(0, 3, "normalizedRange_desc", from, to, null);
+
+        assertEquals(expected.totalElements(), actual.totalElements());
+        assertEquals(expected.totalPages(), actual.totalPages());
+        assertEquals(expected.items().stream().map(CryptoStats::symbol).toList(),
+                actual.items().stream().map(CryptoStats::symbol).toList());
+    }
+
+    @Test
+    void testFailedReimportKeepsPreviousRows(@TempDir Path tempDir) throws Exception {
+        int before = provider.getCryptoPrices("BTC").prices().size();
+        Path broken = tempDir.resolve("BTC_values.csv");
+        Files.writeString(broken, "timestamp,symbol,price\n" + "1641009600000,BTC,46813.21\n".repeat(120)
+                + "not-a-timestamp,BTC,1\n");
+
+        assertThrows(NumberFormatException.class, () -> new CsvBulkImporter(dataSource, 50).importFile("BTC", broken));
+
+        assertEquals(before, provider.getCryptoPrices("BTC").prices().size());
+        assertEquals(List.of("BTC", "DOGE", "ETH", "LTC", "XRP"), provider.getAllCryptos());
+    }
+}
@@ -0,0 +1,85 @@
+package dev.cryptorec.provider.lazy;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.provider.CsvDataProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LazyCsvDataProviderTest {
+
+    // 2022-01-01T00:00:00Z, hourly prices
+    private static final long START = 1640995200000L;
+    private static final long STEP = 60 * 60 * 1000L;
+    private static final int ROWS = 24 * 31;
+    private static final List<String> SYMBOLS = List.of("BTC", "DOGE", "ETH", "LTC", "XRP");
+
+    @TempDir
+    Path csvDir;
+
+    @BeforeEach
+    void setup() throws IOException {
+        for (String symbol : SYMBOLS) {
+            try (Writer writer = Files.newBufferedWriter(csvDir.resolve(symbol + "_values.csv"))) {
+                writer.write("timestamp,symbol,price\n");
+                for (int i = 0; i < ROWS; i++) {
+                    writer.write((START + i * STEP) + "," + symbol + "," + (symbol.length() * 100 + i % 50) + ".5\n");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testListsSymbolsWithoutLoading() {
+        LazyCsvDataProvider provider = new LazyCsvDataProvider(csvDir, Long.MAX_VALUE);
+
+        assertEquals(SYMBOLS, provider.getAllCryptos());
+        assertEquals(0, provider.cache().loads());
+    }
+
+    @Test
+    void testMatchesEagerProvider() {
+        LazyCsvDataProvider provider = new LazyCsvDataProvider(csvDir, Long.MAX_VALUE);
+        CsvDataProvider eager = new CsvDataProvider(csvDir.toString());
+        LocalDate from = LocalDate.of(2022, 1, 10);
+        LocalDate to = LocalDate.of(2022, 1, 20);
+
+        for (String symbol : SYMBOLS) {
+            assertEquals(eager.getCryptoPrices(symbol), provider.getCryptoPrices(symbol.toLowerCase()));
+            CryptoStats expected = eager.getCryptoStats(symbol, from, to);
+            assertEquals(expected, provider.getCryptoStats(symbol, from, to));
+        }
+    }
+
+    @Test
+    void testEvictsUnderMemoryBudget() {
+        long seriesBytes = SymbolCache.BYTES_PER_SERIES + ROWS * SymbolCache.BYTES_PER_PRICE_POINT;
+        LazyCsvDataProvider provider = new LazyCsvDataProvider(csvDir, 2 * seriesBytes);
+
+        provider.getPaginatedStats(0, 10, "normalizedRange_desc", LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 1, 31), null);
+
+        assertEquals(SYMBOLS.size(), provider.cache().loads());
+        assertEquals(2, provider.cache().size());
+        assertTrue(provider.cache().usedBytes() <= 2 * seriesBytes);
+        assertEquals(SYMBOLS, provider.getAllCryptos());
+    }
+
+    @Test
+    void testUnknownSymbolThrowsNotFound() {
+        LazyCsvDataProvider provider = new LazyCsvDataProvider(csvDir, Long.MAX_VALUE);
+
+        assertThrows(CryptoNotFoundException.class, () -> provider.getCryptoPrices("ADA"));
+        assertEquals(0, provider.cache().loads());
+    }
+}
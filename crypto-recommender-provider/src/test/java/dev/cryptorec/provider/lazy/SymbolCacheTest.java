@@ -0,0 +1,120 @@
+package dev.cryptorec.provider.lazy;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.PriceData;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolCacheTest {
+
+    private static final int POINTS = 100;
+    private static final long SERIES_BYTES = SymbolCache.BYTES_PER_SERIES + POINTS * SymbolCache.BYTES_PER_PRICE_POINT;
+
+    private static CryptoPrice series(String symbol) {
+        List<PriceData> prices = new ArrayList<>();
+        for (int i = 0; i < POINTS; i++) {
+            prices.add(new PriceData(i, BigDecimal.valueOf(i + 1)));
+        }
+        return new CryptoPrice(symbol, prices);
+    }
+
+    @Test
+    void testLoadsOnFirstAccessOnly() {
+        AtomicInteger loads = new AtomicInteger();
+        SymbolCache cache = new SymbolCache(10 * SERIES_BYTES, symbol -> {
+            loads.incrementAndGet();
+            return series(symbol);
+        });
+
+        assertSame(cache.get("BTC"), cache.get("BTC"));
+        assertEquals(1, loads.get());
+        assertEquals(SERIES_BYTES, cache.usedBytes());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsedOverBudget() {
+        SymbolCache cache = new SymbolCache(2 * SERIES_BYTES, SymbolCacheTest::series);
+
+        cache.get("BTC");
+        cache.get("ETH");
+        cache.get("BTC"); // ETH is now least recently used
+        cache.get("XRP");
+
+        assertTrue(cache.contains("BTC"));
+        assertFalse(cache.contains("ETH"));
+        assertTrue(cache.contains("XRP"));
+        assertEquals(1, cache.evictions());
+        assertEquals(2 * SERIES_BYTES, cache.usedBytes());
+    }
+
+    @Test
+    void testKeepsSeriesLargerThanBudget() {
+        SymbolCache cache = new SymbolCache(1, SymbolCacheTest::series);
+
+        cache.get("BTC");
+        cache.get("ETH");
+
+        assertEquals(1, cache.size());
+        assertTrue(cache.contains("ETH"));
+    }
+
+    @Test
+    void testDeduplicatesConcurrentMisses() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        SymbolCache cache = new SymbolCache(10 * SERIES_BYTES, symbol -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return series(symbol);
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<CryptoPrice>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("BTC")));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get("BTC")));
+            }
+            Thread.sleep(50);
+            release.countDown();
+
+            CryptoPrice first = results.getFirst().get();
+            for (Future<CryptoPrice> result : results) {
+                assertSame(first, result.get());
+            }
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testFailedLoadIsNotCached() {
+        AtomicInteger attempts = new AtomicInteger();
+        SymbolCache cache = new SymbolCache(10 * SERIES_BYTES, symbol -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException("disk error");
+            }
+            return series(symbol);
+        });
+
+        assertThrows(IllegalStateException.class, () -> cache.get("BTC"));
+        assertNotNull(cache.get("BTC"));
+        assertEquals(2, attempts.get());
+    }
+}
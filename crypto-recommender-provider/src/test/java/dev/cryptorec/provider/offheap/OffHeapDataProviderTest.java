@@ -0,0 +1,79 @@
+package dev.cryptorec.provider.offheap;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.provider.CsvDataProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapDataProviderTest {
+
+    private static final Path PRICES = Path.of("../prices");
+    private static final LocalDate FROM = LocalDate.of(2022, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2022, 1, 31);
+
+    @TempDir
+    Path columnDir;
+
+    @Test
+    void testStatsMatchTheHeapProvider() {
+        CsvDataProvider heap = new CsvDataProvider(PRICES.toString());
+
+        try (OffHeapDataProvider offHeap = new OffHeapDataProvider(PRICES, null)) {
+            assertEquals(List.of("BTC", "DOGE", "ETH", "LTC", "XRP"), offHeap.getAllCryptos());
+            assertTrue(offHeap.offHeapBytes() > 0);
+
+            for (String symbol : offHeap.getAllCryptos()) {
+                assertEquals(heap.getCryptoStats(symbol, FROM, TO), offHeap.getCryptoStats(symbol, FROM, TO), symbol);
+                LocalDate week = LocalDate.of(2022, 1, 10);
+                assertEquals(heap.getCryptoStats(symbol, week, week.plusDays(6)),
+                        offHeap.getCryptoStats(symbol, week, week.plusDays(6)), symbol);
+                assertEquals(heap.getCryptoPrices(symbol), offHeap.getCryptoPrices(symbol.toLowerCase()));
+                assertEquals(heap.getCryptoPricesByTimeframe(symbol, week, week.plusDays(6)),
+                        offHeap.getCryptoPricesByTimeframe(symbol.toLowerCase(), week, week.plusDays(6)));
+                assertEquals(heap.getSymbolMetadata(symbol), offHeap.getSymbolMetadata(symbol));
+            }
+
+            PaginatedResult<CryptoStats> page = offHeap.getPaginatedStats(0, 2, "normalizedRange_desc", FROM, TO, null);
+            assertEquals(heap.getPaginatedStats(0, 2, "normalizedRange_desc", FROM, TO, null), page);
+            assertTrue(offHeap.tryGetCryptoStats("BTC", LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31))
+                    .isEmpty());
+            assertThrows(CryptoNotFoundException.class, () -> offHeap.getCryptoPrices("NOPE"));
+        }
+    }
+
+    @Test
+    void testMapsColumnFilesWrittenOnFirstStart() throws Exception {
+        CryptoStats expected;
+        try (OffHeapDataProvider first = new OffHeapDataProvider(PRICES, columnDir)) {
+            expected = first.getCryptoStats("ETH", FROM, TO);
+        }
+        Path columnFile = columnDir.resolve("ETH.col");
+        assertTrue(Files.exists(columnFile));
+
+        // an up-to-date column file is mapped, not rewritten
+        FileTime written = FileTime.fromMillis(System.currentTimeMillis() + 60_000);
+        Files.setLastModifiedTime(columnFile, written);
+        try (OffHeapDataProvider second = new OffHeapDataProvider(PRICES, columnDir)) {
+            assertEquals(expected, second.getCryptoStats("ETH", FROM, TO));
+        }
+        assertEquals(written, Files.getLastModifiedTime(columnFile));
+    }
+
+    @Test
+    void testClosedProviderFailsInsteadOfReadingFreedMemory() {
+        OffHeapDataProvider provider = new OffHeapDataProvider(PRICES, null);
+        provider.close();
+
+        assertThrows(IllegalStateException.class, () -> provider.getCryptoStats("BTC", FROM, TO));
+    }
+}
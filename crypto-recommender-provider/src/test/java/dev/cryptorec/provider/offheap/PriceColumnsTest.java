@@ -0,0 +1,118 @@
+package dev.cryptorec.provider.offheap;
+
+import dev.cryptorec.model.PriceAggregate;
+import dev.cryptorec.model.PriceData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceColumnsTest {
+
+    // mixed scales, a tie on the min and a price with trailing zeros
+    private static final List<PriceData> PRICES = List.of(
+            new PriceData(1641009600000L, new BigDecimal("46813.21")),
+            new PriceData(1641013200000L, new BigDecimal("0.1702")),
+            new PriceData(1641016800000L, new BigDecimal("47000")),
+            new PriceData(1641020400000L, new BigDecimal("0.17020")),
+            new PriceData(1641024000000L, new BigDecimal("1.5")));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testAllocatedColumnsReturnExactPoints() {
+        try (Arena arena = Arena.ofConfined()) {
+            PriceColumns columns = PriceColumns.allocate(PRICES, arena);
+
+            assertEquals(PRICES.size(), columns.size());
+            for (int i = 0; i < PRICES.size(); i++) {
+                assertEquals(PRICES.get(i), columns.point(i));
+                assertEquals(PRICES.get(i).price().doubleValue(), columns.priceAsDouble(i));
+            }
+            assertEquals(0, columns.comparePrices(1, 3));
+            assertEquals(PriceAggregate.of(PRICES), PriceAggregate.of(columns, 0, columns.size()));
+            assertEquals(2, columns.lowerBound(1641013200001L));
+            assertEquals(5, columns.lowerBound(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    void testViewsAreReadOnlyAndBoundsChecked() {
+        try (Arena arena = Arena.ofConfined()) {
+            PriceColumns columns = PriceColumns.allocate(PRICES, arena);
+
+            assertTrue(columns.timestamps().isReadOnly());
+            assertThrows(UnsupportedOperationException.class,
+                    () -> columns.timestamps().setAtIndex(PriceColumns.LONG, 0, 0L));
+            assertThrows(IndexOutOfBoundsException.class, () -> columns.timestamp(PRICES.size()));
+        }
+    }
+
+    @Test
+    void testMappedColumnFile() throws IOException {
+        Path file = directory.resolve("BTC.col");
+        PriceColumns.write(file, PRICES);
+
+        try (Arena arena = Arena.ofConfined()) {
+            PriceColumns columns = PriceColumns.map(file, arena);
+
+            assertEquals(Files.size(file) - 16, columns.byteSize());
+            assertEquals(PriceAggregate.of(PRICES), PriceAggregate.of(columns, 0, columns.size()));
+        }
+
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        try (Arena arena = Arena.ofConfined()) {
+            assertThrows(IOException.class, () -> PriceColumns.map(file, arena));
+        }
+    }
+
+    @Test
+    void testStreamedColumnFileMatchesWrittenOne() throws IOException {
+        Path written = directory.resolve("BTC.col");
+        Path streamed = directory.resolve("ETH.col");
+        PriceColumns.write(written, PRICES);
+
+        try (PriceColumns.Writer writer = PriceColumns.writer(streamed)) {
+            writer.accept(1L, new BigDecimal("99.999"));
+            writer.reset();
+            for (PriceData point : PRICES) {
+                writer.accept(point.timestamp(), point.price());
+            }
+            assertEquals(PRICES.size(), writer.commit());
+        }
+        assertArrayEquals(Files.readAllBytes(written), Files.readAllBytes(streamed));
+        try (var files = Files.list(directory)) {
+            assertEquals(List.of("BTC.col", "ETH.col"), files.map(f -> f.getFileName().toString()).sorted().toList());
+        }
+
+        // prices not fitting the series scale fail on commit and leave no file behind
+        Path failed = directory.resolve("XRP.col");
+        try (PriceColumns.Writer writer = PriceColumns.writer(failed)) {
+            writer.accept(1L, new BigDecimal("0.000000000000000001"));
+            writer.accept(2L, new BigDecimal("100"));
+            assertThrows(IllegalArgumentException.class, writer::commit);
+        }
+        assertFalse(Files.exists(failed));
+        assertFalse(Files.exists(directory.resolve("XRP.col.tmp")));
+    }
+
+    @Test
+    void testRejectsUnsupportedPrices() {
+        try (Arena arena = Arena.ofConfined()) {
+            List<PriceData> tooPrecise = List.of(new PriceData(1L, new BigDecimal("0.0000000000000000001")));
+            assertThrows(IllegalArgumentException.class, () -> PriceColumns.allocate(tooPrecise, arena));
+
+            List<PriceData> tooLarge = List.of(new PriceData(1L, new BigDecimal("0.000000000000000001")),
+                    new PriceData(2L, new BigDecimal("100")));
+            assertThrows(IllegalArgumentException.class, () -> PriceColumns.allocate(tooLarge, arena));
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package dev.cryptorec.provider.query;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.SymbolMetadata;
+import dev.cryptorec.model.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryCompilerTest {
+
+    private static final LocalDate DAY = LocalDate.of(2022, 1, 1);
+
+    private static CryptoStats stats(String symbol, String min, String max) {
+        PriceData low = new PriceData(1641009600000L, new BigDecimal(min));
+        PriceData high = new PriceData(1641096000000L, new BigDecimal(max));
+        BigDecimal range = high.price().subtract(low.price()).divide(low.price(), 4, java.math.RoundingMode.HALF_UP);
+        return new CryptoStats(symbol, range, low, high, low, high, DAY, DAY);
+    }
+
+    private static SymbolMetadata metadata(String symbol, String min, String max) {
+        return SymbolMetadata.of(new CryptoPrice(symbol, List.of(
+                new PriceData(1641009600000L, new BigDecimal(min)),
+                new PriceData(1641096000000L, new BigDecimal(max)))));
+    }
+
+    @Test
+    void testBlankFilterAcceptsEverything() {
+        assertSame(StatsFilter.ALL, QueryCompiler.filter(null));
+        assertSame(StatsFilter.ALL, QueryCompiler.filter("  "));
+        assertTrue(QueryCompiler.filter(null).matches(stats("BTC", "1", "2")));
+    }
+
+    @Test
+    void testComparisonsAndPrecedence() {
+        CryptoStats btc = stats("BTC", "40000", "48000"); // range 0.2
+        CryptoStats doge = stats("DOGE", "0.1", "0.2"); // range 1.0
+
+        StatsFilter volatileOrCheap = QueryCompiler.filter("normalizedRange > 0.5 AND max < 1 OR symbol = btc");
+        assertTrue(volatileOrCheap.matches(btc));
+        assertTrue(volatileOrCheap.matches(doge));
+
+        StatsFilter grouped = QueryCompiler.filter("normalizedRange > 0.5 AND (max < 1 OR symbol = 'BTC')");
+        assertFalse(grouped.matches(btc));
+        assertTrue(grouped.matches(doge));
+
+        assertTrue(QueryCompiler.filter("NOT symbol != DOGE").matches(doge));
+        assertTrue(QueryCompiler.filter("min >= 40000 and max <= 48000").matches(btc));
+        assertFalse(QueryCompiler.filter("min = 40000.5").matches(btc));
+    }
+
+    @Test
+    void testInvalidFiltersAreRejected() {
+        ValidationException e = assertThrows(ValidationException.class, () -> QueryCompiler.filter("max <"));
+        assertTrue(e.getMessage().startsWith("Invalid filter at position 5"), e.getMessage());
+
+        assertThrows(ValidationException.class, () -> QueryCompiler.filter("price > 1"));
+        assertThrows(ValidationException.class, () -> QueryCompiler.filter("symbol > BTC"));
+        assertThrows(ValidationException.class, () -> QueryCompiler.filter("(max < 1"));
+        assertThrows(ValidationException.class, () -> QueryCompiler.filter("max < 1 max > 2"));
+        assertThrows(ValidationException.class, () -> QueryCompiler.filter("max ! 1"));
+        assertThrows(ValidationException.class, () -> QueryCompiler.filter("symbol = 'BTC"));
+    }
+
+    @Test
+    void testRepeatedQueriesHitThePlanCache() {
+        long hits = QueryCompiler.cacheHits();
+
+        StatsFilter first = QueryCompiler.filter("max > 12345 AND min < 1");
+        StatsFilter second = QueryCompiler.filter(" max > 12345 AND min < 1 ");
+
+        assertSame(first, second);
+        assertSame(QueryCompiler.sort("min_desc,symbol_asc"), QueryCompiler.sort("min_desc,symbol_asc"));
+        assertEquals(hits + 2, QueryCompiler.cacheHits());
+    }
+
+    @Test
+    void testMultiKeySort() {
+        List<CryptoStats> stats = new ArrayList<>(List.of(
+                stats("ETH", "1", "3"),
+                stats("BTC", "2", "3"),
+                stats("ADA", "1", "3")));
+
+        stats.sort(QueryCompiler.sort("max_desc,min_asc,symbol_desc"));
+
+        assertEquals(List.of("ETH", "ADA", "BTC"), stats.stream().map(CryptoStats::symbol).toList());
+        assertEquals("Invalid sort field: price",
+                assertThrows(ValidationException.class, () -> QueryCompiler.sort("price_asc")).getMessage());
+        assertEquals("Invalid sort direction: up",
+                assertThrows(ValidationException.class, () -> QueryCompiler.sort("max_desc,min_up")).getMessage());
+    }
+
+    @Test
+    void testMetadataBoundsPruneOnlyImpossibleMatches() {
+        SymbolMetadata doge = metadata("DOGE", "0.1", "0.2");
+
+        assertFalse(QueryCompiler.filter("max > 1").mayMatch(doge));
+        assertFalse(QueryCompiler.filter("min < 0.05").mayMatch(doge));
+        // all-time range is 1.0, no window can exceed it
+        assertFalse(QueryCompiler.filter("normalizedRange > 1.5").mayMatch(doge));
+        assertFalse(QueryCompiler.filter("symbol = BTC AND max < 1").mayMatch(doge));
+
+        assertTrue(QueryCompiler.filter("max > 0.15").mayMatch(doge));
+        assertTrue(QueryCompiler.filter("normalizedRange > 0.5").mayMatch(doge));
+        assertTrue(QueryCompiler.filter("symbol = BTC OR max < 1").mayMatch(doge));
+        assertTrue(QueryCompiler.filter("NOT max < 1").mayMatch(doge));
+    }
+
+    @Test
+    void testReturnMetricsSortAndFilterWithMissingValuesLast() {
+        PriceData low = new PriceData(1641009600000L, new BigDecimal("1"));
+        PriceData high = new PriceData(1641096000000L, new BigDecimal("2"));
+        CryptoStats calm = new CryptoStats("CALM", BigDecimal.ONE, low, high, low, high, DAY, DAY, 10L,
+                new BigDecimal("0.01"), BigDecimal.ZERO, new BigDecimal("0.1"));
+        CryptoStats wild = new CryptoStats("WILD", BigDecimal.ONE, low, high, low, high, DAY, DAY, 10L,
+                new BigDecimal("0.20"), BigDecimal.ZERO, new BigDecimal("0.5"));
+        // e.g. from the JDBC provider, whose rollup keeps no return summary
+        CryptoStats unknown = stats("NONE", "1", "2");
+
+        for (String direction : List.of("asc", "desc")) {
+            List<CryptoStats> sorted = new ArrayList<>(List.of(unknown, wild, calm));
+            sorted.sort(QueryCompiler.sort("returnStdDev_" + direction));
+            assertEquals("NONE", sorted.getLast().symbol(), direction);
+        }
+        assertEquals(",NONE", QueryCompiler.sortKey("maxDrawdown_desc,symbol_asc", unknown));
+        assertEquals("0.20", QueryCompiler.sortKey("returnStdDev_desc", wild));
+
+        StatsFilter highVolatility = QueryCompiler.filter("returnStdDev > 0.05 OR maxDrawdown >= 0.5");
+        assertTrue(highVolatility.matches(wild));
+        assertFalse(highVolatility.matches(calm));
+        assertFalse(highVolatility.matches(unknown));
+        assertTrue(QueryCompiler.filter("tickCount = 10").matches(calm));
+    }
+
+    @Test
+    void testReturnMetricBoundsPrune() {
+        SymbolMetadata doge = metadata("DOGE", "0.1", "0.2");
+
+        // a drawdown cannot exceed 1 - min / max = 0.5, a mean log return cannot exceed ln(2) in absolute value
+        assertFalse(QueryCompiler.filter("maxDrawdown > 0.6").mayMatch(doge));
+        assertTrue(QueryCompiler.filter("maxDrawdown > 0.4").mayMatch(doge));
+        assertFalse(QueryCompiler.filter("meanReturn < -0.7").mayMatch(doge));
+        assertTrue(QueryCompiler.filter("meanReturn < -0.69").mayMatch(doge));
+        assertFalse(QueryCompiler.filter("tickCount > 2").mayMatch(doge));
+        assertTrue(QueryCompiler.filter("returnStdDev > 100").mayMatch(doge));
+    }
+}
@@ -0,0 +1,136 @@
+package dev.cryptorec.provider.sharded;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.ShardUnavailableException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.query.StatsQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpShardClientTest {
+
+    private static final String STATS_JSON = """
+            {"symbol":"BTC","normalizedRange":0.43,
+             "min":{"timestamp":1641081600000,"currency":"USD","price":33276.59},
+             "max":{"timestamp":1641009600000,"currency":"USD","price":47722.66},
+             "oldest":{"timestamp":1641009600000,"currency":"USD","price":46813.21},
+             "newest":{"timestamp":1643659200000,"currency":"USD","price":38415.79},
+             "timeframeFrom":"2022-01-01","timeframeTo":"2022-01-31"}""";
+
+    private HttpServer server;
+    private volatile String lastQuery;
+    private volatile String lastAuthorization;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api" + HttpShardClient.BASE_PATH, this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath().substring(("/api" + HttpShardClient.BASE_PATH).length());
+        lastQuery = exchange.getRequestURI().getQuery();
+        lastAuthorization = exchange.getRequestHeaders().getFirst("Authorization");
+
+        switch (path) {
+            case "/symbols" -> respond(exchange, 200, "[\"BTC\",\"ETH\"]");
+            case "/stats/BTC" -> respond(exchange, 200, STATS_JSON);
+            case "/stats/ABC" -> respond(exchange, 404,
+                    "{\"code\":404,\"message\":\"Cryptocurrency not found\",\"details\":[\"Unknown ABC\"]}");
+            case "/stats/ETH" -> respond(exchange, 400,
+                    "{\"code\":400,\"message\":\"Validation failed\",\"details\":[\"No data\"]}");
+            case "/top" -> respond(exchange, 200, "{\"items\":[" + STATS_JSON + "],\"page\":0,\"size\":1,"
+                    + "\"totalElements\":2,\"totalPages\":2,\"warnings\":[]}");
+            case "/stats/SLOW" -> {
+                try {
+                    Thread.sleep(2000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, 200, STATS_JSON);
+            }
+            default -> respond(exchange, 500, "boom");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private HttpShardClient client(Duration timeout) {
+        return new HttpShardClient("shard-1", "http://localhost:" + server.getAddress().getPort() + "/api", timeout, "secret");
+    }
+
+    @Test
+    void testReadsDomainModels() {
+        HttpShardClient client = client(Duration.ofSeconds(2));
+
+        assertEquals(List.of("BTC", "ETH"), client.symbols());
+        assertEquals("Bearer secret", lastAuthorization);
+
+        CryptoStats stats = client.stats("BTC", LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 31));
+        assertEquals("fromDate=2022-01-01&toDate=2022-01-31", lastQuery);
+        assertEquals("BTC", stats.symbol());
+        assertEquals(new PriceData(1641081600000L, new BigDecimal("33276.59")), stats.min());
+        assertEquals(LocalDate.of(2022, 1, 31), stats.timeframeTo());
+
+        PaginatedResult<CryptoStats> top = client.top(1, StatsQuery.of(null, "max_desc"), LocalDate.of(2022, 1, 1),
+                LocalDate.of(2022, 1, 31));
+        assertEquals(List.of(stats), top.items());
+        assertEquals(2, top.totalElements());
+        assertTrue(lastQuery.contains("limit=1") && lastQuery.contains("sortBy=max_desc"));
+    }
+
+    @Test
+    void testMapsErrorResponses() {
+        HttpShardClient client = client(Duration.ofSeconds(2));
+        LocalDate from = LocalDate.of(2022, 1, 1);
+        LocalDate to = LocalDate.of(2022, 1, 31);
+
+        CryptoNotFoundException notFound = assertThrows(CryptoNotFoundException.class,
+                () -> client.stats("ABC", from, to));
+        assertEquals("Unknown ABC", notFound.getMessage());
+        assertThrows(ValidationException.class, () -> client.stats("ETH", from, to));
+        assertThrows(ShardUnavailableException.class, () -> client.stats("XRP", from, to));
+    }
+
+    @Test
+    void testTimeoutAndConnectionErrors() {
+        LocalDate from = LocalDate.of(2022, 1, 1);
+        LocalDate to = LocalDate.of(2022, 1, 31);
+
+        assertThrows(ShardUnavailableException.class, () -> client(Duration.ofMillis(200)).stats("SLOW", from, to));
+
+        HttpShardClient down = new HttpShardClient("shard-9", "http://localhost:1/api", Duration.ofMillis(200),
+                "secret");
+        assertThrows(ShardUnavailableException.class, down::symbols);
+    }
+}
@@ -0,0 +1,58 @@
+package dev.cryptorec.provider.sharded;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardRingTest {
+
+    private static final List<String> SYMBOLS = IntStream.range(0, 3000).mapToObj(i -> "SYM" + i).toList();
+
+    @Test
+    void testOwnerIsDeterministicAndCaseInsensitive() {
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1", "shard-2"));
+        ShardRing sameRing = new ShardRing(List.of("shard-2", "shard-0", "shard-1"));
+
+        for (String symbol : SYMBOLS) {
+            assertEquals(ring.ownerOf(symbol), sameRing.ownerOf(symbol));
+            assertEquals(ring.ownerOf(symbol), ring.ownerOf(symbol.toLowerCase()));
+        }
+    }
+
+    @Test
+    void testSymbolsAreSpreadAcrossShards() {
+        ShardRing ring = new ShardRing(List.of("shard-0", "shard-1", "shard-2"));
+
+        Map<String, Integer> counts = new HashMap<>();
+        SYMBOLS.forEach(symbol -> counts.merge(ring.ownerOf(symbol), 1, Integer::sum));
+
+        assertEquals(3, counts.size());
+        counts.values().forEach(count -> assertTrue(count > SYMBOLS.size() / 3 * 0.7, "unbalanced: " + counts));
+    }
+
+    @Test
+    void testAddingShardOnlyMovesSymbolsToIt() {
+        ShardRing before = new ShardRing(List.of("shard-0", "shard-1", "shard-2"));
+        ShardRing after = new ShardRing(List.of("shard-0", "shard-1", "shard-2", "shard-3"));
+
+        int moved = 0;
+        for (String symbol : SYMBOLS) {
+            if (!before.ownerOf(symbol).equals(after.ownerOf(symbol))) {
+                assertEquals("shard-3", after.ownerOf(symbol));
+                moved++;
+            }
+        }
+        assertTrue(moved < SYMBOLS.size() / 2, "too many symbols moved: " + moved);
+    }
+
+    @Test
+    void testInvalidRing() {
+        assertThrows(IllegalArgumentException.class, () -> new ShardRing(List.of()));
+        assertThrows(IllegalArgumentException.class, () -> new ShardRing(List.of("shard-0"), 0));
+    }
+}
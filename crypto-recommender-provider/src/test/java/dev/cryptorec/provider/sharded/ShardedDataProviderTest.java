@@ -0,0 +1,197 @@
+package dev.cryptorec.provider.sharded;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.ShardUnavailableException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.CsvDataProvider;
+import dev.cryptorec.provider.query.StatsQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedDataProviderTest {
+
+    private static final LocalDate FROM = LocalDate.of(2022, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2022, 1, 31);
+    private static final List<String> SHARD_IDS = List.of("shard-0", "shard-1", "shard-2");
+
+    private Path pricesDir;
+    private CsvDataProvider csvProvider;
+    private ShardRing ring;
+    private List<ShardClient> shards;
+    private ShardedDataProvider provider;
+
+    @BeforeEach
+    void setup() {
+        pricesDir = Paths.get("").toAbsolutePath();
+        while (!Files.exists(pricesDir.resolve("prices")) && pricesDir.getParent() != null) {
+            pricesDir = pricesDir.getParent();
+        }
+        pricesDir = pricesDir.resolve("prices");
+        csvProvider = new CsvDataProvider(pricesDir.toString());
+
+        ring = new ShardRing(SHARD_IDS);
+        shards = new ArrayList<>();
+        for (String shardId : SHARD_IDS) {
+            shards.add(new LocalShardClient(shardId, ring, csvProvider));
+        }
+        provider = new ShardedDataProvider(ring, shards, Duration.ofSeconds(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        provider.close();
+    }
+
+    @Test
+    void testShardsPartitionTheUniverse() {
+        List<String> all = new ArrayList<>();
+        shards.forEach(shard -> all.addAll(shard.symbols()));
+
+        assertEquals(all.size(), new HashSet<>(all).size());
+        assertEquals(csvProvider.getAllCryptos().stream().sorted().toList(), provider.getAllCryptos());
+    }
+
+    @Test
+    void testSingleSymbolCallsAreRoutedToOwner() {
+        for (String symbol : csvProvider.getAllCryptos()) {
+            assertEquals(csvProvider.getCryptoStats(symbol, FROM, TO), provider.getCryptoStats(symbol, FROM, TO));
+            assertEquals(csvProvider.getCryptoPrices(symbol).prices(), provider.getCryptoPrices(symbol).prices());
+        }
+
+        CryptoPrice prices = provider.getCryptoPricesByTimeframe("BTC", LocalDate.of(2022, 1, 5),
+                LocalDate.of(2022, 1, 10));
+        assertEquals(csvProvider.getCryptoPricesByTimeframe("BTC", LocalDate.of(2022, 1, 5),
+                LocalDate.of(2022, 1, 10)).prices(), prices.prices());
+
+        assertThrows(CryptoNotFoundException.class, () -> provider.getCryptoStats("ABC", FROM, TO));
+    }
+
+    @Test
+    void testPaginatedStatsMatchSingleProvider() {
+        for (String sortBy : List.of("normalizedRange_desc", "normalizedRange_asc", "symbol_asc", "max_desc")) {
+            for (int page = 0; page < 3; page++) {
+                PaginatedResult<CryptoStats> expected = csvProvider.getPaginatedStats(page, 2, sortBy, FROM, TO, null);
+                PaginatedResult<CryptoStats> actual = provider.getPaginatedStats(page, 2, sortBy, FROM, TO, null);
+
+                assertEquals(expected.items(), actual.items(), sortBy + " page " + page);
+                assertEquals(expected.totalElements(), actual.totalElements());
+                assertEquals(expected.totalPages(), actual.totalPages());
+                assertTrue(actual.warnings().isEmpty());
+            }
+        }
+
+        assertThrows(ValidationException.class, () -> provider.getPaginatedStats(0, 2, "price_asc", FROM, TO, null));
+    }
+
+    @Test
+    void testSlowShardIsReportedAsPartialResult() {
+        shards.set(1, new SlowShardClient(shards.get(1), Duration.ofSeconds(3)));
+        provider.close();
+        provider = new ShardedDataProvider(ring, shards, Duration.ofMillis(200));
+
+        PaginatedResult<CryptoStats> result = provider.getPaginatedStats(0, 10, null, FROM, TO, null);
+
+        int expected = shards.get(0).symbols().size() + shards.get(2).symbols().size();
+        assertEquals(expected, result.items().size());
+        assertEquals(expected, result.totalElements());
+        assertEquals(1, result.warnings().size());
+        assertTrue(result.warnings().getFirst().contains("shard-1"));
+    }
+
+    @Test
+    void testPartialListingIsCounted() {
+        shards.set(1, new SlowShardClient(shards.get(1), Duration.ofSeconds(3)));
+        provider.close();
+        provider = new ShardedDataProvider(ring, shards, Duration.ofMillis(200));
+
+        List<String> symbols = provider.getAllCryptos();
+
+        assertEquals(shards.get(0).symbols().size() + shards.get(2).symbols().size(), symbols.size());
+        assertEquals(1, provider.partialListings());
+    }
+
+    @Test
+    void testLocalShardLoadsOnlyOwnedSymbols() {
+        for (ShardClient shard : shards) {
+            CsvDataProvider owned = new CsvDataProvider(pricesDir.toString(),
+                    symbol -> ring.isOwnedBy(symbol, shard.shardId()));
+
+            assertEquals(shard.symbols(), owned.getAllCryptos().stream().sorted().toList());
+        }
+    }
+
+    @Test
+    void testNoShardRespondingFails() {
+        List<ShardClient> slow = shards.stream()
+                .<ShardClient>map(shard -> new SlowShardClient(shard, Duration.ofSeconds(3)))
+                .toList();
+        provider.close();
+        provider = new ShardedDataProvider(ring, slow, Duration.ofMillis(100));
+
+        assertThrows(ShardUnavailableException.class, () -> provider.getPaginatedStats(0, 10, null, FROM, TO, null));
+    }
+
+    @Test
+    void testClientsMustMatchRing() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ShardedDataProvider(ring, shards.subList(0, 2), Duration.ofSeconds(1)));
+    }
+
+    /**
+     * Shard client answering after a delay.
+     */
+    private record SlowShardClient(ShardClient delegate, Duration delay) implements ShardClient {
+
+        @Override
+        public String shardId() {
+            return delegate.shardId();
+        }
+
+        @Override
+        public List<String> symbols() {
+            sleep();
+            return delegate.symbols();
+        }
+
+        @Override
+        public CryptoPrice prices(String symbol, LocalDate fromDate, LocalDate toDate) {
+            sleep();
+            return delegate.prices(symbol, fromDate, toDate);
+        }
+
+        @Override
+        public CryptoStats stats(String symbol, LocalDate fromDate, LocalDate toDate) {
+            sleep();
+            return delegate.stats(symbol, fromDate, toDate);
+        }
+
+        @Override
+        public PaginatedResult<CryptoStats> top(int limit, StatsQuery query, LocalDate fromDate, LocalDate toDate) {
+            sleep();
+            return delegate.top(limit, query, fromDate, toDate);
+        }
+
+        private void sleep() {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package dev.cryptorec.provider.tiered;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.CsvDataProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieredDataProviderTest {
+
+    // 2021-10-01T00:00:00Z, four months of 4-hourly prices up to the end of January 2022
+    private static final long START = 1633046400000L;
+    private static final long STEP = 4 * 60 * 60 * 1000L;
+    private static final int ROWS = 123 * 6;
+
+    // hot window with hotMonths = 1 starts on 2021-12-01
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2022-01-15T10:00:00Z"), ZoneOffset.UTC);
+
+    @TempDir
+    Path tempDir;
+
+    private Path csvDir;
+    private Path segmentDir;
+    private CsvDataProvider csvProvider;
+
+    @BeforeEach
+    void setup() throws IOException {
+        csvDir = Files.createDirectories(tempDir.resolve("prices"));
+        segmentDir = tempDir.resolve("segments");
+
+        Random random = new Random(42);
+        try (Writer writer = Files.newBufferedWriter(csvDir.resolve("BTC_values.csv"))) {
+            writer.write("timestamp,symbol,price\n");
+            for (int i = 0; i < ROWS; i++) {
+                BigDecimal price = BigDecimal.valueOf(40000 + random.nextInt(20000), 2 - random.nextInt(2));
+                writer.write((START + i * STEP) + ",BTC," + price.toPlainString() + "\n");
+            }
+        }
+        csvProvider = new CsvDataProvider(csvDir.toString());
+    }
+
+    @Test
+    void testArchivesColdMonthsIntoSegments() {
+        new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+
+        assertTrue(Files.exists(segmentDir.resolve("BTC").resolve("2021-10.seg")));
+        assertTrue(Files.exists(segmentDir.resolve("BTC").resolve("2021-11.seg")));
+        assertFalse(Files.exists(segmentDir.resolve("BTC").resolve("2021-12.seg")));
+    }
+
+    @Test
+    void testStatsMatchInMemoryCalculation() {
+        TieredDataProvider provider = new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+
+        List<LocalDate[]> windows = List.of(
+                new LocalDate[]{LocalDate.of(2021, 10, 1), LocalDate.of(2022, 1, 31)},
+                new LocalDate[]{LocalDate.of(2021, 10, 10), LocalDate.of(2021, 10, 20)},
+                new LocalDate[]{LocalDate.of(2021, 10, 15), LocalDate.of(2021, 12, 10)},
+                new LocalDate[]{LocalDate.of(2021, 11, 30), LocalDate.of(2021, 12, 1)},
+                new LocalDate[]{LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 31)}
+        );
+
+        for (LocalDate[] window : windows) {
+            CryptoStats expected = csvProvider.getCryptoStats("BTC", window[0], window[1]);
+            CryptoStats actual = provider.getCryptoStats("BTC", window[0], window[1]);
+
+            assertEquals(expected, actual, "window " + window[0] + ".." + window[1]);
+        }
+    }
+
+    @Test
+    void testWholeMonthWindowsUseZoneMapsOnly() {
+        TieredDataProvider provider = new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+
+        provider.getCryptoStats("BTC", LocalDate.of(2021, 10, 1), LocalDate.of(2021, 12, 31));
+
+        assertEquals(2, provider.zoneMapHits());
+        assertEquals(0, provider.segmentReads());
+
+        provider.getCryptoStats("BTC", LocalDate.of(2021, 10, 5), LocalDate.of(2021, 11, 30));
+
+        assertEquals(3, provider.zoneMapHits());
+        assertEquals(1, provider.segmentReads());
+    }
+
+    @Test
+    void testPricesByTimeframeSpanTiers() {
+        TieredDataProvider provider = new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+        LocalDate from = LocalDate.of(2021, 11, 20);
+        LocalDate to = LocalDate.of(2021, 12, 10);
+
+        CryptoPrice expected = csvProvider.getCryptoPricesByTimeframe("BTC", from, to);
+        CryptoPrice actual = provider.getCryptoPricesByTimeframe("BTC", from, to);
+
+        assertEquals(expected.prices().size(), actual.prices().size());
+        for (int i = 0; i < expected.prices().size(); i++) {
+            assertEquals(expected.prices().get(i).timestamp(), actual.prices().get(i).timestamp());
+            assertEquals(0, expected.prices().get(i).price().compareTo(actual.prices().get(i).price()));
+        }
+        assertEquals(ROWS, provider.getCryptoPrices("BTC").prices().size());
+    }
+
+    @Test
+    void testServesArchivedHistoryWithoutCsv() throws IOException {
+        new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+        Files.delete(csvDir.resolve("BTC_values.csv"));
+
+        TieredDataProvider provider = new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+
+        assertEquals(List.of("BTC"), provider.getAllCryptos());
+        CryptoStats expected = csvProvider.getCryptoStats("BTC", LocalDate.of(2021, 10, 1), LocalDate.of(2021, 11, 30));
+        CryptoStats actual = provider.getCryptoStats("BTC", LocalDate.of(2021, 10, 1), LocalDate.of(2021, 11, 30));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testRewritesSegmentsOfChangedMonths() throws IOException {
+        new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+
+        // corrected October price, rows shuffled so that the file is sorted through spilled runs
+        Path csvFile = csvDir.resolve("BTC_values.csv");
+        List<String> rows = new ArrayList<>(Files.readAllLines(csvFile));
+        String header = rows.removeFirst();
+        rows.set(10, (START + 10 * STEP) + ",BTC,99999.99");
+        Collections.shuffle(rows, new Random(7));
+        rows.addFirst(header);
+        Files.write(csvFile, rows);
+
+        TieredDataProvider provider = new TieredDataProvider(csvDir, segmentDir, 1, CLOCK, 100);
+        CsvDataProvider expectedProvider = new CsvDataProvider(csvDir.toString());
+
+        LocalDate from = LocalDate.of(2021, 10, 1);
+        LocalDate to = LocalDate.of(2021, 11, 30);
+        assertEquals(expectedProvider.getCryptoStats("BTC", from, to), provider.getCryptoStats("BTC", from, to));
+        assertEquals(0, new BigDecimal("99999.99").compareTo(provider.getCryptoStats("BTC", from, to).max().price()));
+        assertEquals(ROWS, provider.getCryptoPrices("BTC").prices().size());
+    }
+
+    @Test
+    void testRewritesSegmentsWithTheSameZoneMap() throws IOException {
+        // a zero price leaves October without return summary, so its zone map is min, max, ends and count only
+        Path csvFile = csvDir.resolve("BTC_values.csv");
+        List<String> rows = new ArrayList<>(Files.readAllLines(csvFile));
+        rows.set(6, (START + 5 * STEP) + ",BTC,0");
+        Files.write(csvFile, rows);
+        new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+
+        // an interior correction between min and max keeps that zone map
+        rows.set(21, (START + 20 * STEP) + ",BTC,1000");
+        Files.write(csvFile, rows);
+        TieredDataProvider provider = new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+
+        LocalDate from = LocalDate.of(2021, 10, 1);
+        LocalDate to = LocalDate.of(2021, 10, 31);
+        assertEquals(new CsvDataProvider(csvDir.toString()).getCryptoPricesByTimeframe("BTC", from, to).prices(),
+                provider.getCryptoPricesByTimeframe("BTC", from, to).prices());
+    }
+
+    @Test
+    void testErrors() {
+        TieredDataProvider provider = new TieredDataProvider(csvDir, segmentDir, 1, CLOCK);
+
+        assertThrows(CryptoNotFoundException.class,
+                () -> provider.getCryptoStats("ABC", LocalDate.of(2021, 10, 1), LocalDate.of(2021, 10, 31)));
+        assertThrows(ValidationException.class,
+                () -> provider.getCryptoStats("BTC", LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 31)));
+    }
+}
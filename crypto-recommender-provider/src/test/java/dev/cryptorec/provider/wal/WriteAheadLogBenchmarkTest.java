@@ -0,0 +1,98 @@
+package dev.cryptorec.provider.wal;
+
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.provider.CsvDataProvider;
+import dev.cryptorec.provider.PriceIngestion;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Measures the ingest throughput of the CSV provider without a write-ahead log and under each durability mode:
+ * several producers commit small ingestions of live ticks concurrently, then the log is replayed.
+ * <p>
+ * Run with: mvn -pl crypto-recommender-provider test -Pbenchmark -Dtest=WriteAheadLogBenchmarkTest
+ * -Dbench.producers=8 -Dbench.commits=2000 -Dbench.ticks=10
+ */
+@Tag("benchmark")
+class WriteAheadLogBenchmarkTest {
+
+    private static final long START = 1704067200000L;
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void benchmarkIngestPerDurability() throws IOException {
+        int producers = Integer.getInteger("bench.producers", 8);
+        int commits = Integer.getInteger("bench.commits", 2000);
+        int ticks = Integer.getInteger("bench.ticks", 10);
+
+        run(null, producers, commits, ticks);
+        for (Durability durability : Durability.values()) {
+            run(durability, producers, commits, ticks);
+        }
+    }
+
+    /**
+     * @param durability mode of the log, null to ingest without one
+     */
+    private void run(Durability durability, int producers, int commits, int ticks) throws IOException {
+        String name = durability == null ? "NO_LOG" : durability.name();
+        Path csvDirectory = Files.createDirectories(workDir.resolve(name).resolve("csv"));
+        Path walDirectory = workDir.resolve(name).resolve("wal");
+        WriteAheadLog wal = durability == null ? null : open(walDirectory, durability);
+        CsvDataProvider provider = new CsvDataProvider(csvDirectory.toString(), wal);
+
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            List<CompletableFuture<Void>> done = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                String symbol = "SYM" + p;
+                done.add(CompletableFuture.runAsync(() -> ingest(provider, symbol, commits, ticks), executor));
+            }
+            done.forEach(CompletableFuture::join);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long total = (long) producers * commits;
+        System.out.printf("%-8s %,d commits in %.2f s: %,10.0f commits/s %,12.0f ticks/s, %,d fsyncs%n", name, total,
+                seconds, total / seconds, total * ticks / seconds, wal == null ? 0 : wal.syncCount());
+
+        if (wal != null) {
+            // simulated crash: the log is closed without a checkpoint, then replayed
+            wal.close();
+            started = System.nanoTime();
+            new CsvDataProvider(csvDirectory.toString(), open(walDirectory, durability)).close();
+            System.out.printf("%-8s replay and checkpoint of %,d commits: %.2f s%n", name, total,
+                    (System.nanoTime() - started) / 1e9);
+        }
+    }
+
+    private static WriteAheadLog open(Path walDirectory, Durability durability) {
+        return new WriteAheadLog(walDirectory, durability, 64L * 1024 * 1024, Duration.ofMillis(10));
+    }
+
+    private static void ingest(CsvDataProvider provider, String symbol, int commits, int ticks) {
+        long timestamp = START;
+        for (int c = 0; c < commits; c++) {
+            try (PriceIngestion ingestion = provider.beginIngestion(symbol)) {
+                for (int t = 0; t < ticks; t++) {
+                    ingestion.append(new PriceData(timestamp, BigDecimal.valueOf(100_00 + t, 2)));
+                    timestamp += 1000;
+                }
+                ingestion.commit(false);
+            }
+        }
+    }
+}
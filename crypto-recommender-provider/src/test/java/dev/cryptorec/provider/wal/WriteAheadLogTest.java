@@ -0,0 +1,172 @@
+package dev.cryptorec.provider.wal;
+
+import dev.cryptorec.model.PriceData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteAheadLogTest {
+
+    private static final Duration FLUSH_INTERVAL = Duration.ofMillis(5);
+
+    @TempDir
+    Path directory;
+
+    private WriteAheadLog open(Durability durability, long segmentBytes) {
+        return new WriteAheadLog(directory, durability, segmentBytes, FLUSH_INTERVAL);
+    }
+
+    private List<String> replay() {
+        List<String> records = new ArrayList<>();
+        try (WriteAheadLog wal = open(Durability.FSYNC, 1024)) {
+            wal.replay(record -> records.add(new String(record, StandardCharsets.UTF_8)));
+        }
+        return records;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void testRecordsAreReplayedAcrossSegmentsAndReopens() throws IOException {
+        try (WriteAheadLog wal = open(Durability.FSYNC, 64)) {
+            for (int i = 0; i < 10; i++) {
+                wal.append(bytes("record-" + i)).join();
+            }
+        }
+        try (WriteAheadLog wal = open(Durability.WRITE, 64)) {
+            wal.append(bytes("record-10")).join();
+        }
+
+        assertEquals(IntStream.rangeClosed(0, 10).mapToObj(i -> "record-" + i).toList(), replay());
+        assertTrue(segments().size() > 3, "segments: " + segments());
+    }
+
+    @Test
+    void testRollAndDeleteDropOnlyCoveredSegments() throws IOException {
+        try (WriteAheadLog wal = open(Durability.FSYNC, 1 << 20)) {
+            wal.append(bytes("a")).join();
+            wal.append(bytes("b")).join();
+            assertEquals(2L, wal.rollSegment().join());
+            wal.append(bytes("c")).join();
+
+            assertEquals(0, wal.deleteSegmentsThrough(1));
+            assertEquals(1, wal.deleteSegmentsThrough(2));
+            // the segment being written is kept
+            assertEquals(0, wal.deleteSegmentsThrough(3));
+        }
+
+        assertEquals(List.of("c"), replay());
+    }
+
+    @Test
+    void testTornTailIsCutOffOnOpen() throws IOException {
+        try (WriteAheadLog wal = open(Durability.FSYNC, 1 << 20)) {
+            wal.append(bytes("kept")).join();
+            wal.append(bytes("torn")).join();
+        }
+        Path segment = segments().getLast();
+        long size = Files.size(segment);
+        try (var channel = Files.newByteChannel(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 2);
+        }
+
+        try (WriteAheadLog wal = open(Durability.FSYNC, 1 << 20)) {
+            wal.append(bytes("next")).join();
+        }
+        assertEquals(List.of("kept", "next"), replay());
+
+        // a corrupt record before the last segment is not silently skipped
+        try (WriteAheadLog wal = open(Durability.FSYNC, 1 << 20)) {
+            wal.rollSegment().join();
+        }
+        byte[] first = Files.readAllBytes(segments().getFirst());
+        first[first.length - 1] ^= 1;
+        Files.write(segments().getFirst(), first);
+        assertThrows(UncheckedIOException.class, this::replay);
+    }
+
+    @Test
+    void testConcurrentAppendsShareFsyncs() {
+        int producers = 16;
+        int appends = 50;
+        try (WriteAheadLog wal = open(Durability.FSYNC, 1 << 20);
+             ExecutorService executor = Executors.newFixedThreadPool(producers)) {
+            List<CompletableFuture<Void>> done = new ArrayList<>();
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                done.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < appends; i++) {
+                        wal.append(bytes(producer + ":" + i)).join();
+                    }
+                }, executor));
+            }
+            done.forEach(CompletableFuture::join);
+
+            assertTrue(wal.syncCount() < producers * appends, "fsyncs: " + wal.syncCount());
+        }
+
+        List<String> records = replay();
+        assertEquals(producers * appends, records.size());
+        // each producer's records keep their order
+        for (int p = 0; p < producers; p++) {
+            String prefix = p + ":";
+            assertEquals(IntStream.range(0, appends).mapToObj(i -> prefix + i).toList(),
+                    records.stream().filter(record -> record.startsWith(prefix)).toList());
+        }
+    }
+
+    @Test
+    void testAsyncAppendsAreDurableAfterClose() {
+        WriteAheadLog wal = open(Durability.ASYNC, 1 << 20);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(wal.append(bytes(Integer.toString(i))).isDone());
+        }
+        wal.close();
+
+        assertEquals(100, replay().size());
+        assertThrows(IllegalStateException.class, () -> wal.append(bytes("late")));
+    }
+
+    @Test
+    void testPriceBatchesAreSplitAndDecoded() {
+        List<PriceData> prices = IntStream.range(0, PriceBatch.MAX_POINTS + 1)
+                .mapToObj(i -> new PriceData(i, BigDecimal.valueOf(i + 1, i % 5)))
+                .toList();
+
+        List<byte[]> records = PriceBatch.encode("BTC", prices);
+
+        assertEquals(2, records.size());
+        PriceBatch first = PriceBatch.decode(records.getFirst());
+        PriceBatch last = PriceBatch.decode(records.getLast());
+        assertFalse(first.last());
+        assertTrue(last.last());
+        assertEquals("BTC", last.symbol());
+        assertEquals(prices, Stream.concat(first.prices().stream(), last.prices().stream()).toList());
+        assertTrue(PriceBatch.decode(PriceBatch.encode("ETH", List.of()).getFirst()).last());
+    }
+}
@@ -0,0 +1,130 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.CorrelationMatrix;
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.PriceMatrix;
+import dev.cryptorec.model.TimeGrid;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.model.util.CorrelationCalculator;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.model.util.Resampler;
+import dev.cryptorec.provider.AsyncDataProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Service computing analytics across several cryptocurrencies.
+ */
+public class AnalyticsService {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsService.class);
+
+    /**
+     * Maximum number of symbols of a correlation matrix.
+     */
+    public static final int MAX_SYMBOLS = 500;
+
+    /**
+     * Maximum number of symbols x grid steps of a correlation matrix, each cell holds four doubles during the
+     * computation (500 symbols over a leap year of hourly steps is about 4.4 million cells, 140 MB).
+     */
+    public static final long MAX_CELLS = 5_000_000;
+
+    /**
+     * Grid intervals offered by the API.
+     */
+    static final Map<String, Duration> INTERVALS = Map.of(
+            "1h", Duration.ofHours(1),
+            "4h", Duration.ofHours(4),
+            "1d", Duration.ofDays(1));
+
+    private static final String DEFAULT_INTERVAL = "1d";
+
+    private final AsyncDataProvider dataProvider;
+
+    /**
+     * @param dataProvider asynchronous data provider for crypto data
+     */
+    public AnalyticsService(AsyncDataProvider dataProvider) {
+        this.dataProvider = dataProvider;
+    }
+
+    /**
+     * Computes the correlation matrix of the returns of the given cryptocurrencies.
+     * Price series are requested concurrently, the matrix is computed once all of them are loaded.
+     *
+     * @param symbols      comma-separated symbols, all cryptos if null or blank
+     * @param fromDate     start date (nullable)
+     * @param toDate       end date (nullable)
+     * @param periodMonths months to look back (nullable)
+     * @param interval     grid interval (1h, 4h or 1d, default 1d)
+     * @return future of the correlation matrix
+     * @throws ValidationException if the interval is unknown, or the matrix would have too many symbols or cells
+     */
+    public CompletableFuture<CorrelationMatrix> getCorrelation(String symbols, LocalDate fromDate, LocalDate toDate,
+                                                               Integer periodMonths, String interval) {
+        var timeframe = DateRangeResolver.resolveTimeframe(fromDate, toDate, periodMonths);
+        LocalDate resolvedFromDate = timeframe[0];
+        LocalDate resolvedToDate = timeframe[1];
+        String intervalName = interval == null ? DEFAULT_INTERVAL : interval;
+        Duration step = INTERVALS.get(intervalName);
+        if (step == null) {
+            throw new ValidationException("Invalid interval: " + interval + ", expected one of 1h, 4h, 1d");
+        }
+
+        long fromTs = DateRangeResolver.startOfDayMillis(resolvedFromDate);
+        long toTs = DateRangeResolver.endOfDayMillis(resolvedToDate);
+        TimeGrid grid = TimeGrid.of(fromTs, toTs, step.toMillis());
+
+        log.debug("getCorrelation: symbols={}, from={}, to={}, interval={}", symbols, resolvedFromDate,
+                resolvedToDate, intervalName);
+
+        CompletableFuture<List<String>> resolvedSymbols = symbols == null || symbols.isBlank()
+                ? dataProvider.getAllCryptos()
+                : CompletableFuture.completedFuture(parseSymbols(symbols));
+
+        return resolvedSymbols.thenCompose(list -> {
+            validateSize(list.size(), grid.steps());
+            List<CompletableFuture<CryptoPrice>> futures = list.stream()
+                    .map(symbol -> dataProvider.getCryptoPricesByTimeframe(symbol, resolvedFromDate, resolvedToDate))
+                    .toList();
+
+            return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .thenApply(ignored -> {
+                        List<CryptoPrice> series = futures.stream().map(CompletableFuture::join).toList();
+                        PriceMatrix closes = Resampler.resample(series, grid, Resampler.Aggregation.LAST);
+                        double[] values = CorrelationCalculator.correlate(closes);
+                        return new CorrelationMatrix(list, resolvedFromDate, resolvedToDate, step, grid.steps(),
+                                values);
+                    });
+        });
+    }
+
+    private static List<String> parseSymbols(String symbols) {
+        return List.copyOf(Arrays.stream(symbols.split(","))
+                .map(String::trim)
+                .filter(symbol -> !symbol.isEmpty())
+                .map(String::toUpperCase)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    private static void validateSize(int symbols, int steps) {
+        if (symbols > MAX_SYMBOLS) {
+            throw new ValidationException("Too many symbols for a correlation matrix: " + symbols
+                    + " (at most " + MAX_SYMBOLS + ")");
+        }
+        if ((long) symbols * steps > MAX_CELLS) {
+            throw new ValidationException("Timeframe too long for " + symbols + " symbols at this interval: "
+                    + steps + " steps, use a longer interval or fewer symbols");
+        }
+    }
+}
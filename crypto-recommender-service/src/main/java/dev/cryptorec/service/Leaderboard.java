@@ -0,0 +1,272 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.exception.InvalidTimeframeException;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.provider.AsyncDataProvider;
+import dev.cryptorec.provider.StatsPaginator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Top-N leaderboards of the standard periodMonths windows, maintained incrementally and pushed to listeners when they
+ * change.
+ * <p>
+ * Each leaderboard retains the statistics of every symbol with the {@link AsyncDataProvider#symbolVersion symbol
+ * version} they were computed for. A check does nothing while the UTC day and the
+ * {@link AsyncDataProvider#dataVersion() data version} are unchanged. Otherwise only the symbols whose version
+ * changed, or that appeared, are recomputed and the symbols that disappeared are dropped; on a new day the windows
+ * move and all symbols are recomputed. The top N is re-sorted from the retained statistics and published only if it
+ * differs from the previous one, so a single computation serves all listeners of a window.
+ */
+public class Leaderboard implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(Leaderboard.class);
+    private static final Comparator<CryptoStats> ORDER = StatsPaginator.comparator(StatsPaginator.DEFAULT_SORT);
+
+    private final AsyncDataProvider dataProvider;
+    private final List<Integer> periodMonths;
+    private final int size;
+    private final Clock clock;
+    private final Map<Integer, Board> boards = new ConcurrentHashMap<>();
+    private final List<Consumer<Update>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong recomputedSymbols = new AtomicLong();
+    private LocalDate checkedDay;
+    private long checkedDataVersion;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param dataProvider provider computing the statistics
+     * @param periodMonths periodMonths values with a leaderboard
+     * @param size         number of symbols in a leaderboard
+     * @param clock        clock giving the current UTC day
+     */
+    public Leaderboard(AsyncDataProvider dataProvider, List<Integer> periodMonths, int size, Clock clock) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Leaderboard size must be positive: " + size);
+        }
+        this.dataProvider = dataProvider;
+        this.periodMonths = List.copyOf(periodMonths);
+        this.size = size;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts checking for a new day or new data in the background, beginning with the first computation.
+     *
+     * @param checkInterval time between two checks, bounds the delay between a data change and its update
+     */
+    public synchronized void start(Duration checkInterval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("leaderboard").daemon().factory());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                // a failed run must not cancel the following ones, the next check retries
+                log.warn("Leaderboard update failed: {}", e.getMessage());
+            }
+        }, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Brings the leaderboards up to date if the day or the data version changed since the last check, and publishes
+     * those that changed.
+     *
+     * @return true if at least one leaderboard was published
+     */
+    public synchronized boolean refresh() {
+        LocalDate day = LocalDate.now(clock);
+        // read before computing: a change during the computation is seen by the next check
+        long dataVersion = dataProvider.dataVersion();
+        if (day.equals(checkedDay) && dataVersion == checkedDataVersion) {
+            return false;
+        }
+
+        List<String> symbols = dataProvider.getAllCryptos().join();
+        Map<String, Long> versions = new HashMap<>();
+        symbols.forEach(symbol -> versions.put(symbol, dataProvider.symbolVersion(symbol)));
+
+        boolean complete = true;
+        boolean published = false;
+        for (int months : periodMonths) {
+            Board previous = boards.get(months);
+            Board board = update(previous, months, day, versions);
+            complete &= board.complete();
+            boolean changed = previous == null || !previous.update().top().equals(board.update().top())
+                    || !previous.update().from().equals(board.update().from());
+            if (changed) {
+                board = board.renumbered(sequence.incrementAndGet());
+            }
+            boards.put(months, board);
+            if (changed) {
+                publish(board.update());
+                published = true;
+            }
+        }
+
+        // a symbol that failed keeps the check open, so it is retried next time
+        if (complete) {
+            checkedDay = day;
+            checkedDataVersion = dataVersion;
+        }
+        return published;
+    }
+
+    private Board update(Board previous, int months, LocalDate day, Map<String, Long> versions) {
+        LocalDate[] timeframe = DateRangeResolver.resolveTimeframe(null, null, months, day);
+        boolean sameWindow = previous != null && previous.update().from().equals(timeframe[0])
+                && previous.update().to().equals(timeframe[1]);
+
+        Map<String, Entry> entries = new HashMap<>();
+        Map<String, CompletableFuture<Optional<CryptoStats>>> pending = new HashMap<>();
+        versions.forEach((symbol, version) -> {
+            Entry entry = sameWindow ? previous.entries().get(symbol) : null;
+            if (entry != null && entry.version() == version) {
+                entries.put(symbol, entry);
+            } else {
+                pending.put(symbol, dataProvider.tryGetCryptoStats(symbol, timeframe[0], timeframe[1]));
+            }
+        });
+
+        boolean complete = true;
+        for (var computation : pending.entrySet()) {
+            String symbol = computation.getKey();
+            try {
+                CryptoStats stats = computation.getValue().join().orElse(null);
+                entries.put(symbol, new Entry(versions.get(symbol), stats));
+            } catch (CompletionException e) {
+                log.warn("Failed to update leaderboard stats of {}: {}", symbol, e.getCause().getMessage());
+                complete = false;
+                // the previous statistics stay on the leaderboard until the retry succeeds
+                Entry stale = sameWindow ? previous.entries().get(symbol) : null;
+                if (stale != null) {
+                    entries.put(symbol, new Entry(Long.MIN_VALUE, stale.stats()));
+                }
+            }
+        }
+        recomputedSymbols.addAndGet(pending.size());
+
+        List<CryptoStats> top = entries.values().stream()
+                .map(Entry::stats)
+                .filter(Objects::nonNull)
+                .sorted(ORDER)
+                .limit(size)
+                .toList();
+        long next = previous != null ? previous.update().sequence() : 0;
+        return new Board(new Update(next, months, timeframe[0], timeframe[1], top), Map.copyOf(entries), complete);
+    }
+
+    private void publish(Update update) {
+        for (Consumer<Update> listener : listeners) {
+            try {
+                listener.accept(update);
+            } catch (RuntimeException e) {
+                log.warn("Leaderboard listener failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param periodMonths periodMonths value of the leaderboard
+     * @return the last published leaderboard, empty before the first computation
+     * @throws InvalidTimeframeException if there is no leaderboard for the periodMonths value
+     */
+    public Optional<Update> current(int periodMonths) {
+        checkPeriodMonths(periodMonths);
+        return Optional.ofNullable(boards.get(periodMonths)).map(Board::update);
+    }
+
+    /**
+     * @param periodMonths periodMonths value to check
+     * @throws InvalidTimeframeException if there is no leaderboard for the periodMonths value
+     */
+    public void checkPeriodMonths(int periodMonths) {
+        if (!this.periodMonths.contains(periodMonths)) {
+            throw new InvalidTimeframeException("periodMonths must be one of " + this.periodMonths);
+        }
+    }
+
+    /**
+     * Registers a listener called on the updating thread with each published leaderboard; it must not block.
+     *
+     * @param listener listener of published leaderboards
+     */
+    public void addListener(Consumer<Update> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param listener listener to remove
+     */
+    public void removeListener(Consumer<Update> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * @return number of symbol statistics computed since creation, over all leaderboards
+     */
+    public long recomputedSymbols() {
+        return recomputedSymbols.get();
+    }
+
+    /**
+     * Stops the background checks.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Published leaderboard of one window.
+     *
+     * @param sequence     increasing number of the publication, over all windows
+     * @param periodMonths periodMonths value of the window
+     * @param from         start date of the window
+     * @param to           end date of the window
+     * @param top          statistics of the leading symbols, sorted by {@link StatsPaginator#DEFAULT_SORT}
+     */
+    public record Update(long sequence, int periodMonths, LocalDate from, LocalDate to, List<CryptoStats> top) {
+    }
+
+    /**
+     * Statistics of a symbol, null if it has no data in the window, and the symbol version they were computed for.
+     */
+    private record Entry(long version, CryptoStats stats) {
+    }
+
+    private record Board(Update update, Map<String, Entry> entries, boolean complete) {
+
+        Board renumbered(long sequence) {
+            return new Board(new Update(sequence, update.periodMonths(), update.from(), update.to(), update.top()),
+                    entries, complete);
+        }
+    }
+}
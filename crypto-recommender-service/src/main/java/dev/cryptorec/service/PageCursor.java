@@ -0,0 +1,46 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last item of a page: the snapshot it belongs to, the sort key and the symbol of that item.
+ * Clients treat the encoded form as an opaque token.
+ *
+ * @param snapshotId id of the retained snapshot
+ * @param sortKey    sort key values of the last item (see QueryCompiler#sortKey)
+ * @param symbol     symbol of the last item
+ */
+record PageCursor(String snapshotId, String sortKey, String symbol) {
+
+    private static final char SEPARATOR = '\u001F';
+
+    /**
+     * @return URL-safe token of the cursor
+     */
+    String encode() {
+        String raw = snapshotId + SEPARATOR + sortKey + SEPARATOR + symbol;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token token returned by {@link #encode()}
+     * @return decoded cursor
+     * @throws ValidationException if the token is malformed
+     */
+    static PageCursor decode(String token) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(token.strip()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid cursor");
+        }
+        String[] parts = raw.split(String.valueOf(SEPARATOR), -1);
+        if (parts.length != 3 || parts[0].isEmpty() || parts[2].isEmpty()) {
+            throw new ValidationException("Invalid cursor");
+        }
+        return new PageCursor(parts[0], parts[1], parts[2]);
+    }
+}
@@ -0,0 +1,127 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.exception.ReadOnlyProviderException;
+import dev.cryptorec.model.exception.UploadTooLargeException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.CsvPriceReader;
+import dev.cryptorec.provider.DataProvider;
+import dev.cryptorec.provider.PriceIngestion;
+import dev.cryptorec.provider.WritableDataProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Reader;
+import java.time.Duration;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Service loading uploaded CSV price files into the data provider.
+ * <p>
+ * The upload is parsed and validated row by row while it is read; the rows are handed to a {@link PriceIngestion}
+ * and merged into the series of the symbol only once the whole upload is valid. An invalid row rejects the upload
+ * without changing any data.
+ * <p>
+ * The ingestion holds the rows until commit, so an upload is limited to a maximum number of rows and rejected as
+ * soon as it exceeds them, instead of buffering an unbounded body.
+ */
+public class PriceUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceUploadService.class);
+
+    // the symbol names the CSV file when the upload is persisted
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9]{1,20}");
+
+    /**
+     * Default maximum number of rows of an upload.
+     */
+    public static final long DEFAULT_MAX_ROWS = 5_000_000;
+
+    private final DataProvider dataProvider;
+    private final long maxRows;
+
+    /**
+     * Creates an upload service with the default maximum number of rows per upload.
+     *
+     * @param dataProvider provider receiving the uploads, read-only providers reject them
+     */
+    public PriceUploadService(DataProvider dataProvider) {
+        this(dataProvider, DEFAULT_MAX_ROWS);
+    }
+
+    /**
+     * @param dataProvider provider receiving the uploads, read-only providers reject them
+     * @param maxRows      maximum number of rows of an upload
+     * @throws IllegalArgumentException if maxRows is not positive
+     */
+    public PriceUploadService(DataProvider dataProvider, long maxRows) {
+        if (maxRows <= 0) {
+            throw new IllegalArgumentException("Maximum rows must be positive");
+        }
+        this.dataProvider = dataProvider;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Parses an uploaded CSV price file and merges its rows into the series of the symbol.
+     *
+     * @param symbol  cryptocurrency symbol, created if unknown
+     * @param csv     CSV rows with a header (timestamp, price and optionally symbol columns)
+     * @param persist whether the merged series is also written to the CSV directory
+     * @return report of the upload
+     * @throws ValidationException       if the symbol, the header or a row is invalid
+     * @throws UploadTooLargeException   if the upload has more than the maximum number of rows
+     * @throws ReadOnlyProviderException if the configured provider does not accept uploads
+     */
+    public UploadReport upload(String symbol, Reader csv, boolean persist) {
+        String upperSymbol = symbol.toUpperCase();
+        if (!SYMBOL.matcher(upperSymbol).matches()) {
+            throw new ValidationException("Symbol must be 1 to 20 letters or digits: " + symbol);
+        }
+        if (!(dataProvider instanceof WritableDataProvider writable)) {
+            throw new ReadOnlyProviderException("The " + dataProvider.getClass().getSimpleName()
+                    + " does not accept uploads, use the csv provider");
+        }
+
+        long start = System.nanoTime();
+        try (PriceIngestion ingestion = writable.beginIngestion(upperSymbol)) {
+            long rows = CsvPriceReader.parse(csv, upperSymbol, new Consumer<>() {
+                private long appended;
+
+                @Override
+                public void accept(PriceData price) {
+                    if (++appended > maxRows) {
+                        throw new UploadTooLargeException("Upload of " + upperSymbol + " exceeds " + maxRows
+                                + " rows, split it into several uploads");
+                    }
+                    ingestion.append(price);
+                }
+            });
+            PriceIngestion.IngestResult result = ingestion.commit(persist);
+            UploadReport report = new UploadReport(result, rows, Duration.ofNanos(System.nanoTime() - start));
+            log.info("Uploaded {} rows of {} in {} ms ({} rows/s), {} added, {} replaced, persisted: {}", rows,
+                    upperSymbol, report.elapsed().toMillis(), report.rowsPerSecond(), result.added(),
+                    result.replaced(), persist);
+            return report;
+        }
+    }
+
+    /**
+     * Outcome of an upload.
+     *
+     * @param result  counts of the merge into the series
+     * @param rows    parsed rows
+     * @param elapsed time from the first byte read to the published series
+     */
+    public record UploadReport(PriceIngestion.IngestResult result, long rows, Duration elapsed) {
+
+        /**
+         * @return rows parsed and merged per second
+         */
+        public long rowsPerSecond() {
+            long nanos = Math.max(1, elapsed.toNanos());
+            return Math.round(rows * 1_000_000_000.0 / nanos);
+        }
+    }
+}
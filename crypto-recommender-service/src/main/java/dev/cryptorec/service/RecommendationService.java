@@ -2,31 +2,84 @@ package dev.cryptorec.service;
 
 import dev.cryptorec.model.CryptoStats;
 import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.exception.CursorExpiredException;
 import dev.cryptorec.model.exception.ValidationException;
 import dev.cryptorec.model.util.DateRangeResolver;
-import dev.cryptorec.model.util.StatsCalculator;
-import dev.cryptorec.provider.DataProvider;
+import dev.cryptorec.model.util.RequestTrace;
+import dev.cryptorec.provider.AsyncDataProvider;
+import dev.cryptorec.provider.StatsPaginator;
+import dev.cryptorec.provider.query.QueryCompiler;
+import dev.cryptorec.provider.query.StatsQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Clock;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Service layer for cryptocurrency recommendation logic.
  * Handles calculation of statistics, sorting, pagination, and filtering.
+ * <p>
+ * All operations are asynchronous: timeframe parameters are validated on the calling thread (invalid input throws
+ * immediately), provider failures complete the returned future exceptionally.
+ * <p>
+ * Identical concurrent queries are coalesced with {@link SingleFlight}: the key is the resolved timeframe plus the
+ * provider's data version, so after an expiry or a data change only one caller recomputes and the others wait for
+ * its result instead of recomputing the same universe. Recommendations are coalesced on the query and the number of
+ * leading entries a page needs, (page + 1) * size, which is the limit passed to the provider, so a sharded provider
+ * still gathers only the top entries of every shard; concurrent requests with the same limit share one computation
+ * and slice their page from it.
+ * <p>
+ * Cursor pagination ({@link #getRecommendationsPage}) computes and sorts the result once, retains it in a
+ * {@link SnapshotStore} and serves the following pages from it in O(page size).
+ * <p>
+ * With a {@link StatsPrecomputer}, queries over a precomputed periodMonths window are answered from its published
+ * statistics without calling the provider; other timeframes, and all of them while a recomputation is pending, are
+ * computed on demand.
  */
 public class RecommendationService {
 
     private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
 
-    private final DataProvider dataProvider;
+    private final AsyncDataProvider dataProvider;
+    private final SingleFlight<ListingKey, PaginatedResult<CryptoStats>> recommendationsFlight =
+            new SingleFlight<>();
+    private final SingleFlight<StatsKey, CryptoStats> statsFlight = new SingleFlight<>();
+    private final SingleFlight<TopKey, CryptoStats> topFlight = new SingleFlight<>();
+    private final SingleFlight<UniverseKey, SnapshotStore.Snapshot> snapshotFlight = new SingleFlight<>();
+    private final SnapshotStore snapshots;
+    private final StatsPrecomputer precomputer;
 
     /**
-     * Creates a recommendation service with the given data provider.
+     * Creates a recommendation service with the given data provider and default snapshot retention.
      */
-    public RecommendationService(DataProvider dataProvider) {
+    public RecommendationService(AsyncDataProvider dataProvider) {
+        this(dataProvider, new SnapshotStore(SnapshotStore.DEFAULT_CAPACITY, SnapshotStore.DEFAULT_TTL,
+                Clock.systemUTC()));
+    }
+
+    /**
+     * Creates a recommendation service with the given data provider and snapshot store.
+     */
+    public RecommendationService(AsyncDataProvider dataProvider, SnapshotStore snapshots) {
+        this(dataProvider, snapshots, null);
+    }
+
+    /**
+     * Creates a recommendation service answering precomputed windows by lookup.
+     *
+     * @param dataProvider asynchronous data provider
+     * @param snapshots    snapshot store of cursor pagination
+     * @param precomputer  precomputed periodMonths windows (nullable)
+     */
+    public RecommendationService(AsyncDataProvider dataProvider, SnapshotStore snapshots,
+                                 StatsPrecomputer precomputer) {
         this.dataProvider = dataProvider;
+        this.snapshots = snapshots;
+        this.precomputer = precomputer;
     }
 
     /**
@@ -38,20 +91,149 @@ public class RecommendationService {
      * @param fromDate     start date (nullable)
      * @param toDate       end date (nullable)
      * @param periodMonths months to look back (nullable)
-     * @return Map containing "items", "page", "size", "totalElements", "totalPages"
+     * @return future of the paginated crypto statistics
+     */
+    public CompletableFuture<PaginatedResult<CryptoStats>> getRecommendations(int page, int size, String sortBy,
+                                                                              LocalDate fromDate, LocalDate toDate,
+                                                                              Integer periodMonths) {
+        return getRecommendations(page, size, sortBy, null, fromDate, toDate, periodMonths);
+    }
+
+    /**
+     * Retrieves the recommendations matching a filter expression.
+     * The filter and sort are compiled (or taken from the plan cache) on the calling thread, so invalid expressions
+     * throw immediately.
+     *
+     * @param page         zero-based page index
+     * @param size         page size
+     * @param sortBy       comma-separated sort keys (e.g., "normalizedRange_desc,symbol_asc")
+     * @param filter       filter expression (nullable, e.g., "normalizedRange &gt; 0.5 AND max &lt; 100")
+     * @param fromDate     start date (nullable)
+     * @param toDate       end date (nullable)
+     * @param periodMonths months to look back (nullable)
+     * @return future of the paginated crypto statistics
      */
-    public PaginatedResult<CryptoStats> getRecommendations(int page, int size, String sortBy, LocalDate fromDate,
-                                                           LocalDate toDate, Integer periodMonths) {
-        log.debug("getRecommendations: page={}, size={}, sortBy={}", page, size, sortBy);
+    public CompletableFuture<PaginatedResult<CryptoStats>> getRecommendations(int page, int size, String sortBy,
+                                                                              String filter, LocalDate fromDate,
+                                                                              LocalDate toDate, Integer periodMonths) {
+        log.debug("getRecommendations: page={}, size={}, sortBy={}, filter={}", page, size, sortBy, filter);
 
-        var timeframe = DateRangeResolver.resolveTimeframe(fromDate, toDate, periodMonths);
+        var timeframe = resolveTimeframe(fromDate, toDate, periodMonths);
         LocalDate resolvedFromDate = timeframe[0];
         LocalDate resolvedToDate = timeframe[1];
+        StatsQuery query = RequestTrace.time(RequestTrace.Stage.RESOLVE, () -> StatsQuery.of(filter, sortBy));
+
+        log.debug("queryStats: page={}, size={}, sortBy={}, filter={}, from={}, to={}", page, size, sortBy, filter,
+                resolvedFromDate, resolvedToDate);
+
+        Optional<List<CryptoStats>> precomputed = precomputedQuery(query, resolvedFromDate, resolvedToDate);
+        if (precomputed.isPresent()) {
+            return CompletableFuture.completedFuture(StatsPaginator.paginate(precomputed.get(), page, size));
+        }
+
+        int limit = (int) Math.min((long) (page + 1) * size, Integer.MAX_VALUE);
+        var key = new ListingKey(new UniverseKey(sortBy, filter, resolvedFromDate, resolvedToDate, periodMonths,
+                dataProvider.dataVersion()), limit);
+        return recommendationsFlight.execute(key, () -> dataProvider
+                        .queryStats(0, limit, query, resolvedFromDate, resolvedToDate, periodMonths))
+                .thenApply(top -> slice(top, page, size));
+    }
+
+    /**
+     * Slices a page from the leading entries of the sorted result, keeping its total counts and warnings.
+     */
+    private static PaginatedResult<CryptoStats> slice(PaginatedResult<CryptoStats> top, int page, int size) {
+        List<CryptoStats> items = top.items();
+        int start = (int) Math.min((long) page * size, items.size());
+        int end = (int) Math.min((long) start + size, items.size());
+        int totalPages = size == 0 ? 0 : (int) Math.ceil((double) top.totalElements() / size);
+        return new PaginatedResult<>(items.subList(start, end), page, size, top.totalElements(), totalPages,
+                top.warnings());
+    }
+
+    /**
+     * Retrieves a page of recommendations with cursor (keyset) pagination.
+     * <p>
+     * Without a cursor, the matching statistics are computed and sorted once; if there is more than one page the
+     * sorted result is retained as a snapshot and the page carries the cursor of the next one. While it is retained,
+     * the first pages of the same query on the same data are served from that snapshot, so polling clients do not
+     * create a snapshot per request and evict those of the cursor holders. With a cursor, the
+     * page following the cursor position is sliced from that snapshot, the query parameters are ignored and pages
+     * stay consistent even if the data changes meanwhile.
+     *
+     * @param cursor       cursor returned with the previous page (nullable for the first page)
+     * @param size         page size
+     * @param sortBy       comma-separated sort keys (nullable)
+     * @param filter       filter expression (nullable)
+     * @param fromDate     start date (nullable)
+     * @param toDate       end date (nullable)
+     * @param periodMonths months to look back (nullable)
+     * @return future of the page, with the cursor of the next page unless it is the last one
+     * @throws CursorExpiredException if the snapshot of the cursor has expired or was evicted
+     */
+    public CompletableFuture<PaginatedResult<CryptoStats>> getRecommendationsPage(String cursor, int size,
+                                                                                  String sortBy, String filter,
+                                                                                  LocalDate fromDate, LocalDate toDate,
+                                                                                  Integer periodMonths) {
+        if (size < 1) {
+            throw new ValidationException("Page size must be positive");
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            return CompletableFuture.completedFuture(pageAfter(PageCursor.decode(cursor), size));
+        }
+
+        var timeframe = resolveTimeframe(fromDate, toDate, periodMonths);
+        LocalDate resolvedFromDate = timeframe[0];
+        LocalDate resolvedToDate = timeframe[1];
+        StatsQuery query = RequestTrace.time(RequestTrace.Stage.RESOLVE, () -> StatsQuery.of(filter, sortBy));
+
+        log.debug("getRecommendationsPage: size={}, sortBy={}, filter={}, from={}, to={}", size, sortBy, filter,
+                resolvedFromDate, resolvedToDate);
+
+        var key = new UniverseKey(sortBy, filter, resolvedFromDate, resolvedToDate, periodMonths,
+                dataProvider.dataVersion());
+        Optional<SnapshotStore.Snapshot> retained = snapshots.find(key);
+        if (retained.isPresent()) {
+            return CompletableFuture.completedFuture(page(retained.get(), 0, size));
+        }
+
+        Optional<List<CryptoStats>> precomputed = precomputedQuery(query, resolvedFromDate, resolvedToDate);
+        if (precomputed.isPresent()) {
+            return CompletableFuture.completedFuture(
+                    page(snapshots.create(key, precomputed.get(), sortBy, List.of()), 0, size));
+        }
 
-        log.debug("getPaginatedStats: page={}, size={}, sortBy={}, from={}, to={}", page, size, sortBy, resolvedFromDate,
-                resolvedToDate);
+        return snapshotFlight.execute(key, () -> dataProvider
+                        .queryStats(0, Integer.MAX_VALUE, query, resolvedFromDate, resolvedToDate, periodMonths)
+                        .thenApply(all -> snapshots.create(key, all.items(), sortBy, all.warnings())))
+                .thenApply(snapshot -> page(snapshot, 0, size));
+    }
 
-        return dataProvider.getPaginatedStats(page, size, sortBy, resolvedFromDate, resolvedToDate, periodMonths);
+    private PaginatedResult<CryptoStats> pageAfter(PageCursor cursor, int size) {
+        SnapshotStore.Snapshot snapshot = snapshots.get(cursor.snapshotId())
+                .orElseThrow(() -> new CursorExpiredException("Cursor expired, request the first page again"));
+        int last = snapshot.positionOf(cursor.symbol());
+        if (last < 0 || !cursor.sortKey().equals(QueryCompiler.sortKey(snapshot.sortBy(), snapshot.items().get(last)))) {
+            throw new ValidationException("Invalid cursor");
+        }
+        return page(snapshot, last + 1, size);
+    }
+
+    private PaginatedResult<CryptoStats> page(SnapshotStore.Snapshot snapshot, int start, int size) {
+        List<CryptoStats> items = snapshot.items();
+        int end = (int) Math.min((long) start + size, items.size());
+        List<CryptoStats> pageItems = items.subList(start, end);
+
+        String nextCursor = null;
+        if (end < items.size()) {
+            CryptoStats last = pageItems.getLast();
+            nextCursor = new PageCursor(snapshot.id(), QueryCompiler.sortKey(snapshot.sortBy(), last), last.symbol())
+                    .encode();
+            snapshots.retain(snapshot);
+        }
+        int totalPages = (int) Math.ceil((double) items.size() / size);
+        return new PaginatedResult<>(pageItems, start / size, size, items.size(), totalPages, snapshot.warnings(),
+                nextCursor);
     }
 
     /**
@@ -61,53 +243,132 @@ public class RecommendationService {
      * @param fromDate     start date (nullable)
      * @param toDate       end date (nullable)
      * @param periodMonths months to look back (nullable)
-     * @return CryptoStats for the cryptocurrency
+     * @return future of the CryptoStats for the cryptocurrency
      */
-    public CryptoStats getStats(String symbol, LocalDate fromDate, LocalDate toDate, Integer periodMonths) {
-        var timeframe = DateRangeResolver.resolveTimeframe(fromDate, toDate, periodMonths);
+    public CompletableFuture<CryptoStats> getStats(String symbol, LocalDate fromDate, LocalDate toDate,
+                                                   Integer periodMonths) {
+        var timeframe = resolveTimeframe(fromDate, toDate, periodMonths);
         LocalDate resolvedFromDate = timeframe[0];
         LocalDate resolvedToDate = timeframe[1];
 
         log.debug("getStats: symbol={}, from={}, to={}", symbol, resolvedFromDate, resolvedToDate);
 
-        var cryptoPrices = dataProvider.getCryptoPricesByTimeframe(symbol, resolvedFromDate, resolvedToDate);
-        return StatsCalculator.calculateStats(symbol, cryptoPrices.prices(), resolvedFromDate, resolvedToDate);
+        // a symbol missing from the window has no data or does not exist, the provider reports which
+        Optional<CryptoStats> precomputed = lookup(resolvedFromDate, resolvedToDate)
+                .map(window -> window.bySymbol().get(symbol.toUpperCase()));
+        if (precomputed.isPresent()) {
+            return CompletableFuture.completedFuture(precomputed.get());
+        }
+
+        var key = new StatsKey(symbol, resolvedFromDate, resolvedToDate, dataProvider.dataVersion());
+        return statsFlight.execute(key, () -> dataProvider.getCryptoStats(symbol, resolvedFromDate, resolvedToDate));
     }
 
     /**
      * Retrieves the cryptocurrency with the highest normalized range in the given timeframe.
+     * Statistics of all cryptos are requested concurrently; cryptos whose statistics fail are skipped.
      *
      * @param fromDate     start date (nullable)
      * @param toDate       end date (nullable)
      * @param periodMonths months to look back (nullable)
-     * @return CryptoStats for the top cryptocurrency
+     * @return future of the CryptoStats for the top cryptocurrency
      */
-    public CryptoStats getTopCrypto(LocalDate fromDate, LocalDate toDate, Integer periodMonths) {
-        var timeframe = DateRangeResolver.resolveTimeframe(fromDate, toDate, periodMonths);
+    public CompletableFuture<CryptoStats> getTopCrypto(LocalDate fromDate, LocalDate toDate, Integer periodMonths) {
+        var timeframe = resolveTimeframe(fromDate, toDate, periodMonths);
         LocalDate resolvedFromDate = timeframe[0];
         LocalDate resolvedToDate = timeframe[1];
 
         log.debug("getTopCrypto: from={}, to={}", resolvedFromDate, resolvedToDate);
 
-        List<String> cryptos = dataProvider.getAllCryptos();
-        List<CryptoStats> stats = new ArrayList<>();
+        Optional<CryptoStats> precomputed = lookup(resolvedFromDate, resolvedToDate)
+                .map(StatsPrecomputer.Window::top);
+        if (precomputed.isPresent()) {
+            return CompletableFuture.completedFuture(precomputed.get());
+        }
+
+        var key = new TopKey(resolvedFromDate, resolvedToDate, dataProvider.dataVersion());
+        return topFlight.execute(key, () -> computeTopCrypto(resolvedFromDate, resolvedToDate));
+    }
+
+    private CompletableFuture<CryptoStats> computeTopCrypto(LocalDate resolvedFromDate, LocalDate resolvedToDate) {
+        return dataProvider.getAllCryptos().thenCompose(cryptos -> {
+            // symbols without data in the timeframe complete empty, only real failures are logged
+            List<CompletableFuture<Optional<CryptoStats>>> futures = cryptos.stream()
+                    .map(crypto -> dataProvider.tryGetCryptoStats(crypto, resolvedFromDate, resolvedToDate)
+                            .exceptionally(e -> {
+                                log.warn("Failed to calculate stats for {}: {}", crypto, unwrap(e).getMessage());
+                                return Optional.empty();
+                            }))
+                    .toList();
+
+            return CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new))
+                    .thenApply(ignored -> futures.stream()
+                            .map(CompletableFuture::join)
+                            .flatMap(Optional::stream)
+                            .max(Comparator.comparing(CryptoStats::normalizedRange))
+                            .orElseThrow(() -> new ValidationException(
+                                    "No price data available for the specified timeframe")));
+        });
+    }
 
-        for (String crypto : cryptos) {
-            try {
-                var cryptoPrices = dataProvider.getCryptoPricesByTimeframe(crypto, resolvedFromDate, resolvedToDate);
-                stats.add(StatsCalculator.calculateStats(crypto, cryptoPrices.prices(), resolvedFromDate, resolvedToDate));
-            } catch (Exception e) {
-                log.warn("Failed to calculate stats for {}: {}", crypto, e.getMessage());
+    /**
+     * Answers a query from the precomputed window of the timeframe: the statistics sorted by the default sort are
+     * used as they are, other sorts and filters are applied to a copy.
+     *
+     * @return matching statistics in query order, empty if the timeframe is not precomputed
+     */
+    private Optional<List<CryptoStats>> precomputedQuery(StatsQuery query, LocalDate from, LocalDate to) {
+        return lookup(from, to).map(window -> {
+            String sortBy = query.sortBy();
+            boolean defaultSort = sortBy == null || sortBy.isBlank() || sortBy.equals(StatsPaginator.DEFAULT_SORT);
+            if (!query.hasFilter() && defaultSort) {
+                return window.sorted();
             }
-        }
 
-        if (stats.isEmpty()) {
-            throw new ValidationException("No price data available for the specified timeframe");
-        }
+            List<CryptoStats> matching = new ArrayList<>();
+            for (CryptoStats stats : window.sorted()) {
+                if (query.filter().matches(stats)) {
+                    matching.add(stats);
+                }
+            }
+            matching.sort(query.comparator());
+            return matching;
+        });
+    }
 
-        return stats.stream()
-                .max(Comparator.comparing(CryptoStats::normalizedRange))
-                .orElseThrow(() -> new ValidationException("Unable to find top cryptocurrency"));
+    private Optional<StatsPrecomputer.Window> lookup(LocalDate from, LocalDate to) {
+        return precomputer == null ? Optional.empty() : precomputer.lookup(from, to);
+    }
+
+    /**
+     * @return number of calls answered by an identical in-flight computation instead of computing themselves
+     */
+    public long coalescedCalls() {
+        return recommendationsFlight.coalesced() + statsFlight.coalesced() + topFlight.coalesced();
+    }
+
+    /**
+     * Resolves the timeframe parameters, timed as the resolve stage of the request.
+     */
+    private static LocalDate[] resolveTimeframe(LocalDate fromDate, LocalDate toDate, Integer periodMonths) {
+        return RequestTrace.time(RequestTrace.Stage.RESOLVE,
+                () -> DateRangeResolver.resolveTimeframe(fromDate, toDate, periodMonths));
     }
-}
 
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    private record UniverseKey(String sortBy, String filter, LocalDate from, LocalDate to, Integer periodMonths,
+                               long dataVersion) {
+    }
+
+    private record ListingKey(UniverseKey universe, int limit) {
+    }
+
+    private record StatsKey(String symbol, LocalDate from, LocalDate to, long dataVersion) {
+    }
+
+    private record TopKey(LocalDate from, LocalDate to, long dataVersion) {
+    }
+}
@@ -1,9 +1,14 @@
 package dev.cryptorec.service;
 
+import dev.cryptorec.provider.AsyncDataProvider;
 import dev.cryptorec.provider.DataProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Clock;
+import java.time.Duration;
+
 /**
  * Configuration class for service module.
  * Instantiates and manages beans for service components.
@@ -11,15 +16,87 @@ import org.springframework.context.annotation.Configuration;
 @Configuration
 public class ServiceConfig {
 
+    /**
+     * Creates the precomputer of the standard periodMonths windows and starts its background checks.
+     * Disabled, nothing is published and every request is computed on demand.
+     *
+     * @param dataProvider  asynchronous data provider for crypto data
+     * @param enabled       whether the windows are precomputed
+     * @param checkInterval time between two checks for a new UTC day or new data
+     * @return stats precomputer, stopped when the context closes
+     */
+    @Bean(destroyMethod = "close")
+    public StatsPrecomputer statsPrecomputer(
+            AsyncDataProvider dataProvider,
+            @Value("${crypto.precompute.enabled:true}") boolean enabled,
+            @Value("${crypto.precompute.check-interval:10s}") Duration checkInterval) {
+        StatsPrecomputer precomputer = new StatsPrecomputer(dataProvider, StatsPrecomputer.STANDARD_PERIOD_MONTHS,
+                Clock.systemUTC());
+        if (enabled) {
+            precomputer.start(checkInterval);
+        }
+        return precomputer;
+    }
+
+    /**
+     * Creates the top-N leaderboards of the standard periodMonths windows and starts their background updates.
+     *
+     * @param dataProvider  asynchronous data provider for crypto data
+     * @param size          number of symbols in a leaderboard
+     * @param checkInterval time between two checks for a new UTC day or new data
+     * @return leaderboards, stopped when the context closes
+     */
+    @Bean(destroyMethod = "close")
+    public Leaderboard leaderboard(
+            AsyncDataProvider dataProvider,
+            @Value("${crypto.leaderboard.size:10}") int size,
+            @Value("${crypto.leaderboard.check-interval:5s}") Duration checkInterval) {
+        Leaderboard leaderboard = new Leaderboard(dataProvider, StatsPrecomputer.STANDARD_PERIOD_MONTHS, size,
+                Clock.systemUTC());
+        leaderboard.start(checkInterval);
+        return leaderboard;
+    }
+
     /**
      * Creates a recommendation service bean.
      *
-     * @param dataProvider data provider for crypto data
+     * @param dataProvider     asynchronous data provider for crypto data
+     * @param precomputer      precomputed periodMonths windows
+     * @param snapshotCapacity maximum number of sorted results retained for cursor pagination
+     * @param snapshotTtl      time a sorted result is retained for cursor pagination
      * @return configured RecommendationService instance
      */
     @Bean
-    public RecommendationService recommendationService(DataProvider dataProvider) {
-        return new RecommendationService(dataProvider);
+    public RecommendationService recommendationService(
+            AsyncDataProvider dataProvider,
+            StatsPrecomputer precomputer,
+            @Value("${crypto.pagination.snapshot-capacity:64}") int snapshotCapacity,
+            @Value("${crypto.pagination.snapshot-ttl:5m}") Duration snapshotTtl) {
+        return new RecommendationService(dataProvider,
+                new SnapshotStore(snapshotCapacity, snapshotTtl, Clock.systemUTC()), precomputer);
     }
-}
 
+    /**
+     * Creates the service loading uploaded CSV price files.
+     *
+     * @param dataProvider data provider receiving the uploads
+     * @param maxRows      maximum number of rows of an upload
+     * @return configured PriceUploadService instance
+     */
+    @Bean
+    public PriceUploadService priceUploadService(DataProvider dataProvider,
+                                                 @Value("${crypto.upload.max-rows:5000000}") long maxRows) {
+        return new PriceUploadService(dataProvider, maxRows);
+    }
+
+    /**
+     * Creates an analytics service bean.
+     *
+     * @param dataProvider asynchronous data provider for crypto data
+     * @return configured AnalyticsService instance
+     */
+    @Bean
+    public AnalyticsService analyticsService(AsyncDataProvider dataProvider) {
+        return new AnalyticsService(dataProvider);
+    }
+}
@@ -0,0 +1,69 @@
+package dev.cryptorec.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical computations: while a computation for a key is in flight, further callers with
+ * the same key get the result of that computation instead of starting their own.
+ * <p>
+ * Nothing is cached: the key is released as soon as the computation completes, so a failure is propagated to the
+ * callers waiting at that moment and the next caller computes again.
+ *
+ * @param <K> key of a computation, must implement equals/hashCode (records are a good fit)
+ * @param <V> result of a computation
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Returns the result of the in-flight computation for the key, or starts the computation if there is none.
+     *
+     * @param key         key of the computation
+     * @param computation starts the computation; called at most once per flight
+     * @return future of the result, each caller gets its own copy so cancelling it does not affect others
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> computation) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing.copy();
+        }
+
+        try {
+            computation.get().whenComplete((result, error) -> {
+                // release the key first: callers arriving after completion must not see a finished (failed) flight
+                inFlight.remove(key, flight);
+                if (error != null) {
+                    flight.completeExceptionally(error);
+                } else {
+                    flight.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.copy();
+    }
+
+    /**
+     * @return number of calls that joined an in-flight computation instead of starting one
+     */
+    public long coalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return number of computations currently in flight
+     */
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,198 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.CryptoStats;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retains sorted results for cursor pagination, so the pages following the first one are sliced from the same
+ * result instead of recomputing and re-sorting the universe, and stay consistent when the data changes meanwhile.
+ * <p>
+ * Retention is bounded: snapshots expire after a fixed time to live, and when more than the capacity are live the
+ * oldest are dropped. Expired snapshots are removed lazily on access.
+ * <p>
+ * A snapshot created for a query key is found again by that key while it is retained, so repeated first pages of
+ * the same query share one snapshot instead of filling the store with copies of the same result.
+ */
+public final class SnapshotStore {
+
+    /**
+     * Default number of retained snapshots.
+     */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Default time to live of a snapshot.
+     */
+    public static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+    private final int capacity;
+    private final Duration ttl;
+    private final Clock clock;
+
+    // guarded by itself; insertion order is creation order, which with a fixed ttl is also expiry order
+    private final LinkedHashMap<String, Snapshot> snapshots = new LinkedHashMap<>();
+    // guarded by snapshots; retained snapshots created with a key
+    private final Map<Object, Snapshot> byKey = new HashMap<>();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * @param capacity maximum number of retained snapshots
+     * @param ttl      time to live of a snapshot
+     * @param clock    clock used for expiry
+     */
+    public SnapshotStore(int capacity, Duration ttl, Clock clock) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Snapshot capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * Creates a snapshot of a sorted result; it is only retained once {@link #retain(Snapshot)} is called.
+     *
+     * @param sorted   sorted statistics of the whole result
+     * @param sortBy   sort expression the result is ordered by (nullable)
+     * @param warnings warnings of the result
+     * @return snapshot with a new id
+     */
+    public Snapshot create(List<CryptoStats> sorted, String sortBy, List<String> warnings) {
+        return create(null, sorted, sortBy, warnings);
+    }
+
+    /**
+     * Creates a snapshot of the sorted result of a query; once retained it is found by {@link #find(Object)}.
+     *
+     * @param key      key of the query the result answers, including the data version (nullable)
+     * @param sorted   sorted statistics of the whole result
+     * @param sortBy   sort expression the result is ordered by (nullable)
+     * @param warnings warnings of the result
+     * @return snapshot with a new id
+     */
+    public Snapshot create(Object key, List<CryptoStats> sorted, String sortBy, List<String> warnings) {
+        Map<String, Integer> positions = new HashMap<>(sorted.size() * 2);
+        for (int i = 0; i < sorted.size(); i++) {
+            positions.put(sorted.get(i).symbol(), i);
+        }
+        String id = UUID.randomUUID().toString().replace("-", "");
+        return new Snapshot(id, key, sortBy, List.copyOf(sorted), Map.copyOf(positions), List.copyOf(warnings),
+                clock.instant().plus(ttl));
+    }
+
+    /**
+     * Retains a snapshot until it expires or is evicted; retaining it again has no effect.
+     *
+     * @param snapshot snapshot to retain
+     */
+    public void retain(Snapshot snapshot) {
+        synchronized (snapshots) {
+            removeExpired();
+            if (snapshots.putIfAbsent(snapshot.id(), snapshot) == null && snapshot.key() != null) {
+                byKey.put(snapshot.key(), snapshot);
+            }
+            Iterator<Snapshot> eldest = snapshots.values().iterator();
+            while (snapshots.size() > capacity) {
+                forget(eldest.next());
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @param key key of a query
+     * @return the live snapshot most recently retained for the key, empty if there is none
+     */
+    public Optional<Snapshot> find(Object key) {
+        synchronized (snapshots) {
+            removeExpired();
+            return Optional.ofNullable(byKey.get(key));
+        }
+    }
+
+    /**
+     * @param id snapshot id
+     * @return the live snapshot, empty if it is unknown, expired or evicted
+     */
+    public Optional<Snapshot> get(String id) {
+        synchronized (snapshots) {
+            removeExpired();
+            return Optional.ofNullable(snapshots.get(id));
+        }
+    }
+
+    /**
+     * @return number of retained snapshots, including expired ones not yet removed
+     */
+    public int size() {
+        synchronized (snapshots) {
+            return snapshots.size();
+        }
+    }
+
+    /**
+     * @return number of snapshots dropped because the capacity was exceeded
+     */
+    public long evictions() {
+        return evictions.get();
+    }
+
+    private void removeExpired() {
+        Instant now = clock.instant();
+        Iterator<Snapshot> eldest = snapshots.values().iterator();
+        while (eldest.hasNext()) {
+            Snapshot snapshot = eldest.next();
+            if (snapshot.expiresAt().isAfter(now)) {
+                return;
+            }
+            forget(snapshot);
+            eldest.remove();
+        }
+    }
+
+    private void forget(Snapshot snapshot) {
+        if (snapshot.key() != null) {
+            byKey.remove(snapshot.key(), snapshot);
+        }
+    }
+
+    /**
+     * Immutable sorted result retained for cursor pagination.
+     *
+     * @param id        opaque id referenced by cursors
+     * @param key       key of the query the snapshot answers (nullable)
+     * @param sortBy    sort expression the items are ordered by (nullable)
+     * @param items     sorted statistics
+     * @param positions index of each symbol in items
+     * @param warnings  warnings of the result
+     * @param expiresAt end of the retention
+     */
+    public record Snapshot(
+            String id,
+            Object key,
+            String sortBy,
+            List<CryptoStats> items,
+            Map<String, Integer> positions,
+            List<String> warnings,
+            Instant expiresAt
+    ) {
+        /**
+         * @return index of the symbol in items, -1 if it is not part of the snapshot
+         */
+        public int positionOf(String symbol) {
+            return positions.getOrDefault(symbol, -1);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.provider.AsyncDataProvider;
+import dev.cryptorec.provider.StatsPaginator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Precomputes the statistics of all symbols for the standard periodMonths windows, so that requests for them are
+ * answered by a lookup instead of a computation.
+ * <p>
+ * A periodMonths window ends today (UTC), so its statistics only change at UTC midnight or when the data of the
+ * provider changes. Every check interval the precomputer compares the day and the
+ * {@link AsyncDataProvider#dataVersion() data version} with those of the published results and, if one of them
+ * changed, recomputes all windows and publishes them at once, replacing the previous results atomically.
+ * <p>
+ * Results are only served while their data version is current and their timeframe is the requested one. Until a
+ * recomputation after midnight or after a data change is published they are not, and requests are computed on
+ * demand as without the precomputer. Windows whose result is partial (e.g. a shard did not answer) are not
+ * published either.
+ */
+public class StatsPrecomputer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(StatsPrecomputer.class);
+
+    /**
+     * periodMonths values offered by the API.
+     */
+    public static final List<Integer> STANDARD_PERIOD_MONTHS = List.of(1, 3, 6, 12);
+
+    private final AsyncDataProvider dataProvider;
+    private final List<Integer> periodMonths;
+    private final Clock clock;
+    private final AtomicReference<Precomputed> published = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param dataProvider provider computing the statistics
+     * @param periodMonths periodMonths values to precompute
+     * @param clock        clock giving the current UTC day
+     */
+    public StatsPrecomputer(AsyncDataProvider dataProvider, List<Integer> periodMonths, Clock clock) {
+        this.dataProvider = dataProvider;
+        this.periodMonths = List.copyOf(periodMonths);
+        this.clock = clock;
+    }
+
+    /**
+     * Starts checking for a new day or new data in the background, beginning with the first precomputation.
+     *
+     * @param checkInterval time between two checks, bounds the delay after midnight or a data change
+     */
+    public synchronized void start(Duration checkInterval) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("stats-precompute").daemon().factory());
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                refreshIfStale();
+            } catch (RuntimeException e) {
+                // a failed run must not cancel the following ones, requests fall back to on-demand meanwhile
+                log.warn("Stats precomputation failed: {}", e.getMessage());
+            }
+        }, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Recomputes all windows if the day or the data version changed since the last publication.
+     *
+     * @return true if the windows were recomputed
+     */
+    public boolean refreshIfStale() {
+        Precomputed current = published.get();
+        if (current != null && current.day().equals(today()) && current.dataVersion() == dataProvider.dataVersion()) {
+            return false;
+        }
+        return refresh();
+    }
+
+    /**
+     * Recomputes all windows and publishes them.
+     *
+     * @return false if a recomputation was already running
+     */
+    public boolean refresh() {
+        if (!refreshing.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long start = System.nanoTime();
+            LocalDate day = today();
+            // read before computing: if the data changes meanwhile, the results are published as outdated
+            long dataVersion = dataProvider.dataVersion();
+
+            Map<Timeframe, Window> windows = new HashMap<>();
+            for (int months : periodMonths) {
+                LocalDate[] timeframe = DateRangeResolver.resolveTimeframe(null, null, months, day);
+                PaginatedResult<CryptoStats> all = dataProvider.getPaginatedStats(0, Integer.MAX_VALUE,
+                        StatsPaginator.DEFAULT_SORT, timeframe[0], timeframe[1], months).join();
+                if (!all.warnings().isEmpty()) {
+                    log.warn("Not precomputing periodMonths={}, partial result: {}", months, all.warnings());
+                    continue;
+                }
+                windows.put(new Timeframe(timeframe[0], timeframe[1]), Window.of(all.items()));
+            }
+
+            published.set(new Precomputed(day, dataVersion, Map.copyOf(windows)));
+            refreshes.incrementAndGet();
+            log.info("Precomputed stats of {} periodMonths windows for {} (data version {}) in {} ms",
+                    windows.size(), day, dataVersion, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return true;
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Looks up the precomputed statistics of a timeframe.
+     *
+     * @param from start date of the resolved timeframe
+     * @param to   end date of the resolved timeframe
+     * @return statistics of all symbols in the timeframe, empty if it is not precomputed or the data changed since
+     */
+    public Optional<Window> lookup(LocalDate from, LocalDate to) {
+        Precomputed current = published.get();
+        if (current == null || current.dataVersion() != dataProvider.dataVersion()) {
+            return Optional.empty();
+        }
+        Window window = current.windows().get(new Timeframe(from, to));
+        if (window == null) {
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(window);
+    }
+
+    /**
+     * @return true while a recomputation runs
+     */
+    public boolean isRefreshing() {
+        return refreshing.get();
+    }
+
+    /**
+     * @return number of published recomputations
+     */
+    public long refreshes() {
+        return refreshes.get();
+    }
+
+    /**
+     * @return number of lookups answered with precomputed statistics
+     */
+    public long hits() {
+        return hits.get();
+    }
+
+    /**
+     * Stops the background checks.
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    private LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * Precomputed statistics of all symbols in one timeframe.
+     *
+     * @param sorted   statistics sorted by {@link StatsPaginator#DEFAULT_SORT}
+     * @param bySymbol statistics by symbol
+     * @param top      statistics with the highest normalized range, null if no symbol has data
+     */
+    public record Window(List<CryptoStats> sorted, Map<String, CryptoStats> bySymbol, CryptoStats top) {
+
+        static Window of(List<CryptoStats> sorted) {
+            Map<String, CryptoStats> bySymbol = new HashMap<>();
+            sorted.forEach(stats -> bySymbol.put(stats.symbol(), stats));
+            CryptoStats top = sorted.stream().max(Comparator.comparing(CryptoStats::normalizedRange)).orElse(null);
+            return new Window(List.copyOf(sorted), Map.copyOf(bySymbol), top);
+        }
+    }
+
+    private record Timeframe(LocalDate from, LocalDate to) {
+    }
+
+    private record Precomputed(LocalDate day, long dataVersion, Map<Timeframe, Window> windows) {
+    }
+}
@@ -0,0 +1,116 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.CryptoPrice;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.AsyncDataProviderAdapter;
+import dev.cryptorec.provider.DataProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AnalyticsServiceTest {
+
+    private static final LocalDate FROM = LocalDate.of(2022, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2022, 1, 10);
+    private static final long DAY = 86_400_000L;
+    private static final long START = 1640995200000L; // 2022-01-01T00:00Z
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private DataProvider dataProvider;
+
+    private AnalyticsService service;
+
+    @BeforeEach
+    void setup() throws Exception {
+        MockitoAnnotations.openMocks(this).close();
+        service = new AnalyticsService(new AsyncDataProviderAdapter(dataProvider, Runnable::run));
+    }
+
+    private void prices(String symbol, double... prices) {
+        List<PriceData> points = new ArrayList<>();
+        for (int i = 0; i < prices.length; i++) {
+            // noon of each day
+            points.add(new PriceData(START + i * DAY + DAY / 2, BigDecimal.valueOf(prices[i])));
+        }
+        when(dataProvider.getCryptoPricesByTimeframe(eq(symbol), eq(FROM), eq(TO)))
+                .thenReturn(new CryptoPrice(symbol, points));
+    }
+
+    @Test
+    void testGetCorrelation() {
+        prices("BTC", 10, 11, 10, 12, 13, 12, 14, 15, 14, 16);
+        prices("ETH", 20, 22, 20, 24, 26, 24, 28, 30, 28, 32);
+        prices("XRP", 5, 4, 5, 4, 3, 4, 3, 2, 3, 2);
+
+        var matrix = service.getCorrelation(" btc, ETH ,xrp,BTC", FROM, TO, null, null).join();
+
+        assertEquals(List.of("BTC", "ETH", "XRP"), matrix.symbols());
+        assertEquals(Duration.ofDays(1), matrix.interval());
+        assertEquals(10, matrix.steps());
+        assertEquals(1.0, matrix.get(0, 1), 1e-9);
+        assertTrue(matrix.get(0, 2) < -0.8, "XRP moves against BTC: " + matrix.get(0, 2));
+        assertEquals(matrix.get(0, 2), matrix.get(2, 0));
+    }
+
+    @Test
+    void testAllCryptosWhenNoSymbolsGiven() {
+        when(dataProvider.getAllCryptos()).thenReturn(List.of("BTC", "ETH"));
+        prices("BTC", 10, 11, 10, 12, 13, 12, 14, 15, 14, 16);
+        prices("ETH", 20, 22, 20, 24, 26, 24, 28, 30, 28, 32);
+
+        var matrix = service.getCorrelation(null, FROM, TO, null, "4h").join();
+
+        assertEquals(List.of("BTC", "ETH"), matrix.symbols());
+        assertEquals(60, matrix.steps());
+        assertEquals(1.0, matrix.get(1, 0), 1e-9);
+    }
+
+    @Test
+    void testRejectsInvalidRequests() {
+        assertThrows(ValidationException.class, () -> service.getCorrelation("BTC", FROM, TO, null, "2m"));
+
+        String tooMany = String.join(",", IntStream.range(0, AnalyticsService.MAX_SYMBOLS + 1)
+                .mapToObj(i -> "S" + i).toList());
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> service.getCorrelation(tooMany, FROM, TO, null, null).join());
+        assertInstanceOf(ValidationException.class, e.getCause());
+
+        // 500 symbols over 2 years of hourly steps exceed the cell budget
+        String many = String.join(",", IntStream.range(0, AnalyticsService.MAX_SYMBOLS)
+                .mapToObj(i -> "S" + i).toList());
+        e = assertThrows(CompletionException.class,
+                () -> service.getCorrelation(many, FROM, FROM.plusYears(2), null, "1h").join());
+        assertInstanceOf(ValidationException.class, e.getCause());
+        verify(dataProvider, never()).getCryptoPricesByTimeframe(any(), any(), any());
+    }
+
+    @Test
+    void testUnknownSymbolFails() {
+        prices("BTC", 10, 11, 10, 12, 13, 12, 14, 15, 14, 16);
+        when(dataProvider.getCryptoPricesByTimeframe(eq("NOPE"), any(), any()))
+                .thenThrow(new CryptoNotFoundException("Cryptocurrency not found: NOPE"));
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> service.getCorrelation("BTC,NOPE", FROM, TO, null, null).join());
+        assertInstanceOf(CryptoNotFoundException.class, e.getCause());
+    }
+}
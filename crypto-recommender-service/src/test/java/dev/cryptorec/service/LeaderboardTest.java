@@ -0,0 +1,188 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.exception.InvalidTimeframeException;
+import dev.cryptorec.provider.AsyncDataProviderAdapter;
+import dev.cryptorec.provider.DataProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LeaderboardTest {
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private DataProvider dataProvider;
+
+    // normalized range and data version per symbol
+    private final Map<String, String> ranges = new ConcurrentHashMap<>();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private AsyncDataProviderAdapter provider;
+
+    @BeforeEach
+    void setup() throws Exception {
+        MockitoAnnotations.openMocks(this).close();
+        provider = new AsyncDataProviderAdapter(dataProvider, Runnable::run) {
+            @Override
+            public long dataVersion() {
+                return versions.values().stream().mapToLong(Long::longValue).sum();
+            }
+
+            @Override
+            public long symbolVersion(String symbol) {
+                return versions.getOrDefault(symbol, 0L);
+            }
+        };
+        when(dataProvider.getAllCryptos()).thenAnswer(invocation -> List.copyOf(new TreeSet<>(ranges.keySet())));
+        doAnswer(invocation -> {
+            String symbol = invocation.getArgument(0);
+            return Optional.of(stats(symbol, ranges.get(symbol), invocation.getArgument(1), invocation.getArgument(2)));
+        }).when(dataProvider).tryGetCryptoStats(anyString(), any(), any());
+        ranges.put("BTC", "0.10");
+        ranges.put("ETH", "0.30");
+        ranges.put("XRP", "0.20");
+    }
+
+    private static CryptoStats stats(String symbol, String normalizedRange, LocalDate from, LocalDate to) {
+        PriceData low = new PriceData(1641009600000L, new BigDecimal("100"));
+        PriceData high = new PriceData(1641096000000L, new BigDecimal("150"));
+        return new CryptoStats(symbol, new BigDecimal(normalizedRange), low, high, low, high, from, to);
+    }
+
+    private static List<String> symbols(Leaderboard.Update update) {
+        return update.top().stream().map(CryptoStats::symbol).toList();
+    }
+
+    @Test
+    void testOnlyChangedSymbolsAreRecomputed() {
+        Leaderboard leaderboard = new Leaderboard(provider, List.of(1, 3), 2, Clock.systemUTC());
+        List<Leaderboard.Update> published = new ArrayList<>();
+        leaderboard.addListener(published::add);
+
+        assertTrue(leaderboard.refresh());
+        assertEquals(6, leaderboard.recomputedSymbols());
+        assertEquals(List.of("ETH", "XRP"), symbols(leaderboard.current(1).orElseThrow()));
+        assertEquals(2, published.size());
+
+        // nothing changed: no computation, no publication
+        assertFalse(leaderboard.refresh());
+        assertEquals(6, leaderboard.recomputedSymbols());
+
+        // new BTC data: one symbol recomputed per window, the new top published
+        ranges.put("BTC", "0.50");
+        versions.put("BTC", 1L);
+        assertTrue(leaderboard.refresh());
+        assertEquals(8, leaderboard.recomputedSymbols());
+        verify(dataProvider, times(2)).tryGetCryptoStats(eq("ETH"), any(), any());
+        assertEquals(List.of("BTC", "ETH"), symbols(published.get(2)));
+        assertEquals(4, published.size());
+        assertTrue(published.get(3).sequence() > published.get(2).sequence());
+    }
+
+    @Test
+    void testUnchangedTopIsNotPublished() {
+        Leaderboard leaderboard = new Leaderboard(provider, List.of(1), 2, Clock.systemUTC());
+        leaderboard.refresh();
+        List<Leaderboard.Update> published = new ArrayList<>();
+        leaderboard.addListener(published::add);
+
+        // BTC changes but stays out of the top 2
+        ranges.put("BTC", "0.15");
+        versions.put("BTC", 1L);
+        assertFalse(leaderboard.refresh());
+        assertTrue(published.isEmpty());
+
+        // a removed symbol leaves the leaderboard
+        ranges.remove("ETH");
+        versions.put("ETH", 1L);
+        assertTrue(leaderboard.refresh());
+        assertEquals(List.of("XRP", "BTC"), symbols(published.getFirst()));
+    }
+
+    @Test
+    void testNewDayMovesTheWindow() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-03-31T23:59:00Z"));
+        Leaderboard leaderboard = new Leaderboard(provider, List.of(1), 3, clock);
+        leaderboard.refresh();
+        assertEquals(LocalDate.of(2026, 3, 31), leaderboard.current(1).orElseThrow().to());
+
+        clock.instant = Instant.parse("2026-04-01T00:00:05Z");
+        assertTrue(leaderboard.refresh());
+        assertEquals(6, leaderboard.recomputedSymbols());
+        assertEquals(LocalDate.of(2026, 4, 1), leaderboard.current(1).orElseThrow().to());
+    }
+
+    @Test
+    void testFailedSymbolIsRetried() {
+        Leaderboard leaderboard = new Leaderboard(provider, List.of(1), 3, Clock.systemUTC());
+        doThrow(new IllegalStateException("down")).when(dataProvider).tryGetCryptoStats(eq("XRP"), any(), any());
+
+        leaderboard.refresh();
+        assertEquals(List.of("ETH", "BTC"), symbols(leaderboard.current(1).orElseThrow()));
+
+        doAnswer(invocation -> Optional.of(stats("XRP", "0.20", invocation.getArgument(1), invocation.getArgument(2))))
+                .when(dataProvider).tryGetCryptoStats(eq("XRP"), any(), any());
+        assertTrue(leaderboard.refresh());
+        assertEquals(List.of("ETH", "XRP", "BTC"), symbols(leaderboard.current(1).orElseThrow()));
+        assertFalse(leaderboard.refresh());
+    }
+
+    @Test
+    void testUnknownPeriodMonths() {
+        Leaderboard leaderboard = new Leaderboard(provider, StatsPrecomputer.STANDARD_PERIOD_MONTHS, 3,
+                Clock.systemUTC());
+
+        assertTrue(leaderboard.current(6).isEmpty());
+        assertThrows(InvalidTimeframeException.class, () -> leaderboard.current(2));
+        assertThrows(IllegalArgumentException.class, () -> new Leaderboard(provider, List.of(1), 0, Clock.systemUTC()));
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.exception.ReadOnlyProviderException;
+import dev.cryptorec.model.exception.UploadTooLargeException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.CsvDataProvider;
+import dev.cryptorec.provider.DataProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceUploadServiceTest {
+
+    private static final String CSV = """
+            timestamp,symbol,price
+            1641009600000,SOL,169.5
+            1641013200000,SOL,170.1
+            1641013200000,SOL,170.2
+            """;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testUploadMergesAndReports() {
+        CsvDataProvider provider = new CsvDataProvider(directory.toString());
+        PriceUploadService service = new PriceUploadService(provider);
+
+        PriceUploadService.UploadReport report = service.upload("sol", new StringReader(CSV), true);
+
+        assertEquals(3, report.rows());
+        assertEquals(2, report.result().added());
+        assertEquals(0, report.result().replaced());
+        assertTrue(report.result().persisted());
+        assertTrue(report.rowsPerSecond() > 0);
+        assertTrue(Files.exists(directory.resolve("SOL_values.csv")));
+
+        report = service.upload("SOL", new StringReader("timestamp,price\n1641009600000,168\n"), false);
+        assertEquals(1, report.result().replaced());
+        assertEquals(2, report.result().totalPoints());
+    }
+
+    @Test
+    void testInvalidUploadChangesNothing() {
+        CsvDataProvider provider = new CsvDataProvider(directory.toString());
+        PriceUploadService service = new PriceUploadService(provider);
+
+        assertThrows(ValidationException.class,
+                () -> service.upload("SOL", new StringReader(CSV + "1641016800000,SOL,-1\n"), true));
+        assertThrows(ValidationException.class, () -> service.upload("../SOL", new StringReader(CSV), true));
+
+        assertFalse(provider.getAllCryptos().contains("SOL"));
+        assertEquals(0, provider.dataVersion());
+        assertFalse(Files.exists(directory.resolve("SOL_values.csv")));
+    }
+
+    @Test
+    void testUploadOverRowLimitIsRejected() {
+        CsvDataProvider provider = new CsvDataProvider(directory.toString());
+        PriceUploadService service = new PriceUploadService(provider, 2);
+
+        assertThrows(UploadTooLargeException.class, () -> service.upload("SOL", new StringReader(CSV), true));
+
+        assertFalse(provider.getAllCryptos().contains("SOL"));
+        assertEquals(0, provider.dataVersion());
+        assertEquals(2, new PriceUploadService(provider, 3).upload("SOL", new StringReader(CSV), false)
+                .result().totalPoints());
+    }
+
+    @Test
+    void testReadOnlyProviderRejectsUploads() {
+        PriceUploadService service = new PriceUploadService(Mockito.mock(DataProvider.class));
+
+        assertThrows(ReadOnlyProviderException.class, () -> service.upload("SOL", new StringReader(CSV), false));
+    }
+}
@@ -5,23 +5,37 @@ import dev.cryptorec.model.CryptoStats;
 import dev.cryptorec.model.PaginatedResult;
 import dev.cryptorec.model.PriceData;
 import dev.cryptorec.model.exception.CryptoNotFoundException;
+import dev.cryptorec.model.exception.CursorExpiredException;
+import dev.cryptorec.model.exception.ValidationException;
+import dev.cryptorec.provider.AsyncDataProviderAdapter;
 import dev.cryptorec.provider.DataProvider;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class RecommendationServiceTest {
 
-    @Mock
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
     private DataProvider dataProvider;
 
     private RecommendationService service;
@@ -29,7 +43,8 @@ class RecommendationServiceTest {
     @BeforeEach
     void setup() throws Exception {
         MockitoAnnotations.openMocks(this).close();
-        service = new RecommendationService(dataProvider);
+        // direct executor: provider calls complete before the service methods return
+        service = new RecommendationService(new AsyncDataProviderAdapter(dataProvider, Runnable::run));
     }
 
     private List<PriceData> createMockPrices() {
@@ -64,7 +79,7 @@ class RecommendationServiceTest {
         when(dataProvider.getPaginatedStats(0, 50, "normalizedRange_desc", from, to, null))
                 .thenReturn(new PaginatedResult<>(List.of(btcStats, ethStats), 0, 50, 2, 1));
 
-        var result = service.getRecommendations(0, 50, "normalizedRange_desc", from, to, null);
+        var result = service.getRecommendations(0, 50, "normalizedRange_desc", from, to, null).join();
 
         assertNotNull(result);
 
@@ -90,21 +105,149 @@ class RecommendationServiceTest {
                 new PriceData(1641182400000L, new BigDecimal("110.00")),
                 from, to);
 
-        // Mock paginated result for page 1, size 2 (should return 1 item - the 3rd item)
+        // Page 1, size 2 asks the provider for the first (1 + 1) * 2 entries and slices the 3rd and 4th
         // Using any() for dates since they will be resolved by DateRangeResolver
-        when(dataProvider.getPaginatedStats(eq(1), eq(2), eq("normalizedRange_desc"), any(), any(), eq(1)))
-                .thenReturn(new PaginatedResult<>(List.of(ltcStats), 1, 2, 3, 2));
+        when(dataProvider.getPaginatedStats(eq(0), eq(4), eq("normalizedRange_desc"), any(), any(), eq(1)))
+                .thenReturn(new PaginatedResult<>(List.of(rangeStats("ETH", "0.5"), rangeStats("BTC", "0.4"),
+                        ltcStats), 0, 4, 3, 1));
 
-        var result = service.getRecommendations(1, 2, "normalizedRange_desc", null, null, 1);
+        var result = service.getRecommendations(1, 2, "normalizedRange_desc", null, null, 1).join();
 
         assertNotNull(result);
         List<CryptoStats> items = result.items();
-        assertEquals(1, items.size()); // Page 1 with size 2 should have 1 item
+        // Page 1 with size 2 has the 3rd item only
+        assertEquals(List.of("LTC"), items.stream().map(CryptoStats::symbol).toList());
         assertEquals(3, result.totalElements());
         assertEquals(1, result.page());
         assertEquals(2, result.totalPages());
     }
 
+    @Test
+    void testGetRecommendationsWithFilter() {
+        when(dataProvider.getAllCryptos()).thenReturn(List.of("BTC", "ETH"));
+        when(dataProvider.getCryptoPricesByTimeframe(eq("BTC"), any(), any()))
+                .thenReturn(new CryptoPrice("BTC", createMockPrices()));
+        when(dataProvider.getCryptoPricesByTimeframe(eq("ETH"), any(), any()))
+                .thenReturn(new CryptoPrice("ETH", List.of(
+                        new PriceData(1641009600000L, new BigDecimal("3000.00")),
+                        new PriceData(1641096000000L, new BigDecimal("3800.00")))));
+
+        var result = service.getRecommendations(0, 50, null, "max > 40000 OR symbol = eth",
+                LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 31), null).join();
+        assertEquals(List.of("ETH", "BTC"), result.items().stream().map(CryptoStats::symbol).toList());
+
+        result = service.getRecommendations(0, 50, "symbol_asc", "max > 40000",
+                LocalDate.of(2022, 1, 1), LocalDate.of(2022, 1, 31), null).join();
+        assertEquals(List.of("BTC"), result.items().stream().map(CryptoStats::symbol).toList());
+    }
+
+    @Test
+    void testGetRecommendationsInvalidFilterThrowsImmediately() {
+        assertThrows(ValidationException.class,
+                () -> service.getRecommendations(0, 50, null, "max >> 1", null, null, 1));
+        assertThrows(ValidationException.class,
+                () -> service.getRecommendations(0, 50, "max_desc,,min_asc", null, null, null, 1));
+    }
+
+    private static CryptoStats rangeStats(String symbol, String normalizedRange) {
+        PriceData price = new PriceData(1641009600000L, new BigDecimal("100"));
+        LocalDate day = LocalDate.of(2022, 1, 1);
+        return new CryptoStats(symbol, new BigDecimal(normalizedRange), price, price, price, price, day, day);
+    }
+
+    @Test
+    void testCursorPagesAreServedFromSnapshot() {
+        List<CryptoStats> sorted = List.of(rangeStats("ETH", "0.5"), rangeStats("BTC", "0.4"),
+                rangeStats("XRP", "0.4"), rangeStats("LTC", "0.3"), rangeStats("DOGE", "0.2"));
+        when(dataProvider.getPaginatedStats(eq(0), eq(Integer.MAX_VALUE), isNull(), any(), any(), eq(1)))
+                .thenReturn(new PaginatedResult<>(sorted, 0, Integer.MAX_VALUE, 5, 1));
+
+        var first = service.getRecommendationsPage(null, 2, null, null, null, null, 1).join();
+        assertEquals(List.of("ETH", "BTC"), first.items().stream().map(CryptoStats::symbol).toList());
+        assertEquals(0, first.page());
+        assertEquals(3, first.totalPages());
+        assertNotNull(first.nextCursor());
+
+        // later pages do not recompute, even if the data changes meanwhile
+        when(dataProvider.getPaginatedStats(eq(0), eq(Integer.MAX_VALUE), isNull(), any(), any(), eq(1)))
+                .thenReturn(new PaginatedResult<>(List.of(), 0, Integer.MAX_VALUE, 0, 0));
+
+        var second = service.getRecommendationsPage(first.nextCursor(), 2, null, null, null, null, 1).join();
+        assertEquals(List.of("XRP", "LTC"), second.items().stream().map(CryptoStats::symbol).toList());
+        assertEquals(1, second.page());
+
+        var last = service.getRecommendationsPage(second.nextCursor(), 2, null, null, null, null, 1).join();
+        assertEquals(List.of("DOGE"), last.items().stream().map(CryptoStats::symbol).toList());
+        assertNull(last.nextCursor());
+
+        // a cursor can be replayed while its snapshot is retained
+        assertEquals(second.items(),
+                service.getRecommendationsPage(first.nextCursor(), 2, null, null, null, null, 1).join().items());
+        verify(dataProvider, times(1)).getPaginatedStats(eq(0), eq(Integer.MAX_VALUE), isNull(), any(), any(), eq(1));
+    }
+
+    @Test
+    void testSinglePageIsNotRetained() {
+        SnapshotStore snapshots = new SnapshotStore(4, Duration.ofMinutes(1), Clock.systemUTC());
+        RecommendationService cursorService = new RecommendationService(
+                new AsyncDataProviderAdapter(dataProvider, Runnable::run), snapshots);
+        when(dataProvider.getPaginatedStats(eq(0), eq(Integer.MAX_VALUE), isNull(), any(), any(), eq(1)))
+                .thenReturn(new PaginatedResult<>(List.of(rangeStats("BTC", "0.4")), 0, Integer.MAX_VALUE, 1, 1));
+
+        var page = cursorService.getRecommendationsPage(null, 2, null, null, null, null, 1).join();
+
+        assertNull(page.nextCursor());
+        assertEquals(0, snapshots.size());
+    }
+
+    @Test
+    void testRepeatedFirstPagesDoNotEvictLiveCursors() {
+        SnapshotStore snapshots = new SnapshotStore(2, Duration.ofMinutes(1), Clock.systemUTC());
+        RecommendationService cursorService = new RecommendationService(
+                new AsyncDataProviderAdapter(dataProvider, Runnable::run), snapshots);
+        List<CryptoStats> sorted = List.of(rangeStats("ETH", "0.5"), rangeStats("BTC", "0.4"));
+        when(dataProvider.getPaginatedStats(eq(0), eq(Integer.MAX_VALUE), isNull(), any(), any(), anyInt()))
+                .thenReturn(new PaginatedResult<>(sorted, 0, Integer.MAX_VALUE, 2, 1));
+        String cursor = cursorService.getRecommendationsPage(null, 1, null, null, null, null, 1).join().nextCursor();
+
+        // a polling client asking for the first page of another query over and over
+        String polled = null;
+        for (int i = 0; i < 10; i++) {
+            polled = cursorService.getRecommendationsPage(null, 1, null, null, null, null, 3).join().nextCursor();
+        }
+
+        assertEquals(2, snapshots.size());
+        assertEquals(0, snapshots.evictions());
+        assertEquals(PageCursor.decode(polled).snapshotId(), PageCursor.decode(
+                cursorService.getRecommendationsPage(null, 1, null, null, null, null, 3).join().nextCursor())
+                .snapshotId());
+        assertEquals(List.of("BTC"), cursorService.getRecommendationsPage(cursor, 1, null, null, null, null, 1)
+                .join().items().stream().map(CryptoStats::symbol).toList());
+        verify(dataProvider, times(1)).getPaginatedStats(eq(0), eq(Integer.MAX_VALUE), isNull(), any(), any(), eq(3));
+    }
+
+    @Test
+    void testInvalidAndExpiredCursors() {
+        SnapshotStore snapshots = new SnapshotStore(4, Duration.ofMinutes(1), Clock.systemUTC());
+        RecommendationService cursorService = new RecommendationService(
+                new AsyncDataProviderAdapter(dataProvider, Runnable::run), snapshots);
+        when(dataProvider.getPaginatedStats(eq(0), eq(Integer.MAX_VALUE), isNull(), any(), any(), eq(1)))
+                .thenReturn(new PaginatedResult<>(List.of(rangeStats("BTC", "0.4"), rangeStats("ETH", "0.3")),
+                        0, Integer.MAX_VALUE, 2, 1));
+        String cursor = cursorService.getRecommendationsPage(null, 1, null, null, null, null, 1).join().nextCursor();
+        PageCursor decoded = PageCursor.decode(cursor);
+
+        assertThrows(ValidationException.class,
+                () -> cursorService.getRecommendationsPage("not a cursor", 1, null, null, null, null, 1));
+        String tampered = new PageCursor(decoded.snapshotId(), "0.9", decoded.symbol()).encode();
+        assertThrows(ValidationException.class,
+                () -> cursorService.getRecommendationsPage(tampered, 1, null, null, null, null, 1));
+
+        String unknown = new PageCursor("gone", decoded.sortKey(), decoded.symbol()).encode();
+        assertThrows(CursorExpiredException.class,
+                () -> cursorService.getRecommendationsPage(unknown, 1, null, null, null, null, 1));
+    }
+
     @Test
     void testGetStats() {
         when(dataProvider.getCryptoPricesByTimeframe(eq("BTC"), any(), any()))
@@ -113,7 +256,7 @@ class RecommendationServiceTest {
         LocalDate from = LocalDate.of(2022, 1, 1);
         LocalDate to = LocalDate.of(2022, 1, 31);
 
-        CryptoStats stats = service.getStats("BTC", from, to, null);
+        CryptoStats stats = service.getStats("BTC", from, to, null).join();
 
         assertNotNull(stats);
         assertEquals("BTC", stats.symbol());
@@ -129,8 +272,9 @@ class RecommendationServiceTest {
         when(dataProvider.getCryptoPricesByTimeframe(eq("INVALID"), any(), any()))
                 .thenThrow(new CryptoNotFoundException("Crypto not found"));
 
-        assertThrows(CryptoNotFoundException.class,
-                () -> service.getStats("INVALID", null, null, 1));
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> service.getStats("INVALID", null, null, 1).join());
+        assertInstanceOf(CryptoNotFoundException.class, e.getCause());
     }
 
     @Test
@@ -155,12 +299,111 @@ class RecommendationServiceTest {
         when(dataProvider.getCryptoPricesByTimeframe(eq("ETH"), any(), any()))
                 .thenReturn(new CryptoPrice("ETH", ethPrices));
 
-        CryptoStats topCrypto = service.getTopCrypto(null, null, 1);
+        CryptoStats topCrypto = service.getTopCrypto(null, null, 1).join();
 
         assertNotNull(topCrypto);
         assertEquals("BTC", topCrypto.symbol()); // BTC has higher normalized range
     }
 
+    @Test
+    void testGetTopCryptoFetchesStatsConcurrently() throws Exception {
+        when(dataProvider.getAllCryptos()).thenReturn(List.of("BTC", "ETH", "XRP"));
+        when(dataProvider.getCryptoPricesByTimeframe(any(), any(), any())).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            String symbol = invocation.getArgument(0);
+            return new CryptoPrice(symbol, List.of(
+                    new PriceData(1641009600000L, new BigDecimal("100")),
+                    new PriceData(1641096000000L, new BigDecimal("BTC".equals(symbol) ? "200" : "150"))));
+        });
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            RecommendationService concurrentService =
+                    new RecommendationService(new AsyncDataProviderAdapter(dataProvider, executor));
+
+            long start = System.nanoTime();
+            CryptoStats topCrypto = concurrentService.getTopCrypto(null, null, 1).join();
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertEquals("BTC", topCrypto.symbol());
+            assertTrue(elapsedMillis < 1400, "per-symbol fetches did not overlap: " + elapsedMillis + " ms");
+        }
+    }
+
+    @Test
+    void testConcurrentIdenticalQueriesAreCoalesced() throws Exception {
+        LocalDate from = LocalDate.of(2022, 1, 1);
+        LocalDate to = LocalDate.of(2022, 1, 31);
+        AtomicInteger computations = new AtomicInteger();
+        when(dataProvider.getPaginatedStats(0, 50, "normalizedRange_desc", from, to, null)).thenAnswer(invocation -> {
+            computations.incrementAndGet();
+            Thread.sleep(300);
+            return new PaginatedResult<>(List.of(), 0, 50, 0, 0);
+        });
+
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            RecommendationService concurrentService =
+                    new RecommendationService(new AsyncDataProviderAdapter(dataProvider, executor));
+
+            List<CompletableFuture<PaginatedResult<CryptoStats>>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                results.add(concurrentService.getRecommendations(0, 50, "normalizedRange_desc", from, to, null));
+            }
+            results.forEach(CompletableFuture::join);
+
+            assertEquals(1, computations.get());
+            assertEquals(19, concurrentService.coalescedCalls());
+
+            // completed flights are not cached
+            concurrentService.getRecommendations(0, 50, "normalizedRange_desc", from, to, null).join();
+            assertEquals(2, computations.get());
+        }
+    }
+
+    @Test
+    void testDataVersionChangeStartsNewComputation() {
+        AtomicLong version = new AtomicLong();
+        AtomicInteger computations = new AtomicInteger();
+        AsyncDataProviderAdapter provider = new AsyncDataProviderAdapter(dataProvider, Runnable::run) {
+            @Override
+            public long dataVersion() {
+                return version.get();
+            }
+
+            @Override
+            public CompletableFuture<CryptoStats> getCryptoStats(String symbol, LocalDate fromDate, LocalDate toDate) {
+                computations.incrementAndGet();
+                return new CompletableFuture<>();
+            }
+        };
+        RecommendationService versionedService = new RecommendationService(provider);
+
+        versionedService.getStats("BTC", null, null, 1);
+        versionedService.getStats("BTC", null, null, 1);
+        version.incrementAndGet();
+        versionedService.getStats("BTC", null, null, 1);
+
+        assertEquals(2, computations.get());
+        assertEquals(1, versionedService.coalescedCalls());
+    }
+
+    @Test
+    void testGetTopCryptoSkipsFailingCryptos() {
+        when(dataProvider.getAllCryptos()).thenReturn(List.of("BTC", "ETH"));
+        when(dataProvider.getCryptoPricesByTimeframe(eq("BTC"), any(), any()))
+                .thenThrow(new CryptoNotFoundException("Crypto not found"));
+        when(dataProvider.getCryptoPricesByTimeframe(eq("ETH"), any(), any()))
+                .thenReturn(new CryptoPrice("ETH", createMockPrices()));
+
+        assertEquals("ETH", service.getTopCrypto(null, null, 1).join().symbol());
+
+        when(dataProvider.getCryptoPricesByTimeframe(eq("ETH"), any(), any()))
+                .thenThrow(new CryptoNotFoundException("Crypto not found"));
+
+        CompletionException e = assertThrows(CompletionException.class,
+                () -> service.getTopCrypto(null, null, 1).join());
+        assertInstanceOf(ValidationException.class, e.getCause());
+    }
+
     @Test
     void testGetRecommendationsSorted() {
         LocalDate from = LocalDate.of(2021, 12, 1);
@@ -188,7 +431,7 @@ class RecommendationServiceTest {
         when(dataProvider.getPaginatedStats(eq(0), eq(50), eq("normalizedRange_desc"), any(), any(), eq(1)))
                 .thenReturn(new PaginatedResult<>(List.of(ethStats, btcStats), 0, 50, 2, 1));
 
-        var result = service.getRecommendations(0, 50, "normalizedRange_desc", null, null, 1);
+        var result = service.getRecommendations(0, 50, "normalizedRange_desc", null, null, 1).join();
 
         assertNotNull(result);
         List<CryptoStats> items = result.items();
@@ -0,0 +1,87 @@
+package dev.cryptorec.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    @Test
+    void testConcurrentCallersShareOneComputation() {
+        AtomicInteger computations = new AtomicInteger();
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(singleFlight.execute("key", () -> {
+                computations.incrementAndGet();
+                return pending;
+            }));
+        }
+        pending.complete(42);
+
+        assertEquals(1, computations.get());
+        assertEquals(9, singleFlight.coalesced());
+        results.forEach(result -> assertEquals(42, result.join()));
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void testDifferentKeysComputeIndependently() {
+        AtomicInteger computations = new AtomicInteger();
+
+        singleFlight.execute("a", () -> new CompletableFuture<>());
+        singleFlight.execute("b", () -> {
+            computations.incrementAndGet();
+            return new CompletableFuture<>();
+        });
+
+        assertEquals(1, computations.get());
+        assertEquals(2, singleFlight.inFlight());
+        assertEquals(0, singleFlight.coalesced());
+    }
+
+    @Test
+    void testFailurePropagatesToWaitersAndIsNotCached() {
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        CompletableFuture<Integer> first = singleFlight.execute("key", () -> pending);
+        CompletableFuture<Integer> second = singleFlight.execute("key", CompletableFuture::new);
+
+        pending.completeExceptionally(new IllegalStateException("boom"));
+
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(IllegalStateException.class, assertThrows(CompletionException.class, second::join).getCause());
+        assertEquals(7, singleFlight.execute("key", () -> CompletableFuture.completedFuture(7)).join());
+    }
+
+    @Test
+    void testSynchronousFailureCompletesExceptionally() {
+        CompletableFuture<Integer> result = singleFlight.execute("key", () -> {
+            throw new IllegalArgumentException("invalid");
+        });
+
+        assertInstanceOf(IllegalArgumentException.class,
+                assertThrows(CompletionException.class, result::join).getCause());
+        assertEquals(0, singleFlight.inFlight());
+    }
+
+    @Test
+    void testCancellingOneCallerDoesNotAffectOthers() {
+        CompletableFuture<Integer> pending = new CompletableFuture<>();
+        CompletableFuture<Integer> first = singleFlight.execute("key", () -> pending);
+        CompletableFuture<Integer> second = singleFlight.execute("key", CompletableFuture::new);
+
+        first.cancel(true);
+        pending.complete(1);
+
+        assertEquals(1, second.join());
+    }
+}
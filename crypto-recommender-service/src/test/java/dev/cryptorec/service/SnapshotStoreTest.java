@@ -0,0 +1,112 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PriceData;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotStoreTest {
+
+    private Instant now = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final Clock clock = new Clock() {
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    };
+
+    private static CryptoStats stats(String symbol) {
+        PriceData price = new PriceData(1641009600000L, BigDecimal.ONE);
+        LocalDate day = LocalDate.of(2022, 1, 1);
+        return new CryptoStats(symbol, BigDecimal.ZERO, price, price, price, price, day, day);
+    }
+
+    @Test
+    void testSnapshotIndexesSymbols() {
+        SnapshotStore store = new SnapshotStore(2, Duration.ofMinutes(1), clock);
+
+        SnapshotStore.Snapshot snapshot = store.create(List.of(stats("BTC"), stats("ETH")), null, List.of("w"));
+
+        assertEquals(1, snapshot.positionOf("ETH"));
+        assertEquals(-1, snapshot.positionOf("XRP"));
+        assertEquals(List.of("w"), snapshot.warnings());
+        // created snapshots are not retained until asked to
+        assertTrue(store.get(snapshot.id()).isEmpty());
+
+        store.retain(snapshot);
+        store.retain(snapshot);
+        assertSame(snapshot, store.get(snapshot.id()).orElseThrow());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testSnapshotsExpireAfterTtl() {
+        SnapshotStore store = new SnapshotStore(2, Duration.ofMinutes(1), clock);
+        SnapshotStore.Snapshot snapshot = store.create(List.of(stats("BTC")), null, List.of());
+        store.retain(snapshot);
+
+        now = now.plusSeconds(59);
+        assertTrue(store.get(snapshot.id()).isPresent());
+
+        now = now.plusSeconds(1);
+        assertTrue(store.get(snapshot.id()).isEmpty());
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void testOldestSnapshotsAreEvictedBeyondCapacity() {
+        SnapshotStore store = new SnapshotStore(2, Duration.ofMinutes(1), clock);
+        List<SnapshotStore.Snapshot> snapshots = List.of(
+                store.create(List.of(stats("BTC")), null, List.of()),
+                store.create(List.of(stats("ETH")), null, List.of()),
+                store.create(List.of(stats("XRP")), null, List.of()));
+
+        snapshots.forEach(store::retain);
+
+        assertEquals(2, store.size());
+        assertEquals(1, store.evictions());
+        assertTrue(store.get(snapshots.get(0).id()).isEmpty());
+        assertTrue(store.get(snapshots.get(2).id()).isPresent());
+    }
+
+    @Test
+    void testRetainedSnapshotsAreFoundByKeyUntilDropped() {
+        SnapshotStore store = new SnapshotStore(2, Duration.ofMinutes(1), clock);
+        SnapshotStore.Snapshot first = store.create("q1", List.of(stats("BTC")), null, List.of());
+        assertTrue(store.find("q1").isEmpty());
+
+        store.retain(first);
+        assertSame(first, store.find("q1").orElseThrow());
+
+        now = now.plusSeconds(60);
+        assertTrue(store.find("q1").isEmpty());
+
+        SnapshotStore.Snapshot second = store.create("q1", List.of(stats("ETH")), null, List.of());
+        store.retain(second);
+        store.retain(store.create("q2", List.of(stats("XRP")), null, List.of()));
+        store.retain(store.create("q3", List.of(stats("LTC")), null, List.of()));
+        assertTrue(store.find("q1").isEmpty());
+        assertTrue(store.find("q3").isPresent());
+    }
+}
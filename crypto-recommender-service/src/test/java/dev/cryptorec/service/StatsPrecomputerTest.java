@@ -0,0 +1,169 @@
+package dev.cryptorec.service;
+
+import dev.cryptorec.model.CryptoStats;
+import dev.cryptorec.model.PaginatedResult;
+import dev.cryptorec.model.PriceData;
+import dev.cryptorec.model.util.DateRangeResolver;
+import dev.cryptorec.provider.AsyncDataProviderAdapter;
+import dev.cryptorec.provider.DataProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StatsPrecomputerTest {
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private DataProvider dataProvider;
+
+    private final AtomicLong version = new AtomicLong();
+    private AsyncDataProviderAdapter provider;
+
+    @BeforeEach
+    void setup() throws Exception {
+        MockitoAnnotations.openMocks(this).close();
+        provider = new AsyncDataProviderAdapter(dataProvider, Runnable::run) {
+            @Override
+            public long dataVersion() {
+                return version.get();
+            }
+        };
+        when(dataProvider.getPaginatedStats(eq(0), eq(Integer.MAX_VALUE), eq("normalizedRange_desc"), any(), any(),
+                anyInt())).thenAnswer(invocation -> {
+            LocalDate from = invocation.getArgument(3);
+            LocalDate to = invocation.getArgument(4);
+            return new PaginatedResult<>(List.of(stats("ETH", "0.5000", from, to), stats("BTC", "0.0250", from, to)),
+                    0, Integer.MAX_VALUE, 2, 1);
+        });
+    }
+
+    private static CryptoStats stats(String symbol, String normalizedRange, LocalDate from, LocalDate to) {
+        PriceData low = new PriceData(1641009600000L, new BigDecimal("100"));
+        PriceData high = new PriceData(1641096000000L, new BigDecimal("150"));
+        return new CryptoStats(symbol, new BigDecimal(normalizedRange), low, high, low, high, from, to);
+    }
+
+    private static LocalDate[] window(int periodMonths, LocalDate today) {
+        return DateRangeResolver.resolveTimeframe(null, null, periodMonths, today);
+    }
+
+    @Test
+    void testPrecomputedWindowsAreAnsweredWithoutProvider() {
+        StatsPrecomputer precomputer = new StatsPrecomputer(provider, StatsPrecomputer.STANDARD_PERIOD_MONTHS,
+                Clock.systemUTC());
+        RecommendationService service = new RecommendationService(provider,
+                new SnapshotStore(8, Duration.ofMinutes(1), Clock.systemUTC()), precomputer);
+        assertTrue(precomputer.refreshIfStale());
+
+        assertEquals(List.of("ETH", "BTC"), service.getRecommendations(0, 10, null, null, null, 3).join().items()
+                .stream().map(CryptoStats::symbol).toList());
+        assertEquals(List.of("BTC", "ETH"), service.getRecommendations(0, 10, "symbol_asc", null, null, null, 1)
+                .join().items().stream().map(CryptoStats::symbol).toList());
+        assertEquals(List.of("BTC"), service.getRecommendations(0, 10, null, "symbol = BTC", null, null, 6).join()
+                .items().stream().map(CryptoStats::symbol).toList());
+        assertEquals("BTC", service.getStats("BTC", null, null, 12).join().symbol());
+        assertEquals("BTC", service.getStats("btc", null, null, 12).join().symbol());
+        assertEquals("ETH", service.getTopCrypto(null, null, null).join().symbol());
+        assertNotNull(service.getRecommendationsPage(null, 1, null, null, null, null, 1).join().nextCursor());
+
+        // one computation per window, all requests were lookups
+        verify(dataProvider, times(4)).getPaginatedStats(anyInt(), anyInt(), any(), any(), any(), any());
+        assertEquals(7, precomputer.hits());
+    }
+
+    @Test
+    void testRecomputesOnNewDayAndDataChange() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-03-31T23:59:00Z"));
+        StatsPrecomputer precomputer = new StatsPrecomputer(provider, List.of(1), clock);
+        LocalDate today = LocalDate.of(2026, 3, 31);
+        LocalDate[] window = window(1, today);
+
+        assertTrue(precomputer.refreshIfStale());
+        assertFalse(precomputer.refreshIfStale());
+        assertEquals(LocalDate.of(2026, 2, 28), window[0]);
+        assertTrue(precomputer.lookup(window[0], window[1]).isPresent());
+
+        // new data: previous results are no longer served, requests fall back to on-demand until recomputed
+        version.incrementAndGet();
+        assertTrue(precomputer.lookup(window[0], window[1]).isEmpty());
+        assertTrue(precomputer.refreshIfStale());
+        assertTrue(precomputer.lookup(window[0], window[1]).isPresent());
+
+        clock.instant = Instant.parse("2026-04-01T00:00:05Z");
+        assertTrue(precomputer.refreshIfStale());
+        LocalDate[] next = window(1, today.plusDays(1));
+        assertTrue(precomputer.lookup(window[0], window[1]).isEmpty());
+        assertEquals("ETH", precomputer.lookup(next[0], next[1]).orElseThrow().top().symbol());
+        assertEquals(3, precomputer.refreshes());
+    }
+
+    @Test
+    void testPartialWindowsAreNotPublished() {
+        when(dataProvider.getPaginatedStats(eq(0), eq(Integer.MAX_VALUE), eq("normalizedRange_desc"), any(), any(),
+                eq(3))).thenReturn(new PaginatedResult<>(List.of(), 0, Integer.MAX_VALUE, 0, 0,
+                List.of("shard-1 did not answer")));
+        StatsPrecomputer precomputer = new StatsPrecomputer(provider, List.of(1, 3), Clock.systemUTC());
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        precomputer.refresh();
+
+        assertTrue(precomputer.lookup(window(1, today)[0], window(1, today)[1]).isPresent());
+        assertTrue(precomputer.lookup(window(3, today)[0], window(3, today)[1]).isEmpty());
+    }
+
+    @Test
+    void testBackgroundChecksPrecompute() throws InterruptedException {
+        try (StatsPrecomputer precomputer = new StatsPrecomputer(provider, List.of(1), Clock.systemUTC())) {
+            precomputer.start(Duration.ofMillis(10));
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (precomputer.refreshes() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, precomputer.refreshes());
+            Thread.sleep(50);
+            assertEquals(1, precomputer.refreshes());
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}